@@ -0,0 +1,117 @@
+package com.github.ianflett.jlox;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares throughput of {@link Backend}s. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BackendBenchmark {
+
+    /** Number of generated statements in script. */
+    private static final int STATEMENTS = 1_000;
+
+    /** Shape of script to benchmark. */
+    @Param({"arithmetic", "variables"})
+    public String script;
+
+    /** Parsed script. */
+    private List<Stmt> statements;
+
+    /** Compiled script. */
+    private Chunk chunk;
+
+    /** Linearised script. */
+    private FlatCode flatCode;
+
+    /** Tree-walking backend. */
+    private Interpreter interpreter;
+
+    /** Bytecode backend. */
+    private VirtualMachine virtualMachine;
+
+    /** Non-recursive backend. */
+    private FlatInterpreter flatInterpreter;
+
+    /** Tree-walking backend compiling statements to JVM bytecode. */
+    private Interpreter jit;
+
+    /** Generates, parses, compiles, and linearises script. */
+    @Setup
+    public void setUp() {
+        var source =
+                switch (script) {
+                    case "arithmetic" -> arithmetic();
+                    case "variables" -> variables();
+                    default -> throw new IllegalArgumentException("Unknown script " + script);
+                };
+
+        statements = new Parser(new Scanner(source).scanTokens()).parse();
+        chunk = Compiler.compile(statements);
+        flatCode = Linearizer.linearize(statements);
+        interpreter = new Interpreter();
+        virtualMachine = new VirtualMachine();
+        flatInterpreter = new FlatInterpreter();
+        jit = new Interpreter();
+        jit.enableJit(1);
+    }
+
+    /** Executes script on {@link Interpreter}. */
+    @Benchmark
+    public void interpreter() {
+        interpreter.interpret(statements);
+    }
+
+    /** Executes precompiled script on {@link VirtualMachine}. */
+    @Benchmark
+    public Object virtualMachine() {
+        return virtualMachine.execute(chunk);
+    }
+
+    /** Executes linearised script on {@link FlatInterpreter}. */
+    @Benchmark
+    public Object flatInterpreter() {
+        return flatInterpreter.execute(flatCode);
+    }
+
+    /** Executes script on {@link Interpreter}, once compiled to JVM bytecode. */
+    @Benchmark
+    public void jit() {
+        jit.interpret(statements);
+    }
+
+    /**
+     * Generates script dominated by arithmetic on block-local variables.
+     *
+     * @return Source text.
+     */
+    private static String arithmetic() {
+        var builder = new StringBuilder("{ var x = 1; var y = 2; var z = 3;\n");
+        for (var i = 0; i < STATEMENTS; ++i) {
+            builder.append("x = (x * 3 + y - z / 7) / 2 - -y;\n");
+        }
+        return builder.append("}\n").toString();
+    }
+
+    /**
+     * Generates script dominated by reading and writing variables across nested scopes.
+     *
+     * @return Source text.
+     */
+    private static String variables() {
+        var builder = new StringBuilder("var a = 1; var b = \"b\"; var c = true;\n{ var d = a;\n");
+        for (var i = 0; i < STATEMENTS; ++i) {
+            builder.append("{ var e = d; d = a; a = e; c = !c; b = b == \"b\" ? b : b; }\n");
+        }
+        return builder.append("}\n").toString();
+    }
+}
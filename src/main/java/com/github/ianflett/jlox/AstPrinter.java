@@ -66,6 +66,87 @@ public String visitVariableExpr(Expr.Variable expr) {
         return expr.name.lexeme();
     }
 
+    /**
+     * Represents variable expression proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to represent.
+     * @return {@link String} representation of expression.
+     */
+    @Override
+    public String visitInitializedExpr(Expr.Initialized expr) {
+        return expr.name.lexeme();
+    }
+
+    /**
+     * Represents fused binary operation on variable and literal as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to represent.
+     * @return {@link String} representation of expression.
+     */
+    @Override
+    public String visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Represents fused binary operation on two variables as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to represent.
+     * @return {@link String} representation of expression.
+     */
+    @Override
+    public String visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Represents fused assignment as assignment it replaced.
+     *
+     * @param expr {@link Expr}ession to represent.
+     * @return {@link String} representation of expression.
+     */
+    @Override
+    public String visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Collects callee and arguments of call, in order.
+     *
+     * @param expr Call {@link Expr}ession.
+     * @return Callee followed by argument {@link Expr}essions.
+     */
+    static Expr[] callAndArguments(Expr.Call expr) {
+        var children = new Expr[1 + expr.arguments.size()];
+        children[0] = expr.callee;
+        for (var i = 0; i < expr.arguments.size(); ++i) {
+            children[1 + i] = expr.arguments.get(i);
+        }
+        return children;
+    }
+
+    /**
+     * Names call, distinguishing call in tail position.
+     *
+     * @param expr Call {@link Expr}ession.
+     * @return {@code tailcall} if call is in tail position; otherwise {@code call}.
+     */
+    static String callName(Expr.Call expr) {
+        return expr.tail ? "tailcall" : "call";
+    }
+
+    /**
+     * Represents literal value; or {@code nil} if {@code null}.
+     *
+     * @param value Value to represent.
+     * @return {@link String} representation of value.
+     */
+    static String literal(Object value) {
+        if (null == value) return "nil";
+        if (value instanceof Number number) return Numbers.toString(number);
+        return value.toString();
+    }
+
     /** Represents abstract syntax tree in Lisp form. */
     static class Lisp extends AstPrinter {
 
@@ -81,6 +162,18 @@ public String visitBinaryExpr(Expr.Binary expr) {
             return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitCallExpr(Expr.Call expr) {
+            return parenthesize(callName(expr), callAndArguments(expr));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitConcatenationExpr(Expr.Concatenation expr) {
+            return parenthesize("+", expr.operands.toArray(Expr[]::new));
+        }
+
         /** {@inheritDoc} */
         @Override
         public String visitConditionalExpr(Expr.Conditional expr) {
@@ -93,11 +186,22 @@ public String visitGroupingExpr(Expr.Grouping expr) {
             return parenthesize("group", expr.expression);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitLogicalExpr(Expr.Logical expr) {
+            return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitNumericExpr(Expr.Numeric expr) {
+            return parenthesize(expr.operator.lexeme(), expr.left, expr.right);
+        }
+
         /** {@inheritDoc} */
         @Override
         public String visitLiteralExpr(Expr.Literal expr) {
-            if (null == expr.value) return "nil";
-            return expr.value.toString();
+            return literal(expr.value);
         }
 
         /** {@inheritDoc} */
@@ -142,6 +246,18 @@ public String visitBinaryExpr(Expr.Binary expr) {
             return reverseNotation(expr.operator.lexeme(), expr.left, expr.right);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitCallExpr(Expr.Call expr) {
+            return reverseNotation(callName(expr), callAndArguments(expr));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitConcatenationExpr(Expr.Concatenation expr) {
+            return reverseNotation("+", expr.operands.toArray(Expr[]::new));
+        }
+
         /** {@inheritDoc} */
         @Override
         public String visitConditionalExpr(Expr.Conditional expr) {
@@ -154,11 +270,22 @@ public String visitGroupingExpr(Expr.Grouping expr) {
             return expr.expression.accept(this);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitLogicalExpr(Expr.Logical expr) {
+            return reverseNotation(expr.operator.lexeme(), expr.left, expr.right);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitNumericExpr(Expr.Numeric expr) {
+            return reverseNotation(expr.operator.lexeme(), expr.left, expr.right);
+        }
+
         /** {@inheritDoc} */
         @Override
         public String visitLiteralExpr(Expr.Literal expr) {
-            if (null == expr.value) return "nil";
-            return expr.value.toString();
+            return literal(expr.value);
         }
 
         /** {@inheritDoc} */
@@ -215,6 +342,33 @@ public String visitBinaryExpr(Expr.Binary expr) {
                     processChildNode("└", expr.right));
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitCallExpr(Expr.Call expr) {
+
+            var builder =
+                    new StringBuilder(
+                            String.format("%s%s%n", processIndent(true), callName(expr)));
+            var children = callAndArguments(expr);
+            var last = children.length - 1;
+            for (var i = 0; i <= last; ++i) {
+                builder.append(processChildNode(last == i ? "└" : "├", children[i]));
+            }
+            return builder.toString();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitConcatenationExpr(Expr.Concatenation expr) {
+
+            var builder = new StringBuilder(String.format("%s+%n", processIndent(true)));
+            var last = expr.operands.size() - 1;
+            for (var i = 0; i <= last; ++i) {
+                builder.append(processChildNode(last == i ? "└" : "├", expr.operands.get(i)));
+            }
+            return builder.toString();
+        }
+
         /** {@inheritDoc} */
         @Override
         public String visitConditionalExpr(Expr.Conditional expr) {
@@ -238,10 +392,33 @@ public String visitGroupingExpr(Expr.Grouping expr) {
 
         /** {@inheritDoc} */
         @Override
-        public String visitLiteralExpr(Expr.Literal expr) {
+        public String visitLogicalExpr(Expr.Logical expr) {
 
             return String.format(
-                    "%s%s%n", processIndent(false), (null == expr.value ? "nil" : expr.value));
+                    "%s%s%n%s%s",
+                    processIndent(true),
+                    expr.operator.lexeme(),
+                    processChildNode("├", expr.left),
+                    processChildNode("└", expr.right));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitNumericExpr(Expr.Numeric expr) {
+
+            return String.format(
+                    "%s%s%n%s%s",
+                    processIndent(true),
+                    expr.operator.lexeme(),
+                    processChildNode("├", expr.left),
+                    processChildNode("└", expr.right));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String visitLiteralExpr(Expr.Literal expr) {
+
+            return String.format("%s%s%n", processIndent(false), literal(expr.value));
         }
 
         /** {@inheritDoc} */
@@ -253,6 +430,13 @@ public String visitUnaryExpr(Expr.Unary expr) {
                     processIndent(true), expr.operator.lexeme(), processChildNode("└", expr.right));
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public String visitVariableExpr(Expr.Variable expr) {
+
+            return String.format("%s%s%n", processIndent(false), expr.name.lexeme());
+        }
+
         /**
          * Process indents; can adjust initial bullet for subsequent processing.
          *
@@ -0,0 +1,440 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rewrites abstract syntax tree, rebuilding only nodes whose children changed.
+ *
+ * <p>Subclasses override visitors of nodes they rewrite. Binary expressions are instead rewritten
+ * by {@link #rewriteBinary(Expr.Binary, Expr, Expr)}, those of numbers by {@link
+ * #rewriteNumeric(Expr.Numeric, Expr, Expr)}, and logical ones by {@link
+ * #rewriteLogical(Expr.Logical, Expr)}, as left-deep chains of them are walked iteratively: parser
+ * builds such chains without bound, so they could exhaust stack.
+ */
+abstract class AstTransformer implements Expr.Visitor<Expr>, Stmt.Visitor<Stmt> {
+
+    /**
+     * Transforms {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to transform.
+     * @return Transformed {@link Stmt}s; same {@link List} if none changed.
+     */
+    List<Stmt> transform(List<Stmt> statements) {
+        List<Stmt> transformed = null;
+        for (var i = 0; i < statements.size(); ++i) {
+            var statement = statements.get(i);
+            var result = transform(statement);
+            if (null == transformed && result != statement) {
+                transformed = new ArrayList<>(statements.subList(0, i));
+            }
+            if (null != transformed) transformed.add(result);
+        }
+        return null == transformed ? statements : transformed;
+    }
+
+    /**
+     * Transforms statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    Stmt transform(Stmt stmt) {
+        return stmt.accept(this);
+    }
+
+    /**
+     * Transforms expression.
+     *
+     * @param expr {@link Expr}ession to transform; may be {@code null}.
+     * @return Transformed {@link Expr}ession.
+     */
+    Expr transform(Expr expr) {
+        return null == expr ? null : expr.accept(this);
+    }
+
+    /**
+     * Transforms {@link List} of expressions.
+     *
+     * @param exprs {@link Expr}essions to transform.
+     * @return Transformed {@link Expr}essions; same {@link List} if none changed.
+     */
+    List<Expr> transformAll(List<Expr> exprs) {
+        List<Expr> transformed = null;
+        for (var i = 0; i < exprs.size(); ++i) {
+            var expr = exprs.get(i);
+            var result = transform(expr);
+            if (null == transformed && result != expr) {
+                transformed = new ArrayList<>(exprs.subList(0, i));
+            }
+            if (null != transformed) transformed.add(result);
+        }
+        return null == transformed ? exprs : transformed;
+    }
+
+    /**
+     * Transforms assignment expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        var value = transform(expr.value);
+        return value == expr.value ? expr : new Expr.Assign(expr.name, value);
+    }
+
+    /**
+     * Transforms binary expression and left-deep chain of binary expressions beneath it.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public final Expr visitBinaryExpr(Expr.Binary expr) {
+        var chain = new ArrayDeque<Expr.Binary>();
+        Expr left = expr;
+        while (left instanceof Expr.Binary binary) {
+            chain.push(binary);
+            left = binary.left;
+        }
+
+        left = transform(left);
+        while (!chain.isEmpty()) {
+            var binary = chain.pop();
+            left = rewriteBinary(binary, left, transform(binary.right));
+        }
+        return left;
+    }
+
+    /**
+     * Rewrites binary expression once its operands have been transformed.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @param right Transformed right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+        return left == expr.left && right == expr.right
+                ? expr
+                : new Expr.Binary(left, expr.operator, right);
+    }
+
+    /**
+     * Transforms call expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        var callee = transform(expr.callee);
+        var arguments = transformAll(expr.arguments);
+        return callee == expr.callee && arguments == expr.arguments
+                ? expr
+                : new Expr.Call(callee, expr.paren, arguments, expr.tail);
+    }
+
+    /**
+     * Transforms n-ary concatenation expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConcatenationExpr(Expr.Concatenation expr) {
+        var operands = transformAll(expr.operands);
+        return operands == expr.operands ? expr : new Expr.Concatenation(operands, expr.operators);
+    }
+
+    /**
+     * Transforms conditional expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConditionalExpr(Expr.Conditional expr) {
+        var condition = transform(expr.condition);
+        var thenBranch = transform(expr.thenBranch);
+        var elseBranch = transform(expr.elseBranch);
+        return condition == expr.condition
+                        && thenBranch == expr.thenBranch
+                        && elseBranch == expr.elseBranch
+                ? expr
+                : new Expr.Conditional(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Transforms fused binary operation on variable and literal.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Same {@link Expr}ession.
+     */
+    @Override
+    public Expr visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        return expr;
+    }
+
+    /**
+     * Transforms fused binary operation on two variables.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Same {@link Expr}ession.
+     */
+    @Override
+    public Expr visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        return expr;
+    }
+
+    /**
+     * Transforms fused assignment of binary operation on assigned variable.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        var value = transform(expr.value);
+        return value == expr.value
+                ? expr
+                : new Expr.CompoundAssign(expr.name, expr.operator, value);
+    }
+
+    /**
+     * Transforms variable expression proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Same {@link Expr}ession.
+     */
+    @Override
+    public Expr visitInitializedExpr(Expr.Initialized expr) {
+        return expr;
+    }
+
+    /**
+     * Transforms grouping expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        var expression = transform(expr.expression);
+        return expression == expr.expression ? expr : new Expr.Grouping(expression);
+    }
+
+    /**
+     * Transforms literal expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return expr;
+    }
+
+    /**
+     * Transforms logical expression and left-deep chain of logical expressions beneath it.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public final Expr visitLogicalExpr(Expr.Logical expr) {
+        var chain = new ArrayDeque<Expr.Logical>();
+        Expr left = expr;
+        while (left instanceof Expr.Logical logical) {
+            chain.push(logical);
+            left = logical.left;
+        }
+
+        left = transform(left);
+        while (!chain.isEmpty()) left = rewriteLogical(chain.pop(), left);
+        return left;
+    }
+
+    /**
+     * Transforms right operand of logical expression once its left operand has been transformed,
+     * and rewrites it. Right operand is transformed here, as it is only evaluated if left one does
+     * not decide result.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    Expr rewriteLogical(Expr.Logical expr, Expr left) {
+        var right = transform(expr.right);
+        return left == expr.left && right == expr.right
+                ? expr
+                : new Expr.Logical(left, expr.operator, right);
+    }
+
+    /**
+     * Transforms binary expression of numbers and left-deep chain of them beneath it.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public final Expr visitNumericExpr(Expr.Numeric expr) {
+        var chain = new ArrayDeque<Expr.Numeric>();
+        Expr left = expr;
+        while (left instanceof Expr.Numeric numeric) {
+            chain.push(numeric);
+            left = numeric.left;
+        }
+
+        left = transform(left);
+        while (!chain.isEmpty()) {
+            var numeric = chain.pop();
+            left = rewriteNumeric(numeric, left, transform(numeric.right));
+        }
+        return left;
+    }
+
+    /**
+     * Rewrites binary expression of numbers once its operands have been transformed.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @param right Transformed right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+        return left == expr.left && right == expr.right
+                ? expr
+                : new Expr.Numeric(left, expr.operator, right, expr.speculative);
+    }
+
+    /**
+     * Transforms unary expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        var right = transform(expr.right);
+        return right == expr.right ? expr : new Expr.Unary(expr.operator, right);
+    }
+
+    /**
+     * Transforms variable expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        return expr;
+    }
+
+    /**
+     * Transforms block statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        var statements = transform(stmt.statements);
+        return statements == stmt.statements ? stmt : new Stmt.Block(statements);
+    }
+
+    /**
+     * Transforms expression statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+        var expression = transform(stmt.expression);
+        return expression == stmt.expression ? stmt : new Stmt.Expression(expression);
+    }
+
+    /**
+     * Transforms {@code fun} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        var body = transform(stmt.body);
+        return body == stmt.body ? stmt : new Stmt.Function(stmt.name, stmt.params, body);
+    }
+
+    /**
+     * Transforms {@code if} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        var condition = transform(stmt.condition);
+        var thenBranch = transform(stmt.thenBranch);
+        var elseBranch = null == stmt.elseBranch ? null : transform(stmt.elseBranch);
+        return condition == stmt.condition
+                        && thenBranch == stmt.thenBranch
+                        && elseBranch == stmt.elseBranch
+                ? stmt
+                : new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Transforms {@code print} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitPrintStmt(Stmt.Print stmt) {
+        var expression = transform(stmt.expression);
+        return expression == stmt.expression ? stmt : new Stmt.Print(expression);
+    }
+
+    /**
+     * Transforms {@code return} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitReturnStmt(Stmt.Return stmt) {
+        var value = transform(stmt.value);
+        return value == stmt.value ? stmt : new Stmt.Return(stmt.keyword, value);
+    }
+
+    /**
+     * Transforms {@code var} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        var initializer = transform(stmt.initializer);
+        return initializer == stmt.initializer ? stmt : new Stmt.Var(stmt.name, initializer);
+    }
+
+    /**
+     * Transforms {@code while} statement.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        var condition = transform(stmt.condition);
+        var body = transform(stmt.body);
+        return condition == stmt.condition && body == stmt.body
+                ? stmt
+                : new Stmt.While(condition, body);
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.ianflett.jlox;
+
+import java.util.List;
+
+/** Executes abstract syntax trees produced by {@link Parser}. */
+public interface Backend {
+
+    /** Default maximum number of calls in progress at once. */
+    int DEFAULT_FRAME_BUDGET = 100_000;
+
+    /**
+     * Executes {@link List} of statements, reporting any {@link RuntimeError} via {@link Lox}.
+     *
+     * @param statements {@link Stmt}s to execute.
+     */
+    void interpret(List<Stmt> statements);
+
+    /**
+     * Evaluates single expression.
+     *
+     * @param expr {@link Expr}ession to evaluate.
+     * @return Value of expression.
+     * @throws RuntimeError Expression could not be evaluated.
+     */
+    Object evaluate(Expr expr);
+
+    /**
+     * Limits number of calls in progress at once, beyond which call fails with {@link
+     * RuntimeError}.
+     *
+     * @param budget Maximum number of call frames.
+     * @throws IllegalArgumentException Budget is not positive.
+     */
+    void limitFrames(int budget);
+}
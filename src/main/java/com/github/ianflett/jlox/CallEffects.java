@@ -0,0 +1,182 @@
+package com.github.ianflett.jlox;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Names variables which calls within program may read or assign, so passes following data flow
+ * through program in order may account for them at each call.
+ *
+ * <p>Call runs body of function declared within program, which may access any variable named
+ * within any function body. Names are not resolved, so variables sharing name with parameter or
+ * local of function are assumed accessed too. Function bodies only run when called, so variables
+ * are otherwise unaffected by them. Where globals may have been defined by earlier programs, as
+ * within REPL, call may instead run function those declared, which may access any global, so every
+ * name within program is assumed accessed if program makes any call.
+ *
+ * @param reads Names of variables calls may read.
+ * @param writes Names of variables calls may assign.
+ */
+record CallEffects(Set<String> reads, Set<String> writes) {
+
+    /**
+     * Finds variables which calls within program may read or assign.
+     *
+     * @param statements {@link Stmt}s to examine.
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     * @return {@link CallEffects} of program.
+     */
+    static CallEffects of(List<Stmt> statements, boolean externalGlobals) {
+        var finder = new Finder();
+        finder.transform(statements);
+        if (externalGlobals && finder.calls) {
+            finder.reads.addAll(finder.names);
+            finder.writes.addAll(finder.names);
+        }
+        return new CallEffects(finder.reads, finder.writes);
+    }
+
+    /** Finds variables accessed within function bodies. */
+    private static final class Finder extends AstTransformer {
+
+        /** Stores names read within function bodies. */
+        private final Set<String> reads = new HashSet<>();
+
+        /** Stores names assigned within function bodies. */
+        private final Set<String> writes = new HashSet<>();
+
+        /** Stores every name within program. */
+        private final Set<String> names = new HashSet<>();
+
+        /** Stores whether program makes any call. */
+        private boolean calls = false;
+
+        /** Stores depth of enclosing function bodies. */
+        private int depth = 0;
+
+        /**
+         * Records assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            access(expr.name, writes);
+            return super.visitAssignExpr(expr);
+        }
+
+        /**
+         * Records reads by fused binary operation.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+            access(expr.name, reads);
+            return expr;
+        }
+
+        /**
+         * Records reads by fused binary operation.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+            access(expr.left, reads);
+            access(expr.right, reads);
+            return expr;
+        }
+
+        /**
+         * Records call.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCallExpr(Expr.Call expr) {
+            calls = true;
+            return super.visitCallExpr(expr);
+        }
+
+        /**
+         * Records read and assignment by fused assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+            access(expr.name, reads);
+            access(expr.name, writes);
+            return super.visitCompoundAssignExpr(expr);
+        }
+
+        /**
+         * Records read proven to be initialised.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitInitializedExpr(Expr.Initialized expr) {
+            access(expr.name, reads);
+            return expr;
+        }
+
+        /**
+         * Records read.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitVariableExpr(Expr.Variable expr) {
+            access(expr.name, reads);
+            return expr;
+        }
+
+        /**
+         * Examines function body.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            names.add(stmt.name.lexeme());
+            ++depth;
+            transform(stmt.body);
+            --depth;
+            return stmt;
+        }
+
+        /**
+         * Records declared name.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            names.add(stmt.name.lexeme());
+            return super.visitVarStmt(stmt);
+        }
+
+        /**
+         * Records access of variable, if within function body.
+         *
+         * @param name Variable name.
+         * @param accesses Receives name if accessed within function body.
+         */
+        private void access(Token name, Set<String> accesses) {
+            names.add(name.lexeme());
+            if (0 < depth) accesses.add(name.lexeme());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Stores compiled bytecode alongside its constant pool and line table. */
+final class Chunk {
+
+    /** Initial capacity of {@link #code}. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Largest value representable by instruction operand. */
+    static final int MAX_OPERAND = 0xFFFF;
+
+    /**
+     * Function compiled into its own {@link Chunk}, from which {@link OpCode#CLOSURE} creates
+     * closures called by {@link OpCode#CALL}.
+     *
+     * <p>Compared by identity, so functions of same shape remain distinct constants.
+     */
+    static final class Function {
+
+        /** Stores function name. */
+        final String name;
+
+        /** Stores number of parameters. */
+        final int arity;
+
+        /** Stores number of variables captured from enclosing functions. */
+        final int upvalueCount;
+
+        /** Stores body, whose stack slot {@code 0} holds closure and parameters follow. */
+        final Chunk chunk;
+
+        /**
+         * Constructs {@link Function}.
+         *
+         * @param name Function name.
+         * @param arity Number of parameters.
+         * @param upvalueCount Number of variables captured from enclosing functions.
+         * @param chunk Compiled body.
+         */
+        Function(String name, int arity, int upvalueCount, Chunk chunk) {
+            this.name = name;
+            this.arity = arity;
+            this.upvalueCount = upvalueCount;
+            this.chunk = chunk;
+        }
+
+        /**
+         * Represents function by its name.
+         *
+         * @return {@link String} representation of function.
+         */
+        @Override
+        public String toString() {
+            return "<fn " + name + ">";
+        }
+    }
+
+    /** Stores instructions and operands. */
+    byte[] code = new byte[INITIAL_CAPACITY];
+
+    /** Stores source line number of each byte in {@link #code}. */
+    int[] lines = new int[INITIAL_CAPACITY];
+
+    /** Stores number of bytes used in {@link #code}. */
+    int count = 0;
+
+    /** Stores constant pool. */
+    Object[] constants = new Object[0];
+
+    /** Stores deepest operand stack required to execute chunk. */
+    int maxStack = 0;
+
+    /** Stores constants whilst chunk is being written. */
+    private final List<Object> pool = new ArrayList<>();
+
+    /** Stores index of each constant to avoid duplicates in {@link #pool}. */
+    private final Map<Object, Integer> indices = new HashMap<>();
+
+    /**
+     * Appends byte to chunk.
+     *
+     * @param value Byte to append.
+     * @param line Source line number of byte.
+     */
+    void write(int value, int line) {
+        if (code.length == count) {
+            code = Arrays.copyOf(code, count * 2);
+            lines = Arrays.copyOf(lines, count * 2);
+        }
+
+        code[count] = (byte) value;
+        lines[count] = line;
+        ++count;
+    }
+
+    /**
+     * Appends 16-bit operand to chunk.
+     *
+     * @param value Operand to append.
+     * @param line Source line number of operand.
+     */
+    void writeShort(int value, int line) {
+        write(value >> 8, line);
+        write(value, line);
+    }
+
+    /**
+     * Reads 16-bit operand from chunk.
+     *
+     * @param offset Offset of operand.
+     * @return Operand value.
+     */
+    int readShort(int offset) {
+        return (code[offset] & 0xFF) << 8 | code[offset + 1] & 0xFF;
+    }
+
+    /**
+     * Adds constant to pool, reusing existing entry where possible.
+     *
+     * @param value Constant value.
+     * @return Index of constant within pool; {@code -1} if pool is full.
+     */
+    int addConstant(Object value) {
+        var index = indices.get(value);
+        if (null != index) return index;
+
+        if (MAX_OPERAND < pool.size()) return -1;
+
+        pool.add(value);
+        indices.put(value, pool.size() - 1);
+        return pool.size() - 1;
+    }
+
+    /** Finalises constant pool so chunk can be executed. */
+    void seal() {
+        constants = pool.toArray();
+    }
+}
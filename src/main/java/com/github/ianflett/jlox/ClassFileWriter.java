@@ -0,0 +1,671 @@
+package com.github.ianflett.jlox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes minimal Java class files, sufficient for classes generated by {@link JvmCompiler}.
+ *
+ * <p>Emits class file version 50, whose methods are verified by type inference, so branches need
+ * no stack map frames.
+ */
+final class ClassFileWriter {
+
+    /** Class file version emitted. */
+    private static final int VERSION = 50;
+
+    /** Largest permitted method body in bytes. */
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    /** Declared {@code public}. */
+    static final int ACC_PUBLIC = 0x0001;
+
+    /** Declared {@code private}. */
+    static final int ACC_PRIVATE = 0x0002;
+
+    /** Declared {@code final}. */
+    static final int ACC_FINAL = 0x0010;
+
+    /** Treats superclass methods specially when invoked by {@code invokespecial}. */
+    static final int ACC_SUPER = 0x0020;
+
+    // region Opcodes
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int AASTORE = 0x53;
+    static final int ASTORE = 0x3A;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IF_ACMPEQ = 0xA5;
+    static final int IF_ACMPNE = 0xA6;
+    static final int GOTO = 0xA7;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+    static final int GETSTATIC = 0xB2;
+    static final int GETFIELD = 0xB4;
+    static final int PUTFIELD = 0xB5;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int ANEWARRAY = 0xBD;
+    static final int ATHROW = 0xBF;
+    static final int CHECKCAST = 0xC0;
+
+    // endregion
+
+    /** Stores constant pool entries. */
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    /** Stores index of each constant pool entry, keyed by its contents. */
+    private final Map<String, Integer> poolIndices = new HashMap<>();
+
+    /** Stores next constant pool index. */
+    private int poolCount = 1;
+
+    /** Stores field declarations. */
+    private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+
+    /** Stores number of field declarations. */
+    private int fieldCount = 0;
+
+    /** Stores method declarations. */
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+
+    /** Stores number of method declarations. */
+    private int methodCount = 0;
+
+    /** Stores access flags of class. */
+    private final int access;
+
+    /** Stores constant pool index of class. */
+    private final int thisClass;
+
+    /** Stores constant pool index of superclass. */
+    private final int superClass;
+
+    /** Stores constant pool indices of implemented interfaces. */
+    private final int[] interfaces;
+
+    /**
+     * Constructs {@link ClassFileWriter}.
+     *
+     * @param access Class access flags.
+     * @param name Internal name of class.
+     * @param superName Internal name of superclass.
+     * @param interfaceNames Internal names of implemented interfaces.
+     */
+    ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access;
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        interfaces = Arrays.stream(interfaceNames).mapToInt(this::classRef).toArray();
+    }
+
+    /**
+     * Declares field.
+     *
+     * @param access Field access flags.
+     * @param name Field name.
+     * @param descriptor Field type descriptor.
+     */
+    void field(int access, String name, String descriptor) {
+        var out = new DataOutputStream(fields);
+        write(
+                () -> {
+                    out.writeShort(access);
+                    out.writeShort(utf8(name));
+                    out.writeShort(utf8(descriptor));
+                    out.writeShort(0);
+                });
+        ++fieldCount;
+    }
+
+    /**
+     * Declares method.
+     *
+     * @param access Method access flags.
+     * @param name Method name.
+     * @param descriptor Method type descriptor.
+     * @param code Method body.
+     * @throws IllegalStateException Method body too large.
+     */
+    void method(int access, String name, String descriptor, Code code) {
+        if (MAX_CODE_LENGTH < code.length) {
+            throw new IllegalStateException("Method body too large.");
+        }
+
+        var out = new DataOutputStream(methods);
+        var codeName = utf8("Code");
+        write(
+                () -> {
+                    out.writeShort(access);
+                    out.writeShort(utf8(name));
+                    out.writeShort(utf8(descriptor));
+                    out.writeShort(1);
+
+                    out.writeShort(codeName);
+                    out.writeInt(12 + code.length + 8 * code.handlers.size());
+                    out.writeShort(code.maxStack);
+                    out.writeShort(code.maxLocals);
+                    out.writeInt(code.length);
+                    out.write(code.bytes, 0, code.length);
+                    out.writeShort(code.handlers.size());
+                    for (var handler : code.handlers) {
+                        for (var value : handler) out.writeShort(value);
+                    }
+                    out.writeShort(0);
+                });
+        ++methodCount;
+    }
+
+    /**
+     * Produces class file.
+     *
+     * @return Class file bytes.
+     */
+    byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        write(
+                () -> {
+                    out.writeInt(0xCAFEBABE);
+                    out.writeShort(0);
+                    out.writeShort(VERSION);
+                    out.writeShort(poolCount);
+                    pool.writeTo(out);
+                    out.writeShort(access);
+                    out.writeShort(thisClass);
+                    out.writeShort(superClass);
+                    out.writeShort(interfaces.length);
+                    for (var index : interfaces) out.writeShort(index);
+                    out.writeShort(fieldCount);
+                    fields.writeTo(out);
+                    out.writeShort(methodCount);
+                    methods.writeTo(out);
+                    out.writeShort(0);
+                });
+        return bytes.toByteArray();
+    }
+
+    // region Constant pool
+
+    /**
+     * Adds UTF-8 constant.
+     *
+     * @param value Text.
+     * @return Constant pool index.
+     */
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    /**
+     * Adds integer constant.
+     *
+     * @param value Integer.
+     * @return Constant pool index.
+     */
+    int integer(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(3);
+            out.writeInt(value);
+        });
+    }
+
+    /**
+     * Adds class reference.
+     *
+     * @param name Internal name of class.
+     * @return Constant pool index.
+     */
+    int classRef(String name) {
+        var nameIndex = utf8(name);
+        return constant("C" + name, out -> {
+            out.writeByte(7);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    /**
+     * Adds field reference.
+     *
+     * @param owner Internal name of declaring class.
+     * @param name Field name.
+     * @param descriptor Field type descriptor.
+     * @return Constant pool index.
+     */
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    /**
+     * Adds method reference.
+     *
+     * @param owner Internal name of declaring class.
+     * @param name Method name.
+     * @param descriptor Method type descriptor.
+     * @return Constant pool index.
+     */
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    /**
+     * Adds interface method reference.
+     *
+     * @param owner Internal name of declaring interface.
+     * @param name Method name.
+     * @param descriptor Method type descriptor.
+     * @return Constant pool index.
+     */
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    /**
+     * Adds field or method reference.
+     *
+     * @param tag Constant pool tag.
+     * @param owner Internal name of declaring type.
+     * @param name Member name.
+     * @param descriptor Member type descriptor.
+     * @return Constant pool index.
+     */
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        var ownerIndex = classRef(owner);
+        var nameIndex = utf8(name);
+        var descriptorIndex = utf8(descriptor);
+        var nameAndType =
+                constant("N" + name + ' ' + descriptor, out -> {
+                    out.writeByte(12);
+                    out.writeShort(nameIndex);
+                    out.writeShort(descriptorIndex);
+                });
+        return constant(tag + owner + '.' + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    /**
+     * Adds constant pool entry unless already present.
+     *
+     * @param key Uniquely identifies entry.
+     * @param entry Writes entry.
+     * @return Constant pool index.
+     */
+    private int constant(String key, Entry entry) {
+        var index = poolIndices.get(key);
+        if (null != index) return index;
+
+        var out = new DataOutputStream(pool);
+        write(() -> entry.write(out));
+        poolIndices.put(key, poolCount);
+        return poolCount++;
+    }
+
+    // endregion
+
+    /**
+     * Creates method body builder.
+     *
+     * @param maxLocals Number of local variable slots, including parameters.
+     * @return {@link Code}.
+     */
+    Code code(int maxLocals) {
+        return new Code(maxLocals);
+    }
+
+    /**
+     * Performs write to in-memory stream.
+     *
+     * @param action Writes data.
+     */
+    private static void write(Action action) {
+        try {
+            action.write();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /** Writes to in-memory stream. */
+    @FunctionalInterface
+    private interface Action {
+        void write() throws IOException;
+    }
+
+    /** Writes constant pool entry. */
+    @FunctionalInterface
+    private interface Entry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Builds method body, tracking operand stack depth. */
+    final class Code {
+
+        /** Stores instructions. */
+        private byte[] bytes = new byte[256];
+
+        /** Stores number of bytes used in {@link #bytes}. */
+        private int length = 0;
+
+        /** Stores operand stack depth at current instruction. */
+        private int stack = 0;
+
+        /** Stores deepest operand stack. */
+        private int maxStack = 0;
+
+        /** Stores number of local variable slots. */
+        private int maxLocals;
+
+        /** Stores exception handlers as start, end, handler, and catch type. */
+        private final List<int[]> handlers = new ArrayList<>();
+
+        /**
+         * Constructs {@link Code}.
+         *
+         * @param maxLocals Number of local variable slots, including parameters.
+         */
+        private Code(int maxLocals) {
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * Gets offset of next instruction.
+         *
+         * @return Offset.
+         */
+        int position() {
+            return length;
+        }
+
+        /**
+         * Reserves local variable slot.
+         *
+         * @return Slot index.
+         */
+        int newLocal() {
+            return maxLocals++;
+        }
+
+        /**
+         * Emits instruction without operands.
+         *
+         * @param opcode Instruction.
+         * @param stackEffect Net number of values pushed.
+         */
+        void op(int opcode, int stackEffect) {
+            put(opcode);
+            adjust(stackEffect);
+        }
+
+        /**
+         * Emits {@code aload}.
+         *
+         * @param slot Local variable slot.
+         */
+        void aload(int slot) {
+            put(ALOAD);
+            put(slot);
+            adjust(1);
+        }
+
+        /**
+         * Emits {@code astore}.
+         *
+         * @param slot Local variable slot.
+         */
+        void astore(int slot) {
+            put(ASTORE);
+            put(slot);
+            adjust(-1);
+        }
+
+        /**
+         * Emits most compact instruction pushing integer.
+         *
+         * @param value Integer.
+         */
+        void iconst(int value) {
+            if (-1 <= value && 5 >= value) {
+                put(ICONST_0 + value);
+            } else if (Byte.MIN_VALUE <= value && Byte.MAX_VALUE >= value) {
+                put(BIPUSH);
+                put(value);
+            } else if (Short.MIN_VALUE <= value && Short.MAX_VALUE >= value) {
+                put(SIPUSH);
+                putShort(value);
+            } else {
+                put(LDC_W);
+                putShort(integer(value));
+            }
+            adjust(1);
+        }
+
+        /**
+         * Emits {@code anewarray}, replacing length on stack with new array.
+         *
+         * @param type Internal name of component class.
+         */
+        void anewarray(String type) {
+            put(ANEWARRAY);
+            putShort(classRef(type));
+        }
+
+        /**
+         * Emits {@code checkcast}.
+         *
+         * @param type Internal name of class.
+         */
+        void checkcast(String type) {
+            put(CHECKCAST);
+            putShort(classRef(type));
+        }
+
+        /**
+         * Emits field access.
+         *
+         * @param opcode {@link #GETSTATIC}, {@link #GETFIELD}, or {@link #PUTFIELD}.
+         * @param owner Internal name of declaring class.
+         * @param name Field name.
+         * @param descriptor Field type descriptor.
+         */
+        void field(int opcode, String owner, String name, String descriptor) {
+            put(opcode);
+            putShort(fieldRef(owner, name, descriptor));
+            adjust(
+                    switch (opcode) {
+                        case GETSTATIC -> 1;
+                        case GETFIELD -> 0;
+                        case PUTFIELD -> -2;
+                        default -> throw new IllegalArgumentException("Unsupported opcode.");
+                    });
+        }
+
+        /**
+         * Emits method invocation.
+         *
+         * @param opcode {@link #INVOKEVIRTUAL}, {@link #INVOKESPECIAL}, {@link #INVOKESTATIC}, or
+         *     {@link #INVOKEINTERFACE}.
+         * @param owner Internal name of declaring type.
+         * @param name Method name.
+         * @param descriptor Method type descriptor.
+         */
+        void invoke(int opcode, String owner, String name, String descriptor) {
+            var arguments = argumentSlots(descriptor) + (INVOKESTATIC == opcode ? 0 : 1);
+            put(opcode);
+            if (INVOKEINTERFACE == opcode) {
+                putShort(interfaceMethodRef(owner, name, descriptor));
+                put(arguments);
+                put(0);
+            } else {
+                putShort(methodRef(owner, name, descriptor));
+            }
+            adjust(returnSlots(descriptor) - arguments);
+        }
+
+        /**
+         * Emits forward branch, to be resolved by {@link #bind(int)}.
+         *
+         * @param opcode Branch instruction.
+         * @return Offset of branch instruction.
+         */
+        int branch(int opcode) {
+            var at = length;
+            put(opcode);
+            putShort(0);
+            adjust(branchEffect(opcode));
+            return at;
+        }
+
+        /**
+         * Emits backward branch.
+         *
+         * @param opcode Branch instruction.
+         * @param target Offset of target instruction.
+         */
+        void branch(int opcode, int target) {
+            var at = length;
+            put(opcode);
+            putShort(target - at);
+            adjust(branchEffect(opcode));
+        }
+
+        /**
+         * Resolves forward branch to next instruction.
+         *
+         * @param branch Offset of branch instruction.
+         */
+        void bind(int branch) {
+            var offset = length - branch;
+            bytes[branch + 1] = (byte) (offset >> 8);
+            bytes[branch + 2] = (byte) offset;
+        }
+
+        /**
+         * Sets operand stack depth, where control flow merges from elsewhere.
+         *
+         * @param depth Operand stack depth.
+         */
+        void stack(int depth) {
+            stack = depth;
+            if (maxStack < stack) maxStack = stack;
+        }
+
+        /**
+         * Gets operand stack depth at current instruction.
+         *
+         * @return Operand stack depth.
+         */
+        int stack() {
+            return stack;
+        }
+
+        /**
+         * Registers exception handler catching any exception.
+         *
+         * @param start Offset of first covered instruction.
+         * @param end Offset following last covered instruction.
+         * @param handler Offset of handler.
+         */
+        void tryCatchAll(int start, int end, int handler) {
+            handlers.add(new int[] {start, end, handler, 0});
+        }
+
+        /**
+         * Appends byte.
+         *
+         * @param value Byte.
+         */
+        private void put(int value) {
+            if (bytes.length == length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         * Appends 16-bit value.
+         *
+         * @param value Value.
+         */
+        private void putShort(int value) {
+            put(value >> 8);
+            put(value);
+        }
+
+        /**
+         * Adjusts operand stack depth.
+         *
+         * @param delta Net number of values pushed.
+         */
+        private void adjust(int delta) {
+            stack(stack + delta);
+        }
+
+        /**
+         * Determines effect of branch instruction on operand stack depth.
+         *
+         * @param opcode Branch instruction.
+         * @return Net number of values pushed.
+         */
+        private static int branchEffect(int opcode) {
+            return switch (opcode) {
+                case GOTO -> 0;
+                case IFEQ, IFNE -> -1;
+                case IF_ACMPEQ, IF_ACMPNE -> -2;
+                default -> throw new IllegalArgumentException("Unsupported branch.");
+            };
+        }
+
+        /**
+         * Counts operand stack slots occupied by method arguments.
+         *
+         * @param descriptor Method type descriptor.
+         * @return Number of slots.
+         */
+        private static int argumentSlots(String descriptor) {
+            var slots = 0;
+            for (var i = 1; ')' != descriptor.charAt(i); ++i) {
+                var type = descriptor.charAt(i);
+                while ('[' == type) type = descriptor.charAt(++i);
+                if ('L' == type) i = descriptor.indexOf(';', i);
+                slots += 'J' == type || 'D' == type ? 2 : 1;
+            }
+            return slots;
+        }
+
+        /**
+         * Counts operand stack slots occupied by method result.
+         *
+         * @param descriptor Method type descriptor.
+         * @return Number of slots.
+         */
+        private static int returnSlots(String descriptor) {
+            return switch (descriptor.charAt(descriptor.indexOf(')') + 1)) {
+                case 'V' -> 0;
+                case 'J', 'D' -> 2;
+                default -> 1;
+            };
+        }
+    }
+}
@@ -0,0 +1,623 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates repeated subexpressions once, reading value back from hidden temporary variable.
+ *
+ * <p>Expressions are value numbered: those applying same operation to same-numbered operands share
+ * number, and variable reads are numbered by how many stores to variable precede them, so reads
+ * either side of assignment differ. Expression repeats earlier one of same number if that was
+ * evaluated unconditionally before it within enclosing blocks. Earlier expression then also
+ * stores its value in temporary, declared immediately before its statement. Expressions within
+ * branches and loops are only available within them, and variables stored within loop are
+ * numbered afresh on entering it, as their values may differ on each iteration.
+ *
+ * <p>Temporaries of top-level statement are declared within block enclosing it, so none outlives
+ * its statement as global. Expressions of top-level statement are therefore only available within
+ * it, and those of top-level declaration, which block would hide, are never replaced.
+ *
+ * <p>Call may assign any variable named within function bodies, so is numbered as store to each
+ * of them. Function bodies run only when called, so expressions within them are left as they are.
+ *
+ * <p>Repeating expression which may raise {@link RuntimeError} is still replaced, as earlier one
+ * would already have raised same error. Expressions containing assignments, calls, or
+ * short-circuiting or conditional expressions, are never replaced. Temporaries are named so as not
+ * to be valid identifiers, so cannot clash with variables.
+ */
+final class CommonSubexpressionEliminator {
+
+    /** Prefix of temporary names, which cannot begin identifier. */
+    private static final String TEMPORARY_PREFIX = "$";
+
+    /** Stores number of each distinct operation on numbered operands. */
+    private final Map<Key, Integer> numbers = new HashMap<>();
+
+    /** Stores number of each expression. */
+    private final Map<Expr, Integer> numbering = new IdentityHashMap<>();
+
+    /** Stores first expression of each number which is available to be reused. */
+    private final Map<Integer, Expr> available = new HashMap<>();
+
+    /** Stores numbers made available, in order, so they can be withdrawn on leaving region. */
+    private final List<Integer> made = new ArrayList<>();
+
+    /** Stores number of stores to each variable name. */
+    private final Map<String, Integer> versions = new HashMap<>();
+
+    /** Stores outermost repeated expressions found, with expression each repeats. */
+    private final List<Repeat> repeats = new ArrayList<>();
+
+    /** Stores statement within which each first expression is evaluated. */
+    private final Map<Expr, Stmt> owners = new IdentityHashMap<>();
+
+    /** Stores temporary each reused expression stores its value in. */
+    private final Map<Expr, Token> temporaries = new IdentityHashMap<>();
+
+    /** Stores temporary each repeated expression reads instead. */
+    private final Map<Expr, Token> repeated = new IdentityHashMap<>();
+
+    /** Stores temporaries to declare before each statement. */
+    private final Map<Stmt, List<Token>> declarations = new IdentityHashMap<>();
+
+    /** Stores next unused number. */
+    private int next = 0;
+
+    /** Stores index of first temporary not already declared by earlier elimination. */
+    private int firstTemporary = 0;
+
+    /** Stores names of variables calls may assign. */
+    private final Set<String> called;
+
+    /**
+     * Constructs {@link CommonSubexpressionEliminator}.
+     *
+     * @param called Names of variables calls may assign.
+     */
+    private CommonSubexpressionEliminator(Set<String> called) {
+        this.called = called;
+    }
+
+    /**
+     * Eliminates common subexpressions within program.
+     *
+     * @param statements {@link Stmt}s to rewrite.
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     * @return Rewritten {@link Stmt}s.
+     */
+    static List<Stmt> eliminate(List<Stmt> statements, boolean externalGlobals) {
+        var called = CallEffects.of(statements, externalGlobals).writes();
+        var eliminator = new CommonSubexpressionEliminator(called);
+        eliminator.new Numberer().transform(statements);
+        if (eliminator.repeats.isEmpty()) return statements;
+
+        eliminator.assignTemporaries();
+        return eliminator.new Rewriter().transform(statements);
+    }
+
+    /** Assigns temporary to each expression which is repeated. */
+    private void assignTemporaries() {
+        for (var repeat : repeats) {
+            var temporary =
+                    temporaries.computeIfAbsent(
+                            repeat.first(),
+                            first -> {
+                                var name =
+                                        TEMPORARY_PREFIX + (firstTemporary + temporaries.size());
+                                var token =
+                                        new Token(TokenType.IDENTIFIER, name, null, line(first));
+                                declarations
+                                        .computeIfAbsent(owners.get(first), s -> new ArrayList<>())
+                                        .add(token);
+                                return token;
+                            });
+            repeated.put(repeat.expr(), temporary);
+        }
+    }
+
+    /**
+     * Numbers operation.
+     *
+     * @param kind Type of {@link Expr}ession.
+     * @param operator Type of operator applied, if any.
+     * @param operands Numbers or values of operands.
+     * @return Number shared by all such operations.
+     */
+    private int number(Class<? extends Expr> kind, Object operator, Object... operands) {
+        var key = new Key(kind, operator, Arrays.asList(operands));
+        return numbers.computeIfAbsent(key, k -> next++);
+    }
+
+    /**
+     * Finds line of expression's operator.
+     *
+     * @param expr {@link Expr}ession.
+     * @return Line number.
+     */
+    private static int line(Expr expr) {
+        return switch (expr) {
+            case Expr.Binary binary -> binary.operator.line();
+            case Expr.Concatenation concatenation -> concatenation.operators.getFirst().line();
+            case Expr.Numeric numeric -> numeric.operator.line();
+            case Expr.Unary unary -> unary.operator.line();
+            default -> 0;
+        };
+    }
+
+    /**
+     * Identifies operation by its kind, operator, and numbers or values of its operands.
+     *
+     * @param kind Type of {@link Expr}ession.
+     * @param operator Type of operator applied, if any.
+     * @param operands Numbers or values of operands.
+     */
+    private record Key(Class<? extends Expr> kind, Object operator, List<Object> operands) {}
+
+    /**
+     * Pairs repeated expression with expression it repeats.
+     *
+     * @param expr Repeated {@link Expr}ession.
+     * @param first First {@link Expr}ession of same number.
+     */
+    private record Repeat(Expr expr, Expr first) {}
+
+    /** Numbers expressions in evaluation order, finding those which repeat earlier ones. */
+    private final class Numberer extends AstTransformer {
+
+        /** Stores number of repeats found before each expression being numbered. */
+        private final ArrayDeque<Integer> marks = new ArrayDeque<>();
+
+        /** Stores names declared within each enclosing block. */
+        private final ArrayDeque<Set<String>> declared = new ArrayDeque<>();
+
+        /** Stores statement being numbered. */
+        private Stmt statement;
+
+        /** Whether expressions of statement being numbered may be reused. */
+        private boolean reusable = true;
+
+        /**
+         * Numbers statements, noting which each expression belongs to.
+         *
+         * @param statements {@link Stmt}s to number.
+         * @return Same {@link Stmt}s.
+         */
+        @Override
+        List<Stmt> transform(List<Stmt> statements) {
+            var enclosing = statement;
+            for (var stmt : statements) {
+                statement = stmt;
+                if (null != enclosing) {
+                    transform(stmt);
+                    continue;
+                }
+
+                var mark = made.size();
+                reusable = !(stmt instanceof Stmt.Var);
+                transform(stmt);
+                reusable = true;
+                withdraw(mark);
+            }
+            statement = enclosing;
+            return statements;
+        }
+
+        /**
+         * Numbers expression once its operands are numbered.
+         *
+         * @param expr {@link Expr}ession to number; may be {@code null}.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr transform(Expr expr) {
+            if (null == expr) return null;
+
+            marks.push(repeats.size());
+            super.transform(expr);
+            var mark = marks.pop();
+            switch (expr) {
+                case Expr.Binary ignored -> {} // Numbered by rewriteBinary.
+                case Expr.Concatenation concatenation -> {
+                    var operands = concatenation.operands.stream().map(numbering::get).toArray();
+                    offer(expr, number(Expr.Concatenation.class, null, operands), mark);
+                }
+                case Expr.Grouping grouping ->
+                        numbering.put(expr, numbering.get(grouping.expression));
+                case Expr.Literal literal ->
+                        numbering.put(expr, number(Expr.Literal.class, null, literal.value));
+                case Expr.Numeric ignored -> {} // Numbered by rewriteNumeric.
+                case Expr.Unary unary -> {
+                    var right = numbering.get(unary.right);
+                    var type = unary.operator.type();
+                    offer(expr, number(Expr.Unary.class, type, right), mark);
+                }
+                case Expr.Variable variable -> {
+                    var name = variable.name.lexeme();
+                    var version = versions.getOrDefault(name, 0);
+                    numbering.put(expr, number(Expr.Variable.class, name, version));
+                }
+                default -> numbering.put(expr, next++);
+            }
+            return expr;
+        }
+
+        /**
+         * Numbers binary expression once its operands are numbered.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Numbered left operand.
+         * @param right Numbered right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            if (TokenType.COMMA == expr.operator.type()) {
+                numbering.put(expr, next++);
+                return expr;
+            }
+
+            var type = expr.operator.type();
+            var number = number(Expr.Binary.class, type, numbering.get(left), numbering.get(right));
+            // Chain shares mark of its topmost expression, which precedes all of it.
+            offer(expr, number, marks.element());
+            return expr;
+        }
+
+        /**
+         * Numbers binary expression of numbers once its operands are numbered.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Numbered left operand.
+         * @param right Numbered right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            var type = expr.operator.type();
+            var number =
+                    number(Expr.Numeric.class, type, numbering.get(left), numbering.get(right));
+            offer(expr, number, marks.element());
+            return expr;
+        }
+
+        /**
+         * Numbers assignment, after which variable's reads are numbered differently.
+         *
+         * @param expr {@link Expr}ession to number.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            super.visitAssignExpr(expr);
+            store(expr.name.lexeme());
+            return expr;
+        }
+
+        /**
+         * Numbers call, after which reads of variables it may assign are numbered differently.
+         *
+         * @param expr {@link Expr}ession to number.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCallExpr(Expr.Call expr) {
+            super.visitCallExpr(expr);
+            called.forEach(this::store);
+            return expr;
+        }
+
+        /**
+         * Numbers conditional expression, withdrawing expressions only evaluated in branches.
+         *
+         * @param expr {@link Expr}ession to number.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitConditionalExpr(Expr.Conditional expr) {
+            transform(expr.condition);
+            var mark = made.size();
+            transform(expr.thenBranch);
+            withdraw(mark);
+            transform(expr.elseBranch);
+            withdraw(mark);
+            return expr;
+        }
+
+        /**
+         * Numbers right operand of logical expression, withdrawing expressions only evaluated
+         * within it.
+         *
+         * @param expr {@link Expr}ession to number.
+         * @param left Numbered left operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteLogical(Expr.Logical expr, Expr left) {
+            var mark = made.size();
+            transform(expr.right);
+            withdraw(mark);
+            return expr;
+        }
+
+        /**
+         * Numbers block statement, withdrawing expressions evaluated within it on leaving it.
+         *
+         * @param stmt {@link Stmt} to number.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            var mark = made.size();
+            declared.push(new HashSet<>());
+            transform(stmt.statements);
+
+            // Names declared within block refer to enclosing variables once it ends.
+            declared.pop().forEach(this::store);
+            withdraw(mark);
+            return stmt;
+        }
+
+        /**
+         * Numbers function declaration, leaving its body, which only runs when called.
+         *
+         * @param stmt {@link Stmt} to number.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            store(stmt.name.lexeme());
+            if (!declared.isEmpty()) declared.element().add(stmt.name.lexeme());
+            return stmt;
+        }
+
+        /**
+         * Numbers {@code if} statement, withdrawing expressions only evaluated in branches.
+         *
+         * @param stmt {@link Stmt} to number.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitIfStmt(Stmt.If stmt) {
+            transform(stmt.condition);
+            var mark = made.size();
+            transform(stmt.thenBranch);
+            withdraw(mark);
+            if (null != stmt.elseBranch) {
+                transform(stmt.elseBranch);
+                withdraw(mark);
+            }
+            return stmt;
+        }
+
+        /**
+         * Numbers {@code while} statement, withdrawing expressions evaluated within it on leaving
+         * it.
+         *
+         * @param stmt {@link Stmt} to number.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitWhileStmt(Stmt.While stmt) {
+            // Reads within loop of variables it stores may follow stores of earlier iterations.
+            var stores = new Stores();
+            stores.transform(stmt);
+            stores.names.forEach(this::store);
+
+            var mark = made.size();
+            transform(stmt.condition);
+            transform(stmt.body);
+            withdraw(mark);
+            return stmt;
+        }
+
+        /**
+         * Numbers variable declaration, after which variable's reads are numbered differently.
+         *
+         * @param stmt {@link Stmt} to number.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            transform(stmt.initializer);
+            store(stmt.name.lexeme());
+            if (!declared.isEmpty()) declared.element().add(stmt.name.lexeme());
+            reserve(stmt.name.lexeme());
+            return stmt;
+        }
+
+        /**
+         * Avoids reusing name of temporary declared by earlier elimination.
+         *
+         * @param name Declared variable name.
+         */
+        private void reserve(String name) {
+            if (!name.startsWith(TEMPORARY_PREFIX)) return;
+            var index = Integer.parseInt(name.substring(TEMPORARY_PREFIX.length()));
+            firstTemporary = Math.max(firstTemporary, index + 1);
+        }
+
+        /**
+         * Numbers expression which may repeat earlier one.
+         *
+         * @param expr {@link Expr}ession to number.
+         * @param number Number of expression.
+         * @param mark Number of repeats found before expression was numbered.
+         */
+        private void offer(Expr expr, int number, int mark) {
+            numbering.put(expr, number);
+            if (!reusable) return;
+
+            var first = available.get(number);
+            if (null == first) {
+                available.put(number, expr);
+                made.add(number);
+                owners.put(expr, statement);
+                return;
+            }
+
+            // Repeats within repeated expression are not evaluated.
+            repeats.subList(mark, repeats.size()).clear();
+            repeats.add(new Repeat(expr, first));
+        }
+
+        /**
+         * Records store to variable.
+         *
+         * @param name Variable name.
+         */
+        private void store(String name) {
+            versions.merge(name, 1, Integer::sum);
+        }
+
+        /**
+         * Withdraws expressions made available since mark.
+         *
+         * @param mark Number of expressions made available before region.
+         */
+        private void withdraw(int mark) {
+            var withdrawn = made.subList(mark, made.size());
+            withdrawn.forEach(available::remove);
+            withdrawn.clear();
+        }
+    }
+
+    /** Finds names of variables assigned within statement, including by calls. */
+    private final class Stores extends AstTransformer {
+
+        /** Stores names assigned. */
+        private final Set<String> names = new HashSet<>();
+
+        /**
+         * Records assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            names.add(expr.name.lexeme());
+            return super.visitAssignExpr(expr);
+        }
+
+        /**
+         * Records call.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCallExpr(Expr.Call expr) {
+            names.addAll(called);
+            return super.visitCallExpr(expr);
+        }
+    }
+
+    /** Rewrites expressions to store values in, and read them back from, temporaries. */
+    private final class Rewriter extends AstTransformer {
+
+        /** Whether statements being rewritten are nested within another statement. */
+        private boolean nested = false;
+
+        /**
+         * Rewrites statements, declaring temporaries before statements first storing to them, and
+         * within block enclosing statement if top-level.
+         *
+         * @param statements {@link Stmt}s to rewrite.
+         * @return Rewritten {@link Stmt}s.
+         */
+        @Override
+        List<Stmt> transform(List<Stmt> statements) {
+            var global = !nested;
+            nested = true;
+            var rewritten = new ArrayList<Stmt>(statements.size());
+            var changed = false;
+            for (var statement : statements) {
+                var scope = global ? new ArrayList<Stmt>() : rewritten;
+                for (var temporary : declarations.getOrDefault(statement, List.of())) {
+                    scope.add(new Stmt.Var(temporary, null));
+                    changed = true;
+                }
+                var result = transform(statement);
+                changed |= result != statement;
+                if (global && !scope.isEmpty()) {
+                    scope.add(result);
+                    result = new Stmt.Block(scope);
+                }
+                rewritten.add(result);
+            }
+            nested = !global;
+            return changed ? rewritten : statements;
+        }
+
+        /**
+         * Rewrites expression.
+         *
+         * @param expr {@link Expr}ession to rewrite; may be {@code null}.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr transform(Expr expr) {
+            if (null == expr) return null;
+
+            var temporary = repeated.get(expr);
+            if (null != temporary) return new Expr.Variable(temporary);
+
+            var result = super.transform(expr);
+            return expr instanceof Expr.Binary || expr instanceof Expr.Numeric
+                    ? result
+                    : store(expr, result);
+        }
+
+        /**
+         * Rewrites binary expression within chain.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Rewritten left operand.
+         * @param right Rewritten right operand.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            var temporary = repeated.get(expr);
+            if (null != temporary) return new Expr.Variable(temporary);
+
+            return store(expr, super.rewriteBinary(expr, left, right));
+        }
+
+        /**
+         * Rewrites binary expression of numbers within chain.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Rewritten left operand.
+         * @param right Rewritten right operand.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            var temporary = repeated.get(expr);
+            if (null != temporary) return new Expr.Variable(temporary);
+
+            return store(expr, super.rewriteNumeric(expr, left, right));
+        }
+
+        /**
+         * Stores value of expression in its temporary, if it has one.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param result Rewritten {@link Expr}ession.
+         * @return Rewritten {@link Expr}ession, storing its value if reused.
+         */
+        private Expr store(Expr expr, Expr result) {
+            var temporary = temporaries.get(expr);
+            return null == temporary ? result : new Expr.Assign(temporary, result);
+        }
+    }
+}
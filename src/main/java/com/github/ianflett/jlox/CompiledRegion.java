@@ -0,0 +1,13 @@
+package com.github.ianflett.jlox;
+
+/** Represents statement compiled to JVM bytecode by {@link JvmCompiler}. */
+interface CompiledRegion {
+
+    /**
+     * Executes compiled statement.
+     *
+     * @param interpreter {@link Interpreter} whose state statement operates on.
+     * @throws RuntimeError Error encountered during execution.
+     */
+    void execute(Interpreter interpreter);
+}
@@ -0,0 +1,841 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles abstract syntax tree into {@link Chunk} of bytecode for {@link VirtualMachine}.
+ *
+ * <p>Function reads variables of enclosing functions through upvalues, which capture only locals
+ * it references. Captured locals are closed over as scope declaring them ends.
+ */
+final class Compiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+
+    /** Thrown when compilation error encountered. */
+    static class CompileError extends RuntimeException {
+
+        /** Identifies serialised form of class. */
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Represents local variable held in stack slot.
+     *
+     * @param name Variable name.
+     * @param depth Scope depth at which variable was declared.
+     * @param checked Whether variable may be read before being initialised.
+     * @param captured Whether variable is captured by closure.
+     */
+    private record Local(String name, int depth, boolean checked, boolean captured) {}
+
+    /**
+     * Represents variable of enclosing function captured by function being compiled.
+     *
+     * @param index Stack slot of enclosing function's local, or index of its upvalue.
+     * @param local Whether enclosing function's local is captured.
+     */
+    private record Upvalue(int index, boolean local) {}
+
+    /** Stores compiler of enclosing function; {@code null} if outermost. */
+    private final Compiler enclosing;
+
+    /** Stores {@link Chunk} being written. */
+    private final Chunk chunk = new Chunk();
+
+    /** Stores local variables in stack slot order. */
+    private final List<Local> locals = new ArrayList<>();
+
+    /** Stores variables captured from enclosing functions, in upvalue index order. */
+    private final List<Upvalue> upvalues = new ArrayList<>();
+
+    /** Stores current block nesting; {@code 0} represents global scope. */
+    private int scopeDepth = 0;
+
+    /** Stores operand stack depth at current instruction. */
+    private int stackDepth = 0;
+
+    /** Stores source line number attributed to emitted bytes. */
+    private int line = 0;
+
+    /**
+     * Prevents instantiation outside {@code compile} methods.
+     *
+     * @param enclosing Compiler of enclosing function; {@code null} if outermost.
+     */
+    private Compiler(Compiler enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * Compiles {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to compile.
+     * @return Executable {@link Chunk}.
+     * @throws CompileError Statements exceed limits of bytecode.
+     */
+    static Chunk compile(List<Stmt> statements) {
+        var compiler = new Compiler(null);
+        for (var statement : statements) {
+            statement.accept(compiler);
+        }
+        return compiler.finish();
+    }
+
+    /**
+     * Compiles single expression, which is left on stack when executed.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return Executable {@link Chunk}.
+     * @throws CompileError Expression exceeds limits of bytecode.
+     */
+    static Chunk compile(Expr expr) {
+        var compiler = new Compiler(null);
+        expr.accept(compiler);
+        return compiler.finish();
+    }
+
+    /**
+     * Compiles function body into its own {@link Chunk}, which returns {@code nil} if body ends
+     * without returning, and emits instruction creating its closure.
+     *
+     * <p>Body's stack slot {@code 0} holds closure called, followed by its parameters, so body
+     * sees its parameters and locals relative to its frame, variables it captures and globals.
+     *
+     * @param stmt Function declaration {@link Stmt}.
+     * @throws CompileError Function exceeds limits of bytecode.
+     */
+    private void closure(Stmt.Function stmt) {
+        var compiler = new Compiler(this);
+        compiler.line = stmt.name.line();
+        compiler.scopeDepth = 1;
+        compiler.locals.add(new Local("", 1, false, false));
+        for (var param : stmt.params) {
+            compiler.locals.add(new Local(param.lexeme(), 1, false, false));
+        }
+        compiler.stackDepth = compiler.locals.size();
+        compiler.chunk.maxStack = compiler.stackDepth;
+
+        for (var statement : stmt.body) {
+            statement.accept(compiler);
+        }
+        compiler.emit(OpCode.NIL, 1);
+        var function =
+                new Chunk.Function(
+                        stmt.name.lexeme(),
+                        stmt.params.size(),
+                        compiler.upvalues.size(),
+                        compiler.finish());
+
+        line = stmt.name.line();
+        emit(OpCode.CLOSURE, 1);
+        emitShort(makeConstant(function));
+        for (var upvalue : compiler.upvalues) {
+            chunk.write(upvalue.local() ? 1 : 0, line);
+            emitShort(upvalue.index());
+        }
+    }
+
+    /**
+     * Compiles assignment expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        expr.value.accept(this);
+        line = expr.name.line();
+
+        var slot = resolveLocal(expr.name.lexeme());
+        var upvalue = -1 == slot ? resolveUpvalue(expr.name.lexeme()) : -1;
+        if (-1 != slot) {
+            emit(OpCode.SET_LOCAL, 0);
+            emitShort(slot);
+        } else if (-1 != upvalue) {
+            emit(OpCode.SET_UPVALUE, 0);
+            emitShort(upvalue);
+        } else {
+            emit(OpCode.SET_GLOBAL, 0);
+            emitShort(makeConstant(expr.name.lexeme()));
+        }
+        return null;
+    }
+
+    /**
+     * Compiles binary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        expr.left.accept(this);
+
+        // Sequence expressions discard both operands, mirroring Interpreter.
+        if (TokenType.COMMA == expr.operator.type()) {
+            emit(OpCode.POP, -1);
+            expr.right.accept(this);
+            emit(OpCode.POP, -1);
+            emit(OpCode.NIL, 1);
+            return null;
+        }
+
+        expr.right.accept(this);
+        line = expr.operator.line();
+
+        emit(
+                switch (expr.operator.type()) {
+                    case BANG_EQUAL -> OpCode.NOT_EQUAL;
+                    case EQUAL_EQUAL -> OpCode.EQUAL;
+                    case GREATER -> OpCode.GREATER;
+                    case GREATER_EQUAL -> OpCode.GREATER_EQUAL;
+                    case LESS -> OpCode.LESS;
+                    case LESS_EQUAL -> OpCode.LESS_EQUAL;
+                    case MINUS -> OpCode.SUBTRACT;
+                    case PLUS -> OpCode.ADD;
+                    case SLASH -> OpCode.DIVIDE;
+                    case STAR -> OpCode.MULTIPLY;
+                    default -> throw new IllegalStateException("Unexpected binary operator.");
+                },
+                -1);
+        return null;
+    }
+
+    /**
+     * Compiles call expression, evaluating callee and then arguments in order.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        expr.callee.accept(this);
+        for (var argument : expr.arguments) {
+            argument.accept(this);
+        }
+        line = expr.paren.line();
+
+        // Outermost code has no frame to reuse.
+        emit(
+                expr.tail && null != enclosing ? OpCode.TAIL_CALL : OpCode.CALL,
+                -expr.arguments.size());
+        emitShort(expr.arguments.size());
+        return null;
+    }
+
+    /**
+     * Compiles n-ary concatenation expression as successive additions.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConcatenationExpr(Expr.Concatenation expr) {
+        expr.operands.getFirst().accept(this);
+        for (var i = 1; i < expr.operands.size(); ++i) {
+            expr.operands.get(i).accept(this);
+            line = expr.operators.get(i - 1).line();
+            emit(OpCode.ADD, -1);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles conditional expression, jumping over branch not selected.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConditionalExpr(Expr.Conditional expr) {
+        expr.condition.accept(this);
+        var elseJump = emitJump(OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP, -1);
+        expr.thenBranch.accept(this);
+        var endJump = emitJump(OpCode.JUMP);
+
+        // Condition remains on stack where then branch's value would be.
+        patchJump(elseJump);
+        emit(OpCode.POP, -1);
+        expr.elseBranch.accept(this);
+        patchJump(endJump);
+        return null;
+    }
+
+    /**
+     * Compiles fused binary operation on variable and literal as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles fused binary operation on two variables as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles fused assignment as assignment it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles variable expression proven to be initialised, so read without checks.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitInitializedExpr(Expr.Initialized expr) {
+        line = expr.name.line();
+
+        var slot = resolveLocal(expr.name.lexeme());
+        if (-1 != slot) {
+            emit(OpCode.GET_LOCAL, 1);
+            emitShort(slot);
+        } else if (!getUpvalue(expr.name.lexeme())) {
+            emit(OpCode.GET_GLOBAL_DEFINED, 1);
+            emitShort(makeConstant(expr.name.lexeme()));
+        }
+        return null;
+    }
+
+    /**
+     * Compiles grouping expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        expr.expression.accept(this);
+        return null;
+    }
+
+    /**
+     * Compiles literal expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        if (null == expr.value) {
+            emit(OpCode.NIL, 1);
+        } else if (Boolean.TRUE.equals(expr.value)) {
+            emit(OpCode.TRUE, 1);
+        } else if (Boolean.FALSE.equals(expr.value)) {
+            emit(OpCode.FALSE, 1);
+        } else {
+            emit(OpCode.CONSTANT, 1);
+            emitShort(makeConstant(expr.value));
+        }
+        return null;
+    }
+
+    /**
+     * Compiles logical expression, jumping over right operand if left decides result.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        expr.left.accept(this);
+        var endJump =
+                emitJump(
+                        TokenType.OR == expr.operator.type()
+                                ? OpCode.JUMP_IF_TRUE
+                                : OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP, -1);
+        expr.right.accept(this);
+        patchJump(endJump);
+        return null;
+    }
+
+    /**
+     * Compiles binary expression of numbers as any other binary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitNumericExpr(Expr.Numeric expr) {
+        return visitBinaryExpr(new Expr.Binary(expr.left, expr.operator, expr.right));
+    }
+
+    /**
+     * Compiles unary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        expr.right.accept(this);
+        line = expr.operator.line();
+
+        emit(
+                switch (expr.operator.type()) {
+                    case BANG -> OpCode.NOT;
+                    case MINUS -> OpCode.NEGATE;
+                    default -> throw new IllegalStateException("Unexpected unary operator.");
+                },
+                0);
+        return null;
+    }
+
+    /**
+     * Compiles variable expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        line = expr.name.line();
+
+        var slot = resolveLocal(expr.name.lexeme());
+        if (-1 == slot) {
+            if (getUpvalue(expr.name.lexeme())) return null;
+            emit(OpCode.GET_GLOBAL, 1);
+            emitShort(makeConstant(expr.name.lexeme()));
+        } else if (locals.get(slot).checked()) {
+            emit(OpCode.GET_LOCAL_CHECKED, 1);
+            emitShort(slot);
+            emitShort(makeConstant(expr.name.lexeme()));
+        } else {
+            emit(OpCode.GET_LOCAL, 1);
+            emitShort(slot);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles block statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        ++scopeDepth;
+        for (var statement : stmt.statements) {
+            statement.accept(this);
+        }
+        --scopeDepth;
+
+        // Captured locals are closed over as they are discarded.
+        var count = 0;
+        while (!locals.isEmpty() && scopeDepth < locals.getLast().depth()) {
+            if (locals.removeLast().captured()) {
+                pop(count);
+                count = 0;
+                emit(OpCode.CLOSE_UPVALUE, -1);
+            } else {
+                ++count;
+            }
+        }
+        pop(count);
+        return null;
+    }
+
+    /**
+     * Emits instruction discarding values from top of stack.
+     *
+     * @param count Number of values to discard.
+     */
+    private void pop(int count) {
+        if (1 == count) {
+            emit(OpCode.POP, -1);
+        } else if (1 < count) {
+            emit(OpCode.POP_N, -count);
+            emitShort(count);
+        }
+    }
+
+    /**
+     * Compiles expression statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        stmt.expression.accept(this);
+        emit(OpCode.POP, -1);
+        return null;
+    }
+
+    /**
+     * Compiles {@code fun} statement, defining variable bound to closure of function compiled from
+     * it.
+     *
+     * <p>Local function is declared before its body is compiled, so it may call itself.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     * @throws CompileError Too many local variables in scope.
+     */
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        if (0 == scopeDepth || -1 != redeclared(stmt.name.lexeme())) {
+            closure(stmt);
+            define(stmt.name, false);
+        } else {
+            declare(stmt.name, false);
+            closure(stmt);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles {@code if} statement, jumping over branch not selected.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        stmt.condition.accept(this);
+        var elseJump = emitJump(OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP, -1);
+        stmt.thenBranch.accept(this);
+        var endJump = emitJump(OpCode.JUMP);
+
+        // Condition remains on stack when then branch is jumped over.
+        patchJump(elseJump);
+        ++stackDepth;
+        emit(OpCode.POP, -1);
+        if (null != stmt.elseBranch) stmt.elseBranch.accept(this);
+        patchJump(endJump);
+        return null;
+    }
+
+    /**
+     * Compiles {@code print} statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        stmt.expression.accept(this);
+        emit(OpCode.PRINT, -1);
+        return null;
+    }
+
+    /**
+     * Compiles {@code return} statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        if (null != stmt.value) {
+            stmt.value.accept(this);
+        } else {
+            emit(OpCode.NIL, 1);
+        }
+        line = stmt.keyword.line();
+        emit(OpCode.RETURN, -1);
+        return null;
+    }
+
+    /**
+     * Compiles {@code var} statement.
+     *
+     * <p>Initialiser is compiled before variable is declared, so it observes any outer variable of
+     * same name, as {@link Interpreter} does.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        if (null != stmt.initializer) {
+            stmt.initializer.accept(this);
+        } else {
+            emit(OpCode.UNINITIALIZED, 1);
+        }
+        define(stmt.name, null == stmt.initializer);
+        return null;
+    }
+
+    /**
+     * Defines variable bound to value on top of stack, which becomes its slot if local.
+     *
+     * @param token Variable name {@link Token}.
+     * @param checked Whether variable may be read before being initialised.
+     * @throws CompileError Too many local variables in scope.
+     */
+    private void define(Token token, boolean checked) {
+        line = token.line();
+
+        var name = token.lexeme();
+        if (0 == scopeDepth) {
+            emit(OpCode.DEFINE_GLOBAL, -1);
+            emitShort(makeConstant(name));
+            return;
+        }
+
+        var slot = redeclared(name);
+        if (-1 != slot) {
+            if (checked) locals.set(slot, new Local(name, scopeDepth, true, false));
+            emit(OpCode.SET_LOCAL, 0);
+            emitShort(slot);
+            emit(OpCode.POP, -1);
+            return;
+        }
+        declare(token, checked);
+    }
+
+    /**
+     * Finds stack slot of local which redeclaration within current scope rebinds.
+     *
+     * <p>Local captured by closure is not rebound, as closure retains variable it captured; new
+     * local shadows it instead.
+     *
+     * @param name Variable name.
+     * @return Stack slot; {@code -1} if declaration introduces new local.
+     */
+    private int redeclared(String name) {
+        var slot = resolveLocal(name);
+        if (-1 == slot) return -1;
+        var local = locals.get(slot);
+        return scopeDepth == local.depth() && !local.captured() ? slot : -1;
+    }
+
+    /**
+     * Declares new local, whose slot is next on stack.
+     *
+     * @param token Variable name {@link Token}.
+     * @param checked Whether variable may be read before being initialised.
+     * @throws CompileError Too many local variables in scope.
+     */
+    private void declare(Token token, boolean checked) {
+        if (Chunk.MAX_OPERAND < locals.size()) {
+            throw error(token, "Too many local variables in scope.");
+        }
+        locals.add(new Local(token.lexeme(), scopeDepth, checked, false));
+    }
+
+    /**
+     * Compiles {@code while} statement, jumping back to condition after each iteration.
+     *
+     * <p>Block body's local variables occupy same stack slots on each iteration.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        var loopStart = chunk.count;
+        stmt.condition.accept(this);
+        var exitJump = emitJump(OpCode.JUMP_IF_FALSE);
+        emit(OpCode.POP, -1);
+        stmt.body.accept(this);
+        emitLoop(loopStart);
+
+        // Condition remains on stack when loop exits.
+        patchJump(exitJump);
+        ++stackDepth;
+        emit(OpCode.POP, -1);
+        return null;
+    }
+
+    /**
+     * Finds stack slot of innermost local variable with name.
+     *
+     * @param name Variable name.
+     * @return Stack slot; {@code -1} if variable is global.
+     */
+    private int resolveLocal(String name) {
+        for (var i = locals.size() - 1; 0 <= i; --i) {
+            if (locals.get(i).name().equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds upvalue capturing variable of enclosing function, adding upvalue if not yet captured.
+     *
+     * @param name Variable name.
+     * @return Upvalue index; {@code -1} if variable is global.
+     * @throws CompileError Too many variables captured.
+     */
+    private int resolveUpvalue(String name) {
+        if (null == enclosing) return -1;
+
+        var slot = enclosing.resolveLocal(name);
+        if (-1 != slot) {
+            var local = enclosing.locals.get(slot);
+            if (!local.captured()) {
+                enclosing.locals.set(
+                        slot, new Local(local.name(), local.depth(), local.checked(), true));
+            }
+            return addUpvalue(slot, true);
+        }
+
+        var upvalue = enclosing.resolveUpvalue(name);
+        return -1 == upvalue ? -1 : addUpvalue(upvalue, false);
+    }
+
+    /**
+     * Adds upvalue, reusing existing upvalue capturing same variable.
+     *
+     * @param index Stack slot of enclosing function's local, or index of its upvalue.
+     * @param local Whether enclosing function's local is captured.
+     * @return Upvalue index.
+     * @throws CompileError Too many variables captured.
+     */
+    private int addUpvalue(int index, boolean local) {
+        var upvalue = new Upvalue(index, local);
+        var existing = upvalues.indexOf(upvalue);
+        if (-1 != existing) return existing;
+
+        if (Chunk.MAX_OPERAND < upvalues.size()) {
+            Lox.error(line, "Too many closure variables in function.");
+            throw new CompileError();
+        }
+        upvalues.add(upvalue);
+        return upvalues.size() - 1;
+    }
+
+    /**
+     * Emits instruction pushing variable captured from enclosing function, if it is.
+     *
+     * @param name Variable name.
+     * @return {@code true} if variable is captured; {@code false} if it is global.
+     */
+    private boolean getUpvalue(String name) {
+        var upvalue = resolveUpvalue(name);
+        if (-1 == upvalue) return false;
+        emit(OpCode.GET_UPVALUE, 1);
+        emitShort(upvalue);
+        emitShort(makeConstant(name));
+        return true;
+    }
+
+    /**
+     * Adds value to constant pool.
+     *
+     * @param value Constant value.
+     * @return Constant pool index.
+     * @throws CompileError Constant pool is full.
+     */
+    private int makeConstant(Object value) {
+        var index = chunk.addConstant(value);
+        if (-1 == index) {
+            Lox.error(line, "Too many constants in one chunk.");
+            throw new CompileError();
+        }
+        return index;
+    }
+
+    /**
+     * Emits instruction, tracking its effect on operand stack depth.
+     *
+     * @param opCode Instruction to emit.
+     * @param stackEffect Net number of values pushed by instruction.
+     */
+    private void emit(byte opCode, int stackEffect) {
+        chunk.write(opCode, line);
+        stackDepth += stackEffect;
+        if (chunk.maxStack < stackDepth) chunk.maxStack = stackDepth;
+    }
+
+    /**
+     * Emits forward jump, to be resolved by {@link #patchJump(int)}.
+     *
+     * @param opCode Jump instruction to emit.
+     * @return Offset of jump operand.
+     */
+    private int emitJump(byte opCode) {
+        emit(opCode, 0);
+        emitShort(0);
+        return chunk.count - 2;
+    }
+
+    /**
+     * Resolves forward jump to next instruction.
+     *
+     * @param offset Offset of jump operand.
+     * @throws CompileError Jump is too long.
+     */
+    private void patchJump(int offset) {
+        var jump = chunk.count - offset - 2;
+        if (Chunk.MAX_OPERAND < jump) {
+            Lox.error(line, "Too much code to jump over.");
+            throw new CompileError();
+        }
+
+        chunk.code[offset] = (byte) (jump >> 8);
+        chunk.code[offset + 1] = (byte) jump;
+    }
+
+    /**
+     * Emits backward jump to earlier instruction.
+     *
+     * @param loopStart Offset of instruction to jump to.
+     * @throws CompileError Jump is too long.
+     */
+    private void emitLoop(int loopStart) {
+        emit(OpCode.LOOP, 0);
+        var jump = chunk.count - loopStart + 2;
+        if (Chunk.MAX_OPERAND < jump) {
+            Lox.error(line, "Loop body too large.");
+            throw new CompileError();
+        }
+        emitShort(jump);
+    }
+
+    /**
+     * Emits 16-bit instruction operand.
+     *
+     * @param value Operand to emit.
+     */
+    private void emitShort(int value) {
+        chunk.writeShort(value, line);
+    }
+
+    /**
+     * Terminates chunk.
+     *
+     * @return Executable {@link Chunk}.
+     */
+    private Chunk finish() {
+        emit(OpCode.RETURN, 0);
+        chunk.seal();
+        return chunk;
+    }
+
+    /**
+     * Registers compilation error.
+     *
+     * @param token Affected {@link Token}.
+     * @param message Description of error.
+     * @return {@link CompileError}.
+     */
+    private CompileError error(Token token, String message) {
+        Lox.error(token, message);
+        return new CompileError();
+    }
+}
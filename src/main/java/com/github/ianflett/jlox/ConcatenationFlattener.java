@@ -0,0 +1,82 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rewrites left-deep chains of {@code +} into n-ary {@link Expr.Concatenation}s.
+ *
+ * <p>Chain {@code a + b + c} is parsed as {@code (a + b) + c}; as n-ary node it is evaluated
+ * without recursing per operand or allocating string per intermediate result. Chains of two
+ * operands are left as {@link Expr.Binary}.
+ */
+final class ConcatenationFlattener extends AstTransformer {
+
+    /** Stores chains created by this flattener, which no other node references. */
+    private final Set<Expr.Concatenation> created =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Flattens concatenations within {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to flatten.
+     * @return Flattened {@link Stmt}s.
+     */
+    static List<Stmt> flatten(List<Stmt> statements) {
+        return new ConcatenationFlattener().transform(statements);
+    }
+
+    /**
+     * Flattens concatenations within expression.
+     *
+     * @param expr {@link Expr}ession to flatten.
+     * @return Flattened {@link Expr}ession.
+     */
+    static Expr flatten(Expr expr) {
+        return new ConcatenationFlattener().transform(expr);
+    }
+
+    /**
+     * Extends chain of {@code +} operations by right operand.
+     *
+     * <p>Left operand of {@code +} is only itself {@code +} if produced from preceding link of same
+     * chain, as parenthesised operands are groupings.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @param right Transformed right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+        if (TokenType.PLUS != expr.operator.type()) return super.rewriteBinary(expr, left, right);
+
+        if (left instanceof Expr.Concatenation chain && created.contains(chain)) {
+            // Chain is only referenced by node being replaced, so extend it in place.
+            chain.operands.add(right);
+            chain.operators.add(expr.operator);
+            return chain;
+        }
+
+        List<Expr> operands;
+        List<Token> operators;
+        if (left instanceof Expr.Concatenation chain) {
+            operands = new ArrayList<>(chain.operands);
+            operators = new ArrayList<>(chain.operators);
+        } else if (left instanceof Expr.Binary binary && TokenType.PLUS == binary.operator.type()) {
+            operands = new ArrayList<>(List.of(binary.left, binary.right));
+            operators = new ArrayList<>(List.of(binary.operator));
+        } else {
+            return super.rewriteBinary(expr, left, right);
+        }
+
+        operands.add(right);
+        operators.add(expr.operator);
+        var chain = new Expr.Concatenation(operands, operators);
+        created.add(chain);
+        return chain;
+    }
+}
@@ -0,0 +1,298 @@
+package com.github.ianflett.jlox;
+
+import java.util.List;
+
+/**
+ * Evaluates constant subexpressions ahead of time and applies algebraic identities.
+ *
+ * <p>Operations on literals are replaced by literals of their results, groupings by their
+ * contents, and conditional and logical expressions and {@code if} statements with literal
+ * conditions by operand they select; loops with falsey literal conditions are removed. Identities
+ * only ever remove literal operands, so every remaining operand is still evaluated in its original
+ * order.
+ *
+ * <p>Operation which would raise {@link RuntimeError}, such as division by zero, is left unfolded,
+ * so error is raised by backend where and when it would have been without folding, and not at all
+ * if operation is never evaluated.
+ */
+final class ConstantFolder extends AstTransformer {
+
+    /**
+     * Folds constants within {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to fold.
+     * @return Folded {@link Stmt}s.
+     */
+    static List<Stmt> fold(List<Stmt> statements) {
+        return new ConstantFolder().transform(statements);
+    }
+
+    /**
+     * Folds constants within statement.
+     *
+     * @param stmt {@link Stmt} to fold.
+     * @return Folded {@link Stmt}.
+     */
+    static Stmt fold(Stmt stmt) {
+        return new ConstantFolder().transform(stmt);
+    }
+
+    /**
+     * Folds constants within expression.
+     *
+     * @param expr {@link Expr}ession to fold.
+     * @return Folded {@link Expr}ession.
+     */
+    static Expr fold(Expr expr) {
+        return new ConstantFolder().transform(expr);
+    }
+
+    /**
+     * Folds binary expression of literals, or simplifies it by identity.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Folded left operand.
+     * @param right Folded right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+        if (left instanceof Expr.Literal l && right instanceof Expr.Literal r) {
+            try {
+                return literal(Interpreter.binary(l.value, expr.operator, r.value));
+            } catch (RuntimeError ignored) {
+                // Leave for backend to report.
+                return super.rewriteBinary(expr, left, right);
+            }
+        }
+
+        var simplified = simplify(expr.operator, left, right);
+        return null == simplified ? super.rewriteBinary(expr, left, right) : simplified;
+    }
+
+    /**
+     * Applies identity to binary operation with one literal operand.
+     *
+     * @param operator Operator applied.
+     * @param left Folded left operand.
+     * @param right Folded right operand.
+     * @return Simplified {@link Expr}ession; {@code null} if no identity applies.
+     */
+    private static Expr simplify(Token operator, Expr left, Expr right) {
+        return switch (operator.type()) {
+            case PLUS -> {
+                if (isLiteral(right, "") && isString(left)) yield left;
+                if (isLiteral(left, "") && isString(right)) yield right;
+
+                // Left operand is string once concatenated, so (x + "a") + "b" is x + "ab".
+                if (left instanceof Expr.Binary binary
+                        && TokenType.PLUS == binary.operator.type()
+                        && binary.right instanceof Expr.Literal l
+                        && l.value instanceof CharSequence
+                        && right instanceof Expr.Literal r
+                        && r.value instanceof CharSequence) {
+                    yield new Expr.Binary(
+                            binary.left,
+                            binary.operator,
+                            literal(Interpreter.concatenate(l.value, r.value)));
+                }
+                yield null;
+            }
+            case MINUS -> isLiteral(right, 0L) && isNumber(left) ? left : null;
+            case STAR -> {
+                if (isLiteral(right, 1L) && isNumber(left)) yield left;
+                yield isLiteral(left, 1L) && isNumber(right) ? right : null;
+            }
+            case SLASH -> isLiteral(right, 1L) && isNumber(left) ? left : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Selects branch of conditional expression with literal condition.
+     *
+     * @param expr {@link Expr}ession to fold.
+     * @return Folded {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConditionalExpr(Expr.Conditional expr) {
+        var condition = transform(expr.condition);
+        if (condition instanceof Expr.Literal literal) {
+            return transform(
+                    Interpreter.isTruthy(literal.value) ? expr.thenBranch : expr.elseBranch);
+        }
+
+        var thenBranch = transform(expr.thenBranch);
+        var elseBranch = transform(expr.elseBranch);
+        return condition == expr.condition
+                        && thenBranch == expr.thenBranch
+                        && elseBranch == expr.elseBranch
+                ? expr
+                : new Expr.Conditional(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Replaces grouping expression with its contents, as it has no effect once parsed.
+     *
+     * @param expr {@link Expr}ession to fold.
+     * @return Folded contents.
+     */
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        return transform(expr.expression);
+    }
+
+    /**
+     * Selects deciding operand of logical expression with literal left operand.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Folded left operand.
+     * @return Folded {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteLogical(Expr.Logical expr, Expr left) {
+        if (!(left instanceof Expr.Literal literal)) return super.rewriteLogical(expr, left);
+
+        var truthy = Interpreter.isTruthy(literal.value);
+        if (TokenType.OR == expr.operator.type() ? truthy : !truthy) return left;
+        return transform(expr.right);
+    }
+
+    /**
+     * Folds unary expression of literal, or removes double negation of boolean.
+     *
+     * @param expr {@link Expr}ession to fold.
+     * @return Folded {@link Expr}ession.
+     */
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        var right = transform(expr.right);
+        if (right instanceof Expr.Literal literal) {
+            try {
+                return literal(Interpreter.unary(expr.operator, literal.value));
+            } catch (RuntimeError ignored) {
+                // Leave for backend to report.
+            }
+        } else if (TokenType.BANG == expr.operator.type()
+                && right instanceof Expr.Unary unary
+                && TokenType.BANG == unary.operator.type()
+                && isBoolean(unary.right)) {
+            return unary.right;
+        }
+
+        return right == expr.right ? expr : new Expr.Unary(expr.operator, right);
+    }
+
+    /**
+     * Selects branch of {@code if} statement with literal condition.
+     *
+     * @param stmt {@link Stmt} to fold.
+     * @return Folded {@link Stmt}.
+     */
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        var condition = transform(stmt.condition);
+        if (!(condition instanceof Expr.Literal literal)) return super.visitIfStmt(stmt);
+
+        if (Interpreter.isTruthy(literal.value)) return transform(stmt.thenBranch);
+        return null == stmt.elseBranch ? new Stmt.Block(List.of()) : transform(stmt.elseBranch);
+    }
+
+    /**
+     * Removes {@code while} statement with falsey literal condition.
+     *
+     * @param stmt {@link Stmt} to fold.
+     * @return Folded {@link Stmt}.
+     */
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        var loop = (Stmt.While) super.visitWhileStmt(stmt);
+        if (!(loop.condition instanceof Expr.Literal literal)) return loop;
+        return Interpreter.isTruthy(literal.value) ? loop : new Stmt.Block(List.of());
+    }
+
+    /**
+     * Creates literal of folded value, flattening strings.
+     *
+     * @param value Folded value.
+     * @return Literal {@link Expr}ession.
+     */
+    private static Expr.Literal literal(Object value) {
+        return new Expr.Literal(value instanceof CharSequence string ? string.toString() : value);
+    }
+
+    /**
+     * Whether expression is literal of value.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @param value Value to match.
+     * @return {@code true} if expression is literal equal to value; {@code false} otherwise.
+     */
+    private static boolean isLiteral(Expr expr, Object value) {
+        return expr instanceof Expr.Literal literal
+                && null != literal.value
+                && literal.value.getClass() == value.getClass()
+                && Interpreter.isEqual(literal.value, value);
+    }
+
+    /**
+     * Whether expression evaluates to number whenever it completes.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @return {@code true} if expression is numeric; {@code false} if unknown.
+     */
+    private static boolean isNumber(Expr expr) {
+        // Walk left-deep chain of additions iteratively, as it may be arbitrarily long.
+        while (expr instanceof Expr.Binary binary && TokenType.PLUS == binary.operator.type()) {
+            if (!isNumber(binary.right)) return false;
+            expr = binary.left;
+        }
+
+        return switch (expr) {
+            case Expr.Literal literal -> literal.value instanceof Number;
+            case Expr.Unary unary -> TokenType.MINUS == unary.operator.type();
+            case Expr.Binary binary ->
+                    switch (binary.operator.type()) {
+                        case MINUS, SLASH, STAR -> true;
+                        default -> false;
+                    };
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether expression evaluates to string whenever it completes.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @return {@code true} if expression is string; {@code false} if unknown.
+     */
+    private static boolean isString(Expr expr) {
+        // Walk left-deep chain of additions iteratively, as it may be arbitrarily long.
+        while (expr instanceof Expr.Binary binary && TokenType.PLUS == binary.operator.type()) {
+            if (isString(binary.right)) return true;
+            expr = binary.left;
+        }
+
+        return expr instanceof Expr.Literal literal && literal.value instanceof CharSequence;
+    }
+
+    /**
+     * Whether expression evaluates to boolean whenever it completes.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @return {@code true} if expression is boolean; {@code false} if unknown.
+     */
+    private static boolean isBoolean(Expr expr) {
+        return switch (expr) {
+            case Expr.Literal literal -> literal.value instanceof Boolean;
+            case Expr.Unary unary -> TokenType.BANG == unary.operator.type();
+            case Expr.Binary binary ->
+                    switch (binary.operator.type()) {
+                        case BANG_EQUAL, EQUAL_EQUAL, GREATER, GREATER_EQUAL, LESS, LESS_EQUAL ->
+                                true;
+                        default -> false;
+                    };
+            default -> false;
+        };
+    }
+}
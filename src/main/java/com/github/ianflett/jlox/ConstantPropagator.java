@@ -0,0 +1,200 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces reads of global variables which never change with their values.
+ *
+ * <p>Global is constant if it is declared once, with literal initialiser once constants are
+ * folded, and is never assigned to, including by any call. Only reads evaluated after its
+ * declaration, and not of variable of same name declared in enclosing block, are replaced; earlier
+ * reads still raise {@link RuntimeError}. Reads within function bodies, which may run before
+ * declaration, are never replaced. Each statement in which reads are replaced is folded again, so
+ * initialisers of later globals may in turn become literals.
+ *
+ * <p>Analysis covers only statements given, so when each REPL line is propagated separately, later
+ * lines may reassign global whose reads were replaced. This is safe, as replaced reads were
+ * evaluated before any such assignment, provided declaration itself is retained for later lines.
+ */
+final class ConstantPropagator extends AstTransformer {
+
+    /** Stores names of globals which may be constant. */
+    private final Set<String> candidates;
+
+    /** Stores value of each constant global declared so far. */
+    private final Map<String, Object> constants = new HashMap<>();
+
+    /** Stores names declared so far within each enclosing block, innermost first. */
+    private final ArrayDeque<Set<String>> scopes = new ArrayDeque<>();
+
+    /**
+     * Constructs {@link ConstantPropagator}.
+     *
+     * @param candidates Names of globals which may be constant.
+     */
+    private ConstantPropagator(Set<String> candidates) {
+        this.candidates = candidates;
+    }
+
+    /**
+     * Propagates constant globals within program.
+     *
+     * @param statements {@link Stmt}s to rewrite, with constants already folded.
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     * @return Rewritten {@link Stmt}s.
+     */
+    static List<Stmt> propagate(List<Stmt> statements, boolean externalGlobals) {
+        var census = new Census();
+        census.transform(statements);
+        census.declared.removeAll(census.excluded);
+        census.declared.removeAll(CallEffects.of(statements, externalGlobals).writes());
+        if (census.declared.isEmpty()) return statements;
+
+        return new ConstantPropagator(census.declared).transform(statements);
+    }
+
+    /**
+     * Rewrites statement, folding it again if reads were replaced, and records constant global it
+     * declares.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    Stmt transform(Stmt stmt) {
+        if (!scopes.isEmpty()) return super.transform(stmt);
+
+        var result = super.transform(stmt);
+        if (result != stmt) result = ConstantFolder.fold(result);
+        if (result instanceof Stmt.Var var
+                && var.initializer instanceof Expr.Literal literal
+                && candidates.contains(var.name.lexeme())) {
+            constants.put(var.name.lexeme(), literal.value);
+        }
+        return result;
+    }
+
+    /**
+     * Replaces read of constant global with its value.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        var name = expr.name.lexeme();
+        if (!constants.containsKey(name)) return expr;
+        if (scopes.stream().anyMatch(scope -> scope.contains(name))) return expr;
+
+        return new Expr.Literal(constants.get(name));
+    }
+
+    /**
+     * Rewrites block statement, within which its declarations shadow globals.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashSet<>());
+        var result = super.visitBlockStmt(stmt);
+        scopes.pop();
+        return result;
+    }
+
+    /**
+     * Declares function, leaving its body, which may run before constants are declared.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Same {@link Stmt}.
+     */
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        if (!scopes.isEmpty()) scopes.element().add(stmt.name.lexeme());
+        return stmt;
+    }
+
+    /**
+     * Rewrites initialiser, then declares variable.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        var result = super.visitVarStmt(stmt);
+        if (!scopes.isEmpty()) scopes.element().add(stmt.name.lexeme());
+        return result;
+    }
+
+    /** Finds globals declared once and variables assigned to. */
+    private static final class Census extends AstTransformer {
+
+        /** Stores names of globals declared. */
+        private final Set<String> declared = new HashSet<>();
+
+        /** Stores names of globals declared more than once, and of variables assigned to. */
+        private final Set<String> excluded = new HashSet<>();
+
+        /** Stores depth of enclosing blocks. */
+        private int depth = 0;
+
+        /**
+         * Records assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            excluded.add(expr.name.lexeme());
+            return super.visitAssignExpr(expr);
+        }
+
+        /**
+         * Examines block statement.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            ++depth;
+            transform(stmt.statements);
+            --depth;
+            return stmt;
+        }
+
+        /**
+         * Records declaration of global function, which is never constant, leaving its body,
+         * whose assignments are those of calls.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            if (0 == depth) excluded.add(stmt.name.lexeme());
+            return stmt;
+        }
+
+        /**
+         * Records declaration of global.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            transform(stmt.initializer);
+            if (0 == depth && !declared.add(stmt.name.lexeme())) excluded.add(stmt.name.lexeme());
+            return stmt;
+        }
+    }
+}
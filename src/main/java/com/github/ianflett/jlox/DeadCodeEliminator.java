@@ -0,0 +1,666 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes stores to variables which are never read, and computations whose values are discarded.
+ *
+ * <p>Variable accesses are first resolved to their declarations; as branches and loop bodies
+ * declare variables only within blocks, whose scopes are emptied on each iteration, static
+ * resolution matches dynamic lookup. Statements are then rewritten in reverse, tracking
+ * declarations whose current values may still be read. Every variable read anywhere within loop
+ * is treated as read after each of its iterations.
+ *
+ * <p>Only computations which can neither raise {@link RuntimeError} nor have side effects are
+ * removed. Reading variable is only such computation if it is declared with initialiser, so
+ * accesses which would raise undefined or uninitialised variable errors are kept.
+ *
+ * <p>Function declarations and calls are kept, and function bodies are left as they are. Variable
+ * named within any function body may be read by any call, so its values are always live.
+ */
+final class DeadCodeEliminator {
+
+    /** Whether global variables remain observable once statements have run. */
+    private final boolean retainGlobals;
+
+    /** Stores declaration each variable access resolves to; absent if undeclared. */
+    private final Map<Expr, Stmt.Var> bindings = new IdentityHashMap<>();
+
+    /** Stores declarations of global variables. */
+    private final Set<Stmt.Var> globals = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Stores declarations referenced by rewritten statements. */
+    private final Set<Stmt.Var> referenced = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Stores declarations whose current values may be read later. */
+    private Set<Stmt.Var> live = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Stores names of variables calls may read. */
+    private final Set<String> called;
+
+    /**
+     * Constructs {@link DeadCodeEliminator}.
+     *
+     * @param retainGlobals Whether global variables remain observable once statements have run.
+     * @param called Names of variables calls may read.
+     */
+    private DeadCodeEliminator(boolean retainGlobals, Set<String> called) {
+        this.retainGlobals = retainGlobals;
+        this.called = called;
+    }
+
+    /**
+     * Eliminates dead code within program.
+     *
+     * @param statements {@link Stmt}s to rewrite.
+     * @param retainGlobals Whether global variables remain observable once statements have run,
+     *     as they do for later lines entered at prompt.
+     * @return Rewritten {@link Stmt}s.
+     */
+    static List<Stmt> eliminate(List<Stmt> statements, boolean retainGlobals) {
+        // Functions declared by earlier lines may only read globals, which are then retained.
+        var called = CallEffects.of(statements, false).reads();
+        var eliminator = new DeadCodeEliminator(retainGlobals, called);
+        eliminator.new Resolver().transform(statements);
+        return eliminator.rewrite(statements);
+    }
+
+    /**
+     * Rewrites statements in reverse, so liveness after each is known before it is rewritten.
+     *
+     * @param statements {@link Stmt}s to rewrite.
+     * @return Rewritten {@link Stmt}s; same {@link List} if none changed.
+     */
+    private List<Stmt> rewrite(List<Stmt> statements) {
+        var reversed = new ArrayList<Stmt>(statements.size());
+        for (var i = statements.size() - 1; i >= 0; --i) {
+            rewrite(statements.get(i), reversed);
+        }
+
+        var rewritten = reversed.reversed();
+        return rewritten.equals(statements) ? statements : new ArrayList<>(rewritten);
+    }
+
+    /**
+     * Rewrites statement.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @param reversed Receives rewritten {@link Stmt}s, in reverse order.
+     */
+    private void rewrite(Stmt stmt, List<Stmt> reversed) {
+        switch (stmt) {
+            case Stmt.Block block -> {
+                var statements = rewrite(block.statements);
+                if (statements.isEmpty()) return;
+                reversed.add(statements == block.statements ? block : new Stmt.Block(statements));
+            }
+            case Stmt.Function function -> reversed.add(function);
+            case Stmt.Expression expression -> {
+                var expr = discard(expression.expression);
+                if (null == expr) return;
+                reversed.add(
+                        expr == expression.expression ? expression : new Stmt.Expression(expr));
+            }
+            case Stmt.If branch -> {
+                var after = copy(live);
+                var thenBranch = rewrite(branch.thenBranch);
+                var thenLive = live;
+                live = after;
+                var elseBranch = null == branch.elseBranch ? null : rewrite(branch.elseBranch);
+                live.addAll(thenLive);
+
+                if (null == thenBranch && null == elseBranch) {
+                    var condition = discard(branch.condition);
+                    if (null != condition) reversed.add(new Stmt.Expression(condition));
+                    return;
+                }
+
+                var condition = keep(branch.condition);
+                if (null == thenBranch) thenBranch = new Stmt.Block(List.of());
+                reversed.add(
+                        condition == branch.condition
+                                        && thenBranch == branch.thenBranch
+                                        && elseBranch == branch.elseBranch
+                                ? branch
+                                : new Stmt.If(condition, thenBranch, elseBranch));
+            }
+            case Stmt.Print print -> {
+                var expr = keep(print.expression);
+                reversed.add(expr == print.expression ? print : new Stmt.Print(expr));
+            }
+            case Stmt.While loop -> {
+                // Values stored by one iteration may be read by next.
+                var reads = new Reads();
+                reads.transform(loop);
+                live.addAll(reads.declarations);
+
+                var head = copy(live);
+                var body = rewrite(loop.body);
+                live = head;
+                var condition = keep(loop.condition);
+
+                // Loop is kept even if body is not, as it may not terminate.
+                if (null == body) body = new Stmt.Block(List.of());
+                reversed.add(
+                        condition == loop.condition && body == loop.body
+                                ? loop
+                                : new Stmt.While(condition, body));
+            }
+            case Stmt.Var declaration -> {
+                var isLive = isLive(declaration);
+                live.remove(declaration);
+                var initializer = declaration.initializer;
+                if (isLive) {
+                    if (null != initializer) initializer = keep(initializer);
+                    reversed.add(
+                            initializer == declaration.initializer
+                                    ? declaration
+                                    : new Stmt.Var(declaration.name, initializer));
+                    return;
+                }
+
+                // Value is overwritten before it is read, but declaration may still be assigned.
+                if (referenced.contains(declaration)) {
+                    reversed.add(
+                            null == initializer
+                                    ? declaration
+                                    : new Stmt.Var(declaration.name, null));
+                }
+                if (null != initializer) initializer = discard(initializer);
+                if (null != initializer) reversed.add(new Stmt.Expression(initializer));
+            }
+            default -> throw new IllegalArgumentException("Unexpected statement: " + stmt);
+        }
+    }
+
+    /**
+     * Rewrites branch or loop body.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}; {@code null} if nothing need be executed.
+     */
+    private Stmt rewrite(Stmt stmt) {
+        var reversed = new ArrayList<Stmt>(1);
+        rewrite(stmt, reversed);
+
+        // Branches and loop bodies are never declarations, so are rewritten to one statement.
+        return reversed.isEmpty() ? null : reversed.getFirst();
+    }
+
+    /**
+     * Rewrites expression whose value is used.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    private Expr keep(Expr expr) {
+        return switch (expr) {
+            case Expr.Assign assign -> assign(assign, true);
+            case Expr.Binary binary -> binary(binary, true);
+            case Expr.Call call -> call(call);
+            case Expr.Concatenation concatenation -> concatenation(concatenation);
+            case Expr.Conditional conditional -> conditional(conditional, true);
+            case Expr.Grouping grouping -> grouping(grouping, true);
+            case Expr.Literal literal -> literal;
+            case Expr.Logical logical -> logical(logical, true);
+            case Expr.Numeric numeric -> numeric(numeric);
+            case Expr.Unary unary -> {
+                var right = keep(unary.right);
+                yield right == unary.right ? unary : new Expr.Unary(unary.operator, right);
+            }
+            case Expr.Variable variable -> {
+                var declaration = bindings.get(variable);
+                if (null != declaration) {
+                    live.add(declaration);
+                    referenced.add(declaration);
+                }
+                yield variable;
+            }
+            default -> throw new IllegalArgumentException("Unexpected expression: " + expr);
+        };
+    }
+
+    /**
+     * Rewrites expression whose value is discarded, keeping only what is evaluated for effect.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr discard(Expr expr) {
+        if (isPure(expr)) return null;
+
+        return switch (expr) {
+            case Expr.Assign assign -> assign(assign, false);
+            case Expr.Binary binary -> binary(binary, false);
+            case Expr.Conditional conditional -> conditional(conditional, false);
+            case Expr.Grouping grouping -> grouping(grouping, false);
+            case Expr.Logical logical -> logical(logical, false);
+            default -> keep(expr);
+        };
+    }
+
+    /**
+     * Rewrites assignment, replacing it with its value if variable is not read before next store.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @param used Whether value of expression is used.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr assign(Expr.Assign expr, boolean used) {
+        var declaration = bindings.get(expr);
+        if (null != declaration && !isLive(declaration)) {
+            return used ? keep(expr.value) : discard(expr.value);
+        }
+
+        if (null != declaration) {
+            live.remove(declaration);
+            referenced.add(declaration);
+        }
+        var value = keep(expr.value);
+        return value == expr.value ? expr : new Expr.Assign(expr.name, value);
+    }
+
+    /**
+     * Rewrites binary expression and left-deep chain of binary expressions beneath it.
+     *
+     * <p>Both operands of {@code ,} are discarded, as sequence evaluates to {@code nil}.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @param used Whether value of expression is used.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr binary(Expr.Binary expr, boolean used) {
+        // Walk chain iteratively, as parser builds it without bound.
+        var chain = new ArrayList<Expr.Binary>();
+        var usedLinks = new ArrayList<Boolean>();
+        Expr left = expr;
+        while (left instanceof Expr.Binary binary) {
+            var isSequence = TokenType.COMMA == binary.operator.type();
+            if (!used && !isSequence && isPure(binary)) break;
+
+            chain.add(binary);
+            usedLinks.add(used);
+            used = !isSequence;
+            left = binary.left;
+        }
+
+        var rights = new Expr[chain.size()];
+        for (var i = 0; i < chain.size(); ++i) {
+            var binary = chain.get(i);
+            rights[i] =
+                    TokenType.COMMA == binary.operator.type()
+                            ? discard(binary.right)
+                            : keep(binary.right);
+        }
+
+        left = used ? keep(left) : discard(left);
+        for (var i = chain.size() - 1; i >= 0; --i) {
+            var binary = chain.get(i);
+            var right = rights[i];
+            if (TokenType.COMMA != binary.operator.type() || usedLinks.get(i)) {
+                if (null == left && null == right) {
+                    left = new Expr.Literal(null);
+                    continue;
+                }
+                left = null == left ? new Expr.Literal(null) : left;
+                right = null == right ? new Expr.Literal(null) : right;
+            } else if (null == left || null == right) {
+                left = null == left ? right : left;
+                continue;
+            }
+
+            left =
+                    left == binary.left && right == binary.right
+                            ? binary
+                            : new Expr.Binary(left, binary.operator, right);
+        }
+        return left;
+    }
+
+    /**
+     * Rewrites binary expression of numbers and left-deep chain of them beneath it, whose operands
+     * are all used.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    private Expr numeric(Expr.Numeric expr) {
+        // Walk chain iteratively, as parser builds it without bound.
+        var chain = new ArrayList<Expr.Numeric>();
+        Expr left = expr;
+        while (left instanceof Expr.Numeric numeric) {
+            chain.add(numeric);
+            left = numeric.left;
+        }
+
+        // Program is rewritten in reverse, so right operands precede left.
+        var rights = new Expr[chain.size()];
+        for (var i = 0; i < chain.size(); ++i) rights[i] = keep(chain.get(i).right);
+
+        left = keep(left);
+        for (var i = chain.size() - 1; i >= 0; --i) {
+            var numeric = chain.get(i);
+            left =
+                    left == numeric.left && rights[i] == numeric.right
+                            ? numeric
+                            : new Expr.Numeric(
+                                    left, numeric.operator, rights[i], numeric.speculative);
+        }
+        return left;
+    }
+
+    /**
+     * Rewrites call, whose callee and arguments are all used.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    private Expr call(Expr.Call expr) {
+        var arguments = new ArrayList<>(expr.arguments);
+        var changed = false;
+        for (var i = arguments.size() - 1; i >= 0; --i) {
+            var argument = keep(arguments.get(i));
+            changed |= argument != arguments.get(i);
+            arguments.set(i, argument);
+        }
+        var callee = keep(expr.callee);
+        return changed || callee != expr.callee
+                ? new Expr.Call(callee, expr.paren, arguments, expr.tail)
+                : expr;
+    }
+
+    /**
+     * Rewrites n-ary concatenation expression, whose operands are all used.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    private Expr concatenation(Expr.Concatenation expr) {
+        var operands = new ArrayList<>(expr.operands);
+        var changed = false;
+        for (var i = operands.size() - 1; i >= 0; --i) {
+            var operand = keep(operands.get(i));
+            changed |= operand != operands.get(i);
+            operands.set(i, operand);
+        }
+        return changed ? new Expr.Concatenation(operands, expr.operators) : expr;
+    }
+
+    /**
+     * Rewrites conditional expression, merging liveness of branches.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @param used Whether value of expression is used.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr conditional(Expr.Conditional expr, boolean used) {
+        var after = copy(live);
+        var thenBranch = used ? keep(expr.thenBranch) : discard(expr.thenBranch);
+        var thenLive = live;
+        live = after;
+        var elseBranch = used ? keep(expr.elseBranch) : discard(expr.elseBranch);
+        live.addAll(thenLive);
+
+        if (null == thenBranch && null == elseBranch) return discard(expr.condition);
+
+        var condition = keep(expr.condition);
+        thenBranch = null == thenBranch ? new Expr.Literal(null) : thenBranch;
+        elseBranch = null == elseBranch ? new Expr.Literal(null) : elseBranch;
+        return condition == expr.condition
+                        && thenBranch == expr.thenBranch
+                        && elseBranch == expr.elseBranch
+                ? expr
+                : new Expr.Conditional(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Rewrites grouping expression.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @param used Whether value of expression is used.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr grouping(Expr.Grouping expr, boolean used) {
+        var expression = used ? keep(expr.expression) : discard(expr.expression);
+        if (null == expression) return null;
+        return expression == expr.expression ? expr : new Expr.Grouping(expression);
+    }
+
+    /**
+     * Rewrites logical expression and left-deep chain of logical expressions beneath it, merging
+     * liveness of short-circuited right operands.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @param used Whether value of expression is used.
+     * @return Rewritten {@link Expr}ession; {@code null} if nothing need be evaluated.
+     */
+    private Expr logical(Expr.Logical expr, boolean used) {
+        // Walk chain iteratively, as parser builds it without bound.
+        var chain = new ArrayList<Expr.Logical>();
+        var rights = new ArrayList<Expr>();
+        Expr left = expr;
+        while (left instanceof Expr.Logical logical) {
+            var after = copy(live);
+            var right = used ? keep(logical.right) : discard(logical.right);
+            live.addAll(after);
+
+            // Left operand only decides whether to evaluate right one, so is discarded without it.
+            if (null != right) {
+                chain.add(logical);
+                rights.add(right);
+                used = true;
+            }
+            left = logical.left;
+        }
+
+        left = used ? keep(left) : discard(left);
+        for (var i = chain.size() - 1; i >= 0; --i) {
+            var logical = chain.get(i);
+            var right = rights.get(i);
+            left =
+                    left == logical.left && right == logical.right
+                            ? logical
+                            : new Expr.Logical(left, logical.operator, right);
+        }
+        return left;
+    }
+
+    /**
+     * Whether value stored to declared variable may be read.
+     *
+     * @param declaration Variable declaration; {@code null} if undeclared.
+     * @return {@code true} if value may be read; {@code false} if not.
+     */
+    private boolean isLive(Stmt.Var declaration) {
+        return null == declaration
+                || retainGlobals && globals.contains(declaration)
+                || called.contains(declaration.name.lexeme())
+                || live.contains(declaration);
+    }
+
+    /**
+     * Whether expression can neither raise {@link RuntimeError} nor have side effects.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @return {@code true} if expression is pure; {@code false} if unknown.
+     */
+    private boolean isPure(Expr expr) {
+        // Walk chains iteratively, as parser builds them without bound.
+        while (expr instanceof Expr.Binary || expr instanceof Expr.Logical) {
+            if (expr instanceof Expr.Logical logical) {
+                if (!isPure(logical.right)) return false;
+                expr = logical.left;
+                continue;
+            }
+
+            var binary = (Expr.Binary) expr;
+            var isPure =
+                    switch (binary.operator.type()) {
+                        case BANG_EQUAL, COMMA, EQUAL_EQUAL -> true;
+                        // Adding string to anything concatenates.
+                        case PLUS -> isString(binary.left) || isString(binary.right);
+                        default -> false;
+                    };
+            if (!isPure || !isPure(binary.right)) return false;
+            expr = binary.left;
+        }
+
+        return switch (expr) {
+            case Expr.Conditional conditional ->
+                    isPure(conditional.condition)
+                            && isPure(conditional.thenBranch)
+                            && isPure(conditional.elseBranch);
+            case Expr.Grouping grouping -> isPure(grouping.expression);
+            case Expr.Literal ignored -> true;
+            case Expr.Unary unary ->
+                    TokenType.BANG == unary.operator.type() && isPure(unary.right);
+            case Expr.Variable variable -> {
+                var declaration = bindings.get(variable);
+                yield null != declaration && null != declaration.initializer;
+            }
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether expression is string literal.
+     *
+     * @param expr {@link Expr}ession to check.
+     * @return {@code true} if expression is string literal; {@code false} otherwise.
+     */
+    private static boolean isString(Expr expr) {
+        return expr instanceof Expr.Literal literal && literal.value instanceof CharSequence;
+    }
+
+    /**
+     * Copies set of declarations.
+     *
+     * @param declarations Declarations to copy.
+     * @return Copy of declarations.
+     */
+    private static Set<Stmt.Var> copy(Set<Stmt.Var> declarations) {
+        var copy = Collections.<Stmt.Var>newSetFromMap(new IdentityHashMap<>());
+        copy.addAll(declarations);
+        return copy;
+    }
+
+    /** Finds declarations of variables read within statement. */
+    private final class Reads extends AstTransformer {
+
+        /** Stores declarations read. */
+        private final Set<Stmt.Var> declarations =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * Records declaration variable read resolves to, if any.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitVariableExpr(Expr.Variable expr) {
+            var declaration = bindings.get(expr);
+            if (null != declaration) declarations.add(declaration);
+            return expr;
+        }
+    }
+
+    /** Resolves each variable access to its declaration. */
+    private final class Resolver extends AstTransformer {
+
+        /** Stores declarations in each enclosing scope, innermost first. */
+        private final ArrayDeque<Map<String, Stmt.Var>> scopes = new ArrayDeque<>();
+
+        /** Constructs {@link Resolver} within global scope. */
+        Resolver() {
+            scopes.push(new HashMap<>());
+        }
+
+        /**
+         * Resolves assignment.
+         *
+         * @param expr {@link Expr}ession to resolve.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            resolve(expr, expr.name);
+            return super.visitAssignExpr(expr);
+        }
+
+        /**
+         * Resolves variable access.
+         *
+         * @param expr {@link Expr}ession to resolve.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitVariableExpr(Expr.Variable expr) {
+            resolve(expr, expr.name);
+            return expr;
+        }
+
+        /**
+         * Resolves block statement within new scope.
+         *
+         * @param stmt {@link Stmt} to resolve.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            scopes.push(new HashMap<>());
+            transform(stmt.statements);
+            scopes.pop();
+            return stmt;
+        }
+
+        /**
+         * Declares function, whose value is never tracked, leaving its body.
+         *
+         * @param stmt {@link Stmt} to resolve.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            scopes.element().put(stmt.name.lexeme(), null);
+            return stmt;
+        }
+
+        /**
+         * Resolves initialiser, then declares variable.
+         *
+         * @param stmt {@link Stmt} to resolve.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            transform(stmt.initializer);
+            scopes.element().put(stmt.name.lexeme(), stmt);
+            if (1 == scopes.size()) globals.add(stmt);
+            return stmt;
+        }
+
+        /**
+         * Records declaration variable access resolves to, if any and not of function.
+         *
+         * @param expr Variable access.
+         * @param name Variable name.
+         */
+        private void resolve(Expr expr, Token name) {
+            for (var scope : scopes) {
+                if (scope.containsKey(name.lexeme())) {
+                    var declaration = scope.get(name.lexeme());
+                    if (null != declaration) bindings.put(expr, declaration);
+                    return;
+                }
+            }
+        }
+    }
+}
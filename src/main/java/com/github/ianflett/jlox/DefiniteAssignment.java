@@ -0,0 +1,253 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proves which variable reads are always of defined, initialised variables, so backends may read
+ * them without checking.
+ *
+ * <p>Variable is definitely initialised once declaration with initialiser, or assignment to it,
+ * has been evaluated on every path to read. Assignments within right operand of logical
+ * expression, within only one branch of conditional expression or {@code if} statement, or within
+ * loop body, are therefore not counted beyond them.
+ * Proven reads are replaced by {@link Expr.Initialized} expressions; others are left to be checked
+ * as before.
+ *
+ * <p>Read of variable declared in no enclosing scope by then is always undefined, so is reported as
+ * error, unless globals may have been defined by earlier programs, as within REPL. Only reads on
+ * every path through program are reported: those within branches, loop bodies or right operands
+ * of logical expressions may never be evaluated, so are left to be reported if they are.
+ *
+ * <p>Function declaration initialises its name. Its body may run whenever it is called, when
+ * variables it captures may be in any state, so reads within it are neither proven nor reported.
+ * Calls may initialise variables, but are not counted, and can never leave them uninitialised.
+ */
+final class DefiniteAssignment extends AstTransformer {
+
+    /** Whether globals may have been defined by earlier programs. */
+    private final boolean externalGlobals;
+
+    /** Stores whether each variable declared in each enclosing scope, innermost first, is set. */
+    private ArrayDeque<Map<String, Boolean>> scopes = new ArrayDeque<>();
+
+    /** Stores number of enclosing regions which may not be evaluated. */
+    private int conditional = 0;
+
+    /**
+     * Constructs {@link DefiniteAssignment} within global scope.
+     *
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     */
+    private DefiniteAssignment(boolean externalGlobals) {
+        this.externalGlobals = externalGlobals;
+        scopes.push(new HashMap<>());
+    }
+
+    /**
+     * Proves which variable reads within program are of initialised variables, reporting reads of
+     * undefined variables.
+     *
+     * @param statements {@link Stmt}s to rewrite.
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     * @return Rewritten {@link Stmt}s.
+     */
+    static List<Stmt> prove(List<Stmt> statements, boolean externalGlobals) {
+        return new DefiniteAssignment(externalGlobals).transform(statements);
+    }
+
+    /**
+     * Marks assigned variable initialised.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        var result = super.visitAssignExpr(expr);
+        var name = expr.name.lexeme();
+        for (var scope : scopes) {
+            if (scope.containsKey(name)) {
+                scope.put(name, true);
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rewrites conditional expression, counting only variables initialised by both branches.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConditionalExpr(Expr.Conditional expr) {
+        var condition = transform(expr.condition);
+        var before = copy();
+        ++conditional;
+        var thenBranch = transform(expr.thenBranch);
+        var afterThen = scopes;
+        scopes = before;
+        var elseBranch = transform(expr.elseBranch);
+        --conditional;
+        join(afterThen);
+
+        return condition == expr.condition
+                        && thenBranch == expr.thenBranch
+                        && elseBranch == expr.elseBranch
+                ? expr
+                : new Expr.Conditional(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Rewrites {@code if} statement, counting only variables initialised by both branches.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        var condition = transform(stmt.condition);
+        var before = copy();
+        ++conditional;
+        var thenBranch = transform(stmt.thenBranch);
+        var afterThen = scopes;
+        scopes = before;
+        var elseBranch = null == stmt.elseBranch ? null : transform(stmt.elseBranch);
+        --conditional;
+        join(afterThen);
+
+        return condition == stmt.condition
+                        && thenBranch == stmt.thenBranch
+                        && elseBranch == stmt.elseBranch
+                ? stmt
+                : new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Rewrites {@code while} statement, not counting variables initialised by body, which may not
+     * run.
+     *
+     * <p>Condition is evaluated before every iteration, so its assignments are counted.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        var condition = transform(stmt.condition);
+        var before = copy();
+        ++conditional;
+        var body = transform(stmt.body);
+        --conditional;
+        scopes = before;
+
+        return condition == stmt.condition && body == stmt.body
+                ? stmt
+                : new Stmt.While(condition, body);
+    }
+
+    /**
+     * Rewrites logical expression, not counting variables initialised by right operand.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Rewritten left operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteLogical(Expr.Logical expr, Expr left) {
+        var before = copy();
+        ++conditional;
+        var logical = super.rewriteLogical(expr, left);
+        --conditional;
+        scopes = before;
+        return logical;
+    }
+
+    /**
+     * Replaces read of definitely initialised variable, or reports read of undefined variable on
+     * every path.
+     *
+     * @param expr {@link Expr}ession to rewrite.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        var name = expr.name.lexeme();
+        for (var scope : scopes) {
+            var initialized = scope.get(name);
+            if (null != initialized) return initialized ? new Expr.Initialized(expr.name) : expr;
+        }
+
+        if (!externalGlobals && 0 == conditional) {
+            Lox.error(expr.name, "Undefined variable '" + name + "'.");
+        }
+        return expr;
+    }
+
+    /**
+     * Rewrites block statement within new scope.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashMap<>());
+        var result = super.visitBlockStmt(stmt);
+        scopes.pop();
+        return result;
+    }
+
+    /**
+     * Declares initialised function, leaving its body.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Same {@link Stmt}.
+     */
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        scopes.element().put(stmt.name.lexeme(), true);
+        return stmt;
+    }
+
+    /**
+     * Rewrites initialiser, then declares variable.
+     *
+     * @param stmt {@link Stmt} to rewrite.
+     * @return Rewritten {@link Stmt}.
+     */
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        var result = super.visitVarStmt(stmt);
+        scopes.element().put(stmt.name.lexeme(), null != stmt.initializer);
+        return result;
+    }
+
+    /**
+     * Copies enclosing scopes.
+     *
+     * @return Copy of scopes.
+     */
+    private ArrayDeque<Map<String, Boolean>> copy() {
+        var copy = new ArrayDeque<Map<String, Boolean>>(scopes.size());
+        for (var scope : scopes) copy.add(new HashMap<>(scope));
+        return copy;
+    }
+
+    /**
+     * Counts only variables initialised both in current scopes and in other scopes.
+     *
+     * @param other Scopes reached by other path.
+     */
+    private void join(ArrayDeque<Map<String, Boolean>> other) {
+        var others = other.iterator();
+        for (var scope : scopes) {
+            var that = others.next();
+            scope.replaceAll((name, initialized) -> initialized && that.get(name));
+        }
+    }
+}
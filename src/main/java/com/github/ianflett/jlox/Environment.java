@@ -3,8 +3,30 @@
 import java.util.HashMap;
 import java.util.Map;
 
-/** Stores variable values. */
+/**
+ * Stores variable values.
+ *
+ * <p>Variable captured by function is bound to {@link Cell} shared with function, through which it
+ * is read and assigned.
+ */
 public class Environment {
+
+    /** Holds value of variable captured by function, outliving scope which declared it. */
+    static final class Cell {
+
+        /** Stores value bound to variable. */
+        Object value;
+
+        /**
+         * Constructs {@link Cell}.
+         *
+         * @param value Initial value.
+         */
+        Cell(Object value) {
+            this.value = value;
+        }
+    }
+
     /** Stores outer scope. */
     private final Environment enclosing;
 
@@ -26,7 +48,7 @@ public Environment(final Environment enclosing) {
     }
 
     /**
-     * Constructs {@link Environment} for unit testing.
+     * Constructs global {@link Environment} storing variables in given {@link Map}.
      *
      * @param values Stores bound variables.
      */
@@ -54,7 +76,8 @@ public Environment(final Environment enclosing) {
      */
     Object get(Token name) {
         if (values.containsKey(name.lexeme())) {
-            return values.get(name.lexeme());
+            var value = values.get(name.lexeme());
+            return value instanceof Cell cell ? cell.value : value;
         }
 
         if (null != enclosing) return enclosing.get(name);
@@ -62,6 +85,22 @@ Object get(Token name) {
         throw new RuntimeError(name, "Undefined variable '" + name.lexeme() + "'.");
     }
 
+    /**
+     * Retrieves value bound to name which is proven to be defined, without checking it is.
+     *
+     * @param name Definition name.
+     * @return Bound value.
+     */
+    Object getDefined(String name) {
+        var environment = this;
+        while (true) {
+            var value = environment.values.get(name);
+            if (value instanceof Cell cell) return cell.value;
+            if (null != value || environment.values.containsKey(name)) return value;
+            environment = environment.enclosing;
+        }
+    }
+
     /**
      * Binds value to existing name.
      *
@@ -70,6 +109,10 @@ Object get(Token name) {
      * @throws RuntimeError Name undefined.
      */
     void assign(Token name, Object value) {
+        if (values.get(name.lexeme()) instanceof Cell cell) {
+            cell.value = value;
+            return;
+        }
         if (values.containsKey(name.lexeme())) {
             values.put(name.lexeme(), value);
             return;
@@ -92,4 +135,32 @@ void assign(Token name, Object value) {
     void define(String name, Object value) {
         values.put(name, value);
     }
+
+    /**
+     * Captures variable declared within this or enclosing scope, but not within outermost scope,
+     * binding it to {@link Cell} if not already.
+     *
+     * @param name Variable name.
+     * @param outermost Scope whose variables are not captured, such as global scope.
+     * @return {@link Cell} bound to variable; {@code null} if not declared within scopes searched.
+     */
+    Cell capture(String name, Environment outermost) {
+        for (var environment = this;
+                null != environment && outermost != environment;
+                environment = environment.enclosing) {
+            var value = environment.values.get(name);
+            if (value instanceof Cell cell) return cell;
+            if (null != value || environment.values.containsKey(name)) {
+                var cell = new Cell(value);
+                environment.values.put(name, cell);
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    /** Unbinds all names, so scope can be reused. */
+    void clear() {
+        values.clear();
+    }
 }
@@ -0,0 +1,137 @@
+package com.github.ianflett.jlox;
+
+import java.util.List;
+
+/**
+ * Fuses common shapes of expression into single nodes, so each is processed by single dispatch.
+ *
+ * <p>Binary operation on variable and literal becomes {@link Expr.BinaryVarConst}, on two
+ * variables becomes {@link Expr.BinaryVarVar}, and assignment of binary operation on same variable,
+ * such as {@code x = x + 1}, becomes {@link Expr.CompoundAssign}. Only reads proven to be
+ * initialised are fused, so fused nodes need not check them.
+ *
+ * <p>Other passes do not recognise fused nodes, so fusion must be last pass. Backends without
+ * specialised handling of fused node process its {@link #expand(Expr) expansion} instead.
+ */
+final class ExpressionFuser extends AstTransformer {
+
+    /**
+     * Fuses expressions within {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to fuse.
+     * @return Fused {@link Stmt}s.
+     */
+    static List<Stmt> fuse(List<Stmt> statements) {
+        return new ExpressionFuser().transform(statements);
+    }
+
+    /**
+     * Expands fused expression into expressions it replaced.
+     *
+     * @param expr Fused {@link Expr}ession.
+     * @return Equivalent unfused {@link Expr}ession; same {@link Expr}ession if not fused.
+     */
+    static Expr expand(Expr expr) {
+        return switch (expr) {
+            case Expr.BinaryVarConst fused ->
+                    new Expr.Binary(
+                            new Expr.Initialized(fused.name),
+                            fused.operator,
+                            new Expr.Literal(fused.value));
+            case Expr.BinaryVarVar fused ->
+                    new Expr.Binary(
+                            new Expr.Initialized(fused.left),
+                            fused.operator,
+                            new Expr.Initialized(fused.right));
+            case Expr.CompoundAssign fused ->
+                    new Expr.Assign(
+                            fused.name,
+                            new Expr.Binary(
+                                    new Expr.Initialized(fused.name), fused.operator, fused.value));
+            default -> expr;
+        };
+    }
+
+    /**
+     * Fuses assignment of binary operation on assigned variable.
+     *
+     * @param expr {@link Expr}ession to fuse.
+     * @return Fused {@link Expr}ession.
+     */
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        var name = expr.name.lexeme();
+        return switch (transform(expr.value)) {
+            case Expr.Binary binary when isRead(binary.left, name) ->
+                    new Expr.CompoundAssign(expr.name, binary.operator, binary.right);
+            case Expr.Numeric numeric when isRead(numeric.left, name) ->
+                    new Expr.CompoundAssign(expr.name, numeric.operator, numeric.right);
+            case Expr.BinaryVarConst fused when name.equals(fused.name.lexeme()) ->
+                    new Expr.CompoundAssign(
+                            expr.name, fused.operator, new Expr.Literal(fused.value));
+            case Expr.BinaryVarVar fused when name.equals(fused.left.lexeme()) ->
+                    new Expr.CompoundAssign(
+                            expr.name, fused.operator, new Expr.Initialized(fused.right));
+            case Expr value when value == expr.value -> expr;
+            case Expr value -> new Expr.Assign(expr.name, value);
+        };
+    }
+
+    /**
+     * Fuses binary operation on variable and literal or variable.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Fused left operand.
+     * @param right Fused right operand.
+     * @return Fused {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+        var fused = fuse(left, expr.operator, right);
+        return null == fused ? super.rewriteBinary(expr, left, right) : fused;
+    }
+
+    /**
+     * Fuses binary operation of numbers on variable and literal or variable.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Fused left operand.
+     * @param right Fused right operand.
+     * @return Fused {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+        var fused = fuse(left, expr.operator, right);
+        return null == fused ? super.rewriteNumeric(expr, left, right) : fused;
+    }
+
+    /**
+     * Fuses binary operation, if its left operand is variable and right is literal or variable.
+     *
+     * @param left Left operand.
+     * @param operator Operator applied.
+     * @param right Right operand.
+     * @return Fused {@link Expr}ession; {@code null} if not fusible.
+     */
+    private static Expr fuse(Expr left, Token operator, Expr right) {
+        if (!(left instanceof Expr.Initialized variable)) return null;
+        return switch (right) {
+            case Expr.Literal literal ->
+                    new Expr.BinaryVarConst(variable.name, operator, literal.value);
+            case Expr.Initialized other ->
+                    new Expr.BinaryVarVar(variable.name, operator, other.name);
+            default -> null;
+        };
+    }
+
+    /**
+     * Whether expression reads variable proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to examine.
+     * @param name Variable name.
+     * @return {@code true} if expression is read of variable; {@code false} otherwise.
+     */
+    private static boolean isRead(Expr expr, String name) {
+        return expr instanceof Expr.Initialized variable && name.equals(variable.name.lexeme());
+    }
+}
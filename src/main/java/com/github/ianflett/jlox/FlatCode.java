@@ -0,0 +1,121 @@
+package com.github.ianflett.jlox;
+
+import java.util.Arrays;
+
+/**
+ * Stores abstract syntax tree linearised into post-order steps by {@link Linearizer}, for
+ * execution by {@link FlatInterpreter}.
+ *
+ * <p>Each step is an operation paired with single operand, usually the {@link Token} or value of
+ * the node it was produced from.
+ */
+final class FlatCode {
+
+    // region Operations
+
+    /** Pushes operand. */
+    static final byte LITERAL = 0;
+
+    /** Pushes variable; operand is name {@link Token}. */
+    static final byte VARIABLE = 1;
+
+    /** Assigns top of stack to variable, leaving value on stack; operand is name {@link Token}. */
+    static final byte ASSIGN = 2;
+
+    /** Replaces top two values with result of binary operator; operand is operator token. */
+    static final byte BINARY = 3;
+
+    /** Replaces top value with result of unary operator; operand is operator {@link Token}. */
+    static final byte UNARY = 4;
+
+    /** Discards top of stack. */
+    static final byte POP = 5;
+
+    /** Pops and prints top of stack. */
+    static final byte PRINT = 6;
+
+    /** Pops top of stack into new variable; operand is name {@link Token}. */
+    static final byte DEFINE = 7;
+
+    /** Enters nested scope. */
+    static final byte BEGIN_SCOPE = 8;
+
+    /** Leaves innermost scope. */
+    static final byte END_SCOPE = 9;
+
+    /** Jumps unconditionally; operand is index of target step. */
+    static final byte JUMP = 10;
+
+    /** Pops top of stack, jumping if it is falsey; operand is index of target step. */
+    static final byte JUMP_IF_FALSE = 11;
+
+    /**
+     * Jumps if top of stack is falsey, leaving it on stack, otherwise pops it; operand is index of
+     * target step.
+     */
+    static final byte JUMP_IF_FALSE_OR_POP = 12;
+
+    /**
+     * Jumps if top of stack is truthy, leaving it on stack, otherwise pops it; operand is index of
+     * target step.
+     */
+    static final byte JUMP_IF_TRUE_OR_POP = 13;
+
+    /** Pushes variable proven to be initialised; operand is name. */
+    static final byte INITIALIZED = 14;
+
+    /** Empties innermost scope, so it can be reused for next iteration of loop. */
+    static final byte CLEAR_SCOPE = 15;
+
+    /**
+     * Replaces callee and arguments on top of stack with value callee returns; operand is call
+     * {@link Expr}.
+     */
+    static final byte CALL = 16;
+
+    /** Pops return value and returns it to caller. */
+    static final byte RETURN = 17;
+
+    /**
+     * Binds new function, capturing variables it references, to its name in current scope; operand
+     * is its declaration {@link Stmt}.
+     */
+    static final byte FUNCTION = 18;
+
+    // endregion
+
+    /** Initial capacity of {@link #operations}. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Stores operation of each step. */
+    byte[] operations = new byte[INITIAL_CAPACITY];
+
+    /** Stores operand of each step. */
+    Object[] operands = new Object[INITIAL_CAPACITY];
+
+    /** Stores number of steps. */
+    int count = 0;
+
+    /** Stores deepest operand stack required to execute steps. */
+    int maxStack = 0;
+
+    /** Stores deepest scope nesting entered by steps. */
+    int maxScopes = 0;
+
+    /**
+     * Appends step.
+     *
+     * @param operation Operation to perform.
+     * @param operand Operand of operation.
+     */
+    void write(byte operation, Object operand) {
+        if (operations.length == count) {
+            operations = Arrays.copyOf(operations, count * 2);
+            operands = Arrays.copyOf(operands, count * 2);
+        }
+
+        operations[count] = operation;
+        operands[count] = operand;
+        ++count;
+    }
+}
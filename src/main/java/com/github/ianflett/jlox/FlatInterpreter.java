@@ -0,0 +1,369 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.Interpreter.*;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes {@link FlatCode} produced by {@link Linearizer} on explicit operand, scope and frame
+ * stacks.
+ *
+ * <p>Produces same output and runtime errors as {@link Interpreter}, whose state and operand-level
+ * helpers it reuses, but never recurses, so nesting is bounded by heap rather than thread stack.
+ * Each call enters frame preallocated at its depth, whose outermost scope is emptied and reused,
+ * and returns by resuming caller's code, so call depth is bounded only by frame budget. Call in
+ * tail position instead reuses caller's frame, so tail recursion runs in constant frames.
+ */
+public final class FlatInterpreter implements Backend {
+
+    /** Initial number of operand stack slots. */
+    private static final int INITIAL_STACK_SIZE = 256;
+
+    /** Represents call in progress, reused by later calls at same depth. */
+    private static final class Frame {
+
+        /** Stores outermost scope of callee, emptied on return. */
+        final Environment scope;
+
+        /** Stores code of caller, resumed on return. */
+        FlatCode code;
+
+        /** Stores index of caller's call step. */
+        int ip;
+
+        /** Stores operand stack index of callee, replaced by return value. */
+        int base;
+
+        /** Stores scope nesting of caller. */
+        int depth;
+
+        /** Stores current scope of caller, restored on return. */
+        Environment caller;
+
+        /**
+         * Constructs {@link Frame}.
+         *
+         * @param globals Global scope, enclosing outermost scope of callee.
+         */
+        Frame(Environment globals) {
+            scope = new Environment(globals);
+        }
+    }
+
+    /** Stores variables and performs variable access. */
+    private final Interpreter interpreter;
+
+    /** Stores operand stack, reused between executions. */
+    private Object[] stack = new Object[INITIAL_STACK_SIZE];
+
+    /** Stores enclosing scopes of entered blocks, reused between executions. */
+    private Environment[] scopes = new Environment[0];
+
+    /** Stores frames of calls, reused between calls; allocated as calls first reach each depth. */
+    private Frame[] frames = new Frame[0];
+
+    /** Stores maximum number of calls in progress at once. */
+    private int frameBudget = DEFAULT_FRAME_BUDGET;
+
+    /** Stores linearised function bodies, by declaration. */
+    private final Map<Stmt.Function, FlatCode> bodies = new IdentityHashMap<>();
+
+    /** Stores code entering call made from {@link Interpreter}, by call expression. */
+    private final Map<Expr.Call, FlatCode> entries = new IdentityHashMap<>();
+
+    /** Constructs new {@link FlatInterpreter} printing to standard output. */
+    public FlatInterpreter() {
+        this(OutputSink.standardOutput());
+    }
+
+    /**
+     * Constructs new {@link FlatInterpreter}.
+     *
+     * @param sink Receives printed output.
+     */
+    public FlatInterpreter(OutputSink sink) {
+        this(new Interpreter(sink));
+    }
+
+    /**
+     * Constructs new {@link FlatInterpreter} running calls made by {@link Interpreter}.
+     *
+     * @param interpreter Stores variables and printed output.
+     */
+    FlatInterpreter(Interpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * Linearises and executes {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to execute.
+     */
+    @Override
+    public void interpret(List<Stmt> statements) {
+        try {
+            execute(Linearizer.linearize(statements));
+        } catch (RuntimeError error) {
+            Lox.runtimeError(error);
+        }
+    }
+
+    /**
+     * Linearises and evaluates single expression.
+     *
+     * @param expr {@link Expr}ession to evaluate.
+     * @return Value of expression.
+     * @throws RuntimeError Expression could not be evaluated.
+     */
+    @Override
+    public Object evaluate(Expr expr) {
+        return execute(Linearizer.linearize(expr));
+    }
+
+    /**
+     * Limits number of calls in progress at once.
+     *
+     * @param budget Maximum number of call frames.
+     * @throws IllegalArgumentException Budget is not positive.
+     */
+    @Override
+    public void limitFrames(int budget) {
+        if (0 >= budget) throw new IllegalArgumentException("Frame budget must be positive.");
+        frameBudget = budget;
+    }
+
+    /**
+     * Executes {@link FlatCode}, flushing output however it completes.
+     *
+     * @param code {@link FlatCode} to execute.
+     * @return Value left on top of stack; {@code null} if stack is empty.
+     * @throws RuntimeError Error encountered during execution.
+     */
+    Object execute(FlatCode code) {
+        return interpreter.buffered(() -> run(code, 0));
+    }
+
+    /**
+     * Calls value with arguments evaluated by {@link Interpreter}.
+     *
+     * @param callee Value called.
+     * @param expr Call {@link Expr}ession.
+     * @param arguments Evaluated arguments.
+     * @return Value returned by callee.
+     * @throws RuntimeError Callee is not function, arguments do not match its parameters, or
+     *     frame budget is exhausted.
+     */
+    Object call(Object callee, Expr.Call expr, Object[] arguments) {
+        if (stack.length <= arguments.length) stack = new Object[arguments.length + 1];
+        stack[0] = callee;
+        System.arraycopy(arguments, 0, stack, 1, arguments.length);
+
+        var entry = entries.get(expr);
+        if (null == entry) {
+            entry = new FlatCode();
+            entry.write(FlatCode.CALL, expr);
+            entry.maxStack = arguments.length + 1;
+            entries.put(expr, entry);
+        }
+        return run(entry, arguments.length + 1);
+    }
+
+    /**
+     * Runs {@link FlatCode}, restoring outermost scope however it completes.
+     *
+     * @param code {@link FlatCode} to run.
+     * @param sp Number of values already on stack.
+     * @return Value left on top of stack; {@code null} if stack is empty.
+     * @throws RuntimeError Error encountered during execution.
+     */
+    private Object run(FlatCode code, int sp) {
+        if (stack.length < code.maxStack) stack = Arrays.copyOf(stack, code.maxStack);
+        if (scopes.length < code.maxScopes) scopes = new Environment[code.maxScopes];
+
+        var stack = this.stack;
+        var scopes = this.scopes;
+        var operations = code.operations;
+        var operands = code.operands;
+        var outermost = interpreter.currentScope();
+        var depth = 0;
+        var frameCount = 0;
+        var highStack = code.maxStack;
+        var highScopes = code.maxScopes;
+
+        try {
+            for (var ip = 0; ip < code.count; ++ip) {
+                var operand = operands[ip];
+                switch (operations[ip]) {
+                    case FlatCode.LITERAL -> stack[sp++] = operand;
+                    case FlatCode.VARIABLE -> stack[sp++] = interpreter.lookUp((Token) operand);
+                    case FlatCode.INITIALIZED ->
+                            stack[sp++] = interpreter.lookUpInitialized((String) operand);
+                    case FlatCode.ASSIGN ->
+                            stack[sp - 1] = interpreter.assign((Token) operand, stack[sp - 1]);
+
+                    case FlatCode.BINARY -> {
+                        var right = stack[--sp];
+                        stack[sp - 1] = binary(stack[sp - 1], (Token) operand, right);
+                    }
+                    case FlatCode.UNARY -> stack[sp - 1] = unary((Token) operand, stack[sp - 1]);
+
+                    case FlatCode.POP -> --sp;
+                    case FlatCode.PRINT -> interpreter.print(stack[--sp]);
+                    case FlatCode.DEFINE -> interpreter.define((Token) operand, stack[--sp]);
+
+                    case FlatCode.BEGIN_SCOPE -> scopes[depth++] = interpreter.beginScope();
+                    case FlatCode.END_SCOPE -> interpreter.endScope(scopes[--depth]);
+                    case FlatCode.CLEAR_SCOPE -> interpreter.clearScope();
+
+                    // Jump targets are decremented to counter loop increment.
+                    case FlatCode.JUMP -> ip = (int) operand - 1;
+                    case FlatCode.JUMP_IF_FALSE -> {
+                        if (!isTruthy(stack[--sp])) ip = (int) operand - 1;
+                    }
+                    case FlatCode.JUMP_IF_FALSE_OR_POP -> {
+                        if (isTruthy(stack[sp - 1])) --sp;
+                        else ip = (int) operand - 1;
+                    }
+                    case FlatCode.JUMP_IF_TRUE_OR_POP -> {
+                        if (isTruthy(stack[sp - 1])) ip = (int) operand - 1;
+                        else --sp;
+                    }
+
+                    case FlatCode.FUNCTION -> interpreter.declare((Stmt.Function) operand);
+                    case FlatCode.CALL -> {
+                        var call = (Expr.Call) operand;
+                        var base = sp - call.arguments.size() - 1;
+                        var function = callee(stack[base], call);
+                        Frame frame;
+                        if (call.tail && 0 < frameCount) {
+                            // Callee replaces current function, keeping its frame.
+                            frame = frames[frameCount - 1];
+                            System.arraycopy(
+                                    stack, base, stack, frame.base, call.arguments.size() + 1);
+                            base = frame.base;
+                            depth = frame.depth;
+                            frame.scope.clear();
+                            interpreter.beginScope(frame.scope);
+                        } else {
+                            if (frameBudget <= frameCount) {
+                                throw new RuntimeError(call.paren, STACK_OVERFLOW);
+                            }
+
+                            frame = frame(frameCount++);
+                            frame.code = code;
+                            frame.ip = ip;
+                            frame.base = base;
+                            frame.depth = depth;
+                            frame.caller = interpreter.beginScope(frame.scope);
+                        }
+                        for (var i = 0; i < function.names.length; ++i) {
+                            frame.scope.define(function.names[i], function.cells[i]);
+                        }
+                        var params = function.declaration.params;
+                        for (var i = 0; i < params.size(); ++i) {
+                            frame.scope.define(params.get(i).lexeme(), stack[base + 1 + i]);
+                        }
+
+                        code = body(function);
+                        operations = code.operations;
+                        operands = code.operands;
+                        sp = base;
+                        ip = -1;
+
+                        if (stack.length < sp + code.maxStack) {
+                            stack = this.stack = Arrays.copyOf(stack, 2 * (sp + code.maxStack));
+                        }
+                        if (highStack < sp + code.maxStack) highStack = sp + code.maxStack;
+                        if (scopes.length < depth + code.maxScopes) {
+                            scopes =
+                                    this.scopes =
+                                            Arrays.copyOf(scopes, 2 * (depth + code.maxScopes));
+                        }
+                        if (highScopes < depth + code.maxScopes) {
+                            highScopes = depth + code.maxScopes;
+                        }
+                    }
+                    case FlatCode.RETURN -> {
+                        var value = stack[--sp];
+                        var frame = frames[--frameCount];
+                        frame.scope.clear();
+                        interpreter.endScope(frame.caller);
+
+                        code = frame.code;
+                        operations = code.operations;
+                        operands = code.operands;
+                        ip = frame.ip;
+                        depth = frame.depth;
+                        sp = frame.base;
+                        stack[sp++] = value;
+                    }
+
+                    default -> throw new IllegalStateException("Unknown operation.");
+                }
+            }
+            return 0 == sp ? null : stack[sp - 1];
+        } finally {
+            interpreter.endScope(outermost);
+            while (0 < frameCount) {
+                var frame = frames[--frameCount];
+                frame.scope.clear();
+                frame.code = null;
+                frame.caller = null;
+            }
+            Arrays.fill(stack, 0, highStack, null);
+            Arrays.fill(scopes, 0, highScopes, null);
+        }
+    }
+
+    /**
+     * Checks value called is function accepting number of arguments passed.
+     *
+     * @param callee Value called.
+     * @param call Call {@link Expr}ession.
+     * @return Function called.
+     * @throws RuntimeError Callee is not function, or arguments do not match its parameters.
+     */
+    private static LoxFunction callee(Object callee, Expr.Call call) {
+        if (!(callee instanceof LoxFunction function)) {
+            throw new RuntimeError(call.paren, CAN_ONLY_CALL_FUNCTIONS);
+        }
+        if (function.arity() != call.arguments.size()) {
+            throw new RuntimeError(
+                    call.paren, arityMismatch(function.arity(), call.arguments.size()));
+        }
+        return function;
+    }
+
+    /**
+     * Gets frame at call depth, allocating it on first call to reach depth.
+     *
+     * @param index Call depth.
+     * @return {@link Frame} at depth.
+     */
+    private Frame frame(int index) {
+        if (frames.length == index) {
+            frames = Arrays.copyOf(frames, Math.min(frameBudget, Math.max(8, 2 * index)));
+        }
+        var frame = frames[index];
+        if (null == frame) frames[index] = frame = new Frame(interpreter.globals());
+        return frame;
+    }
+
+    /**
+     * Gets linearised body of function, linearising it on first call.
+     *
+     * @param function {@link LoxFunction} called.
+     * @return {@link FlatCode} of body.
+     */
+    private FlatCode body(LoxFunction function) {
+        var body = bodies.get(function.declaration);
+        if (null == body) {
+            body = Linearizer.linearize(function.declaration);
+            bodies.put(function.declaration, body);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.ianflett.jlox;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalises equal {@link String}s to single instance, so they share memory and compare equal
+ * by identity.
+ *
+ * <p>Strings are held weakly, so those no longer referenced elsewhere are reclaimed.
+ */
+final class Interner {
+
+    /** Stores canonical instances, keyed by themselves. */
+    private final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+
+    /**
+     * Retrieves canonical instance of {@link String}, which becomes canonical if none exists.
+     *
+     * @param string {@link String} to canonicalise.
+     * @return Canonical instance equal to {@code string}.
+     */
+    String intern(String string) {
+        var reference = strings.get(string);
+        var canonical = null == reference ? null : reference.get();
+        if (null != canonical) return canonical;
+
+        strings.put(string, new WeakReference<>(string));
+        return string;
+    }
+}
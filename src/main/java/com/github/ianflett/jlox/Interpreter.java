@@ -1,20 +1,70 @@
 package com.github.ianflett.jlox;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-/** Interprets abstract syntax tree. */
-public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
+/**
+ * Interprets abstract syntax tree.
+ *
+ * <p>Function bodies are not interpreted here but linearised and run by {@link FlatInterpreter}
+ * sharing this interpreter's variables, so Lox calls nest on its explicit frame stack rather than
+ * recursing on thread stack, and return without unwinding by exception. Functions capture only
+ * variables they reference from enclosing scopes other than global scope, as {@link
+ * Environment.Cell}s.
+ */
+public class Interpreter implements Backend, Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     /** {@link Environment} for storing bound variables. */
     private Environment environment;
 
+    /** Stores global scope, which encloses outermost scope of each call. */
+    private final Environment globals;
+
     /** Stores uninitialised indicator. */
     static final Object UNINITIALIZED = new Object();
 
-    /** Constructs new {@link Interpreter}. */
+    /** Compiles hot statements to JVM bytecode; {@code null} if disabled. */
+    private Jit jit = null;
+
+    /** Records executions; {@code null} if disabled. */
+    private Profile profile = null;
+
+    /** Notified as each loop iteration ends; {@code null} if none. */
+    private Consumer<Stmt.While> backEdgeListener = null;
+
+    /** Buffers printed values. */
+    private final OutputWriter output;
+
+    /** Stores whether {@link #interpret(List)} is running, so output is flushed once it ends. */
+    private boolean interpreting = false;
+
+    /** Runs calls on explicit frame stack; {@code null} until first call. */
+    private FlatInterpreter calls = null;
+
+    /** Stores maximum number of calls in progress at once. */
+    private int frameBudget = DEFAULT_FRAME_BUDGET;
+
+    /** Caches names of variables each function declaration references but does not declare. */
+    private final Map<Stmt.Function, String[]> freeVariables = new IdentityHashMap<>();
+
+    /** Constructs new {@link Interpreter} printing to standard output. */
     Interpreter() {
-        this(new Environment());
+        this(OutputSink.standardOutput());
+    }
+
+    /**
+     * Constructs new {@link Interpreter}.
+     *
+     * @param sink Receives printed output.
+     */
+    public Interpreter(OutputSink sink) {
+        this(new Environment(), sink);
     }
 
     /**
@@ -23,7 +73,61 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      * @param environment Environment to use.
      */
     Interpreter(Environment environment) {
+        this(environment, OutputSink.standardOutput());
+    }
+
+    /**
+     * Constructs new {@link Interpreter}.
+     *
+     * @param environment Environment to use.
+     * @param sink Receives printed output.
+     */
+    Interpreter(Environment environment, OutputSink sink) {
         this.environment = environment;
+        globals = environment;
+        output = new OutputWriter(sink);
+    }
+
+    /**
+     * Enables compilation of hot statements to JVM bytecode.
+     *
+     * @param threshold Number of executions before statement is compiled.
+     * @throws IllegalArgumentException Threshold is not positive.
+     */
+    void enableJit(int threshold) {
+        jit = new Jit(threshold);
+    }
+
+    /**
+     * Enables recording of executions.
+     *
+     * @param profile {@link Profile} of statements to be interpreted.
+     */
+    void enableProfiling(Profile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Limits number of calls in progress at once.
+     *
+     * @param budget Maximum number of call frames.
+     * @throws IllegalArgumentException Budget is not positive.
+     */
+    @Override
+    public void limitFrames(int budget) {
+        if (0 >= budget) throw new IllegalArgumentException("Frame budget must be positive.");
+        frameBudget = budget;
+        if (null != calls) calls.limitFrames(budget);
+    }
+
+    /**
+     * Sets listener notified as each iteration of loop ends, before its condition is evaluated
+     * again, such as to cancel long-running loops by throwing {@link RuntimeError}.
+     *
+     * @param listener Receives loop whose iteration ended; {@code null} to remove listener.
+     */
+    void onBackEdge(Consumer<Stmt.While> listener) {
+        backEdgeListener = listener;
     }
 
     /**
@@ -31,13 +135,23 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
      *
      * @param statements {@link Stmt}s to interpret.
      */
-    void interpret(List<Stmt> statements) {
+    @Override
+    public void interpret(List<Stmt> statements) {
+        interpreting = true;
         try {
             for (var statement : statements) {
+                // Blocks are profiled when visited, so nested blocks are profiled too.
+                if (null != jit
+                        && !(statement instanceof Stmt.Block)
+                        && jit.execute(statement, this)) continue;
                 execute(statement);
             }
         } catch (RuntimeError error) {
+            output.flush();
             Lox.runtimeError(error);
+        } finally {
+            interpreting = false;
+            output.flush();
         }
     }
 
@@ -52,35 +166,90 @@ void interpret(List<Stmt> statements) {
     public Object visitBinaryExpr(Expr.Binary expr) {
         var left = evaluate(expr.left);
         var right = evaluate(expr.right);
+        if (null != profile) profile.observed(expr, left, right);
+
+        return binary(left, expr.operator, right);
+    }
+
+    /**
+     * Processes fused binary operation on variable proven to be initialised and literal.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value of expression.
+     * @throws RuntimeError Division by zero or invalid operand types used.
+     */
+    @Override
+    public Object visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        return binary(environment.getDefined(expr.name.lexeme()), expr.operator, expr.value);
+    }
 
-        return switch (expr.operator.type()) {
+    /**
+     * Processes fused binary operation on two variables proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value of expression.
+     * @throws RuntimeError Division by zero or invalid operand types used.
+     */
+    @Override
+    public Object visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        return binary(
+                environment.getDefined(expr.left.lexeme()),
+                expr.operator,
+                environment.getDefined(expr.right.lexeme()));
+    }
+
+    /**
+     * Processes fused assignment of binary operation on assigned variable, which is proven to be
+     * initialised.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Assigned value.
+     * @throws RuntimeError Division by zero or invalid operand types used.
+     */
+    @Override
+    public Object visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        var left = environment.getDefined(expr.name.lexeme());
+        var right = evaluate(expr.value);
+        return assign(expr.name, binary(left, expr.operator, right));
+    }
+
+    /**
+     * Applies binary operator to evaluated operands.
+     *
+     * @param left Left operand.
+     * @param operator Operator applied.
+     * @param right Right operand.
+     * @return Result of operation.
+     * @throws RuntimeError Division by zero or invalid operand types used.
+     */
+    static Object binary(Object left, Token operator, Object right) {
+        return switch (operator.type()) {
             case BANG_EQUAL -> !isEqual(left, right);
             case EQUAL_EQUAL -> isEqual(left, right);
 
-            case GREATER -> compare(left, expr.operator, right, (l, r) -> l > r);
-            case GREATER_EQUAL -> compare(left, expr.operator, right, (l, r) -> l >= r);
-            case LESS -> compare(left, expr.operator, right, (l, r) -> l < r);
-            case LESS_EQUAL -> compare(left, expr.operator, right, (l, r) -> l <= r);
+            case GREATER -> compare(left, operator, right, (l, r) -> Numbers.less(r, l));
+            case GREATER_EQUAL -> compare(left, operator, right, (l, r) -> Numbers.lessEqual(r, l));
+            case LESS -> compare(left, operator, right, Numbers::less);
+            case LESS_EQUAL -> compare(left, operator, right, Numbers::lessEqual);
 
-            case MINUS -> arithmetic(left, expr.operator, right, (l, r) -> l - r);
+            case MINUS -> arithmetic(left, operator, right, Numbers::subtract);
             case SLASH -> {
-                checkNumberOperands(expr.operator, left, right);
-                if (0d == (double) right) {
-                    throw new RuntimeError(expr.operator, "Division by zero.");
+                checkNumberOperands(operator, left, right);
+                if (Numbers.isZero((Number) right)) {
+                    throw new RuntimeError(operator, DIVISION_BY_ZERO);
                 }
-                yield (double) left / (double) right;
+                yield Numbers.divide((Number) left, (Number) right);
             }
-            case STAR -> arithmetic(left, expr.operator, right, (l, r) -> l * r);
+            case STAR -> arithmetic(left, operator, right, Numbers::multiply);
 
             case PLUS -> {
-                if (left instanceof Double && right instanceof Double) {
-                    yield (double) left + (double) right;
+                if (left instanceof Number l && right instanceof Number r) {
+                    yield Numbers.add(l, r);
                 }
-                if (left instanceof String || right instanceof String) {
-                    yield (null != left ? left.toString() : "null")
-                            + (null != right ? right.toString() : "null");
+                if (left instanceof CharSequence || right instanceof CharSequence) {
+                    yield concatenate(left, right);
                 }
-                throw new RuntimeError(expr.operator, OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS);
+                throw new RuntimeError(operator, OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS);
             }
 
             default -> null; // Unreachable.
@@ -88,18 +257,100 @@ public Object visitBinaryExpr(Expr.Binary expr) {
     }
 
     /**
-     * Processes conditional expression.
+     * Processes call expression, evaluating callee and then arguments in order.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value returned by callee.
+     * @throws RuntimeError Callee is not function, arguments do not match its parameters, or
+     *     frame budget is exhausted.
+     */
+    @Override
+    public Object visitCallExpr(Expr.Call expr) {
+        var callee = evaluate(expr.callee);
+        var arguments = new Object[expr.arguments.size()];
+        for (var i = 0; i < arguments.length; ++i) {
+            arguments[i] = evaluate(expr.arguments.get(i));
+        }
+        return call(callee, expr, arguments);
+    }
+
+    /**
+     * Calls value with evaluated arguments on explicit frame stack.
+     *
+     * @param callee Value called.
+     * @param expr Call {@link Expr}ession.
+     * @param arguments Evaluated arguments.
+     * @return Value returned by callee.
+     * @throws RuntimeError Callee is not function, arguments do not match its parameters, or
+     *     frame budget is exhausted.
+     */
+    Object call(Object callee, Expr.Call expr, Object[] arguments) {
+        if (null == calls) {
+            calls = new FlatInterpreter(this);
+            calls.limitFrames(frameBudget);
+        }
+        return calls.call(callee, expr, arguments);
+    }
+
+    /**
+     * Processes n-ary concatenation expression.
+     *
+     * <p>Operands are added in order until one is string, after which remaining additions are
+     * concatenations, so their operands are copied once into presized {@link StringBuilder}.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value of expression.
+     * @throws RuntimeError Invalid operand types used.
+     */
+    @Override
+    public Object visitConcatenationExpr(Expr.Concatenation expr) {
+        var operands = expr.operands;
+        var result = evaluate(operands.getFirst());
+        var i = 1;
+        for (; i < operands.size() && !(result instanceof CharSequence); ++i) {
+            result = binary(result, expr.operators.get(i - 1), evaluate(operands.get(i)));
+        }
+        if (operands.size() == i) return result;
+
+        var parts = new CharSequence[operands.size() - i + 1];
+        parts[0] = (CharSequence) result;
+        var length = (long) parts[0].length();
+        for (var part = 1; i < operands.size(); ++i, ++part) {
+            parts[part] = toConcatenable(evaluate(operands.get(i)));
+            length += parts[part].length();
+        }
+        if (Integer.MAX_VALUE < length) throw new OutOfMemoryError("String length exceeds limit.");
+
+        var builder = new StringBuilder((int) length);
+        for (var part : parts) {
+            builder.append(part.toString());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Processes conditional expression, evaluating only selected branch.
      *
      * @param expr {@link Expr}ession to process.
      * @return Value of expression.
      */
     @Override
     public Object visitConditionalExpr(Expr.Conditional expr) {
-        var condition = evaluate(expr.condition);
-        var thenBranch = evaluate(expr.thenBranch);
-        var elseBranch = evaluate(expr.elseBranch);
+        var then = isTruthy(evaluate(expr.condition));
+        if (null != profile) profile.branched(expr, then);
 
-        return condition.equals(true) ? thenBranch : elseBranch;
+        return then ? evaluate(expr.thenBranch) : evaluate(expr.elseBranch);
+    }
+
+    /**
+     * Processes variable expression proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Variable value.
+     */
+    @Override
+    public Object visitInitializedExpr(Expr.Initialized expr) {
+        return environment.getDefined(expr.name.lexeme());
     }
 
     /**
@@ -124,6 +375,69 @@ public Object visitLiteralExpr(Expr.Literal expr) {
         return expr.value;
     }
 
+    /**
+     * Processes logical expression, evaluating right operand only if left does not decide result.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value of deciding operand.
+     */
+    @Override
+    public Object visitLogicalExpr(Expr.Logical expr) {
+        var left = evaluate(expr.left);
+
+        if (TokenType.OR == expr.operator.type() ? isTruthy(left) : !isTruthy(left)) return left;
+        return evaluate(expr.right);
+    }
+
+    /**
+     * Processes binary expression whose operands are proven, or were profiled, to be numbers.
+     *
+     * <p>Only operands of speculative expressions, specialised by profile, are checked.
+     *
+     * @param expr {@link Expr}ession to process.
+     * @return Value of expression.
+     * @throws RuntimeError Division by zero, or invalid operand types used where speculative.
+     */
+    @Override
+    public Object visitNumericExpr(Expr.Numeric expr) {
+        var left = evaluate(expr.left);
+        var right = evaluate(expr.right);
+        if (null != profile) profile.observed(expr, left, right);
+
+        if (expr.speculative && !(left instanceof Number && right instanceof Number)) {
+            return binary(left, expr.operator, right);
+        }
+        return numeric((Number) left, expr.operator, (Number) right);
+    }
+
+    /**
+     * Applies binary operator to numbers, without checking operand types.
+     *
+     * @param left Left operand.
+     * @param operator Operator applied.
+     * @param right Right operand.
+     * @return Result of operation.
+     * @throws RuntimeError Division by zero.
+     */
+    static Object numeric(Number left, Token operator, Number right) {
+        return switch (operator.type()) {
+            case GREATER -> Numbers.less(right, left);
+            case GREATER_EQUAL -> Numbers.lessEqual(right, left);
+            case LESS -> Numbers.less(left, right);
+            case LESS_EQUAL -> Numbers.lessEqual(left, right);
+
+            case MINUS -> Numbers.subtract(left, right);
+            case PLUS -> Numbers.add(left, right);
+            case SLASH -> {
+                if (Numbers.isZero(right)) throw new RuntimeError(operator, DIVISION_BY_ZERO);
+                yield Numbers.divide(left, right);
+            }
+            case STAR -> Numbers.multiply(left, right);
+
+            default -> binary(left, operator, right);
+        };
+    }
+
     /**
      * Processes unary expression.
      *
@@ -134,11 +448,23 @@ public Object visitLiteralExpr(Expr.Literal expr) {
     public Object visitUnaryExpr(Expr.Unary expr) {
         var right = evaluate(expr.right);
 
-        return switch (expr.operator.type()) {
+        return unary(expr.operator, right);
+    }
+
+    /**
+     * Applies unary operator to evaluated operand.
+     *
+     * @param operator Operator applied.
+     * @param right Operand.
+     * @return Result of operation.
+     * @throws RuntimeError Invalid operand type used.
+     */
+    static Object unary(Token operator, Object right) {
+        return switch (operator.type()) {
             case BANG -> !isTruthy(right);
             case MINUS -> {
-                checkNumberOperand(expr.operator, right);
-                yield -(double) right;
+                checkNumberOperand(operator, right);
+                yield Numbers.negate((Number) right);
             }
 
             default -> null; // Unreachable.
@@ -153,14 +479,34 @@ public Object visitUnaryExpr(Expr.Unary expr) {
      */
     @Override
     public Object visitVariableExpr(Expr.Variable expr) {
-        var value = environment.get(expr.name);
+        return lookUp(expr.name);
+    }
+
+    /**
+     * Retrieves value bound to variable in current scope.
+     *
+     * @param name Variable name.
+     * @return Bound value.
+     * @throws RuntimeError Variable undefined or uninitialised.
+     */
+    Object lookUp(Token name) {
+        var value = environment.get(name);
         if (value == UNINITIALIZED)
-            throw new RuntimeError(
-                    expr.name, "Uninitialized variable '" + expr.name.lexeme() + "'.");
+            throw new RuntimeError(name, "Uninitialized variable '" + name.lexeme() + "'.");
 
         return value;
     }
 
+    /**
+     * Retrieves value bound to variable in current scope, which is proven to be initialised.
+     *
+     * @param name Variable name.
+     * @return Bound value.
+     */
+    Object lookUpInitialized(String name) {
+        return environment.getDefined(name);
+    }
+
     /**
      * Performs standard comparison.
      *
@@ -175,12 +521,12 @@ private static boolean compare(
             Object left,
             Token operator,
             Object right,
-            BiFunction<Double, Double, Boolean> operation) {
-        if (left instanceof Double && right instanceof Double) {
-            return operation.apply((double) left, (double) right);
+            BiPredicate<Number, Number> operation) {
+        if (left instanceof Number l && right instanceof Number r) {
+            return operation.test(l, r);
         }
-        if (left instanceof String && right instanceof String) {
-            return operation.apply((double) ((String) left).compareTo((String) right), 0d);
+        if (left instanceof CharSequence l && right instanceof CharSequence r) {
+            return operation.test(l == r ? 0 : l.toString().compareTo(r.toString()), 0);
         }
         throw new RuntimeError(operator, OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS);
     }
@@ -194,13 +540,36 @@ private static boolean compare(
      * @param operation Comparison.
      * @return Result of operation on operands.
      */
-    private static double arithmetic(
+    private static Number arithmetic(
             Object left,
             Token operator,
             Object right,
-            BiFunction<Double, Double, Double> operation) {
+            BinaryOperator<Number> operation) {
         checkNumberOperands(operator, left, right);
-        return operation.apply((double) left, (double) right);
+        return operation.apply((Number) left, (Number) right);
+    }
+
+    /**
+     * Concatenates string representations of operands.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Concatenated string.
+     */
+    static CharSequence concatenate(Object left, Object right) {
+        return Rope.concat(toConcatenable(left), toConcatenable(right));
+    }
+
+    /**
+     * Converts operand of concatenation to string, leaving strings unflattened.
+     *
+     * @param operand Operand to convert.
+     * @return String representation of operand.
+     */
+    private static CharSequence toConcatenable(Object operand) {
+        if (null == operand) return "null";
+        if (operand instanceof CharSequence string) return string;
+        return operand instanceof Number number ? Numbers.toString(number) : operand.toString();
     }
 
     /**
@@ -211,8 +580,8 @@ private static double arithmetic(
      * @throws RuntimeError Invalid operand types used.
      */
     private static void checkNumberOperand(Token operator, Object operand) {
-        if (operand instanceof Double) return;
-        throw new RuntimeError(operator, "Operand must be a number.");
+        if (operand instanceof Number) return;
+        throw new RuntimeError(operator, OPERAND_MUST_BE_A_NUMBER);
     }
 
     /**
@@ -224,8 +593,8 @@ private static void checkNumberOperand(Token operator, Object operand) {
      * @throws RuntimeError Invalid operand types used.
      */
     private static void checkNumberOperands(Token operator, Object left, Object right) {
-        if (left instanceof Double && right instanceof Double) return;
-        throw new RuntimeError(operator, "Operands must be numbers.");
+        if (left instanceof Number && right instanceof Number) return;
+        throw new RuntimeError(operator, OPERANDS_MUST_BE_NUMBERS);
     }
 
     /**
@@ -234,7 +603,9 @@ private static void checkNumberOperands(Token operator, Object left, Object righ
      * @param expr {@link Expr}ession.
      * @return {@link Expr.Visitor}'s return.
      */
-    Object evaluate(Expr expr) {
+    @Override
+    public Object evaluate(Expr expr) {
+        if (null != profile) profile.executed(expr);
         return expr.accept(this);
         //return null == expr ? null : expr.accept(this);
     }
@@ -244,10 +615,42 @@ Object evaluate(Expr expr) {
      *
      * @param stmt {@link Stmt} to execute.
      */
-    private void execute(Stmt stmt) {
+    void execute(Stmt stmt) {
         stmt.accept(this);
     }
 
+    /**
+     * Executes statement, flushing its output however it completes.
+     *
+     * @param stmt {@link Stmt} to execute.
+     * @throws RuntimeError Statement could not be executed.
+     */
+    void executeAndFlush(Stmt stmt) {
+        buffered(
+                () -> {
+                    execute(stmt);
+                    return null;
+                });
+    }
+
+    /**
+     * Runs action with printed output buffered until it ends, flushing output however it
+     * completes.
+     *
+     * @param action Action to run.
+     * @param <T> Type of result.
+     * @return Result of action.
+     */
+    <T> T buffered(Supplier<T> action) {
+        interpreting = true;
+        try {
+            return action.get();
+        } finally {
+            interpreting = false;
+            output.flush();
+        }
+    }
+
     /**
      * Calls statements' {@link Stmt.Visitor} implementations.
      *
@@ -267,6 +670,75 @@ private void executeBlock(List<Stmt> statements, Environment environment) {
         }
     }
 
+    /**
+     * Enters new scope nested within current scope.
+     *
+     * @return Previous scope, to be restored by {@link #endScope(Environment)}.
+     */
+    Environment beginScope() {
+        var previous = environment;
+        environment = new Environment(previous);
+        return previous;
+    }
+
+    /**
+     * Enters given scope in place of current scope, such as outermost scope of call.
+     *
+     * @param scope Scope to enter.
+     * @return Previous scope, to be restored by {@link #endScope(Environment)}.
+     */
+    Environment beginScope(Environment scope) {
+        var previous = environment;
+        environment = scope;
+        return previous;
+    }
+
+    /**
+     * Gets current scope.
+     *
+     * @return Current {@link Environment}.
+     */
+    Environment currentScope() {
+        return environment;
+    }
+
+    /**
+     * Gets global scope, which encloses outermost scope of each call.
+     *
+     * @return Global {@link Environment}.
+     */
+    Environment globals() {
+        return globals;
+    }
+
+    /**
+     * Leaves scope entered by {@link #beginScope()}.
+     *
+     * @param previous Scope to restore.
+     */
+    void endScope(Environment previous) {
+        environment = previous;
+    }
+
+    /**
+     * Empties current scope, so it can be reused for next iteration of loop.
+     *
+     * <p>Names declared in previous iteration then resolve to enclosing scopes until redeclared,
+     * as they would in new scope.
+     */
+    void clearScope() {
+        environment.clear();
+    }
+
+    /**
+     * Notifies listener that iteration of loop ended.
+     *
+     * @param stmt Loop whose iteration ended.
+     */
+    void backEdge(Stmt.While stmt) {
+        if (null != backEdgeListener) backEdgeListener.accept(stmt);
+    }
+
     /**
      * Processes block statement.
      *
@@ -274,6 +746,8 @@ private void executeBlock(List<Stmt> statements, Environment environment) {
      * @return {@code null}.
      */
     public Void visitBlockStmt(Stmt.Block stmt) {
+        if (null != jit && jit.execute(stmt, this)) return null;
+
         executeBlock(stmt.statements, new Environment(environment));
         return null;
     }
@@ -290,6 +764,34 @@ public Void visitExpressionStmt(Stmt.Expression stmt) {
         return null;
     }
 
+    /**
+     * Processes {@code fun} statement, binding new function to its name in current scope.
+     *
+     * @param stmt {@link Stmt} to process.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        declare(stmt);
+        return null;
+    }
+
+    /**
+     * Processes {@code if} statement, executing only selected branch.
+     *
+     * @param stmt {@link Stmt} to process.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        if (isTruthy(evaluate(stmt.condition))) {
+            execute(stmt.thenBranch);
+        } else if (null != stmt.elseBranch) {
+            execute(stmt.elseBranch);
+        }
+        return null;
+    }
+
     /**
      * Processes {@code print} statement.
      *
@@ -299,10 +801,33 @@ public Void visitExpressionStmt(Stmt.Expression stmt) {
     @Override
     public Void visitPrintStmt(Stmt.Print stmt) {
         var value = evaluate(stmt.expression);
-        System.out.println(stringify(value));
+        print(value);
         return null;
     }
 
+    /**
+     * Rejects {@code return} statement outside function body, which {@link Parser} reports, as
+     * function bodies are run by {@link FlatInterpreter}.
+     *
+     * @param stmt {@link Stmt} to process.
+     * @return Nothing.
+     * @throws IllegalStateException Always.
+     */
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        throw new IllegalStateException("Return outside function.");
+    }
+
+    /**
+     * Outputs value, buffering it until {@link #interpret(List)} ends if running.
+     *
+     * @param value Value to output.
+     */
+    void print(Object value) {
+        output.print(value);
+        if (!interpreting) output.flush();
+    }
+
     /**
      * Processes {@code var} statement.
      *
@@ -316,10 +841,94 @@ public Void visitVarStmt(Stmt.Var stmt) {
             value = evaluate(stmt.initializer);
         }
 
-        environment.define(stmt.name.lexeme(), value);
+        define(stmt.name, value);
         return null;
     }
 
+    /**
+     * Processes {@code while} statement.
+     *
+     * <p>Block body's scope is allocated once per loop and emptied after each iteration, rather
+     * than allocated for each. Once hot, remaining iterations are run by compiled loop.
+     *
+     * @param stmt {@link Stmt} to process.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        if (!(stmt.body instanceof Stmt.Block body)) {
+            while (isTruthy(evaluate(stmt.condition))) {
+                execute(stmt.body);
+                backEdge(stmt);
+                if (null != jit && jit.execute(stmt, this)) break;
+            }
+            return null;
+        }
+
+        var previous = environment;
+        var frame = new Environment(previous);
+        try {
+            while (isTruthy(evaluate(stmt.condition))) {
+                environment = frame;
+                for (var statement : body.statements) {
+                    execute(statement);
+                }
+                environment = previous;
+                frame.clear();
+
+                backEdge(stmt);
+                if (null != jit && jit.execute(stmt, this)) break;
+            }
+        } finally {
+            environment = previous;
+        }
+        return null;
+    }
+
+    /**
+     * Binds value to new variable in current scope.
+     *
+     * @param name Variable name.
+     * @param value Bound value.
+     */
+    void define(Token name, Object value) {
+        environment.define(name.lexeme(), value);
+    }
+
+    /**
+     * Binds new function to its name in current scope, capturing variables it references from
+     * enclosing scopes other than global scope.
+     *
+     * <p>Local function is bound before capturing, so it may call itself.
+     *
+     * @param stmt Function declaration {@link Stmt}.
+     */
+    void declare(Stmt.Function stmt) {
+        var name = stmt.name.lexeme();
+        var local = globals != environment;
+        if (local) environment.define(name, null);
+
+        var free = freeVariables.computeIfAbsent(stmt, LoxFunction::freeVariables);
+        var names = new String[free.length];
+        var cells = new Environment.Cell[free.length];
+        var count = 0;
+        for (var variable : free) {
+            var cell = environment.capture(variable, globals);
+            if (null == cell) continue;
+            names[count] = variable;
+            cells[count++] = cell;
+        }
+
+        var function =
+                new LoxFunction(
+                        stmt, Arrays.copyOf(names, count), Arrays.copyOf(cells, count));
+        if (local) {
+            environment.assign(stmt.name, function);
+        } else {
+            environment.define(name, function);
+        }
+    }
+
     /**
      * Processes assignment statement.
      *
@@ -329,7 +938,19 @@ public Void visitVarStmt(Stmt.Var stmt) {
     @Override
     public Object visitAssignExpr(Expr.Assign expr) {
         var value = evaluate(expr.value);
-        environment.assign(expr.name, value);
+        return assign(expr.name, value);
+    }
+
+    /**
+     * Binds value to existing variable.
+     *
+     * @param name Variable name.
+     * @param value Bound value.
+     * @return {@code value}.
+     * @throws RuntimeError Variable undefined.
+     */
+    Object assign(Token name, Object value) {
+        environment.assign(name, value);
         return value;
     }
 
@@ -339,20 +960,25 @@ public Object visitAssignExpr(Expr.Assign expr) {
      * @param object Value to evaluate.
      * @return {@code false} if value is {@code false} or {@code nil}; {@code true} otherwise.
      */
-    private static boolean isTruthy(Object object) {
+    static boolean isTruthy(Object object) {
         if (null == object) return false;
         if (object instanceof Boolean) return (boolean) object;
         return true;
     }
 
     /**
-     * Whether values are equal.
+     * Whether values are equal, checking identity before contents.
      *
      * @param a Left hand value.
      * @param b Right hand value.
      * @return {@code true} if equal; {@code false} otherwise.
      */
-    private static boolean isEqual(Object a, Object b) {
+    static boolean isEqual(Object a, Object b) {
+        if (a == b) return true;
+        if (a instanceof Number l && b instanceof Number r) return Numbers.equal(l, r);
+        if (a instanceof CharSequence l && b instanceof CharSequence r) {
+            return l.length() == r.length() && l.toString().equals(r.toString());
+        }
         return null == a && null == b || null != a && a.equals(b);
     }
 
@@ -362,20 +988,41 @@ private static boolean isEqual(Object a, Object b) {
      * @param object Value to convert.
      * @return {@link String} representation of value.
      */
-    private static String stringify(Object object) {
+    static String stringify(Object object) {
         if (null == object) return "nil";
 
-        if (object instanceof Double) {
-            String text = object.toString();
-            if (text.endsWith(".0")) {
-                text = text.substring(0, text.length() - 2);
-            }
-            return text;
-        }
+        if (object instanceof Number number) return Numbers.stringify(number);
 
         return object.toString();
     }
 
-    private static final String OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS =
+    /** Error message when number operand is expected. */
+    static final String OPERAND_MUST_BE_A_NUMBER = "Operand must be a number.";
+
+    /** Error message when number operands are expected. */
+    static final String OPERANDS_MUST_BE_NUMBERS = "Operands must be numbers.";
+
+    /** Error message when number or string operands are expected. */
+    static final String OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS =
             "Operands must be two numbers or two strings.";
+
+    /** Error message when dividing by zero. */
+    static final String DIVISION_BY_ZERO = "Division by zero.";
+
+    /** Error message when calling value which is not callable. */
+    static final String CAN_ONLY_CALL_FUNCTIONS = "Can only call functions and classes.";
+
+    /** Error message when calls in progress exhaust frame budget. */
+    static final String STACK_OVERFLOW = "Stack overflow.";
+
+    /**
+     * Creates error message when number of arguments does not match parameters.
+     *
+     * @param arity Number of parameters.
+     * @param count Number of arguments.
+     * @return Error message.
+     */
+    static String arityMismatch(int arity, int count) {
+        return "Expected " + arity + " arguments but got " + count + ".";
+    }
 }
@@ -0,0 +1,86 @@
+package com.github.ianflett.jlox;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Counts executions of statements, compiling those which become hot to JVM bytecode with {@link
+ * JvmCompiler}.
+ */
+final class Jit {
+
+    /** Default number of executions before statement is compiled. */
+    static final int DEFAULT_THRESHOLD = 1_000;
+
+    /** Stores number of executions before statement is compiled. */
+    private final int threshold;
+
+    /** Stores profile of each executed statement, keyed by identity. */
+    private final Map<Stmt, Profile> profiles = new IdentityHashMap<>();
+
+    /** Records executions of statement and its compiled form, once hot. */
+    private static final class Profile {
+
+        /** Stores number of executions so far. */
+        int count = 0;
+
+        /** Stores compiled statement; {@code null} until hot. */
+        CompiledRegion region = null;
+
+        /** Whether statement could not be compiled. */
+        boolean failed = false;
+    }
+
+    /**
+     * Constructs {@link Jit}.
+     *
+     * @param threshold Number of executions before statement is compiled.
+     * @throws IllegalArgumentException Threshold is not positive.
+     */
+    Jit(int threshold) {
+        if (0 >= threshold) throw new IllegalArgumentException("Threshold must be positive.");
+        this.threshold = threshold;
+    }
+
+    /**
+     * Executes statement's compiled form, compiling it once hot.
+     *
+     * @param stmt {@link Stmt} to execute.
+     * @param interpreter {@link Interpreter} whose state statement operates on.
+     * @return {@code true} if statement was executed; {@code false} if caller must interpret it.
+     * @throws RuntimeError Error encountered during execution.
+     */
+    boolean execute(Stmt stmt, Interpreter interpreter) {
+        var profile = profiles.computeIfAbsent(stmt, key -> new Profile());
+        if (null == profile.region) {
+            if (profile.failed || threshold > ++profile.count) return false;
+
+            profile.region = compile(stmt);
+            if (null == profile.region) {
+                profile.failed = true;
+                return false;
+            }
+        }
+
+        profile.region.execute(interpreter);
+        return true;
+    }
+
+    /**
+     * Compiles statement, tolerating failure, including statement nested too deeply for compiler's
+     * recursion.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@link CompiledRegion}; {@code null} if statement could not be compiled.
+     */
+    private static CompiledRegion compile(Stmt stmt) {
+        try {
+            return JvmCompiler.compile(stmt);
+        } catch (IllegalStateException
+                | LinkageError
+                | ReflectiveOperationException
+                | StackOverflowError exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.ClassFileWriter.*;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles statement into hidden JVM class implementing {@link CompiledRegion}.
+ *
+ * <p>Generated code calls same operand-level helpers as {@link Interpreter}, so produces same
+ * output and runtime errors, but without visitor dispatch over abstract syntax tree.
+ */
+final class JvmCompiler implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+
+    /** Internal name of generated class; made unique when defined as hidden class. */
+    private static final String CLASS = "com/github/ianflett/jlox/CompiledRegion$Jit";
+
+    // region Internal names and type descriptors
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String BOOLEAN = "java/lang/Boolean";
+    private static final String INTERPRETER = "com/github/ianflett/jlox/Interpreter";
+    private static final String TOKEN = "com/github/ianflett/jlox/Token";
+    private static final String STRING = "java/lang/String";
+    private static final String ENVIRONMENT = "com/github/ianflett/jlox/Environment";
+    private static final String WHILE = "com/github/ianflett/jlox/Stmt$While";
+    private static final String CALL = "com/github/ianflett/jlox/Expr$Call";
+    private static final String FUNCTION = "com/github/ianflett/jlox/Stmt$Function";
+
+    private static final String OBJECT_TYPE = "L" + OBJECT + ";";
+    private static final String TOKEN_TYPE = "L" + TOKEN + ";";
+    private static final String STRING_TYPE = "L" + STRING + ";";
+    private static final String ENVIRONMENT_TYPE = "L" + ENVIRONMENT + ";";
+    private static final String WHILE_TYPE = "L" + WHILE + ";";
+    private static final String CALL_TYPE = "L" + CALL + ";";
+    private static final String FUNCTION_TYPE = "L" + FUNCTION + ";";
+    private static final String CONSTANTS_TYPE = "[" + OBJECT_TYPE;
+
+    // endregion
+
+    /** Local variable slot holding {@link Interpreter}. */
+    private static final int INTERPRETER_SLOT = 1;
+
+    /** Local variable slot holding constants array. */
+    private static final int CONSTANTS_SLOT = 2;
+
+    /** Largest local variable slot addressable by {@code aload} and {@code astore}. */
+    private static final int MAX_SLOT = 0xFF;
+
+    /**
+     * Length in bytes beyond which block's remaining statements are emitted into new method,
+     * keeping methods well within size the JVM will optimise.
+     */
+    private static final int SEGMENT_LENGTH = 2_000;
+
+    /** Type descriptor of methods holding segments of block. */
+    private static final String SEGMENT_TYPE = "(L" + INTERPRETER + ";" + CONSTANTS_TYPE + ")V";
+
+    /** Stores class being written. */
+    private final ClassFileWriter writer =
+            new ClassFileWriter(
+                    ACC_PUBLIC | ACC_FINAL | ACC_SUPER,
+                    CLASS,
+                    OBJECT,
+                    "com/github/ianflett/jlox/CompiledRegion");
+
+    /** Stores body of method being written. */
+    private ClassFileWriter.Code code = writer.code(CONSTANTS_SLOT + 1);
+
+    /** Stores number of segment methods written. */
+    private int segmentCount = 0;
+
+    /** Stores objects referenced by generated code, passed to its constructor. */
+    private final List<Object> constants = new ArrayList<>();
+
+    /** Stores index of each object in {@link #constants}. */
+    private final Map<Object, Integer> constantIndices = new IdentityHashMap<>();
+
+    /** Prevents instantiation outside {@link #compile(Stmt)}. */
+    private JvmCompiler() {
+        code.aload(0);
+        code.field(GETFIELD, CLASS, "constants", CONSTANTS_TYPE);
+        code.astore(CONSTANTS_SLOT);
+    }
+
+    /**
+     * Compiles statement and loads it as hidden class.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return Executable {@link CompiledRegion}.
+     * @throws IllegalStateException Statement exceeds limits of JVM method.
+     * @throws ReflectiveOperationException Generated class could not be instantiated.
+     * @throws LinkageError Generated class could not be loaded.
+     */
+    static CompiledRegion compile(Stmt stmt) throws ReflectiveOperationException {
+        var compiler = new JvmCompiler();
+        stmt.accept(compiler);
+
+        var type =
+                MethodHandles.lookup()
+                        .defineHiddenClass(compiler.finish(), true)
+                        .lookupClass();
+        return (CompiledRegion)
+                type.getConstructor(Object[].class)
+                        .newInstance((Object) compiler.constants.toArray());
+    }
+
+    /**
+     * Compiles assignment expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(expr.name, TOKEN);
+        expr.value.accept(this);
+        invokeInterpreter("assign", "(" + TOKEN_TYPE + OBJECT_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles binary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        expr.left.accept(this);
+        loadConstant(expr.operator, TOKEN);
+        expr.right.accept(this);
+        code.invoke(
+                INVOKESTATIC,
+                INTERPRETER,
+                "binary",
+                "(" + OBJECT_TYPE + TOKEN_TYPE + OBJECT_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles call expression, passing evaluated callee and arguments to {@link Interpreter},
+     * which runs call on its frame stack.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        code.aload(INTERPRETER_SLOT);
+        expr.callee.accept(this);
+        loadConstant(expr, CALL);
+        code.iconst(expr.arguments.size());
+        code.anewarray(OBJECT);
+        for (var i = 0; i < expr.arguments.size(); ++i) {
+            code.op(DUP, 1);
+            code.iconst(i);
+            expr.arguments.get(i).accept(this);
+            code.op(AASTORE, -3);
+        }
+        invokeInterpreter(
+                "call", "(" + OBJECT_TYPE + CALL_TYPE + CONSTANTS_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles n-ary concatenation expression as successive additions.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConcatenationExpr(Expr.Concatenation expr) {
+        expr.operands.getFirst().accept(this);
+        for (var i = 1; i < expr.operands.size(); ++i) {
+            loadConstant(expr.operators.get(i - 1), TOKEN);
+            expr.operands.get(i).accept(this);
+            code.invoke(
+                    INVOKESTATIC,
+                    INTERPRETER,
+                    "binary",
+                    "(" + OBJECT_TYPE + TOKEN_TYPE + OBJECT_TYPE + ")" + OBJECT_TYPE);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles conditional expression, branching over branch not selected.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConditionalExpr(Expr.Conditional expr) {
+        expr.condition.accept(this);
+        invokeIsTruthy();
+        var elseBranch = code.branch(IFEQ);
+        expr.thenBranch.accept(this);
+        var end = code.branch(GOTO);
+
+        code.bind(elseBranch);
+        code.stack(code.stack() - 1);
+        expr.elseBranch.accept(this);
+        code.bind(end);
+        return null;
+    }
+
+    /**
+     * Compiles fused binary operation on variable and literal as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles fused binary operation on two variables as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles fused assignment as assignment it replaced.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        return ExpressionFuser.expand(expr).accept(this);
+    }
+
+    /**
+     * Compiles variable expression proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitInitializedExpr(Expr.Initialized expr) {
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(expr.name.lexeme(), STRING);
+        invokeInterpreter("lookUpInitialized", "(" + STRING_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles grouping expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        expr.expression.accept(this);
+        return null;
+    }
+
+    /**
+     * Compiles literal expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        if (null == expr.value) {
+            code.op(ACONST_NULL, 1);
+        } else if (expr.value instanceof Boolean value) {
+            code.field(GETSTATIC, BOOLEAN, value ? "TRUE" : "FALSE", "L" + BOOLEAN + ";");
+        } else {
+            loadConstant(expr.value, null);
+        }
+        return null;
+    }
+
+    /**
+     * Compiles logical expression, branching over right operand if left decides result.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        expr.left.accept(this);
+        code.op(DUP, 1);
+        invokeIsTruthy();
+        var end = code.branch(TokenType.OR == expr.operator.type() ? IFNE : IFEQ);
+        code.op(POP, -1);
+        expr.right.accept(this);
+        code.bind(end);
+        return null;
+    }
+
+    /**
+     * Compiles binary expression of numbers as any other binary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitNumericExpr(Expr.Numeric expr) {
+        return visitBinaryExpr(new Expr.Binary(expr.left, expr.operator, expr.right));
+    }
+
+    /**
+     * Compiles unary expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        loadConstant(expr.operator, TOKEN);
+        expr.right.accept(this);
+        code.invoke(
+                INVOKESTATIC,
+                INTERPRETER,
+                "unary",
+                "(" + TOKEN_TYPE + OBJECT_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles variable expression.
+     *
+     * @param expr {@link Expr}ession to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(expr.name, TOKEN);
+        invokeInterpreter("lookUp", "(" + TOKEN_TYPE + ")" + OBJECT_TYPE);
+        return null;
+    }
+
+    /**
+     * Compiles block statement, restoring enclosing scope however block completes.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        scoped(() -> segments(stmt.statements));
+        return null;
+    }
+
+    /**
+     * Compiles expression statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        stmt.expression.accept(this);
+        code.op(POP, -1);
+        return null;
+    }
+
+    /**
+     * Compiles {@code fun} statement, which {@link Interpreter} binds to new function.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(stmt, FUNCTION);
+        invokeInterpreter("visitFunctionStmt", "(" + FUNCTION_TYPE + ")Ljava/lang/Void;");
+        code.op(POP, -1);
+        return null;
+    }
+
+    /**
+     * Compiles {@code if} statement, branching over branch not selected.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        stmt.condition.accept(this);
+        invokeIsTruthy();
+        var elseBranch = code.branch(IFEQ);
+        stmt.thenBranch.accept(this);
+        if (null == stmt.elseBranch) {
+            code.bind(elseBranch);
+            return null;
+        }
+
+        var end = code.branch(GOTO);
+        code.bind(elseBranch);
+        stmt.elseBranch.accept(this);
+        code.bind(end);
+        return null;
+    }
+
+    /**
+     * Compiles {@code print} statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        code.aload(INTERPRETER_SLOT);
+        stmt.expression.accept(this);
+        invokeInterpreter("print", "(" + OBJECT_TYPE + ")V");
+        return null;
+    }
+
+    /**
+     * Rejects {@code return} statement, which only function bodies contain, and they are run by
+     * {@link FlatInterpreter} rather than compiled.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return Nothing.
+     * @throws IllegalStateException Always.
+     */
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        throw new IllegalStateException("Return outside function.");
+    }
+
+    /**
+     * Compiles {@code var} statement.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(stmt.name, TOKEN);
+        if (null != stmt.initializer) {
+            stmt.initializer.accept(this);
+        } else {
+            code.field(GETSTATIC, INTERPRETER, "UNINITIALIZED", OBJECT_TYPE);
+        }
+        invokeInterpreter("define", "(" + TOKEN_TYPE + OBJECT_TYPE + ")V");
+        return null;
+    }
+
+    /**
+     * Compiles {@code while} statement, branching back to condition after each iteration.
+     *
+     * <p>Block body's scope is entered once around whole loop and emptied after each iteration,
+     * as {@link Interpreter} does. Body is emitted into segment methods, so loop stays short.
+     *
+     * @param stmt {@link Stmt} to compile.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        if (!(stmt.body instanceof Stmt.Block body)) {
+            loop(stmt, () -> segments(List.of(stmt.body)));
+            return null;
+        }
+
+        scoped(
+                () ->
+                        loop(
+                                stmt,
+                                () -> {
+                                    segments(body.statements);
+                                    code.aload(INTERPRETER_SLOT);
+                                    invokeInterpreter("clearScope", "()V");
+                                }));
+        return null;
+    }
+
+    /**
+     * Emits loop evaluating condition before each iteration, and notifying {@link Interpreter} of
+     * each back edge.
+     *
+     * @param stmt Loop {@link Stmt}.
+     * @param body Emits iteration.
+     */
+    private void loop(Stmt.While stmt, Runnable body) {
+        var start = code.position();
+        stmt.condition.accept(this);
+        invokeIsTruthy();
+        var exit = code.branch(IFEQ);
+
+        body.run();
+        code.aload(INTERPRETER_SLOT);
+        loadConstant(stmt, WHILE);
+        invokeInterpreter("backEdge", "(" + WHILE_TYPE + ")V");
+        code.branch(GOTO, start);
+        code.bind(exit);
+    }
+
+    /**
+     * Emits code within new scope, restoring enclosing scope however it completes.
+     *
+     * @param body Emits code run within scope.
+     */
+    private void scoped(Runnable body) {
+        var previous = newLocal();
+        code.aload(INTERPRETER_SLOT);
+        invokeInterpreter("beginScope", "()" + ENVIRONMENT_TYPE);
+        code.astore(previous);
+
+        var start = code.position();
+        body.run();
+        var end = code.position();
+        endScope(previous);
+        var exit = code.branch(GOTO);
+
+        // Rethrows any exception once scope is restored.
+        var handler = code.position();
+        code.stack(1);
+        var exception = newLocal();
+        code.astore(exception);
+        endScope(previous);
+        code.aload(exception);
+        code.op(ATHROW, -1);
+
+        if (start != end) code.tryCatchAll(start, end, handler);
+        code.bind(exit);
+    }
+
+    /**
+     * Emits statements into calls to segment methods, each holding as many statements as fit
+     * within {@link #SEGMENT_LENGTH}.
+     *
+     * @param statements {@link Stmt}s to compile.
+     */
+    private void segments(List<Stmt> statements) {
+        var caller = code;
+        var iterator = statements.iterator();
+        while (iterator.hasNext()) {
+            code = writer.code(CONSTANTS_SLOT + 1);
+            while (iterator.hasNext() && SEGMENT_LENGTH > code.position()) {
+                iterator.next().accept(this);
+            }
+            code.op(RETURN, 0);
+
+            var name = "segment" + segmentCount++;
+            writer.method(ACC_PRIVATE, name, SEGMENT_TYPE, code);
+            caller.aload(0);
+            caller.aload(INTERPRETER_SLOT);
+            caller.aload(CONSTANTS_SLOT);
+            caller.invoke(INVOKESPECIAL, CLASS, name, SEGMENT_TYPE);
+        }
+        code = caller;
+    }
+
+    /**
+     * Emits restoration of scope saved in local variable.
+     *
+     * @param previous Local variable slot holding enclosing {@link Environment}.
+     */
+    private void endScope(int previous) {
+        code.aload(INTERPRETER_SLOT);
+        code.aload(previous);
+        invokeInterpreter("endScope", "(" + ENVIRONMENT_TYPE + ")V");
+    }
+
+    /** Emits replacement of value on stack with whether it is truthy. */
+    private void invokeIsTruthy() {
+        code.invoke(INVOKESTATIC, INTERPRETER, "isTruthy", "(" + OBJECT_TYPE + ")Z");
+    }
+
+    /**
+     * Emits instance method call on {@link Interpreter}, whose reference is already on stack.
+     *
+     * @param name Method name.
+     * @param descriptor Method type descriptor.
+     */
+    private void invokeInterpreter(String name, String descriptor) {
+        code.invoke(INVOKEVIRTUAL, INTERPRETER, name, descriptor);
+    }
+
+    /**
+     * Emits load of object passed to generated class.
+     *
+     * @param value Object to load.
+     * @param type Internal name of type to cast to; {@code null} to leave as {@link Object}.
+     */
+    private void loadConstant(Object value, String type) {
+        var index =
+                constantIndices.computeIfAbsent(
+                        value,
+                        key -> {
+                            constants.add(key);
+                            return constants.size() - 1;
+                        });
+        code.aload(CONSTANTS_SLOT);
+        code.iconst(index);
+        code.op(AALOAD, -1);
+        if (null != type) code.checkcast(type);
+    }
+
+    /**
+     * Reserves local variable slot.
+     *
+     * @return Slot index.
+     * @throws IllegalStateException Too many nested blocks.
+     */
+    private int newLocal() {
+        var slot = code.newLocal();
+        if (MAX_SLOT < slot) throw new IllegalStateException("Too many nested blocks.");
+        return slot;
+    }
+
+    /**
+     * Writes constructor and {@link CompiledRegion#execute(Interpreter)} method.
+     *
+     * @return Class file bytes.
+     */
+    private byte[] finish() {
+        writer.field(ACC_PRIVATE | ACC_FINAL, "constants", CONSTANTS_TYPE);
+
+        var constructor = writer.code(2);
+        constructor.aload(0);
+        constructor.invoke(INVOKESPECIAL, OBJECT, "<init>", "()V");
+        constructor.aload(0);
+        constructor.aload(1);
+        constructor.field(PUTFIELD, CLASS, "constants", CONSTANTS_TYPE);
+        constructor.op(RETURN, 0);
+        writer.method(ACC_PUBLIC, "<init>", "(" + CONSTANTS_TYPE + ")V", constructor);
+
+        code.op(RETURN, 0);
+        writer.method(ACC_PUBLIC, "execute", "(L" + INTERPRETER + ";)V", code);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,533 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Linearises abstract syntax tree into {@link FlatCode} without recursion.
+ *
+ * <p>Nodes awaiting expansion and steps awaiting emission share one explicit work stack: visiting
+ * node pushes its own step followed by its children in reverse, so children are emitted first.
+ */
+final class Linearizer implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
+
+    /**
+     * Represents step awaiting emission.
+     *
+     * @param operation Operation to perform.
+     * @param operand Operand of operation.
+     */
+    private record Step(byte operation, Object operand) {}
+
+    /** Represents jump target, resolved once linearisation reaches it. */
+    private static final class Label {
+
+        /** Stores indices of steps jumping to label. */
+        final List<Integer> jumps = new ArrayList<>();
+
+        /** Stores operand stack depth on arrival by jump. */
+        int stackDepth;
+
+        /** Stores index of step label resolves to; {@code null} until reached. */
+        Integer target = null;
+    }
+
+    /** Stores {@link FlatCode} being written. */
+    private final FlatCode code = new FlatCode();
+
+    /** Stores nodes awaiting expansion and {@link Step}s awaiting emission. */
+    private final Deque<Object> work = new ArrayDeque<>();
+
+    /** Stores operand stack depth at current step. */
+    private int stackDepth = 0;
+
+    /** Stores scope nesting at current step. */
+    private int scopeDepth = 0;
+
+    /** Prevents instantiation outside {@code linearize} methods. */
+    private Linearizer() {}
+
+    /**
+     * Linearises {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to linearise.
+     * @return Executable {@link FlatCode}.
+     */
+    static FlatCode linearize(List<Stmt> statements) {
+        var linearizer = new Linearizer();
+        linearizer.pushAll(statements);
+        return linearizer.drain();
+    }
+
+    /**
+     * Linearises single expression, which is left on stack when executed.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return Executable {@link FlatCode}.
+     */
+    static FlatCode linearize(Expr expr) {
+        var linearizer = new Linearizer();
+        linearizer.work.push(expr);
+        return linearizer.drain();
+    }
+
+    /**
+     * Linearises body of function, which returns {@code nil} if it ends without returning.
+     *
+     * @param function Function declaration {@link Stmt}.
+     * @return Executable {@link FlatCode}, ending in {@link FlatCode#RETURN}.
+     */
+    static FlatCode linearize(Stmt.Function function) {
+        var linearizer = new Linearizer();
+        linearizer.push(FlatCode.RETURN, null);
+        linearizer.push(FlatCode.LITERAL, null);
+        linearizer.pushAll(function.body);
+        return linearizer.drain();
+    }
+
+    /**
+     * Linearises assignment expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitAssignExpr(Expr.Assign expr) {
+        push(FlatCode.ASSIGN, expr.name);
+        work.push(expr.value);
+        return null;
+    }
+
+    /**
+     * Linearises binary expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryExpr(Expr.Binary expr) {
+        push(FlatCode.BINARY, expr.operator);
+        work.push(expr.right);
+        work.push(expr.left);
+        return null;
+    }
+
+    /**
+     * Linearises call expression, evaluating callee and then arguments in order.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCallExpr(Expr.Call expr) {
+        push(FlatCode.CALL, expr);
+        for (var i = expr.arguments.size() - 1; 0 <= i; --i) {
+            work.push(expr.arguments.get(i));
+        }
+        work.push(expr.callee);
+        return null;
+    }
+
+    /**
+     * Linearises n-ary concatenation expression as successive additions.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConcatenationExpr(Expr.Concatenation expr) {
+        for (var i = expr.operands.size() - 1; 0 < i; --i) {
+            push(FlatCode.BINARY, expr.operators.get(i - 1));
+            work.push(expr.operands.get(i));
+        }
+        work.push(expr.operands.getFirst());
+        return null;
+    }
+
+    /**
+     * Linearises conditional expression, jumping over branch not selected.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitConditionalExpr(Expr.Conditional expr) {
+        var elseLabel = new Label();
+        var endLabel = new Label();
+        work.push(endLabel);
+        work.push(expr.elseBranch);
+        work.push(elseLabel);
+        push(FlatCode.JUMP, endLabel);
+        work.push(expr.thenBranch);
+        push(FlatCode.JUMP_IF_FALSE, elseLabel);
+        work.push(expr.condition);
+        return null;
+    }
+
+    /**
+     * Linearises fused binary operation on variable and literal as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+        work.push(ExpressionFuser.expand(expr));
+        return null;
+    }
+
+    /**
+     * Linearises fused binary operation on two variables as operation it replaced.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+        work.push(ExpressionFuser.expand(expr));
+        return null;
+    }
+
+    /**
+     * Linearises fused assignment as assignment it replaced.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+        work.push(ExpressionFuser.expand(expr));
+        return null;
+    }
+
+    /**
+     * Linearises variable expression proven to be initialised.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitInitializedExpr(Expr.Initialized expr) {
+        emit(FlatCode.INITIALIZED, expr.name.lexeme());
+        return null;
+    }
+
+    /**
+     * Linearises grouping expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitGroupingExpr(Expr.Grouping expr) {
+        work.push(expr.expression);
+        return null;
+    }
+
+    /**
+     * Linearises literal expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLiteralExpr(Expr.Literal expr) {
+        emit(FlatCode.LITERAL, expr.value);
+        return null;
+    }
+
+    /**
+     * Linearises logical expression, jumping over right operand if left decides result.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitLogicalExpr(Expr.Logical expr) {
+        var endLabel = new Label();
+        work.push(endLabel);
+        work.push(expr.right);
+        push(
+                TokenType.OR == expr.operator.type()
+                        ? FlatCode.JUMP_IF_TRUE_OR_POP
+                        : FlatCode.JUMP_IF_FALSE_OR_POP,
+                endLabel);
+        work.push(expr.left);
+        return null;
+    }
+
+    /**
+     * Linearises binary expression of numbers as any other binary expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitNumericExpr(Expr.Numeric expr) {
+        push(FlatCode.BINARY, expr.operator);
+        work.push(expr.right);
+        work.push(expr.left);
+        return null;
+    }
+
+    /**
+     * Linearises unary expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitUnaryExpr(Expr.Unary expr) {
+        push(FlatCode.UNARY, expr.operator);
+        work.push(expr.right);
+        return null;
+    }
+
+    /**
+     * Linearises variable expression.
+     *
+     * @param expr {@link Expr}ession to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVariableExpr(Expr.Variable expr) {
+        emit(FlatCode.VARIABLE, expr.name);
+        return null;
+    }
+
+    /**
+     * Linearises block statement.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitBlockStmt(Stmt.Block stmt) {
+        push(FlatCode.END_SCOPE, null);
+        pushAll(stmt.statements);
+        emit(FlatCode.BEGIN_SCOPE, null);
+        return null;
+    }
+
+    /**
+     * Linearises expression statement.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitExpressionStmt(Stmt.Expression stmt) {
+        push(FlatCode.POP, null);
+        work.push(stmt.expression);
+        return null;
+    }
+
+    /**
+     * Linearises {@code fun} statement, whose body is linearised separately when first called.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitFunctionStmt(Stmt.Function stmt) {
+        emit(FlatCode.FUNCTION, stmt);
+        return null;
+    }
+
+    /**
+     * Linearises {@code if} statement, jumping over branch not selected.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitIfStmt(Stmt.If stmt) {
+        var elseLabel = new Label();
+        if (null != stmt.elseBranch) {
+            var endLabel = new Label();
+            work.push(endLabel);
+            work.push(stmt.elseBranch);
+            work.push(elseLabel);
+            push(FlatCode.JUMP, endLabel);
+        } else {
+            work.push(elseLabel);
+        }
+        work.push(stmt.thenBranch);
+        push(FlatCode.JUMP_IF_FALSE, elseLabel);
+        work.push(stmt.condition);
+        return null;
+    }
+
+    /**
+     * Linearises {@code print} statement.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitPrintStmt(Stmt.Print stmt) {
+        push(FlatCode.PRINT, null);
+        work.push(stmt.expression);
+        return null;
+    }
+
+    /**
+     * Linearises {@code return} statement.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitReturnStmt(Stmt.Return stmt) {
+        push(FlatCode.RETURN, null);
+        if (null != stmt.value) {
+            work.push(stmt.value);
+        } else {
+            emit(FlatCode.LITERAL, null);
+        }
+        return null;
+    }
+
+    /**
+     * Linearises {@code var} statement.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitVarStmt(Stmt.Var stmt) {
+        push(FlatCode.DEFINE, stmt.name);
+        if (null != stmt.initializer) {
+            work.push(stmt.initializer);
+        } else {
+            emit(FlatCode.LITERAL, Interpreter.UNINITIALIZED);
+        }
+        return null;
+    }
+
+    /**
+     * Linearises {@code while} statement, jumping back to condition after each iteration.
+     *
+     * <p>Block body's scope is entered once around whole loop and emptied after each iteration.
+     * Condition is evaluated within it, which is equivalent as it is then empty.
+     *
+     * @param stmt {@link Stmt} to linearise.
+     * @return {@code null}.
+     */
+    @Override
+    public Void visitWhileStmt(Stmt.While stmt) {
+        var startLabel = new Label();
+        var endLabel = new Label();
+        var block = stmt.body instanceof Stmt.Block body ? body : null;
+
+        if (null != block) push(FlatCode.END_SCOPE, null);
+        work.push(endLabel);
+        push(FlatCode.JUMP, startLabel);
+        if (null != block) {
+            push(FlatCode.CLEAR_SCOPE, null);
+            pushAll(block.statements);
+        } else {
+            work.push(stmt.body);
+        }
+        push(FlatCode.JUMP_IF_FALSE, endLabel);
+        work.push(stmt.condition);
+        work.push(startLabel);
+        if (null != block) emit(FlatCode.BEGIN_SCOPE, null);
+        return null;
+    }
+
+    /**
+     * Expands nodes and emits steps until no work remains.
+     *
+     * @return Executable {@link FlatCode}.
+     */
+    private FlatCode drain() {
+        while (!work.isEmpty()) {
+            switch (work.pop()) {
+                case Step step -> emit(step.operation(), step.operand());
+                case Label label -> bind(label);
+                case Expr expr -> expr.accept(this);
+                case Stmt stmt -> stmt.accept(this);
+                default -> throw new IllegalStateException("Unexpected work item.");
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Pushes statements so they are expanded in order.
+     *
+     * @param statements {@link Stmt}s to push.
+     */
+    private void pushAll(List<Stmt> statements) {
+        for (var i = statements.size() - 1; 0 <= i; --i) {
+            work.push(statements.get(i));
+        }
+    }
+
+    /**
+     * Pushes step to be emitted once work pushed after it has been drained.
+     *
+     * @param operation Operation to perform.
+     * @param operand Operand of operation.
+     */
+    private void push(byte operation, Object operand) {
+        work.push(new Step(operation, operand));
+    }
+
+    /**
+     * Resolves jumps to label to next step, and later jumps back to it.
+     *
+     * @param label {@link Label} to resolve.
+     */
+    private void bind(Label label) {
+        Integer target = code.count;
+        for (var jump : label.jumps) {
+            code.operands[jump] = target;
+        }
+        label.target = target;
+
+        // Label not yet jumped to, such as start of loop, is only reached from preceding step.
+        if (!label.jumps.isEmpty()) stackDepth = label.stackDepth;
+    }
+
+    /**
+     * Emits step, tracking its effect on operand stack depth and scope nesting.
+     *
+     * @param operation Operation to perform.
+     * @param operand Operand of operation.
+     */
+    private void emit(byte operation, Object operand) {
+        var label = operand instanceof Label jump ? jump : null;
+        if (null != label && null != label.target) {
+            // Jump back to label already reached is resolved immediately.
+            operand = label.target;
+        } else if (null != label) {
+            label.jumps.add(code.count);
+        }
+        code.write(operation, operand);
+
+        switch (operation) {
+            case FlatCode.LITERAL, FlatCode.VARIABLE, FlatCode.INITIALIZED ->
+                    ++stackDepth;
+            case FlatCode.BINARY,
+                            FlatCode.POP,
+                            FlatCode.PRINT,
+                            FlatCode.DEFINE,
+                            FlatCode.RETURN ->
+                    --stackDepth;
+            case FlatCode.CALL -> stackDepth -= ((Expr.Call) operand).arguments.size();
+            case FlatCode.BEGIN_SCOPE -> ++scopeDepth;
+            case FlatCode.END_SCOPE -> --scopeDepth;
+            case FlatCode.JUMP -> label.stackDepth = stackDepth;
+            case FlatCode.JUMP_IF_FALSE -> label.stackDepth = --stackDepth;
+            case FlatCode.JUMP_IF_FALSE_OR_POP, FlatCode.JUMP_IF_TRUE_OR_POP ->
+                    label.stackDepth = stackDepth--;
+            default -> {}
+        }
+        if (code.maxStack < stackDepth) code.maxStack = stackDepth;
+        if (code.maxScopes < scopeDepth) code.maxScopes = scopeDepth;
+    }
+}
@@ -5,17 +5,54 @@
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 /** Defines Lox language interpreter. */
 public final class Lox {
 
-    /** Represents single command line argument. */
-    private static final int SINGLE_ARG = 1;
+    /** Prefix identifying command line option. */
+    private static final String OPTION_PREFIX = "--";
 
-    /** {@link Interpreter} to use for code. */
-    private static final Interpreter interpreter = new Interpreter();
+    /** Separates command line option name from its value. */
+    private static final char OPTION_VALUE_SEPARATOR = '=';
+
+    /** {@link Backend} to use for code. */
+    private static Backend backend = new Interpreter();
+
+    /** Canonicalises identifiers and string literals across all code run. */
+    private static final Interner interner = new Interner();
+
+    /** Stores whether code is executed on {@link VirtualMachine}. */
+    private static boolean useVirtualMachine = false;
+
+    /** Stores whether code is executed on {@link FlatInterpreter}. */
+    private static boolean useFlatInterpreter = false;
+
+    /** Stores whether code is executed on {@link ParallelInterpreter}. */
+    private static boolean useParallelInterpreter = false;
+
+    /** Stores whether execution profile of script is recorded and applied. */
+    private static boolean useProfile = false;
+
+    /** Stores file execution profile of script is persisted to; {@code null} if disabled. */
+    private static Path profilePath = null;
+
+    /** Stores hash of script source identifying its execution profile. */
+    private static byte[] profileHash = null;
+
+    /** Stores whether program is verified to be well formed after each optimisation pass. */
+    private static boolean verifyPasses = false;
+
+    /** Stores whether time taken and node count change of each optimisation pass is reported. */
+    private static boolean reportPasses = false;
+
+    /** Stores executions before statement is compiled to JVM bytecode; {@code 0} if disabled. */
+    private static int jitThreshold = 0;
+
+    /** Stores maximum number of nested function calls. */
+    private static int frameBudget = Backend.DEFAULT_FRAME_BUDGET;
 
     /** Stores whether error encountered during processing. */
     private static boolean hadError = false;
@@ -26,25 +63,151 @@ public final class Lox {
     /**
      * Main entry point for interpreter.
      *
-     * @param args Command line parameters. Supplying no arguments will start REPL; supplying one
-     *     argument, file path, will process file; more arguments are invalid and will present usage
-     *     instructions.
+     * @param args Command line parameters. Options, prefixed by {@code --}, may precede other
+     *     arguments. Supplying no other arguments will start REPL; supplying one argument, file
+     *     path, will process file; more arguments or unknown options are invalid and will present
+     *     usage instructions.
      * @throws IOException Thrown if input cannot be read.
      */
     public static void main(String... args) throws IOException {
 
-        if (SINGLE_ARG < args.length) {
-            System.out.println("Usage: jlox [script]");
-            exit(PosixExits.USAGE);
+        String script = null;
+        for (var arg : args) {
+            if (arg.startsWith(OPTION_PREFIX)) {
+                if (!configure(arg.substring(OPTION_PREFIX.length()))) usage();
+            } else if (null == script) {
+                script = arg;
+            } else {
+                usage();
+            }
+        }
+
+        // Only Interpreter records profile, and only while not running compiled code.
+        if (useProfile
+                && (useVirtualMachine
+                        || useFlatInterpreter
+                        || useParallelInterpreter
+                        || 0 < jitThreshold)) {
+            usage();
         }
+        backend = createBackend();
+        StandardOutputSink.attach();
 
-        if (SINGLE_ARG == args.length) {
-            runFile(args[0]);
+        if (null != script) {
+            runFile(script);
         } else {
             runPrompt();
         }
     }
 
+    /**
+     * Applies command line option.
+     *
+     * <ul>
+     *   <li>{@code --vm} executes code on {@link VirtualMachine} rather than {@link Interpreter}.
+     *   <li>{@code --flat} executes code on {@link FlatInterpreter} rather than {@link
+     *       Interpreter}.
+     *   <li>{@code --parallel} executes code on {@link ParallelInterpreter} rather than {@link
+     *       Interpreter}, running independent top-level statements concurrently.
+     *   <li>{@code --jit[=threshold]} compiles statements executed {@code threshold} times to JVM
+     *       bytecode.
+     *   <li>{@code --frames=budget} limits number of nested function calls to {@code budget}.
+     *   <li>{@code --verify-passes} verifies program is well formed after each optimisation pass.
+     *   <li>{@code --pass-stats} reports time taken by each optimisation pass and change in number
+     *       of nodes to standard error.
+     *   <li>{@code --profile} records {@link Profile} of script next to it, specialising script
+     *       by profile recorded on earlier runs. Profile is recorded by {@link Interpreter}, so
+     *       this is invalid alongside {@code --vm}, {@code --flat}, {@code --parallel} or {@code
+     *       --jit}.
+     * </ul>
+     *
+     * @param option Option name, without prefix, optionally followed by {@code =} and value.
+     * @return {@code true} if option recognised; {@code false} otherwise.
+     */
+    private static boolean configure(String option) {
+        var separator = option.indexOf(OPTION_VALUE_SEPARATOR);
+        var name = -1 == separator ? option : option.substring(0, separator);
+        var value = -1 == separator ? null : option.substring(separator + 1);
+
+        switch (name) {
+            case "vm" -> useVirtualMachine = true;
+            case "flat" -> useFlatInterpreter = true;
+            case "parallel" -> useParallelInterpreter = true;
+            case "profile" -> useProfile = true;
+            case "verify-passes" -> verifyPasses = true;
+            case "pass-stats" -> reportPasses = true;
+            case "jit" -> {
+                jitThreshold = null == value ? Jit.DEFAULT_THRESHOLD : parseCount(value);
+                return 0 < jitThreshold;
+            }
+            case "frames" -> {
+                frameBudget = null == value ? 0 : parseCount(value);
+                return 0 < frameBudget;
+            }
+            default -> {
+                return false;
+            }
+        }
+        return null == value;
+    }
+
+    /**
+     * Parses positive count supplied as option value.
+     *
+     * @param value Option value.
+     * @return Count; {@code 0} if value is not positive integer.
+     */
+    private static int parseCount(String value) {
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * Creates {@link Backend} selected by command line options.
+     *
+     * @return Configured {@link Backend}.
+     */
+    private static Backend createBackend() {
+        Backend selected;
+        if (useVirtualMachine) {
+            selected = new VirtualMachine();
+        } else if (useFlatInterpreter) {
+            selected = new FlatInterpreter();
+        } else if (useParallelInterpreter) {
+            selected = new ParallelInterpreter();
+        } else {
+            var interpreter = new Interpreter();
+            if (0 < jitThreshold) interpreter.enableJit(jitThreshold);
+            selected = interpreter;
+        }
+        selected.limitFrames(frameBudget);
+        return selected;
+    }
+
+    /**
+     * Creates {@link PassManager} configured by command line options.
+     *
+     * @param externalGlobals Whether globals may be defined outside of program, as in REPL.
+     * @return Configured {@link PassManager}.
+     */
+    private static PassManager createPasses(boolean externalGlobals) {
+        var passes = PassManager.standard(externalGlobals);
+        if (verifyPasses) passes.enableVerification();
+        if (reportPasses) passes.enableStatistics(System.err);
+        return passes;
+    }
+
+    /** Presents usage instructions and exits. */
+    private static void usage() {
+        System.out.println(
+                "Usage: jlox [--vm | --flat | --parallel] [--jit[=threshold]] [--frames=budget]"
+                        + " [--profile] [--verify-passes] [--pass-stats] [script]");
+        exit(PosixExits.USAGE);
+    }
+
     /**
      * Runs Lox commands from file input.
      *
@@ -54,6 +217,10 @@ public static void main(String... args) throws IOException {
     private static void runFile(String path) throws IOException {
 
         var bytes = Files.readAllBytes(Paths.get(path));
+        if (useProfile) {
+            profilePath = Paths.get(path + ".profile");
+            profileHash = Profile.hash(bytes);
+        }
         run(new String(bytes, Charset.defaultCharset()), false);
 
         // Indicate error and exit.
@@ -78,7 +245,7 @@ private static void runPrompt() throws IOException {
 
                 try {
                     run(line, true);
-                } catch (Parser.ParseError ignored) {
+                } catch (Parser.ParseError | Compiler.CompileError ignored) {
                 } catch (RuntimeError error) {
                     System.err.println(error.getMessage());
                 }
@@ -94,25 +261,42 @@ private static void runPrompt() throws IOException {
      * Runs Lox commands.
      *
      * @param source Lox commands to process.
+     * @throws IOException Thrown if execution profile cannot be read or written.
      */
-    private static void run(String source, boolean allowExpression) {
+    private static void run(String source, boolean allowExpression) throws IOException {
 
-        var scanner = new Scanner(source);
+        var scanner = new Scanner(source, interner);
         var tokens = scanner.scanTokens();
         if (1 == tokens.size() && TokenType.EOF == tokens.getLast().type()) return;
 
         var parser = new Parser(tokens);
 
-        if (allowExpression && TokenType.SEMICOLON != tokens.get(tokens.size() - 2).type()) {
-            System.out.println(interpreter.evaluate(parser.getExpression()));
+        List<Stmt> statements;
+        if (allowExpression && parser.isExpression()) {
+            // Print value of expression, so it passes through same passes as statements.
+            statements = List.of(new Stmt.Print(parser.getExpression()));
         } else {
-            List<Stmt> statements = parser.parse();
+            statements = parser.parse();
 
             // Stop on syntax error.
             if (hadError) return;
+        }
 
-            interpreter.interpret(statements);
+        statements = createPasses(allowExpression).run(statements);
+
+        // Stop on read of undefined variable.
+        if (hadError) return;
+
+        if (null == profilePath) {
+            backend.interpret(statements);
+            return;
         }
+
+        var profile = Profile.of(statements);
+        if (profile.load(profilePath, profileHash)) statements = profile.specialise(statements);
+        ((Interpreter) backend).enableProfiling(profile);
+        backend.interpret(statements);
+        profile.save(profilePath, profileHash);
     }
 
     /**
@@ -144,7 +328,7 @@ static void error(Token token, String message) {
      * @param error Error details.
      */
     static void runtimeError(RuntimeError error) {
-        System.err.println(error.getMessage() + "\n[line " + error.token.line() + "]");
+        System.err.println(error.getMessage() + "\n[line " + error.line + "]");
         hadRuntimeError = true;
     }
 
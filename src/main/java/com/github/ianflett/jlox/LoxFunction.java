@@ -0,0 +1,221 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Function declared in Lox, as called by {@link Interpreter} and {@link FlatInterpreter}.
+ *
+ * <p>Body sees its parameters, its own locals, variables it captured and globals. Only variables
+ * body references are captured from enclosing scopes, each as {@link Environment.Cell} shared with
+ * scope declaring it, so function retains no scope itself. Each call runs body on {@link
+ * FlatInterpreter}'s explicit frame stack, so calls nest without recursing on thread stack.
+ */
+final class LoxFunction {
+
+    /** Stores declaration of function. */
+    final Stmt.Function declaration;
+
+    /** Stores names of captured variables. */
+    final String[] names;
+
+    /** Stores {@link Environment.Cell}s of captured variables, in order of {@link #names}. */
+    final Environment.Cell[] cells;
+
+    /**
+     * Constructs {@link LoxFunction}.
+     *
+     * @param declaration Declaration of function.
+     * @param names Names of captured variables.
+     * @param cells {@link Environment.Cell}s of captured variables.
+     */
+    LoxFunction(Stmt.Function declaration, String[] names, Environment.Cell[] cells) {
+        this.declaration = declaration;
+        this.names = names;
+        this.cells = cells;
+    }
+
+    /**
+     * Gets number of parameters function declares.
+     *
+     * @return Number of arguments expected.
+     */
+    int arity() {
+        return declaration.params.size();
+    }
+
+    /**
+     * Represents function by its name.
+     *
+     * @return {@link String} representation of function.
+     */
+    @Override
+    public String toString() {
+        return "<fn " + declaration.name.lexeme() + ">";
+    }
+
+    /**
+     * Finds variables function body references but does not declare, including those referenced
+     * by functions nested within it.
+     *
+     * @param declaration Declaration of function.
+     * @return Names of variables, in order first referenced.
+     */
+    static String[] freeVariables(Stmt.Function declaration) {
+        var finder = new Finder();
+        finder.examine(declaration);
+        return finder.free.toArray(String[]::new);
+    }
+
+    /** Finds references to variables not declared within function. */
+    private static final class Finder extends AstTransformer {
+
+        /** Stores names of variables referenced but not declared. */
+        private final Set<String> free = new LinkedHashSet<>();
+
+        /** Stores names declared so far within each enclosing scope, innermost first. */
+        private final ArrayDeque<Set<String>> scopes = new ArrayDeque<>();
+
+        /**
+         * Examines function body within new scope declaring its parameters.
+         *
+         * @param stmt Function declaration {@link Stmt}.
+         */
+        void examine(Stmt.Function stmt) {
+            var parameters = new HashSet<String>();
+            for (var param : stmt.params) parameters.add(param.lexeme());
+            scopes.push(parameters);
+            transform(stmt.body);
+            scopes.pop();
+        }
+
+        /**
+         * Records assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            transform(expr.value);
+            reference(expr.name);
+            return expr;
+        }
+
+        /**
+         * Records reference by fused binary operation.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+            reference(expr.name);
+            return expr;
+        }
+
+        /**
+         * Records references by fused binary operation.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+            reference(expr.left);
+            reference(expr.right);
+            return expr;
+        }
+
+        /**
+         * Records reference by fused assignment.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+            transform(expr.value);
+            reference(expr.name);
+            return expr;
+        }
+
+        /**
+         * Records reference to variable proven to be initialised.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitInitializedExpr(Expr.Initialized expr) {
+            reference(expr.name);
+            return expr;
+        }
+
+        /**
+         * Records reference.
+         *
+         * @param expr {@link Expr}ession to examine.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitVariableExpr(Expr.Variable expr) {
+            reference(expr.name);
+            return expr;
+        }
+
+        /**
+         * Examines block statement within new scope.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            scopes.push(new HashSet<>());
+            transform(stmt.statements);
+            scopes.pop();
+            return stmt;
+        }
+
+        /**
+         * Records declaration of nested function, which is declared before its body, and examines
+         * its body.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            scopes.element().add(stmt.name.lexeme());
+            examine(stmt);
+            return stmt;
+        }
+
+        /**
+         * Records declaration, made after its initialiser is examined.
+         *
+         * @param stmt {@link Stmt} to examine.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            transform(stmt.initializer);
+            scopes.element().add(stmt.name.lexeme());
+            return stmt;
+        }
+
+        /**
+         * Records reference to variable, unless declared within function.
+         *
+         * @param name Variable name.
+         */
+        private void reference(Token name) {
+            if (scopes.stream().noneMatch(scope -> scope.contains(name.lexeme()))) {
+                free.add(name.lexeme());
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.ianflett.jlox;
+
+/**
+ * Performs arithmetic on Lox numbers.
+ *
+ * <p>Numbers are {@link Long} while integral and exactly representable as {@code double}, and
+ * {@link Double} otherwise. Integral arithmetic therefore avoids floating point and, for small
+ * values, allocation, while every result equals that of the equivalent {@code double} arithmetic.
+ */
+final class Numbers {
+
+    /** Largest magnitude below which every integer is exactly representable as {@code double}. */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /** Magnitude from which {@link Double#toString(double)} uses scientific notation. */
+    private static final long SCIENTIFIC_THRESHOLD = 10_000_000L;
+
+    /** Smallest cached value. */
+    private static final int CACHE_LOW = -128;
+
+    /** Largest cached value. */
+    private static final int CACHE_HIGH = 1023;
+
+    /** Caches boxed small values. */
+    private static final Long[] CACHE = new Long[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (var i = 0; i < CACHE.length; ++i) {
+            CACHE[i] = (long) (i + CACHE_LOW);
+        }
+    }
+
+    /** Prevents instantiation. */
+    private Numbers() {}
+
+    /**
+     * Represents integer, widening to {@link Double} if not exactly representable.
+     *
+     * @param value Integer to represent.
+     * @return Lox number.
+     */
+    static Number valueOf(long value) {
+        if (CACHE_LOW <= value && value <= CACHE_HIGH) return CACHE[(int) value - CACHE_LOW];
+        if (-MAX_EXACT <= value && value <= MAX_EXACT) return value;
+        return (double) value;
+    }
+
+    /**
+     * Represents floating point value, narrowing to {@link Long} if integral.
+     *
+     * @param value Value to represent.
+     * @return Lox number.
+     */
+    static Number valueOf(double value) {
+        var integral = (long) value;
+        if (integral == value
+                && -MAX_EXACT <= integral
+                && integral <= MAX_EXACT
+                && (0 != integral || 0 == Double.doubleToRawLongBits(value))) {
+            return valueOf(integral);
+        }
+        return value;
+    }
+
+    /**
+     * Parses number literal.
+     *
+     * @param lexeme Literal text.
+     * @return Lox number.
+     */
+    static Number parse(String lexeme) {
+        return valueOf(Double.parseDouble(lexeme));
+    }
+
+    /**
+     * Adds numbers.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Sum.
+     */
+    static Number add(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) return valueOf(l + r);
+        return left.doubleValue() + right.doubleValue();
+    }
+
+    /**
+     * Subtracts numbers.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Difference.
+     */
+    static Number subtract(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) return valueOf(l - r);
+        return left.doubleValue() - right.doubleValue();
+    }
+
+    /**
+     * Multiplies numbers.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Product.
+     */
+    static Number multiply(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) {
+            var product = l * r;
+            if (Math.multiplyHigh(l, r) == product >> 63) {
+                // Zero with negative operand is negative zero.
+                return 0 == product && (0 > l || 0 > r) ? -0d : valueOf(product);
+            }
+        }
+        return left.doubleValue() * right.doubleValue();
+    }
+
+    /**
+     * Divides numbers.
+     *
+     * @param left Dividend.
+     * @param right Non-zero divisor.
+     * @return Quotient.
+     */
+    static Number divide(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r && 0 == l % r) {
+            return 0 == l && 0 > r ? -0d : valueOf(l / r);
+        }
+        return left.doubleValue() / right.doubleValue();
+    }
+
+    /**
+     * Negates number.
+     *
+     * @param value Operand.
+     * @return Negation.
+     */
+    static Number negate(Number value) {
+        if (value instanceof Long l) return 0 == l ? -0d : valueOf(-l);
+        return -value.doubleValue();
+    }
+
+    /**
+     * Whether number is zero.
+     *
+     * @param value Operand.
+     * @return {@code true} if zero; {@code false} otherwise.
+     */
+    static boolean isZero(Number value) {
+        return value instanceof Long l ? 0 == l : 0d == value.doubleValue();
+    }
+
+    /**
+     * Whether left number is less than right.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return {@code true} if less; {@code false} otherwise.
+     */
+    static boolean less(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) return l < r;
+        return left.doubleValue() < right.doubleValue();
+    }
+
+    /**
+     * Whether left number is less than or equal to right.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return {@code true} if less or equal; {@code false} otherwise.
+     */
+    static boolean lessEqual(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) return l <= r;
+        return left.doubleValue() <= right.doubleValue();
+    }
+
+    /**
+     * Whether numbers are equal, with same semantics as {@link Double#equals(Object)} regardless
+     * of representation.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return {@code true} if equal; {@code false} otherwise.
+     */
+    static boolean equal(Number left, Number right) {
+        if (left instanceof Long l && right instanceof Long r) return l.longValue() == r;
+        return Double.doubleToLongBits(left.doubleValue())
+                == Double.doubleToLongBits(right.doubleValue());
+    }
+
+    /**
+     * Converts number to {@link String} as {@link Double#toString(double)} would.
+     *
+     * @param value Number to convert.
+     * @return {@link String} representation.
+     */
+    static String toString(Number value) {
+        return Double.toString(value.doubleValue());
+    }
+
+    /**
+     * Converts number to {@link String} for output, omitting fractional part of integers.
+     *
+     * @param value Number to convert.
+     * @return {@link String} representation.
+     */
+    static String stringify(Number value) {
+        if (value instanceof Long l && -SCIENTIFIC_THRESHOLD < l && l < SCIENTIFIC_THRESHOLD) {
+            return Long.toString(l);
+        }
+
+        var text = toString(value);
+        if (text.endsWith(".0")) {
+            text = text.substring(0, text.length() - 2);
+        }
+        return text;
+    }
+}
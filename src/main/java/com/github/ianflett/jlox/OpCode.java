@@ -0,0 +1,161 @@
+package com.github.ianflett.jlox;
+
+/**
+ * Defines instruction set executed by {@link VirtualMachine}.
+ *
+ * <p>Each instruction is a single byte, optionally followed by operands. Operands are unsigned
+ * 16-bit big-endian values unless stated otherwise.
+ */
+final class OpCode {
+
+    /** Pushes constant; operand is constant pool index. */
+    static final byte CONSTANT = 0;
+
+    /** Pushes {@code nil}. */
+    static final byte NIL = 1;
+
+    /** Pushes {@code true}. */
+    static final byte TRUE = 2;
+
+    /** Pushes {@code false}. */
+    static final byte FALSE = 3;
+
+    /** Pushes uninitialised variable indicator. */
+    static final byte UNINITIALIZED = 4;
+
+    /** Discards top of stack. */
+    static final byte POP = 5;
+
+    /** Discards number of values from top of stack; operand is count. */
+    static final byte POP_N = 6;
+
+    /** Pushes local variable; operand is stack slot. */
+    static final byte GET_LOCAL = 7;
+
+    /**
+     * Pushes local variable which may be uninitialised; operands are stack slot and constant pool
+     * index of variable name.
+     */
+    static final byte GET_LOCAL_CHECKED = 8;
+
+    /** Assigns top of stack to local variable, leaving value on stack; operand is stack slot. */
+    static final byte SET_LOCAL = 9;
+
+    /** Pops top of stack into global variable; operand is constant pool index of name. */
+    static final byte DEFINE_GLOBAL = 10;
+
+    /** Pushes global variable; operand is constant pool index of name. */
+    static final byte GET_GLOBAL = 11;
+
+    /**
+     * Assigns top of stack to existing global variable, leaving value on stack; operand is constant
+     * pool index of name.
+     */
+    static final byte SET_GLOBAL = 12;
+
+    /** Pops two values, pushing whether they are equal. */
+    static final byte EQUAL = 13;
+
+    /** Pops two values, pushing whether they are not equal. */
+    static final byte NOT_EQUAL = 14;
+
+    /** Pops two values, pushing whether left is greater than right. */
+    static final byte GREATER = 15;
+
+    /** Pops two values, pushing whether left is greater than or equal to right. */
+    static final byte GREATER_EQUAL = 16;
+
+    /** Pops two values, pushing whether left is less than right. */
+    static final byte LESS = 17;
+
+    /** Pops two values, pushing whether left is less than or equal to right. */
+    static final byte LESS_EQUAL = 18;
+
+    /** Pops two values, pushing their sum or concatenation. */
+    static final byte ADD = 19;
+
+    /** Pops two values, pushing their difference. */
+    static final byte SUBTRACT = 20;
+
+    /** Pops two values, pushing their product. */
+    static final byte MULTIPLY = 21;
+
+    /** Pops two values, pushing their quotient. */
+    static final byte DIVIDE = 22;
+
+    /** Pops value, pushing its logical negation. */
+    static final byte NOT = 23;
+
+    /** Pops value, pushing its arithmetic negation. */
+    static final byte NEGATE = 24;
+
+    /** Jumps forward unconditionally; operand is offset from end of instruction. */
+    static final byte JUMP = 25;
+
+    /**
+     * Jumps forward if top of stack is falsey, leaving it on stack; operand is offset from end of
+     * instruction.
+     */
+    static final byte JUMP_IF_FALSE = 26;
+
+    /**
+     * Jumps forward if top of stack is truthy, leaving it on stack; operand is offset from end of
+     * instruction.
+     */
+    static final byte JUMP_IF_TRUE = 27;
+
+    /** Pops value and prints it. */
+    static final byte PRINT = 28;
+
+    /**
+     * Returns top of stack from function to its caller; outside function, ends execution, yielding
+     * top of stack if any.
+     */
+    static final byte RETURN = 29;
+
+    /**
+     * Pushes global variable proven to be defined and initialised; operand is constant pool index
+     * of name.
+     */
+    static final byte GET_GLOBAL_DEFINED = 30;
+
+    /** Jumps backward unconditionally; operand is offset from end of instruction. */
+    static final byte LOOP = 31;
+
+    /**
+     * Calls function beneath arguments on top of stack, which are replaced by value it returns;
+     * operand is argument count.
+     */
+    static final byte CALL = 32;
+
+    /**
+     * Pushes closure of function; operand is constant pool index of {@link Chunk.Function},
+     * followed for each of its upvalues by {@code 1} and stack slot if it captures enclosing
+     * function's local, or {@code 0} and upvalue index if it shares enclosing function's upvalue.
+     */
+    static final byte CLOSURE = 33;
+
+    /**
+     * Pushes variable captured by closure, which may be uninitialised; operands are upvalue index
+     * and constant pool index of variable name.
+     */
+    static final byte GET_UPVALUE = 34;
+
+    /**
+     * Assigns top of stack to variable captured by closure, leaving value on stack; operand is
+     * upvalue index.
+     */
+    static final byte SET_UPVALUE = 35;
+
+    /** Moves local on top of stack into upvalues capturing it, then discards it. */
+    static final byte CLOSE_UPVALUE = 36;
+
+    /**
+     * Calls function beneath arguments on top of stack in place of current function, whose frame
+     * it reuses to return straight to its caller; operand is argument count.
+     */
+    static final byte TAIL_CALL = 37;
+
+    /** Prevents instantiation. */
+    private OpCode() {}
+}
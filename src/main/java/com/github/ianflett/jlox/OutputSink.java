@@ -0,0 +1,38 @@
+package com.github.ianflett.jlox;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/** Receives encoded output printed by {@link Backend}. */
+public interface OutputSink {
+
+    /**
+     * Receives block of output, which may span or split lines.
+     *
+     * <p>Bytes are only valid until method returns, so must be consumed or copied. Implementations
+     * may block to throttle output.
+     *
+     * @param bytes Buffer containing output.
+     * @param offset Index of first byte of output.
+     * @param length Number of bytes of output.
+     */
+    void write(byte[] bytes, int offset, int length);
+
+    /**
+     * Defines {@link Charset} output is encoded in.
+     *
+     * @return {@link Charset} of output; UTF-8 unless overridden.
+     */
+    default Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Provides sink writing to {@link System#out}.
+     *
+     * @return Standard output sink.
+     */
+    static OutputSink standardOutput() {
+        return StandardOutputSink.INSTANCE;
+    }
+}
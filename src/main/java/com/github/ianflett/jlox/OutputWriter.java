@@ -0,0 +1,182 @@
+package com.github.ianflett.jlox;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffers printed values as encoded bytes, writing them to {@link OutputSink} in large blocks.
+ *
+ * <p>Output is byte-identical to printing {@link Interpreter#stringify(Object)} of each value with
+ * {@link PrintStream#println(String)}, but integers and strings are encoded directly into buffer
+ * rather than via intermediate {@link String}s, and nothing is flushed until buffer fills or
+ * {@link #flush()} is called.
+ */
+final class OutputWriter {
+
+    /** Number of bytes buffered before flushing. */
+    private static final int CAPACITY = 1 << 16;
+
+    /** Longest encoding of single character in any supported charset. */
+    private static final int MAX_CHAR_BYTES = 4;
+
+    /** Encoded line separator. */
+    private static final byte[] LINE_SEPARATOR =
+            System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /** Encoded {@code nil}. */
+    private static final byte[] NIL = {'n', 'i', 'l'};
+
+    /** Encoded {@code true}. */
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+
+    /** Encoded {@code false}. */
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    /** Receives flushed output. */
+    private final OutputSink sink;
+
+    /** Stores encoded bytes awaiting flush. */
+    private final byte[] buffer = new byte[CAPACITY];
+
+    /** Stores number of bytes in {@link #buffer}. */
+    private int count = 0;
+
+    /**
+     * Constructs {@link OutputWriter}.
+     *
+     * @param sink Receives flushed output.
+     */
+    OutputWriter(OutputSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Buffers value followed by line separator, flushing if buffer fills.
+     *
+     * @param value Value to print.
+     */
+    void print(Object value) {
+        var charset = sink.charset();
+        switch (value) {
+            case null -> write(NIL);
+            case Boolean bool -> write(bool ? TRUE : FALSE);
+            case Long number when -10_000_000L < number && number < 10_000_000L ->
+                    writeLong(number);
+            case Number number -> writeString(Numbers.stringify(number), charset);
+            case CharSequence string -> writeString(string.toString(), charset);
+            default -> writeString(Interpreter.stringify(value), charset);
+        }
+        write(LINE_SEPARATOR);
+    }
+
+    /** Writes buffered bytes to {@link OutputSink}. */
+    void flush() {
+        if (0 == count) return;
+
+        sink.write(buffer, 0, count);
+        count = 0;
+    }
+
+    /**
+     * Ensures buffer has room for bytes, flushing if not.
+     *
+     * @param length Number of bytes required.
+     */
+    private void reserve(int length) {
+        if (CAPACITY - count < length) flush();
+    }
+
+    /**
+     * Buffers bytes, flushing as buffer fills.
+     *
+     * @param bytes Bytes to write.
+     */
+    private void write(byte[] bytes) {
+        reserve(bytes.length);
+        for (var offset = 0; offset < bytes.length; ) {
+            if (CAPACITY == count) flush();
+            var length = Math.min(bytes.length - offset, CAPACITY - count);
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+            offset += length;
+        }
+    }
+
+    /**
+     * Buffers decimal digits of integer.
+     *
+     * @param value Integer to write.
+     */
+    private void writeLong(long value) {
+        reserve(20);
+        if (0 > value) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+
+        var end = count + digits(value);
+        var position = end;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (0 != value);
+        count = end;
+    }
+
+    /**
+     * Counts decimal digits of non-negative integer.
+     *
+     * @param value Integer to measure.
+     * @return Number of digits.
+     */
+    private static int digits(long value) {
+        var digits = 1;
+        while (10 <= value) {
+            value /= 10;
+            ++digits;
+        }
+        return digits;
+    }
+
+    /**
+     * Buffers encoded characters of {@link String}.
+     *
+     * @param string {@link String} to write.
+     * @param charset {@link Charset} of output.
+     */
+    private void writeString(String string, Charset charset) {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            write(string.getBytes(charset));
+            return;
+        }
+
+        var length = string.length();
+        for (var i = 0; i < length; ++i) {
+            if (CAPACITY - count < MAX_CHAR_BYTES) flush();
+
+            var c = string.charAt(i);
+            if (0x80 > c) {
+                buffer[count++] = (byte) c;
+            } else if (0x800 > c) {
+                buffer[count++] = (byte) (0xC0 | c >> 6);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < length
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                var codePoint = Character.toCodePoint(c, string.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate is replaced, as by charset encoder.
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | c >> 12);
+                buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.github.ianflett.jlox;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interprets top-level statements concurrently where they access no common global variables.
+ *
+ * <p>Each top-level statement runs once every earlier statement writing global it reads or
+ * writes, or reading global it writes, has run. Statement writing globals also runs only once
+ * every earlier statement which may raise {@link RuntimeError} has run. Statements are otherwise
+ * run concurrently, each printing into its own buffer, and buffers are written out in source
+ * order. Once statement raises {@link RuntimeError}, output of later statements is discarded, and
+ * those not yet started are skipped, so no later statement writes globals, and output and errors
+ * are as {@link Interpreter} would produce.
+ *
+ * <p>Globals are stored in synchronised map. Strings written to globals are flattened before
+ * statements reading them run, as flattening is not thread-safe.
+ *
+ * <p>Function called may access any global, so statements calling functions run alone, after every
+ * earlier statement and before every later one.
+ */
+public final class ParallelInterpreter implements Backend {
+
+    /** Stores global variables. */
+    private final Map<String, Object> values = Collections.synchronizedMap(new HashMap<>());
+
+    /** Stores global scope. */
+    private final Environment globals = new Environment(values);
+
+    /** Receives printed output, in source order. */
+    private final OutputSink sink;
+
+    /** Runs statements. */
+    private final Executor executor;
+
+    /** Evaluates expressions. */
+    private final Interpreter interpreter;
+
+    /** Stores {@link Worker}s not running statement. */
+    private final ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<>();
+
+    /** Stores maximum number of nested function calls. */
+    private volatile int frameBudget = DEFAULT_FRAME_BUDGET;
+
+    /** Constructs new {@link ParallelInterpreter} printing to standard output. */
+    public ParallelInterpreter() {
+        this(OutputSink.standardOutput());
+    }
+
+    /**
+     * Constructs new {@link ParallelInterpreter} running statements on common {@link
+     * ForkJoinPool}.
+     *
+     * @param sink Receives printed output.
+     */
+    public ParallelInterpreter(OutputSink sink) {
+        this(sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs new {@link ParallelInterpreter}.
+     *
+     * @param sink Receives printed output.
+     * @param executor Runs statements.
+     */
+    public ParallelInterpreter(OutputSink sink, Executor executor) {
+        this.sink = sink;
+        this.executor = executor;
+        interpreter = new Interpreter(globals, sink);
+    }
+
+    /**
+     * Interprets {@link List} of statements, running independent statements concurrently.
+     *
+     * @param statements {@link Stmt}s to interpret.
+     */
+    @Override
+    public void interpret(List<Stmt> statements) {
+        var accesses = new ArrayList<Accesses>(statements.size());
+        for (var statement : statements) accesses.add(Accesses.of(statement));
+
+        var failed = new AtomicInteger(Integer.MAX_VALUE);
+        var outcomes = new ArrayList<CompletableFuture<Outcome>>(statements.size());
+        var dependencies = dependencies(accesses);
+        for (var i = 0; i < statements.size(); ++i) {
+            var index = i;
+            var statement = statements.get(i);
+            var access = accesses.get(i);
+            var prerequisites =
+                    dependencies.get(i).stream()
+                            .map(outcomes::get)
+                            .toArray(CompletableFuture<?>[]::new);
+            outcomes.add(
+                    CompletableFuture.allOf(prerequisites)
+                            .thenApplyAsync(
+                                    ignored -> run(index, statement, access, failed), executor));
+        }
+
+        for (var outcome : outcomes) {
+            var result = join(outcome);
+            sink.write(result.output(), 0, result.output().length);
+            if (null != result.error()) {
+                Lox.runtimeError(result.error());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evaluates single expression.
+     *
+     * @param expr {@link Expr}ession to evaluate.
+     * @return Value of expression.
+     * @throws RuntimeError Expression could not be evaluated.
+     */
+    @Override
+    public Object evaluate(Expr expr) {
+        return interpreter.evaluate(expr);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void limitFrames(int budget) {
+        interpreter.limitFrames(budget);
+        frameBudget = budget;
+    }
+
+    /**
+     * Finds earlier statements each statement must run after.
+     *
+     * @param accesses Globals accessed by each statement.
+     * @return Indices of statements each statement depends on.
+     */
+    static List<Set<Integer>> dependencies(List<Accesses> accesses) {
+        var dependencies = new ArrayList<Set<Integer>>(accesses.size());
+        var writers = new HashMap<String, Integer>();
+        var readers = new HashMap<String, List<Integer>>();
+        var fallible = new ArrayList<Integer>();
+        var barrier = -1;
+        for (var i = 0; i < accesses.size(); ++i) {
+            var access = accesses.get(i);
+            var prerequisites = new HashSet<Integer>();
+            if (access.barrier()) {
+                for (var j = Math.max(0, barrier); j < i; ++j) prerequisites.add(j);
+                barrier = i;
+                writers.clear();
+                readers.clear();
+                fallible.clear();
+            } else if (0 <= barrier) {
+                prerequisites.add(barrier);
+            }
+
+            // Writes must not be made once earlier statement has failed. Writer runs only after
+            // every earlier fallible statement, so stands in for them.
+            if (!access.writes().isEmpty() && !fallible.isEmpty()) {
+                prerequisites.addAll(fallible);
+                fallible.clear();
+                fallible.add(i);
+            } else if (access.fallible()) {
+                fallible.add(i);
+            }
+
+            for (var name : access.reads()) {
+                var writer = writers.get(name);
+                if (null != writer) prerequisites.add(writer);
+            }
+            for (var name : access.writes()) {
+                var writer = writers.get(name);
+                if (null != writer) prerequisites.add(writer);
+                prerequisites.addAll(readers.getOrDefault(name, List.of()));
+            }
+            dependencies.add(prerequisites);
+
+            for (var name : access.reads()) {
+                readers.computeIfAbsent(name, n -> new ArrayList<>()).add(i);
+            }
+            for (var name : access.writes()) {
+                writers.put(name, i);
+                readers.remove(name);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Runs statement on idle {@link Worker}, unless earlier statement failed.
+     *
+     * @param index Index of statement.
+     * @param statement {@link Stmt} to run.
+     * @param access Globals accessed by statement.
+     * @param failed Index of earliest statement which failed.
+     * @return {@link Outcome} of statement.
+     */
+    private Outcome run(int index, Stmt statement, Accesses access, AtomicInteger failed) {
+        if (failed.get() < index) return Outcome.SKIPPED;
+
+        var worker = idle.poll();
+        if (null == worker) worker = new Worker();
+        try {
+            worker.interpreter.limitFrames(frameBudget);
+            worker.interpreter.executeAndFlush(statement);
+
+            // Statements reading written strings may run on other threads.
+            for (var name : access.writes()) {
+                if (values.get(name) instanceof Rope rope) rope.toString();
+            }
+            return new Outcome(worker.output.toByteArray(), null);
+        } catch (RuntimeError error) {
+            failed.accumulateAndGet(index, Math::min);
+            return new Outcome(worker.output.toByteArray(), error);
+        } finally {
+            worker.output.reset();
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * Waits for outcome of statement.
+     *
+     * @param outcome Pending {@link Outcome}.
+     * @return Completed {@link Outcome}.
+     */
+    private static Outcome join(CompletableFuture<Outcome> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof Error error) throw error;
+            if (exception.getCause() instanceof RuntimeException cause) throw cause;
+            throw exception;
+        }
+    }
+
+    /**
+     * Stores output printed by statement and error it raised.
+     *
+     * @param output Encoded output.
+     * @param error {@link RuntimeError} raised; {@code null} if none.
+     */
+    private record Outcome(byte[] output, RuntimeError error) {
+
+        /** Outcome of statement skipped as earlier statement failed. */
+        static final Outcome SKIPPED = new Outcome(new byte[0], null);
+    }
+
+    /** Runs statements, buffering their output. */
+    private final class Worker {
+
+        /** Buffers output of statement being run. */
+        private final Buffer output = new Buffer(sink.charset());
+
+        /** Runs statement within global scope. */
+        private final Interpreter interpreter = new Interpreter(globals, output);
+    }
+
+    /** Buffers encoded output in memory. */
+    private static final class Buffer extends ByteArrayOutputStream implements OutputSink {
+
+        /** Stores {@link Charset} of output. */
+        private final Charset charset;
+
+        /**
+         * Constructs {@link Buffer}.
+         *
+         * @param charset {@link Charset} to encode output in.
+         */
+        Buffer(Charset charset) {
+            this.charset = charset;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Charset charset() {
+            return charset;
+        }
+    }
+
+    /**
+     * Stores global variables statement may read and write.
+     *
+     * @param reads Names of globals read.
+     * @param writes Names of globals assigned or declared.
+     * @param barrier Whether statement calls function, so may access any global.
+     * @param fallible Whether statement may raise {@link RuntimeError}.
+     */
+    record Accesses(Set<String> reads, Set<String> writes, boolean barrier, boolean fallible) {
+
+        /**
+         * Finds globals top-level statement may read and write.
+         *
+         * @param statement Top-level {@link Stmt}.
+         * @return Globals accessed.
+         */
+        static Accesses of(Stmt statement) {
+            var finder = new Finder();
+            finder.transform(statement);
+            return new Accesses(finder.reads, finder.writes, finder.barrier, finder.fallible);
+        }
+
+        /** Finds accesses to variables not declared within statement. */
+        private static final class Finder extends AstTransformer {
+
+            /** Stores names of globals read. */
+            private final Set<String> reads = new HashSet<>();
+
+            /** Stores names of globals assigned or declared. */
+            private final Set<String> writes = new HashSet<>();
+
+            /** Stores names declared so far within each enclosing block, innermost first. */
+            private final ArrayDeque<Set<String>> scopes = new ArrayDeque<>();
+
+            /** Whether statement calls function. */
+            private boolean barrier;
+
+            /** Whether statement may raise {@link RuntimeError}. */
+            private boolean fallible;
+
+            /**
+             * Records call, which may access any global, and fail.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitCallExpr(Expr.Call expr) {
+                barrier = true;
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records assignment, which fails if variable is undefined.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitAssignExpr(Expr.Assign expr) {
+                transform(expr.value);
+                if (isGlobal(expr.name)) writes.add(expr.name.lexeme());
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records binary operation which may fail, as all but equality and sequence may.
+             *
+             * @param expr Original {@link Expr}ession.
+             * @param left Left operand.
+             * @param right Right operand.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+                switch (expr.operator.type()) {
+                    case BANG_EQUAL, COMMA, EQUAL_EQUAL -> {}
+                    default -> fallible = true;
+                }
+                return expr;
+            }
+
+            /**
+             * Records read of variable by fused binary operation, which may fail.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+                if (isGlobal(expr.name)) reads.add(expr.name.lexeme());
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records reads of variables by fused binary operation, which may fail.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+                if (isGlobal(expr.left)) reads.add(expr.left.lexeme());
+                if (isGlobal(expr.right)) reads.add(expr.right.lexeme());
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records read and assignment by fused assignment, which may fail.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+                transform(expr.value);
+                if (isGlobal(expr.name)) {
+                    reads.add(expr.name.lexeme());
+                    writes.add(expr.name.lexeme());
+                }
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records concatenation, which fails given operands neither numbers nor strings.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitConcatenationExpr(Expr.Concatenation expr) {
+                fallible = true;
+                return super.visitConcatenationExpr(expr);
+            }
+
+            /**
+             * Records binary operation of numbers, which fails dividing by zero, or given operands
+             * profiled but not proven to be numbers.
+             *
+             * @param expr Original {@link Expr}ession.
+             * @param left Left operand.
+             * @param right Right operand.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Records negation, which fails given operand not number.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitUnaryExpr(Expr.Unary expr) {
+                if (TokenType.MINUS == expr.operator.type()) fallible = true;
+                return super.visitUnaryExpr(expr);
+            }
+
+            /**
+             * Records read of variable proven to be initialised.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitInitializedExpr(Expr.Initialized expr) {
+                if (isGlobal(expr.name)) reads.add(expr.name.lexeme());
+                return expr;
+            }
+
+            /**
+             * Records read, which fails if variable is undefined or uninitialised.
+             *
+             * @param expr {@link Expr}ession to examine.
+             * @return Same {@link Expr}ession.
+             */
+            @Override
+            public Expr visitVariableExpr(Expr.Variable expr) {
+                if (isGlobal(expr.name)) reads.add(expr.name.lexeme());
+                fallible = true;
+                return expr;
+            }
+
+            /**
+             * Examines block statement within new scope.
+             *
+             * @param stmt {@link Stmt} to examine.
+             * @return Same {@link Stmt}.
+             */
+            @Override
+            public Stmt visitBlockStmt(Stmt.Block stmt) {
+                scopes.push(new HashSet<>());
+                transform(stmt.statements);
+                scopes.pop();
+                return stmt;
+            }
+
+            /**
+             * Records declaration, which writes global if not within block.
+             *
+             * @param stmt {@link Stmt} to examine.
+             * @return Same {@link Stmt}.
+             */
+            @Override
+            public Stmt visitVarStmt(Stmt.Var stmt) {
+                transform(stmt.initializer);
+                if (scopes.isEmpty()) {
+                    writes.add(stmt.name.lexeme());
+                } else {
+                    scopes.element().add(stmt.name.lexeme());
+                }
+                return stmt;
+            }
+
+            /**
+             * Records declaration, which writes global if not within block. Body is examined when
+             * called.
+             *
+             * @param stmt {@link Stmt} to examine.
+             * @return Same {@link Stmt}.
+             */
+            @Override
+            public Stmt visitFunctionStmt(Stmt.Function stmt) {
+                if (scopes.isEmpty()) {
+                    writes.add(stmt.name.lexeme());
+                } else {
+                    scopes.element().add(stmt.name.lexeme());
+                }
+                return stmt;
+            }
+
+            /**
+             * Whether variable is not declared within enclosing block.
+             *
+             * @param name Variable name.
+             * @return {@code true} if variable is global; {@code false} otherwise.
+             */
+            private boolean isGlobal(Token name) {
+                return scopes.stream().noneMatch(scope -> scope.contains(name.lexeme()));
+            }
+        }
+    }
+}
@@ -12,12 +12,18 @@ public class Parser {
     /** Thrown when parsing error encountered. */
     static class ParseError extends RuntimeException {}
 
+    /** Maximum number of arguments to call, or parameters of function. */
+    static final int MAX_ARGUMENTS = 255;
+
     /** List of tokens to process. */
     private final List<Token> tokens;
 
     /** Index of current token being parsed. */
     private int current = 0;
 
+    /** Number of function bodies enclosing current token. */
+    private int functionDepth = 0;
+
     /**
      * Constructs {@link Parser}.
      *
@@ -51,20 +57,120 @@ Expr getExpression() {
         return expression();
     }
 
+    /**
+     * Whether {@link #tokens} form single expression rather than statements, as REPL accepts
+     * either.
+     *
+     * <p>Tokens form statements if they begin with keyword or brace only statements begin with, or
+     * end with {@code ;}. Statements such as functions, blocks, and control flow may end with
+     * closing brace, so cannot be told apart by their last token alone.
+     *
+     * @return {@code true} if tokens form expression; {@code false} if statements.
+     */
+    boolean isExpression() {
+        if (isAtEnd()) return false;
+
+        return switch (peek().type()) {
+            case FOR, FUN, IF, LEFT_BRACE, PRINT, RETURN, VAR, WHILE -> false;
+            default -> SEMICOLON != tokens.get(tokens.size() - 2).type();
+        };
+    }
+
     /**
      * Parses statement grammar rule.
      *
-     * <pre>{@link #statement()} -> {@link #printStatement()} | {@link #expressionStatement()}</pre>
+     * <pre>
+     * {@link #statement()} -> {@link #forStatement()} | {@link #ifStatement()}
+     *     | {@link #printStatement()} | {@link #returnStatement()} | {@link #whileStatement()}
+     *     | {@link #block()} | {@link #expressionStatement()}
+     * </pre>
      *
      * @return {@link Stmt}.
      */
     private Stmt statement() {
+        if (match(FOR)) return forStatement();
+        if (match(IF)) return ifStatement();
         if (match(PRINT)) return printStatement();
+        if (match(RETURN)) return returnStatement();
+        if (match(WHILE)) return whileStatement();
         if (match(LEFT_BRACE)) return new Stmt.Block(block());
 
         return expressionStatement();
     }
 
+    /**
+     * Parses {@code for} statement grammar rule, desugaring it into {@code while} loop.
+     *
+     * <pre>
+     * {@link #forStatement()} -> "for" "(" ( {@link #varDeclaration()}
+     *     | {@link #expressionStatement()} | ";" ) {@link #expression()}? ";"
+     *     {@link #expression()}? ")" {@link #statement()}
+     * </pre>
+     *
+     * @return Block {@link Stmt} declaring loop variable, or While {@link Stmt}.
+     */
+    private Stmt forStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'for'.");
+
+        Stmt initializer;
+        if (match(SEMICOLON)) {
+            initializer = null;
+        } else if (match(VAR)) {
+            initializer = varDeclaration();
+        } else {
+            initializer = expressionStatement();
+        }
+
+        Expr condition = null;
+        if (!check(SEMICOLON)) {
+            condition = expression();
+        }
+        consume(SEMICOLON, "Expect ';' after loop condition.");
+
+        Expr increment = null;
+        if (!check(RIGHT_PAREN)) {
+            increment = expression();
+        }
+        consume(RIGHT_PAREN, "Expect ')' after for clauses.");
+
+        var body = statement();
+
+        if (null != increment) {
+            body = new Stmt.Block(List.of(body, new Stmt.Expression(increment)));
+        }
+        if (null == condition) condition = new Expr.Literal(true);
+        body = new Stmt.While(condition, body);
+        if (null != initializer) {
+            body = new Stmt.Block(List.of(initializer, body));
+        }
+
+        return body;
+    }
+
+    /**
+     * Parses {@code if} statement grammar rule.
+     *
+     * <pre>
+     * {@link #ifStatement()} -> "if" "(" {@link #expression()} ")" {@link #statement()}
+     *     ( "else" {@link #statement()} )?
+     * </pre>
+     *
+     * @return If {@link Stmt}.
+     */
+    private Stmt ifStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'if'.");
+        var condition = expression();
+        consume(RIGHT_PAREN, "Expect ')' after if condition.");
+
+        var thenBranch = statement();
+        Stmt elseBranch = null;
+        if (match(ELSE)) {
+            elseBranch = statement();
+        }
+
+        return new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
     /**
      * Parses {@code print} statement grammar rule.
      *
@@ -78,6 +184,69 @@ private Stmt printStatement() {
         return new Stmt.Print(value);
     }
 
+    /**
+     * Parses {@code return} statement grammar rule.
+     *
+     * <pre>{@link #returnStatement()} -> "return" {@link #expression()}? ";"</pre>
+     *
+     * <p>Calls whose value is returned directly are in tail position, so are marked for callee to
+     * reuse caller's frame.
+     *
+     * @return Return {@link Stmt}.
+     */
+    private Stmt returnStatement() {
+        var keyword = previous();
+        if (0 == functionDepth) error(keyword, "Can't return from top-level code.");
+
+        Expr value = null;
+        if (!check(SEMICOLON)) {
+            value = tail(expression());
+        }
+
+        consume(SEMICOLON, "Expect ';' after return value.");
+        return new Stmt.Return(keyword, value);
+    }
+
+    /**
+     * Marks calls in tail position of returned value: value itself, either branch of conditional,
+     * right operand of logical expression, or grouped expression.
+     *
+     * @param expr Returned {@link Expr}ession.
+     * @return {@link Expr}ession with calls in tail position marked.
+     */
+    private static Expr tail(Expr expr) {
+        return switch (expr) {
+            case Expr.Call call -> new Expr.Call(call.callee, call.paren, call.arguments, true);
+            case Expr.Conditional conditional ->
+                    new Expr.Conditional(
+                            conditional.condition,
+                            tail(conditional.thenBranch),
+                            tail(conditional.elseBranch));
+            case Expr.Grouping grouping -> new Expr.Grouping(tail(grouping.expression));
+            case Expr.Logical logical ->
+                    new Expr.Logical(logical.left, logical.operator, tail(logical.right));
+            default -> expr;
+        };
+    }
+
+    /**
+     * Parses {@code while} statement grammar rule.
+     *
+     * <pre>
+     * {@link #whileStatement()} -> "while" "(" {@link #expression()} ")" {@link #statement()}
+     * </pre>
+     *
+     * @return While {@link Stmt}.
+     */
+    private Stmt whileStatement() {
+        consume(LEFT_PAREN, "Expect '(' after 'while'.");
+        var condition = expression();
+        consume(RIGHT_PAREN, "Expect ')' after condition.");
+        var body = statement();
+
+        return new Stmt.While(condition, body);
+    }
+
     /**
      * Parses {@code var} statement grammar rule.
      *
@@ -95,6 +264,41 @@ private Stmt varDeclaration() {
         return new Stmt.Var(name, initializer);
     }
 
+    /**
+     * Parses function declaration grammar rule.
+     *
+     * <pre>
+     * {@link #function(String)} -> IDENTIFIER "(" ( IDENTIFIER ( "," IDENTIFIER )* )? ")"
+     *     {@link #block()}
+     * </pre>
+     *
+     * @param kind Kind of function, used in error messages.
+     * @return Function {@link Stmt}.
+     */
+    private Stmt.Function function(String kind) {
+        var name = consume(IDENTIFIER, "Expect " + kind + " name.");
+        consume(LEFT_PAREN, "Expect '(' after " + kind + " name.");
+
+        List<Token> parameters = new ArrayList<>();
+        if (!check(RIGHT_PAREN)) {
+            do {
+                if (MAX_ARGUMENTS <= parameters.size()) {
+                    error(peek(), "Can't have more than " + MAX_ARGUMENTS + " parameters.");
+                }
+                parameters.add(consume(IDENTIFIER, "Expect parameter name."));
+            } while (match(COMMA));
+        }
+        consume(RIGHT_PAREN, "Expect ')' after parameters.");
+
+        consume(LEFT_BRACE, "Expect '{' before " + kind + " body.");
+        ++functionDepth;
+        try {
+            return new Stmt.Function(name, parameters, block());
+        } finally {
+            --functionDepth;
+        }
+    }
+
     /**
      * Parses expression statement grammar rule.
      *
@@ -127,10 +331,16 @@ private List<Stmt> block() {
     /**
      * Parses declaration statement grammar rule.
      *
+     * <pre>
+     * {@link #declaration()} -> "fun" {@link #function(String)} | "var" {@link #varDeclaration()}
+     *     | {@link #statement()}
+     * </pre>
+     *
      * @return Declaration {@link Stmt}.
      */
     private Stmt declaration() {
         try {
+            if (match(FUN)) return function("function");
             if (match(VAR)) return varDeclaration();
 
             return statement();
@@ -192,13 +402,13 @@ private Expr assignment() {
      * Parses a conditional grammar rule.
      *
      * <pre>
-     * {@link #conditional()} -> {@link #equality()} ( "?" {@link #expression()} ":" {@link #conditional()} )?
+     * {@link #conditional()} -> {@link #or()} ( "?" {@link #expression()} ":" {@link #conditional()} )?
      * </pre>
      *
-     * @return {@link Expr}ession or {@link #expression()}.
+     * @return {@link Expr}ession or {@link #or()}.
      */
     private Expr conditional() {
-        var expr = equality();
+        var expr = or();
 
         if (match(QUESTION)) {
             var thenBranch = expression();
@@ -210,6 +420,28 @@ private Expr conditional() {
         return expr;
     }
 
+    /**
+     * Parses logical or grammar rule.
+     *
+     * <pre>{@link #or()} -> {@link #and()} ( "or" {@link #and()} )*</pre>
+     *
+     * @return Logical {@link Expr}ession or {@link #and()}.
+     */
+    private Expr or() {
+        return parseLogical(this::and, OR);
+    }
+
+    /**
+     * Parses logical and grammar rule.
+     *
+     * <pre>{@link #and()} -> {@link #equality()} ( "and" {@link #equality()} )*</pre>
+     *
+     * @return Logical {@link Expr}ession or {@link #equality()}.
+     */
+    private Expr and() {
+        return parseLogical(this::equality, AND);
+    }
+
     /**
      * Parses equality grammar rule.
      *
@@ -263,10 +495,10 @@ private Expr factor() {
      *
      * <pre>
      * {@link #unary()} -> ( "!" | "-" ) {@link #unary()}
-     *     | {@link #primary()}
+     *     | {@link #call()}
      * </pre>
      *
-     * @return Unary {@link Expr}ession or {@link #primary()}.
+     * @return Unary {@link Expr}ession or {@link #call()}.
      */
     private Expr unary() {
         if (match(BANG, MINUS)) {
@@ -275,7 +507,40 @@ private Expr unary() {
             return new Expr.Unary(operator, right);
         }
 
-        return primary();
+        return call();
+    }
+
+    /**
+     * Parses call grammar rule.
+     *
+     * <pre>
+     * {@link #call()} -> {@link #primary()}
+     *     ( "(" ( {@link #assignment()} ( "," {@link #assignment()} )* )? ")" )*
+     * </pre>
+     *
+     * <p>Arguments are assignments, not expressions, so commas separate them rather than forming
+     * sequences.
+     *
+     * @return Call {@link Expr}ession or {@link #primary()}.
+     */
+    private Expr call() {
+        var expr = primary();
+
+        while (match(LEFT_PAREN)) {
+            List<Expr> arguments = new ArrayList<>();
+            if (!check(RIGHT_PAREN)) {
+                do {
+                    if (MAX_ARGUMENTS <= arguments.size()) {
+                        error(peek(), "Can't have more than " + MAX_ARGUMENTS + " arguments.");
+                    }
+                    arguments.add(assignment());
+                } while (match(COMMA));
+            }
+            var paren = consume(RIGHT_PAREN, "Expect ')' after arguments.");
+            expr = new Expr.Call(expr, paren, arguments, false);
+        }
+
+        return expr;
     }
 
     /**
@@ -366,6 +631,25 @@ private Expr parseBinary(Supplier<Expr> higher, TokenType... types) {
         return expr;
     }
 
+    /**
+     * Parses a {@link Expr.Logical} grammar rule.
+     *
+     * @param higher Next higher {@link Expr} parser.
+     * @param type {@link TokenType} to check for.
+     * @return {@link Expr.Logical} expression or higher.
+     */
+    private Expr parseLogical(Supplier<Expr> higher, TokenType type) {
+        var expr = higher.get();
+
+        while (match(type)) {
+            var operator = previous();
+            var right = higher.get();
+            expr = new Expr.Logical(expr, operator, right);
+        }
+
+        return expr;
+    }
+
     /**
      * Whether current {@link Token} matches given {@link TokenType}s.
      *
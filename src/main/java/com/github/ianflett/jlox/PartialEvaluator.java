@@ -0,0 +1,67 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Specialises program to fixed values of some of its globals, leaving residual program which can
+ * be run repeatedly more cheaply than original.
+ *
+ * <p>Residual program behaves as original would if run with fixed globals already defined. Each
+ * fixed global is declared with its value ahead of program, and then constants are propagated, so
+ * reads of fixed globals become literals and conditional expressions selected by them are pruned.
+ * Declarations, including those of fixed globals, are then dropped if nothing reads them. Fixed
+ * global which program declares again or assigns to is only propagated until then.
+ */
+final class PartialEvaluator {
+
+    /** Prevents instantiation. */
+    private PartialEvaluator() {}
+
+    /**
+     * Specialises program to fixed global values.
+     *
+     * @param statements {@link Stmt}s to specialise.
+     * @param fixed Values of fixed globals, by name.
+     * @return Residual {@link Stmt}s.
+     * @throws IllegalArgumentException Value is not {@code null}, {@link Boolean}, {@link Double},
+     *     {@link Float}, {@link Long}, {@link Integer}, or {@link CharSequence}.
+     */
+    static List<Stmt> specialise(List<Stmt> statements, Map<String, ?> fixed) {
+        var program = new ArrayList<Stmt>(fixed.size() + statements.size());
+        fixed.forEach(
+                (name, value) ->
+                        program.add(
+                                new Stmt.Var(
+                                        new Token(TokenType.IDENTIFIER, name, null, 0),
+                                        new Expr.Literal(value(name, value)))));
+        program.addAll(statements);
+
+        return PassManager.optimisations(false).run(program);
+    }
+
+    /**
+     * Converts value of fixed global to Lox value.
+     *
+     * @param name Global name.
+     * @param value Value to convert.
+     * @return Lox value.
+     * @throws IllegalArgumentException Value is not {@code null}, {@link Boolean}, {@link Double},
+     *     {@link Float}, {@link Long}, {@link Integer}, or {@link CharSequence}.
+     */
+    private static Object value(String name, Object value) {
+        return switch (value) {
+            case null -> null;
+            case Boolean bool -> bool;
+            case Double number -> Numbers.valueOf(number);
+            case Float number -> Numbers.valueOf(number.doubleValue());
+            case Long number -> Numbers.valueOf(number);
+            case Integer number -> Numbers.valueOf(number.longValue());
+            case CharSequence string -> string.toString();
+            default ->
+                    throw new IllegalArgumentException(
+                            "Unsupported value of global '" + name + "': " + value);
+        };
+    }
+}
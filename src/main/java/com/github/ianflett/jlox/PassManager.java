@@ -0,0 +1,739 @@
+package com.github.ianflett.jlox;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs ordered passes over program between parsing and execution.
+ *
+ * <p>Passes run in order they are added. Group of passes may be repeated until fixed point, that
+ * is until iteration in which no pass changes program, as each pass returns same {@link List} if
+ * it changed nothing. Optionally, program is verified to be well formed after each pass, and time
+ * taken by each pass and change in number of nodes are reported.
+ */
+final class PassManager {
+
+    /** Maximum iterations of optimisations before fixed point is assumed. */
+    static final int MAX_ITERATIONS = 8;
+
+    /** Manager whose options apply; {@code this} unless group. */
+    private final PassManager root;
+
+    /** Stores passes in order. */
+    private final List<Pass> passes = new ArrayList<>();
+
+    /** Stores maximum iterations of passes; {@code 1} if not repeated until fixed point. */
+    private final int iterations;
+
+    /** Stores whether program is verified after each pass. */
+    private boolean verify = false;
+
+    /** Receives statistics of each pass; {@code null} if disabled. */
+    private PrintStream statistics = null;
+
+    /** Constructs empty {@link PassManager}. */
+    PassManager() {
+        this(null, 1);
+    }
+
+    /**
+     * Constructs empty {@link PassManager}.
+     *
+     * @param root Manager whose options apply; {@code null} if this is root.
+     * @param iterations Maximum iterations of passes.
+     */
+    private PassManager(PassManager root, int iterations) {
+        this.root = null == root ? this : root;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Creates passes run on every program: optimisations, followed by proof of which variable
+     * reads need not be checked, and fusion of common shapes of expression reading them.
+     *
+     * <p>Passes following data flow through program in order account for variables each call may
+     * read or assign, as found by {@link CallEffects}, and leave function bodies as they are.
+     *
+     * @param externalGlobals Whether globals may be defined outside of program, as in REPL.
+     * @return Standard {@link PassManager}.
+     */
+    static PassManager standard(boolean externalGlobals) {
+        return optimisations(externalGlobals)
+                .add("prove", s -> DefiniteAssignment.prove(s, externalGlobals))
+                .add("fuse", ExpressionFuser::fuse);
+    }
+
+    /**
+     * Creates optimisation passes: simplifications repeated until fixed point, followed by passes
+     * specialising program for backends.
+     *
+     * @param externalGlobals Whether globals may be defined outside of program, as in REPL.
+     * @return Optimising {@link PassManager}.
+     */
+    static PassManager optimisations(boolean externalGlobals) {
+        var manager = new PassManager();
+        manager.group("simplify", MAX_ITERATIONS)
+                .add("fold", ConstantFolder::fold)
+                .add("propagate", s -> ConstantPropagator.propagate(s, externalGlobals))
+                .add("eliminate-dead-code", s -> DeadCodeEliminator.eliminate(s, externalGlobals))
+                .add(
+                        "eliminate-subexpressions",
+                        s -> CommonSubexpressionEliminator.eliminate(s, externalGlobals));
+        return manager
+                .add("flatten", ConcatenationFlattener::flatten)
+                .add("infer", s -> TypeInference.infer(s, externalGlobals));
+    }
+
+    /**
+     * Enables verification of program after each pass.
+     *
+     * @return This {@link PassManager}.
+     */
+    PassManager enableVerification() {
+        root.verify = true;
+        return this;
+    }
+
+    /**
+     * Enables reporting of time taken and change in number of nodes of each pass.
+     *
+     * @param statistics Stream statistics are reported to.
+     * @return This {@link PassManager}.
+     */
+    PassManager enableStatistics(PrintStream statistics) {
+        root.statistics = statistics;
+        return this;
+    }
+
+    /**
+     * Adds pass, to be run after those already added.
+     *
+     * @param name Pass name, used in statistics and errors.
+     * @param transform Transforms program, returning same {@link List} if unchanged.
+     * @return This {@link PassManager}.
+     */
+    PassManager add(String name, UnaryOperator<List<Stmt>> transform) {
+        passes.add(new Pass(name, transform));
+        return this;
+    }
+
+    /**
+     * Adds group of passes repeated until fixed point, to be run after those already added.
+     *
+     * @param name Group name, qualifying names of its passes.
+     * @param iterations Maximum iterations of group.
+     * @return Group {@link PassManager}, to which its passes are added.
+     */
+    PassManager group(String name, int iterations) {
+        var group = new PassManager(root, iterations);
+        passes.add(new Pass(name, group));
+        return group;
+    }
+
+    /**
+     * Runs passes over program.
+     *
+     * @param statements {@link Stmt}s to transform.
+     * @return Transformed {@link Stmt}s; same {@link List} if no pass changed them.
+     * @throws IllegalStateException Pass produced malformed program.
+     */
+    List<Stmt> run(List<Stmt> statements) {
+        return run("", statements);
+    }
+
+    /**
+     * Runs passes over program, until fixed point if repeated.
+     *
+     * @param prefix Qualifies pass names.
+     * @param statements {@link Stmt}s to transform.
+     * @return Transformed {@link Stmt}s; same {@link List} if no pass changed them.
+     * @throws IllegalStateException Pass produced malformed program.
+     */
+    private List<Stmt> run(String prefix, List<Stmt> statements) {
+        for (var iteration = 1; iteration <= iterations; ++iteration) {
+            var previous = statements;
+            for (var pass : passes) {
+                var name = prefix + pass.name() + (1 == iterations ? "" : "#" + iteration);
+                statements = run(name, pass, statements);
+            }
+            if (previous == statements) break;
+        }
+        return statements;
+    }
+
+    /**
+     * Runs pass over program, verifying and reporting on it if enabled.
+     *
+     * @param name Qualified pass name.
+     * @param pass {@link Pass} to run.
+     * @param statements {@link Stmt}s to transform.
+     * @return Transformed {@link Stmt}s.
+     * @throws IllegalStateException Pass produced malformed program.
+     */
+    private List<Stmt> run(String name, Pass pass, List<Stmt> statements) {
+        var before = null == root.statistics ? 0 : Counter.count(statements);
+        var start = System.nanoTime();
+        var result =
+                null == pass.group()
+                        ? pass.transform().apply(statements)
+                        : pass.group().run(name + "/", statements);
+        var elapsed = System.nanoTime() - start;
+
+        if (root.verify && null == pass.group()) Verifier.verify(name, result);
+        if (null != root.statistics) {
+            root.statistics.printf(
+                    "%-36s %10.3f ms %8d -> %8d nodes%s%n",
+                    name,
+                    elapsed / 1e6,
+                    before,
+                    Counter.count(result),
+                    result == statements ? "" : " (changed)");
+        }
+        return result;
+    }
+
+    /**
+     * Pass over program.
+     *
+     * @param name Pass name.
+     * @param transform Transforms program; {@code null} if group.
+     * @param group Group of passes; {@code null} if single pass.
+     */
+    private record Pass(String name, UnaryOperator<List<Stmt>> transform, PassManager group) {
+
+        /**
+         * Constructs single pass.
+         *
+         * @param name Pass name.
+         * @param transform Transforms program.
+         */
+        Pass(String name, UnaryOperator<List<Stmt>> transform) {
+            this(name, transform, null);
+        }
+
+        /**
+         * Constructs group of passes.
+         *
+         * @param name Group name.
+         * @param group Group of passes.
+         */
+        Pass(String name, PassManager group) {
+            this(name, null, group);
+        }
+    }
+
+    /** Counts nodes of program. */
+    static class Counter extends AstTransformer {
+
+        /** Stores number of nodes visited. */
+        private int count = 0;
+
+        /**
+         * Counts nodes of program.
+         *
+         * @param statements {@link Stmt}s to count.
+         * @return Number of statements and expressions.
+         */
+        static int count(List<Stmt> statements) {
+            var counter = new Counter();
+            counter.transform(statements);
+            return counter.count;
+        }
+
+        /**
+         * Counts statement.
+         *
+         * @param stmt {@link Stmt} to count.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        Stmt transform(Stmt stmt) {
+            visited(stmt);
+            return super.transform(stmt);
+        }
+
+        /**
+         * Counts expression, other than binary expressions, which are counted as chains are walked.
+         *
+         * @param expr {@link Expr}ession to count; may be {@code null}.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr transform(Expr expr) {
+            if (null != expr && !(expr instanceof Expr.Binary || expr instanceof Expr.Numeric)) {
+                visited(expr);
+            }
+            return super.transform(expr);
+        }
+
+        /**
+         * Counts binary expression.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            visited(expr);
+            return expr;
+        }
+
+        /**
+         * Counts binary expression of numbers.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            visited(expr);
+            return expr;
+        }
+
+        /**
+         * Counts node.
+         *
+         * @param node Statement or expression visited.
+         */
+        void visited(Object node) {
+            ++count;
+        }
+    }
+
+    /**
+     * Verifies program is well formed: every node is present and appears once, and operators,
+     * names and operand counts suit their nodes.
+     */
+    static final class Verifier extends Counter {
+
+        /** Operators of binary operations. */
+        private static final TokenType[] BINARY_OPERATORS = {
+            TokenType.COMMA,
+            TokenType.BANG_EQUAL,
+            TokenType.EQUAL_EQUAL,
+            TokenType.GREATER,
+            TokenType.GREATER_EQUAL,
+            TokenType.LESS,
+            TokenType.LESS_EQUAL,
+            TokenType.MINUS,
+            TokenType.PLUS,
+            TokenType.SLASH,
+            TokenType.STAR
+        };
+
+        /** Stores nodes visited. */
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * Verifies program is well formed.
+         *
+         * @param pass Name of pass which produced program.
+         * @param statements {@link Stmt}s to verify.
+         * @throws IllegalStateException Program is malformed.
+         */
+        static void verify(String pass, List<Stmt> statements) {
+            try {
+                if (null == statements) fail("missing program");
+                new Verifier().transform(statements);
+            } catch (IllegalStateException exception) {
+                throw new IllegalStateException(
+                        "Pass '" + pass + "' produced malformed program: " + exception.getMessage(),
+                        exception);
+            }
+        }
+
+        /**
+         * Verifies node is present and not shared.
+         *
+         * @param node Statement or expression visited.
+         */
+        @Override
+        void visited(Object node) {
+            super.visited(node);
+            if (!seen.add(node)) fail("shared " + node.getClass().getSimpleName());
+        }
+
+        /**
+         * Verifies statement is present.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        Stmt transform(Stmt stmt) {
+            if (null == stmt) fail("missing statement");
+            return super.transform(stmt);
+        }
+
+        /**
+         * Verifies assignment expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitAssignExpr(Expr.Assign expr) {
+            name(expr.name);
+            present(expr.value, "assigned value");
+            return super.visitAssignExpr(expr);
+        }
+
+        /**
+         * Verifies binary expression.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            operator(expr.operator, BINARY_OPERATORS);
+            present(left, "left operand");
+            present(right, "right operand");
+            return super.rewriteBinary(expr, left, right);
+        }
+
+        /**
+         * Verifies fused binary operation on variable and literal.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarConstExpr(Expr.BinaryVarConst expr) {
+            name(expr.name);
+            operator(expr.operator, BINARY_OPERATORS);
+            return super.visitBinaryVarConstExpr(expr);
+        }
+
+        /**
+         * Verifies fused binary operation on two variables.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitBinaryVarVarExpr(Expr.BinaryVarVar expr) {
+            name(expr.left);
+            operator(expr.operator, BINARY_OPERATORS);
+            name(expr.right);
+            return super.visitBinaryVarVarExpr(expr);
+        }
+
+        /**
+         * Verifies fused assignment of binary operation on assigned variable.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCompoundAssignExpr(Expr.CompoundAssign expr) {
+            name(expr.name);
+            operator(expr.operator, BINARY_OPERATORS);
+            present(expr.value, "assigned operand");
+            return super.visitCompoundAssignExpr(expr);
+        }
+
+        /**
+         * Verifies call expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitCallExpr(Expr.Call expr) {
+            present(expr.callee, "callee");
+            if (null == expr.arguments) fail("missing arguments");
+            for (var argument : expr.arguments) present(argument, "argument");
+            return super.visitCallExpr(expr);
+        }
+
+        /**
+         * Verifies concatenation expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitConcatenationExpr(Expr.Concatenation expr) {
+            if (2 > expr.operands.size()) fail("concatenation of fewer than two operands");
+            if (expr.operators.size() != expr.operands.size() - 1) {
+                fail("concatenation operators do not separate operands");
+            }
+            for (var operator : expr.operators) operator(operator, TokenType.PLUS);
+            for (var operand : expr.operands) present(operand, "concatenated operand");
+            return super.visitConcatenationExpr(expr);
+        }
+
+        /**
+         * Verifies conditional expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitConditionalExpr(Expr.Conditional expr) {
+            present(expr.condition, "condition");
+            present(expr.thenBranch, "then branch");
+            present(expr.elseBranch, "else branch");
+            return super.visitConditionalExpr(expr);
+        }
+
+        /**
+         * Verifies grouping expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitGroupingExpr(Expr.Grouping expr) {
+            present(expr.expression, "grouped expression");
+            return super.visitGroupingExpr(expr);
+        }
+
+        /**
+         * Verifies variable expression proven to be initialised.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitInitializedExpr(Expr.Initialized expr) {
+            name(expr.name);
+            return super.visitInitializedExpr(expr);
+        }
+
+        /**
+         * Verifies logical expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @param left Verified left operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteLogical(Expr.Logical expr, Expr left) {
+            operator(expr.operator, TokenType.AND, TokenType.OR);
+            present(left, "left operand");
+            present(expr.right, "right operand");
+            return super.rewriteLogical(expr, left);
+        }
+
+        /**
+         * Verifies binary expression whose operands are numbers.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            operator(
+                    expr.operator,
+                    TokenType.GREATER,
+                    TokenType.GREATER_EQUAL,
+                    TokenType.LESS,
+                    TokenType.LESS_EQUAL,
+                    TokenType.MINUS,
+                    TokenType.PLUS,
+                    TokenType.SLASH,
+                    TokenType.STAR);
+            present(left, "left operand");
+            present(right, "right operand");
+            return super.rewriteNumeric(expr, left, right);
+        }
+
+        /**
+         * Verifies unary expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitUnaryExpr(Expr.Unary expr) {
+            operator(expr.operator, TokenType.BANG, TokenType.MINUS);
+            present(expr.right, "operand");
+            return super.visitUnaryExpr(expr);
+        }
+
+        /**
+         * Verifies variable expression.
+         *
+         * @param expr {@link Expr}ession to verify.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        public Expr visitVariableExpr(Expr.Variable expr) {
+            name(expr.name);
+            return super.visitVariableExpr(expr);
+        }
+
+        /**
+         * Verifies block statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitBlockStmt(Stmt.Block stmt) {
+            if (null == stmt.statements) fail("missing block statements");
+            return super.visitBlockStmt(stmt);
+        }
+
+        /**
+         * Verifies expression statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitExpressionStmt(Stmt.Expression stmt) {
+            present(stmt.expression, "expression");
+            return super.visitExpressionStmt(stmt);
+        }
+
+        /**
+         * Verifies function declaration statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitFunctionStmt(Stmt.Function stmt) {
+            name(stmt.name);
+            if (null == stmt.params) fail("missing parameters");
+            for (var param : stmt.params) name(param);
+            if (null == stmt.body) fail("missing function body");
+            return super.visitFunctionStmt(stmt);
+        }
+
+        /**
+         * Verifies if statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitIfStmt(Stmt.If stmt) {
+            present(stmt.condition, "condition");
+            scoped(stmt.thenBranch, "then branch");
+            scoped(stmt.elseBranch, "else branch");
+            return super.visitIfStmt(stmt);
+        }
+
+        /**
+         * Verifies print statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitPrintStmt(Stmt.Print stmt) {
+            present(stmt.expression, "printed expression");
+            return super.visitPrintStmt(stmt);
+        }
+
+        /**
+         * Verifies return statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitReturnStmt(Stmt.Return stmt) {
+            if (null == stmt.keyword || TokenType.RETURN != stmt.keyword.type()) {
+                fail("invalid return keyword");
+            }
+            return super.visitReturnStmt(stmt);
+        }
+
+        /**
+         * Verifies while statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitWhileStmt(Stmt.While stmt) {
+            present(stmt.condition, "condition");
+            scoped(stmt.body, "loop body");
+            return super.visitWhileStmt(stmt);
+        }
+
+        /**
+         * Verifies variable declaration statement.
+         *
+         * @param stmt {@link Stmt} to verify.
+         * @return Same {@link Stmt}.
+         */
+        @Override
+        public Stmt visitVarStmt(Stmt.Var stmt) {
+            name(stmt.name);
+            return super.visitVarStmt(stmt);
+        }
+
+        /**
+         * Verifies child expression is present.
+         *
+         * @param expr Child {@link Expr}ession.
+         * @param role Description of child.
+         */
+        private static void present(Expr expr, String role) {
+            if (null == expr) fail("missing " + role);
+        }
+
+        /**
+         * Verifies nested statement is not bare declaration, which would outlive its scope.
+         *
+         * @param stmt Nested {@link Stmt}; may be {@code null}.
+         * @param role Description of statement.
+         */
+        private static void scoped(Stmt stmt, String role) {
+            if (stmt instanceof Stmt.Var) fail("declaration as " + role);
+        }
+
+        /**
+         * Verifies token is identifier.
+         *
+         * @param name Name {@link Token}.
+         */
+        private static void name(Token name) {
+            if (null == name || TokenType.IDENTIFIER != name.type()) fail("invalid name");
+        }
+
+        /**
+         * Verifies operator is one of those expected.
+         *
+         * @param operator Operator {@link Token}.
+         * @param expected Expected {@link TokenType}s.
+         */
+        private static void operator(Token operator, TokenType... expected) {
+            if (null != operator) {
+                for (var type : expected) {
+                    if (type == operator.type()) return;
+                }
+            }
+            fail("invalid operator " + (null == operator ? "null" : operator.lexeme()));
+        }
+
+        /**
+         * Reports malformed program.
+         *
+         * @param message Description of fault.
+         * @throws IllegalStateException Always.
+         */
+        private static void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.ianflett.jlox;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records how often each expression of program executes, types of operands each binary operation
+ * observes, and directions each conditional expression takes, persisting them between runs.
+ *
+ * <p>Expressions are identified by their position in post-order walk of program, so profile only
+ * applies to program it was recorded from, identified by hash of its source. Profiles loaded from
+ * earlier runs accumulate counts from later ones.
+ *
+ * <p>Binary operations which only ever observed number operands are specialised to speculative
+ * {@link Expr.Numeric} before program runs. {@link Interpreter} checks operands of only such
+ * expressions, falling back to generic operation. Execution counts and branch
+ * directions are recorded and persisted, but do not yet guide specialisation or order execution.
+ *
+ * <p>Only {@link Interpreter} records profile, and only of code outside function bodies, as those
+ * are run by {@link FlatInterpreter}.
+ */
+final class Profile {
+
+    /** Identifies profile file. */
+    private static final int MAGIC = 0x4C4F5850;
+
+    /** Format version of profile file. */
+    private static final byte VERSION = 1;
+
+    /** Algorithm hashing program source. */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /** Stores identifier of each expression. */
+    private final Map<Expr, Integer> ids = new IdentityHashMap<>();
+
+    /** Stores number of executions of each expression. */
+    private long[] counts = new long[0];
+
+    /** Stores {@link StaticType}s observed of each binary operation's left operand, as bits. */
+    private byte[] lefts = new byte[0];
+
+    /** Stores {@link StaticType}s observed of each binary operation's right operand, as bits. */
+    private byte[] rights = new byte[0];
+
+    /** Stores number of times each conditional expression took its then branch. */
+    private long[] taken = new long[0];
+
+    /** Constructs empty {@link Profile}. */
+    private Profile() {}
+
+    /**
+     * Creates empty profile of program.
+     *
+     * @param statements {@link Stmt}s to profile.
+     * @return {@link Profile} with no executions recorded.
+     */
+    static Profile of(List<Stmt> statements) {
+        var profile = new Profile();
+        profile.new Numberer().transform(statements);
+
+        var size = profile.ids.size();
+        profile.counts = new long[size];
+        profile.lefts = new byte[size];
+        profile.rights = new byte[size];
+        profile.taken = new long[size];
+        return profile;
+    }
+
+    /**
+     * Hashes program source, identifying program profile applies to.
+     *
+     * @param source Program source.
+     * @return Hash of source.
+     */
+    static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(source);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Loads executions recorded by earlier runs of same program, if any.
+     *
+     * @param path Profile file.
+     * @param hash Hash of program source.
+     * @return {@code true} if profile of same program loaded; {@code false} otherwise.
+     * @throws IOException Profile file exists but could not be read.
+     */
+    boolean load(Path path, byte[] hash) throws IOException {
+        if (!Files.exists(path)) return false;
+
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (MAGIC != input.readInt() || VERSION != input.readByte()) return false;
+            var recorded = input.readNBytes(hash.length);
+            if (!Arrays.equals(hash, recorded) || counts.length != input.readInt()) return false;
+
+            var entries = input.readInt();
+            for (var i = 0; i < entries; ++i) {
+                var id = input.readInt();
+                if (0 > id || counts.length <= id) {
+                    clear();
+                    return false;
+                }
+                counts[id] = input.readLong();
+                lefts[id] = input.readByte();
+                rights[id] = input.readByte();
+                taken[id] = input.readLong();
+            }
+            return true;
+        } catch (EOFException exception) {
+            // Truncated profile is discarded.
+            clear();
+            return false;
+        }
+    }
+
+    /** Discards recorded executions. */
+    private void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(lefts, (byte) 0);
+        Arrays.fill(rights, (byte) 0);
+        Arrays.fill(taken, 0);
+    }
+
+    /**
+     * Saves recorded executions, omitting expressions never executed.
+     *
+     * @param path Profile file.
+     * @param hash Hash of program source.
+     * @throws IOException Profile file could not be written.
+     */
+    void save(Path path, byte[] hash) throws IOException {
+        var entries = (int) Arrays.stream(counts).filter(count -> 0 < count).count();
+        try (var output =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.write(hash);
+            output.writeInt(counts.length);
+            output.writeInt(entries);
+            for (var id = 0; id < counts.length; ++id) {
+                if (0 == counts[id]) continue;
+
+                output.writeInt(id);
+                output.writeLong(counts[id]);
+                output.writeByte(lefts[id]);
+                output.writeByte(rights[id]);
+                output.writeLong(taken[id]);
+            }
+        }
+    }
+
+    /**
+     * Records execution of expression.
+     *
+     * @param expr Executed {@link Expr}ession.
+     */
+    void executed(Expr expr) {
+        var id = ids.get(expr);
+        if (null != id) ++counts[id];
+    }
+
+    /**
+     * Records types of operands of binary operation.
+     *
+     * @param expr Binary {@link Expr}ession.
+     * @param left Left operand.
+     * @param right Right operand.
+     */
+    void observed(Expr expr, Object left, Object right) {
+        var id = ids.get(expr);
+        if (null == id) return;
+
+        lefts[id] |= bit(left);
+        rights[id] |= bit(right);
+    }
+
+    /**
+     * Records direction conditional expression took.
+     *
+     * @param expr Conditional {@link Expr}ession.
+     * @param then Whether then branch was taken.
+     */
+    void branched(Expr expr, boolean then) {
+        var id = ids.get(expr);
+        if (null != id && then) ++taken[id];
+    }
+
+    /**
+     * Retrieves number of executions recorded of expression.
+     *
+     * @param expr Profiled {@link Expr}ession.
+     * @return Number of executions.
+     */
+    long count(Expr expr) {
+        var id = ids.get(expr);
+        return null == id ? 0 : counts[id];
+    }
+
+    /**
+     * Retrieves number of times conditional expression took its then branch.
+     *
+     * @param expr Conditional {@link Expr}ession.
+     * @return Number of times then branch taken.
+     */
+    long taken(Expr expr) {
+        var id = ids.get(expr);
+        return null == id ? 0 : taken[id];
+    }
+
+    /**
+     * Specialises binary operations which only ever observed number operands.
+     *
+     * @param statements Profiled {@link Stmt}s.
+     * @return Specialised {@link Stmt}s.
+     */
+    List<Stmt> specialise(List<Stmt> statements) {
+        return new Specialiser().transform(statements);
+    }
+
+    /**
+     * Represents type of value as bit.
+     *
+     * @param value Value observed.
+     * @return Bit of value's {@link StaticType}.
+     */
+    private static byte bit(Object value) {
+        return (byte) (1 << StaticType.of(value).ordinal());
+    }
+
+    /** Assigns identifiers to expressions in post-order. */
+    private final class Numberer extends AstTransformer {
+
+        /**
+         * Identifies expression once its operands are identified.
+         *
+         * @param expr {@link Expr}ession to identify; may be {@code null}.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr transform(Expr expr) {
+            if (null == expr) return null;
+
+            super.transform(expr);
+            ids.putIfAbsent(expr, ids.size());
+            return expr;
+        }
+
+        /**
+         * Identifies binary expression within chain once its operands are identified.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            ids.putIfAbsent(expr, ids.size());
+            return expr;
+        }
+
+        /**
+         * Identifies binary expression of numbers within chain once its operands are identified.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Left operand.
+         * @param right Right operand.
+         * @return Same {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            ids.putIfAbsent(expr, ids.size());
+            return expr;
+        }
+    }
+
+    /** Specialises binary operations, identifying each as expression it replaces. */
+    private final class Specialiser extends AstTransformer {
+
+        /**
+         * Rewrites expression, identifying rewritten expression as original.
+         *
+         * @param expr {@link Expr}ession to rewrite; may be {@code null}.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr transform(Expr expr) {
+            return null == expr ? null : identify(expr, super.transform(expr));
+        }
+
+        /**
+         * Specialises binary operation if it only ever observed number operands.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Specialised left operand.
+         * @param right Specialised right operand.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+            var id = ids.get(expr);
+            var number = bit(0L);
+            if (null == id
+                    || 0 == counts[id]
+                    || number != lefts[id]
+                    || number != rights[id]
+                    || TokenType.COMMA == expr.operator.type()
+                    || TokenType.BANG_EQUAL == expr.operator.type()
+                    || TokenType.EQUAL_EQUAL == expr.operator.type()) {
+                return identify(expr, super.rewriteBinary(expr, left, right));
+            }
+            return identify(expr, new Expr.Numeric(left, expr.operator, right, true));
+        }
+
+        /**
+         * Rewrites binary expression of numbers within chain, identifying it as original.
+         *
+         * @param expr Original {@link Expr}ession.
+         * @param left Specialised left operand.
+         * @param right Specialised right operand.
+         * @return Rewritten {@link Expr}ession.
+         */
+        @Override
+        Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+            return identify(expr, super.rewriteNumeric(expr, left, right));
+        }
+
+        /**
+         * Identifies rewritten expression as original.
+         *
+         * @param original Original {@link Expr}ession.
+         * @param rewritten Rewritten {@link Expr}ession.
+         * @return Rewritten {@link Expr}ession.
+         */
+        private Expr identify(Expr original, Expr rewritten) {
+            var id = ids.get(original);
+            if (null != id) ids.put(rewritten, id);
+            return rewritten;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.ianflett.jlox;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publishes output as {@link ByteBuffer} blocks to {@link Flow.Subscriber}s, delivered
+ * asynchronously.
+ *
+ * <p>Each subscriber has bounded buffer; writing blocks while any subscriber's buffer is full, so
+ * slow subscriber throttles script rather than output accumulating. Output written while there
+ * are no subscribers is discarded, so subscribe before running script, and {@link #close()} once
+ * it completes.
+ */
+public final class PublisherSink implements OutputSink, Flow.Publisher<ByteBuffer>, AutoCloseable {
+
+    /** Delivers blocks to subscribers. */
+    private final SubmissionPublisher<ByteBuffer> publisher;
+
+    /**
+     * Constructs {@link PublisherSink} delivering on {@link ForkJoinPool#commonPool()}.
+     *
+     * @param capacity Maximum number of blocks buffered per subscriber.
+     * @throws IllegalArgumentException Capacity is not positive.
+     */
+    public PublisherSink(int capacity) {
+        this(ForkJoinPool.commonPool(), capacity);
+    }
+
+    /**
+     * Constructs {@link PublisherSink}.
+     *
+     * @param executor Delivers blocks to subscribers.
+     * @param capacity Maximum number of blocks buffered per subscriber.
+     * @throws IllegalArgumentException Capacity is not positive.
+     */
+    public PublisherSink(Executor executor, int capacity) {
+        publisher = new SubmissionPublisher<>(executor, capacity);
+    }
+
+    /**
+     * Publishes copy of output, blocking while any subscriber's buffer is full.
+     *
+     * @param bytes Buffer containing output.
+     * @param offset Index of first byte of output.
+     * @param length Number of bytes of output.
+     * @throws IllegalStateException Sink is closed.
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        var block = ByteBuffer.allocate(length).put(bytes, offset, length).flip();
+        publisher.submit(block.asReadOnlyBuffer());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /** Completes subscribers once buffered output is delivered. */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
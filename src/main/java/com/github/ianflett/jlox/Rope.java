@@ -0,0 +1,105 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+
+/**
+ * Represents Lox string built by concatenation, deferring copying of characters until needed.
+ *
+ * <p>Concatenation links operands in constant time, so repeatedly appending to string is linear
+ * rather than quadratic overall. Characters are copied once, by {@link #toString()}, which caches
+ * result and releases operands.
+ */
+final class Rope implements CharSequence {
+
+    /** Length up to which concatenation copies characters immediately. */
+    private static final int SHORT_LENGTH = 64;
+
+    /** Stores left operand until flattened. */
+    private CharSequence left;
+
+    /** Stores right operand until flattened. */
+    private CharSequence right;
+
+    /** Stores flattened characters once computed. */
+    private String flat;
+
+    /** Stores number of characters. */
+    private final int length;
+
+    /**
+     * Creates unflattened concatenation.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @param length Total number of characters.
+     */
+    private Rope(CharSequence left, CharSequence right, int length) {
+        this.left = left;
+        this.right = right;
+        this.length = length;
+    }
+
+    /**
+     * Concatenates strings, linking rather than copying unless result is short.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Concatenated string.
+     * @throws OutOfMemoryError Result too long to represent.
+     */
+    static CharSequence concat(CharSequence left, CharSequence right) {
+        if (0 == left.length()) return right;
+        if (0 == right.length()) return left;
+
+        var length = left.length() + right.length();
+        if (0 > length) throw new OutOfMemoryError("String length exceeds limit.");
+        if (SHORT_LENGTH >= length) return left.toString().concat(right.toString());
+        return new Rope(left, right, length);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Flattens characters into {@link String}, without recursion, caching result.
+     *
+     * @return Concatenated characters.
+     */
+    @Override
+    public String toString() {
+        if (null != flat) return flat;
+
+        var builder = new StringBuilder(length);
+        var pending = new ArrayDeque<CharSequence>();
+        pending.push(right);
+        pending.push(left);
+        while (!pending.isEmpty()) {
+            var next = pending.pop();
+            if (next instanceof Rope rope && null == rope.flat) {
+                pending.push(rope.right);
+                pending.push(rope.left);
+            } else {
+                builder.append(next.toString());
+            }
+        }
+
+        flat = builder.toString();
+        left = right = null;
+        return flat;
+    }
+}
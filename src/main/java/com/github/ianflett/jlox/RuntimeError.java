@@ -3,9 +3,12 @@
 /** Thrown when error encountered at runtime. */
 public class RuntimeError extends RuntimeException {
 
-    /** {@link Token} responsible for error. */
+    /** {@link Token} responsible for error; {@code null} if raised from compiled bytecode. */
     final Token token;
 
+    /** Line number responsible for error. */
+    final int line;
+
     /**
      * Constructs {@link RuntimeError}.
      *
@@ -15,5 +18,18 @@ public class RuntimeError extends RuntimeException {
     public RuntimeError(Token token, String message) {
         super(message);
         this.token = token;
+        this.line = token.line();
+    }
+
+    /**
+     * Constructs {@link RuntimeError} from line number alone, where no {@link Token} is retained.
+     *
+     * @param line Line number responsible.
+     * @param message Error message.
+     */
+    RuntimeError(int line, String message) {
+        super(message);
+        this.token = null;
+        this.line = line;
     }
 }
@@ -33,6 +33,9 @@ class Scanner {
     /** Stores source text. */
     private final String source;
 
+    /** Canonicalises identifiers and string literals. */
+    private final Interner interner;
+
     /** Stores list of all discovered {@link Token}s. */
     private final List<Token> tokens = new ArrayList<>();
 
@@ -51,8 +54,19 @@ class Scanner {
      * @param source Source text to scan.
      */
     Scanner(String source) {
+        this(source, new Interner());
+    }
+
+    /**
+     * Constructs {@link Scanner} sharing {@link Interner} with other scans of same runtime.
+     *
+     * @param source Source text to scan.
+     * @param interner Canonicalises identifiers and string literals.
+     */
+    Scanner(String source, Interner interner) {
         if (null == source) throw new IllegalArgumentException("Source text must be defined.");
         this.source = source;
+        this.interner = interner;
     }
 
     /**
@@ -181,7 +195,7 @@ private void number() {
             while (isDigit(peek())) advance();
         }
 
-        addToken(NUMBER, Double.parseDouble(source.substring(start, current)));
+        addToken(NUMBER, Numbers.parse(source.substring(start, current)));
     }
 
     /** Consumes string {@link Token} from source text. */
@@ -201,7 +215,7 @@ private void string() {
 
         // Trim surrounding quotes.
         var value = source.substring(start + 1, current - 1);
-        addToken(STRING, value);
+        addToken(STRING, interner.intern(value));
     }
 
     /** Consumes comment {@link Token} from source text. */
@@ -316,6 +330,7 @@ private void addToken(TokenType type) {
      */
     private void addToken(TokenType type, Object literal) {
         String text = source.substring(start, current);
+        if (IDENTIFIER == type) text = interner.intern(text);
         tokens.add(new Token(type, text, literal, line));
     }
 }
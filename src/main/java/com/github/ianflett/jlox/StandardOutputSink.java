@@ -0,0 +1,86 @@
+package com.github.ianflett.jlox;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * Writes output to {@link System#out} as redirected at time of writing, encoded in its {@link
+ * Charset}.
+ */
+final class StandardOutputSink implements OutputSink {
+
+    /** Single instance. */
+    static final StandardOutputSink INSTANCE = new StandardOutputSink();
+
+    /** Standard output stream at time {@link #attach()} was called. */
+    private static PrintStream attachedStream;
+
+    /** Channel writing directly to standard output file, if it is one. */
+    private static FileChannel attachedChannel;
+
+    /** Prevents instantiation other than {@link #INSTANCE}. */
+    private StandardOutputSink() {}
+
+    /**
+     * Writes to standard output's file through {@link FileChannel}, rather than through {@link
+     * System#out}, while {@link System#out} is unchanged and standard output is regular file.
+     *
+     * <p>Only to be called by command line entry point, before anything redirects {@link
+     * System#out}.
+     */
+    static void attach() {
+        attachedStream = System.out;
+        try {
+            if (Files.isRegularFile(Path.of("/dev/stdout"))) {
+                // Shares file position with standard output, and so with any redirected stderr.
+                attachedChannel = new FileOutputStream(FileDescriptor.out).getChannel();
+            }
+        } catch (InvalidPathException | SecurityException ignored) {
+            // Fall back to System.out.
+        }
+    }
+
+    /**
+     * Writes output, then flushes {@link System#out}.
+     *
+     * @param bytes Buffer containing output.
+     * @param offset Index of first byte of output.
+     * @param length Number of bytes of output.
+     * @throws UncheckedIOException Standard output could not be written.
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        var out = System.out;
+        if (null != attachedChannel && out == attachedStream) {
+            out.flush();
+            try {
+                var buffer = ByteBuffer.wrap(bytes, offset, length);
+                while (buffer.hasRemaining()) attachedChannel.write(buffer);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        } else {
+            out.write(bytes, offset, length);
+            out.flush();
+        }
+    }
+
+    /**
+     * Defines {@link Charset} of {@link System#out}.
+     *
+     * @return {@link Charset} of output.
+     */
+    @Override
+    public Charset charset() {
+        return System.out.charset();
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.ianflett.jlox;
+
+/** Type of value proven before running. */
+enum StaticType {
+
+    /** Number. */
+    NUMBER,
+
+    /** String. */
+    STRING,
+
+    /** {@code true} or {@code false}. */
+    BOOLEAN,
+
+    /** {@code nil}. */
+    NIL,
+
+    /** Any type. */
+    UNKNOWN;
+
+    /**
+     * Determines type of value.
+     *
+     * @param value Value to check.
+     * @return Type of value.
+     */
+    static StaticType of(Object value) {
+        return switch (value) {
+            case null -> NIL;
+            case Number ignored -> NUMBER;
+            case CharSequence ignored -> STRING;
+            case Boolean ignored -> BOOLEAN;
+            default -> UNKNOWN;
+        };
+    }
+
+    /**
+     * Determines type of value which may have either type.
+     *
+     * @param other Other type.
+     * @return Type common to both; {@link #UNKNOWN} if they differ.
+     */
+    StaticType join(StaticType other) {
+        return this == other ? this : UNKNOWN;
+    }
+}
@@ -0,0 +1,445 @@
+package com.github.ianflett.jlox;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Infers type of each expression, replacing arithmetic and comparisons whose operands are proven
+ * numbers with {@link Expr.Numeric}, which {@link Interpreter} evaluates without checking them.
+ *
+ * <p>Inference is flow-sensitive: each variable has type of value last stored to it, joined with
+ * its previous type where store is only conditionally evaluated. Loops are inferred repeatedly,
+ * joining types at end of body with those on entry, until they no longer change. Variables not
+ * declared within program, such as globals defined by earlier lines entered at prompt, are of
+ * unknown type.
+ *
+ * <p>Call may assign any variable named within function bodies, so each becomes of unknown type
+ * once call is made. Function bodies run only when called, so are left as they are.
+ */
+final class TypeInference extends AstTransformer {
+
+    /** Stores type of each transformed expression. */
+    private final Map<Expr, StaticType> types = new IdentityHashMap<>();
+
+    /** Stores type of each variable in each enclosing scope, innermost first. */
+    private ArrayDeque<Map<String, StaticType>> scopes = new ArrayDeque<>();
+
+    /** Stores names of variables calls may assign. */
+    private final Set<String> called;
+
+    /** Constructs {@link TypeInference} within global scope, of program making no calls. */
+    TypeInference() {
+        this(Set.of());
+    }
+
+    /**
+     * Constructs {@link TypeInference} within global scope.
+     *
+     * @param called Names of variables calls may assign.
+     */
+    private TypeInference(Set<String> called) {
+        this.called = called;
+        scopes.push(new HashMap<>());
+    }
+
+    /**
+     * Specialises operations within {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to specialise.
+     * @param externalGlobals Whether globals may have been defined by earlier programs.
+     * @return Specialised {@link Stmt}s.
+     */
+    static List<Stmt> infer(List<Stmt> statements, boolean externalGlobals) {
+        var called = CallEffects.of(statements, externalGlobals).writes();
+        return new TypeInference(called).transform(statements);
+    }
+
+    /**
+     * Specialises operations within expression.
+     *
+     * <p>Variables are not declared within expression, so are of unknown type even if called
+     * function assigns them.
+     *
+     * @param expr {@link Expr}ession to specialise.
+     * @return Specialised {@link Expr}ession.
+     */
+    static Expr infer(Expr expr) {
+        return new TypeInference().transform(expr);
+    }
+
+    /**
+     * Retrieves type proven for transformed expression.
+     *
+     * @param expr Transformed {@link Expr}ession.
+     * @return Type of expression's value.
+     */
+    StaticType typeOf(Expr expr) {
+        return types.getOrDefault(expr, StaticType.UNKNOWN);
+    }
+
+    /**
+     * Infers type of assignment, which is also variable's type from then on.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitAssignExpr(Expr.Assign expr) {
+        var assign = super.visitAssignExpr(expr);
+        var type = typeOf(((Expr.Assign) assign).value);
+        for (var scope : scopes) {
+            if (scope.containsKey(expr.name.lexeme())) {
+                scope.put(expr.name.lexeme(), type);
+                break;
+            }
+        }
+        return annotate(assign, type);
+    }
+
+    /**
+     * Infers type of binary expression, specialising it if operands are numbers.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @param right Transformed right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteBinary(Expr.Binary expr, Expr left, Expr right) {
+        var leftType = typeOf(left);
+        var rightType = typeOf(right);
+        var type =
+                switch (expr.operator.type()) {
+                    case COMMA -> StaticType.NIL;
+                    case BANG_EQUAL, EQUAL_EQUAL -> StaticType.BOOLEAN;
+                    case PLUS -> add(leftType, rightType);
+                    default -> numeric(expr.operator);
+                };
+
+        if (TokenType.COMMA == expr.operator.type()
+                || TokenType.BANG_EQUAL == expr.operator.type()
+                || TokenType.EQUAL_EQUAL == expr.operator.type()
+                || StaticType.NUMBER != leftType
+                || StaticType.NUMBER != rightType) {
+            return annotate(super.rewriteBinary(expr, left, right), type);
+        }
+        return annotate(new Expr.Numeric(left, expr.operator, right, false), type);
+    }
+
+    /**
+     * Infers call, after which variables it may assign are of unknown type.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitCallExpr(Expr.Call expr) {
+        var call = super.visitCallExpr(expr);
+        for (var scope : scopes) {
+            scope.replaceAll((name, type) -> called.contains(name) ? StaticType.UNKNOWN : type);
+        }
+        return call;
+    }
+
+    /**
+     * Infers type of n-ary concatenation expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConcatenationExpr(Expr.Concatenation expr) {
+        var concatenation = (Expr.Concatenation) super.visitConcatenationExpr(expr);
+        var type = typeOf(concatenation.operands.getFirst());
+        for (var i = 1; i < concatenation.operands.size(); ++i) {
+            type = add(type, typeOf(concatenation.operands.get(i)));
+        }
+        return annotate(concatenation, type);
+    }
+
+    /**
+     * Infers type of conditional expression, joining variable types from either branch.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitConditionalExpr(Expr.Conditional expr) {
+        var condition = transform(expr.condition);
+        var before = copy(scopes);
+        var thenBranch = transform(expr.thenBranch);
+        var afterThen = scopes;
+        scopes = before;
+        var elseBranch = transform(expr.elseBranch);
+        join(afterThen);
+
+        var conditional =
+                condition == expr.condition
+                                && thenBranch == expr.thenBranch
+                                && elseBranch == expr.elseBranch
+                        ? expr
+                        : new Expr.Conditional(condition, thenBranch, elseBranch);
+        return annotate(conditional, typeOf(thenBranch).join(typeOf(elseBranch)));
+    }
+
+    /**
+     * Infers type of grouping expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitGroupingExpr(Expr.Grouping expr) {
+        var grouping = (Expr.Grouping) super.visitGroupingExpr(expr);
+        return annotate(grouping, typeOf(grouping.expression));
+    }
+
+    /**
+     * Infers type of literal expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Same {@link Expr}ession.
+     */
+    @Override
+    public Expr visitLiteralExpr(Expr.Literal expr) {
+        return annotate(expr, StaticType.of(expr.value));
+    }
+
+    /**
+     * Infers type of logical expression, joining variable types from short-circuited operand.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteLogical(Expr.Logical expr, Expr left) {
+        var before = copy(scopes);
+        var right = transform(expr.right);
+        join(before);
+
+        var logical =
+                left == expr.left && right == expr.right
+                        ? expr
+                        : new Expr.Logical(left, expr.operator, right);
+        return annotate(logical, typeOf(left).join(typeOf(right)));
+    }
+
+    /**
+     * Infers type of binary expression of numbers.
+     *
+     * @param expr Original {@link Expr}ession.
+     * @param left Transformed left operand.
+     * @param right Transformed right operand.
+     * @return Rewritten {@link Expr}ession.
+     */
+    @Override
+    Expr rewriteNumeric(Expr.Numeric expr, Expr left, Expr right) {
+        return annotate(super.rewriteNumeric(expr, left, right), numeric(expr.operator));
+    }
+
+    /**
+     * Infers type of unary expression.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Transformed {@link Expr}ession.
+     */
+    @Override
+    public Expr visitUnaryExpr(Expr.Unary expr) {
+        var type = TokenType.BANG == expr.operator.type() ? StaticType.BOOLEAN : StaticType.NUMBER;
+        return annotate(super.visitUnaryExpr(expr), type);
+    }
+
+    /**
+     * Infers type of variable expression from value last stored to it.
+     *
+     * @param expr {@link Expr}ession to transform.
+     * @return Same {@link Expr}ession.
+     */
+    @Override
+    public Expr visitVariableExpr(Expr.Variable expr) {
+        for (var scope : scopes) {
+            var type = scope.get(expr.name.lexeme());
+            if (null != type) return annotate(expr, type);
+        }
+        return expr;
+    }
+
+    /**
+     * Infers types within block statement's scope.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitBlockStmt(Stmt.Block stmt) {
+        scopes.push(new HashMap<>());
+        var block = super.visitBlockStmt(stmt);
+        scopes.pop();
+        return block;
+    }
+
+    /**
+     * Infers types within {@code if} statement, joining variable types from either branch.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitIfStmt(Stmt.If stmt) {
+        var condition = transform(stmt.condition);
+        var before = copy(scopes);
+        var thenBranch = transform(stmt.thenBranch);
+        var afterThen = scopes;
+        scopes = before;
+        var elseBranch = null == stmt.elseBranch ? null : transform(stmt.elseBranch);
+        join(afterThen);
+
+        return condition == stmt.condition
+                        && thenBranch == stmt.thenBranch
+                        && elseBranch == stmt.elseBranch
+                ? stmt
+                : new Stmt.If(condition, thenBranch, elseBranch);
+    }
+
+    /**
+     * Infers types within {@code while} statement, repeating until variable types on entry to
+     * condition account for those at end of body.
+     *
+     * <p>Joining can only widen types to {@link StaticType#UNKNOWN}, so this terminates.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitWhileStmt(Stmt.While stmt) {
+        Expr condition;
+        Stmt body;
+        ArrayDeque<Map<String, StaticType>> exit;
+        ArrayDeque<Map<String, StaticType>> entry;
+        do {
+            entry = copy(scopes);
+            condition = transform(stmt.condition);
+            exit = copy(scopes);
+            body = transform(stmt.body);
+            join(entry);
+        } while (!same(scopes, entry));
+        scopes = exit;
+
+        return condition == stmt.condition && body == stmt.body
+                ? stmt
+                : new Stmt.While(condition, body);
+    }
+
+    /**
+     * Declares function, of unknown type, leaving its body.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Same {@link Stmt}.
+     */
+    @Override
+    public Stmt visitFunctionStmt(Stmt.Function stmt) {
+        scopes.element().put(stmt.name.lexeme(), StaticType.UNKNOWN);
+        return stmt;
+    }
+
+    /**
+     * Declares variable of its initialiser's type.
+     *
+     * <p>Variable declared without initialiser is of unknown type, as reading it raises error.
+     *
+     * @param stmt {@link Stmt} to transform.
+     * @return Transformed {@link Stmt}.
+     */
+    @Override
+    public Stmt visitVarStmt(Stmt.Var stmt) {
+        var declaration = (Stmt.Var) super.visitVarStmt(stmt);
+        var initializer = declaration.initializer;
+        var type = null == initializer ? StaticType.UNKNOWN : typeOf(initializer);
+        scopes.element().put(stmt.name.lexeme(), type);
+        return declaration;
+    }
+
+    /**
+     * Records type of transformed expression.
+     *
+     * @param expr Transformed {@link Expr}ession.
+     * @param type Type of expression's value.
+     * @return Same {@link Expr}ession.
+     */
+    private Expr annotate(Expr expr, StaticType type) {
+        types.put(expr, type);
+        return expr;
+    }
+
+    /**
+     * Determines type of {@code +} operation.
+     *
+     * @param left Type of left operand.
+     * @param right Type of right operand.
+     * @return Type of result.
+     */
+    private static StaticType add(StaticType left, StaticType right) {
+        if (StaticType.NUMBER == left && StaticType.NUMBER == right) return StaticType.NUMBER;
+        if (StaticType.STRING == left || StaticType.STRING == right) return StaticType.STRING;
+        return StaticType.UNKNOWN;
+    }
+
+    /**
+     * Determines type of operation only defined on numbers.
+     *
+     * @param operator Operator applied.
+     * @return Type of result.
+     */
+    private static StaticType numeric(Token operator) {
+        return switch (operator.type()) {
+            case GREATER, GREATER_EQUAL, LESS, LESS_EQUAL -> StaticType.BOOLEAN;
+            default -> StaticType.NUMBER;
+        };
+    }
+
+    /**
+     * Copies variable types of enclosing scopes.
+     *
+     * @param scopes Types of variables in each scope.
+     * @return Copy of scopes.
+     */
+    private static ArrayDeque<Map<String, StaticType>> copy(
+            ArrayDeque<Map<String, StaticType>> scopes) {
+        var copy = new ArrayDeque<Map<String, StaticType>>();
+        for (var scope : scopes) {
+            copy.addLast(new HashMap<>(scope));
+        }
+        return copy;
+    }
+
+    /**
+     * Whether variable types of scopes are same.
+     *
+     * @param scopes Types of variables in each scope.
+     * @param other Types of variables in each scope to compare.
+     * @return {@code true} if every variable has same type in both; {@code false} otherwise.
+     */
+    private static boolean same(
+            ArrayDeque<Map<String, StaticType>> scopes, ArrayDeque<Map<String, StaticType>> other) {
+        return List.copyOf(scopes).equals(List.copyOf(other));
+    }
+
+    /**
+     * Joins variable types of current scopes with those along alternative path.
+     *
+     * @param other Types of variables in each scope along alternative path.
+     */
+    private void join(ArrayDeque<Map<String, StaticType>> other) {
+        Iterator<Map<String, StaticType>> others = other.iterator();
+        for (var scope : scopes) {
+            var alternative = others.next();
+            scope.replaceAll((name, type) -> type.join(alternative.get(name)));
+        }
+    }
+}
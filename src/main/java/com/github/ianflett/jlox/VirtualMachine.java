@@ -0,0 +1,585 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.Interpreter.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes {@link Chunk}s of bytecode produced by {@link Compiler} on operand stack.
+ *
+ * <p>Produces same output and runtime errors as {@link Interpreter}. Each call occupies window of
+ * operand stack holding callee, arguments and locals, and pushes frame preallocated at its depth
+ * recording where caller resumes, so calls never recurse on thread stack. Call in tail position
+ * instead moves callee and arguments over caller's window and reuses its frame.
+ *
+ * <p>Closure captures variables of enclosing functions through {@link Upvalue}s, which refer to
+ * variable's stack slot whilst it is open, and hold its value once closed as variable leaves stack,
+ * so only captured variables outlive their frame.
+ */
+public final class VirtualMachine implements Backend {
+
+    /** Initial number of operand stack slots. */
+    private static final int INITIAL_STACK_SIZE = 256;
+
+    /** Function together with variables it captured, as created by {@link OpCode#CLOSURE}. */
+    static final class Closure {
+
+        /** Stores function compiled. */
+        final Chunk.Function function;
+
+        /** Stores captured variables, in upvalue index order. */
+        final Upvalue[] upvalues;
+
+        /**
+         * Constructs {@link Closure}.
+         *
+         * @param function Function compiled.
+         * @param upvalues Captured variables.
+         */
+        Closure(Chunk.Function function, Upvalue[] upvalues) {
+            this.function = function;
+            this.upvalues = upvalues;
+        }
+
+        /**
+         * Represents closure by its function.
+         *
+         * @return {@link String} representation of closure.
+         */
+        @Override
+        public String toString() {
+            return function.toString();
+        }
+    }
+
+    /** Variable captured by {@link Closure}. */
+    static final class Upvalue {
+
+        /** Stores operand stack slot of variable whilst open; {@code -1} once closed. */
+        int slot;
+
+        /** Stores value of variable once closed. */
+        Object value;
+
+        /** Stores next open upvalue, of lower stack slot. */
+        Upvalue next;
+
+        /**
+         * Constructs open {@link Upvalue}.
+         *
+         * @param slot Operand stack slot of variable.
+         * @param next Next open upvalue, of lower stack slot.
+         */
+        Upvalue(int slot, Upvalue next) {
+            this.slot = slot;
+            this.next = next;
+        }
+    }
+
+    /** Represents caller of call in progress, reused by later calls at same depth. */
+    private static final class Frame {
+
+        /** Stores {@link Closure} of caller, resumed on return; {@code null} if script. */
+        Closure closure;
+
+        /** Stores {@link Chunk} of caller, resumed on return. */
+        Chunk chunk;
+
+        /** Stores instruction pointer caller resumes from. */
+        int ip;
+
+        /** Stores operand stack index of caller's slot {@code 0}. */
+        int base;
+    }
+
+    /** Stores values bound to global variables. */
+    private final Map<String, Object> globals = new HashMap<>();
+
+    /** Buffers printed values. */
+    private final OutputWriter output;
+
+    /** Stores operand stack, reused between executions. */
+    private Object[] stack = new Object[INITIAL_STACK_SIZE];
+
+    /** Stores frames of calls, reused between calls; allocated as calls first reach each depth. */
+    private Frame[] frames = new Frame[0];
+
+    /** Stores maximum number of calls in progress at once. */
+    private int frameBudget = DEFAULT_FRAME_BUDGET;
+
+    /** Stores open upvalues, highest stack slot first. */
+    private Upvalue openUpvalues = null;
+
+    /** Constructs new {@link VirtualMachine} printing to standard output. */
+    public VirtualMachine() {
+        this(OutputSink.standardOutput());
+    }
+
+    /**
+     * Constructs new {@link VirtualMachine}.
+     *
+     * @param sink Receives printed output.
+     */
+    public VirtualMachine(OutputSink sink) {
+        output = new OutputWriter(sink);
+    }
+
+    /**
+     * Compiles and executes {@link List} of statements.
+     *
+     * @param statements {@link Stmt}s to execute.
+     */
+    @Override
+    public void interpret(List<Stmt> statements) {
+        Chunk chunk;
+        try {
+            chunk = Compiler.compile(statements);
+        } catch (Compiler.CompileError error) {
+            return;
+        }
+
+        try {
+            execute(chunk);
+        } catch (RuntimeError error) {
+            Lox.runtimeError(error);
+        }
+    }
+
+    /**
+     * Compiles and evaluates single expression.
+     *
+     * @param expr {@link Expr}ession to evaluate.
+     * @return Value of expression.
+     * @throws RuntimeError Expression could not be evaluated.
+     */
+    @Override
+    public Object evaluate(Expr expr) {
+        return execute(Compiler.compile(expr));
+    }
+
+    /**
+     * Limits number of calls in progress at once.
+     *
+     * @param budget Maximum number of call frames.
+     * @throws IllegalArgumentException Budget is not positive.
+     */
+    @Override
+    public void limitFrames(int budget) {
+        if (0 >= budget) throw new IllegalArgumentException("Frame budget must be positive.");
+        frameBudget = budget;
+    }
+
+    /**
+     * Executes {@link Chunk}, flushing its output however it completes.
+     *
+     * @param script {@link Chunk} to execute.
+     * @return Value left on top of stack; {@code null} if stack is empty.
+     * @throws RuntimeError Error encountered during execution.
+     */
+    Object execute(Chunk script) {
+        if (stack.length < script.maxStack) stack = new Object[script.maxStack];
+
+        var stack = this.stack;
+        Closure closure = null;
+        var chunk = script;
+        var code = chunk.code;
+        var constants = chunk.constants;
+        var sp = 0;
+        var ip = 0;
+        var base = 0;
+        var frameCount = 0;
+        var high = chunk.maxStack;
+
+        try {
+            for (; ; ) {
+                switch (code[ip++]) {
+                    case OpCode.CONSTANT -> {
+                        stack[sp++] = constants[readShort(code, ip)];
+                        ip += 2;
+                    }
+                    case OpCode.NIL -> stack[sp++] = null;
+                    case OpCode.TRUE -> stack[sp++] = true;
+                    case OpCode.FALSE -> stack[sp++] = false;
+                    case OpCode.UNINITIALIZED -> stack[sp++] = UNINITIALIZED;
+                    case OpCode.POP -> --sp;
+                    case OpCode.POP_N -> {
+                        sp -= readShort(code, ip);
+                        ip += 2;
+                    }
+
+                    case OpCode.GET_LOCAL -> {
+                        stack[sp++] = stack[base + readShort(code, ip)];
+                        ip += 2;
+                    }
+                    case OpCode.GET_LOCAL_CHECKED -> {
+                        var value = stack[base + readShort(code, ip)];
+                        if (UNINITIALIZED == value) {
+                            throw uninitialized(chunk, ip, constants[readShort(code, ip + 2)]);
+                        }
+                        stack[sp++] = value;
+                        ip += 4;
+                    }
+                    case OpCode.SET_LOCAL -> {
+                        stack[base + readShort(code, ip)] = stack[sp - 1];
+                        ip += 2;
+                    }
+
+                    case OpCode.DEFINE_GLOBAL -> {
+                        globals.put((String) constants[readShort(code, ip)], stack[--sp]);
+                        ip += 2;
+                    }
+                    case OpCode.GET_GLOBAL -> {
+                        var name = constants[readShort(code, ip)];
+                        var value = globals.get(name);
+                        if (null == value && !globals.containsKey(name)) {
+                            throw undefined(chunk, ip, name);
+                        }
+                        if (UNINITIALIZED == value) throw uninitialized(chunk, ip, name);
+                        stack[sp++] = value;
+                        ip += 2;
+                    }
+                    case OpCode.GET_GLOBAL_DEFINED -> {
+                        stack[sp++] = globals.get(constants[readShort(code, ip)]);
+                        ip += 2;
+                    }
+                    case OpCode.GET_UPVALUE -> {
+                        var upvalue = closure.upvalues[readShort(code, ip)];
+                        var value = -1 == upvalue.slot ? upvalue.value : stack[upvalue.slot];
+                        if (UNINITIALIZED == value) {
+                            throw uninitialized(chunk, ip, constants[readShort(code, ip + 2)]);
+                        }
+                        stack[sp++] = value;
+                        ip += 4;
+                    }
+                    case OpCode.SET_UPVALUE -> {
+                        var upvalue = closure.upvalues[readShort(code, ip)];
+                        if (-1 == upvalue.slot) {
+                            upvalue.value = stack[sp - 1];
+                        } else {
+                            stack[upvalue.slot] = stack[sp - 1];
+                        }
+                        ip += 2;
+                    }
+                    case OpCode.CLOSE_UPVALUE -> closeUpvalues(stack, --sp);
+
+                    case OpCode.SET_GLOBAL -> {
+                        var name = (String) constants[readShort(code, ip)];
+                        if (!globals.containsKey(name)) throw undefined(chunk, ip, name);
+                        globals.put(name, stack[sp - 1]);
+                        ip += 2;
+                    }
+
+                    case OpCode.EQUAL -> {
+                        var right = stack[--sp];
+                        stack[sp - 1] = isEqual(stack[sp - 1], right);
+                    }
+                    case OpCode.NOT_EQUAL -> {
+                        var right = stack[--sp];
+                        stack[sp - 1] = !isEqual(stack[sp - 1], right);
+                    }
+
+                    case OpCode.GREATER -> {
+                        var right = stack[--sp];
+                        var left = stack[sp - 1];
+                        stack[sp - 1] =
+                                left instanceof Number l && right instanceof Number r
+                                        ? Numbers.less(r, l)
+                                        : compareStrings(chunk, ip, left, right) > 0;
+                    }
+                    case OpCode.GREATER_EQUAL -> {
+                        var right = stack[--sp];
+                        var left = stack[sp - 1];
+                        stack[sp - 1] =
+                                left instanceof Number l && right instanceof Number r
+                                        ? Numbers.lessEqual(r, l)
+                                        : compareStrings(chunk, ip, left, right) >= 0;
+                    }
+                    case OpCode.LESS -> {
+                        var right = stack[--sp];
+                        var left = stack[sp - 1];
+                        stack[sp - 1] =
+                                left instanceof Number l && right instanceof Number r
+                                        ? Numbers.less(l, r)
+                                        : compareStrings(chunk, ip, left, right) < 0;
+                    }
+                    case OpCode.LESS_EQUAL -> {
+                        var right = stack[--sp];
+                        var left = stack[sp - 1];
+                        stack[sp - 1] =
+                                left instanceof Number l && right instanceof Number r
+                                        ? Numbers.lessEqual(l, r)
+                                        : compareStrings(chunk, ip, left, right) <= 0;
+                    }
+
+                    case OpCode.ADD -> {
+                        var right = stack[--sp];
+                        var left = stack[sp - 1];
+                        if (left instanceof Number l && right instanceof Number r) {
+                            stack[sp - 1] = Numbers.add(l, r);
+                        } else if (left instanceof CharSequence || right instanceof CharSequence) {
+                            stack[sp - 1] = concatenate(left, right);
+                        } else {
+                            throw error(chunk, ip, OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS);
+                        }
+                    }
+                    case OpCode.SUBTRACT -> {
+                        var right = stack[--sp];
+                        if (!(stack[sp - 1] instanceof Number l && right instanceof Number r)) {
+                            throw error(chunk, ip, OPERANDS_MUST_BE_NUMBERS);
+                        }
+                        stack[sp - 1] = Numbers.subtract(l, r);
+                    }
+                    case OpCode.MULTIPLY -> {
+                        var right = stack[--sp];
+                        if (!(stack[sp - 1] instanceof Number l && right instanceof Number r)) {
+                            throw error(chunk, ip, OPERANDS_MUST_BE_NUMBERS);
+                        }
+                        stack[sp - 1] = Numbers.multiply(l, r);
+                    }
+                    case OpCode.DIVIDE -> {
+                        var right = stack[--sp];
+                        if (!(stack[sp - 1] instanceof Number l && right instanceof Number r)) {
+                            throw error(chunk, ip, OPERANDS_MUST_BE_NUMBERS);
+                        }
+                        if (Numbers.isZero(r)) throw error(chunk, ip, DIVISION_BY_ZERO);
+                        stack[sp - 1] = Numbers.divide(l, r);
+                    }
+
+                    case OpCode.NOT -> stack[sp - 1] = !isTruthy(stack[sp - 1]);
+                    case OpCode.NEGATE -> {
+                        if (!(stack[sp - 1] instanceof Number value)) {
+                            throw error(chunk, ip, OPERAND_MUST_BE_A_NUMBER);
+                        }
+                        stack[sp - 1] = Numbers.negate(value);
+                    }
+
+                    case OpCode.JUMP -> ip += readShort(code, ip) + 2;
+                    case OpCode.LOOP -> ip += 2 - readShort(code, ip);
+                    case OpCode.JUMP_IF_FALSE -> {
+                        ip += isTruthy(stack[sp - 1]) ? 2 : readShort(code, ip) + 2;
+                    }
+                    case OpCode.JUMP_IF_TRUE -> {
+                        ip += isTruthy(stack[sp - 1]) ? readShort(code, ip) + 2 : 2;
+                    }
+
+                    case OpCode.PRINT -> output.print(stack[--sp]);
+
+                    case OpCode.CLOSURE -> {
+                        var function = (Chunk.Function) constants[readShort(code, ip)];
+                        ip += 2;
+                        var upvalues = new Upvalue[function.upvalueCount];
+                        for (var i = 0; i < upvalues.length; ++i) {
+                            var local = 1 == code[ip];
+                            var index = readShort(code, ip + 1);
+                            ip += 3;
+                            upvalues[i] =
+                                    local ? captureUpvalue(base + index) : closure.upvalues[index];
+                        }
+                        stack[sp++] = new Closure(function, upvalues);
+                    }
+                    case OpCode.CALL -> {
+                        var count = readShort(code, ip);
+                        ip += 2;
+                        if (!(stack[sp - count - 1] instanceof Closure callee)) {
+                            throw error(chunk, ip, CAN_ONLY_CALL_FUNCTIONS);
+                        }
+                        var function = callee.function;
+                        if (function.arity != count) {
+                            throw error(chunk, ip, arityMismatch(function.arity, count));
+                        }
+                        if (frameBudget <= frameCount) throw error(chunk, ip, STACK_OVERFLOW);
+
+                        var frame = frame(frameCount++);
+                        frame.closure = closure;
+                        frame.chunk = chunk;
+                        frame.ip = ip;
+                        frame.base = base;
+
+                        closure = callee;
+                        base = sp - count - 1;
+                        chunk = function.chunk;
+                        code = chunk.code;
+                        constants = chunk.constants;
+                        ip = 0;
+                        if (stack.length < base + chunk.maxStack) {
+                            stack = this.stack = Arrays.copyOf(stack, 2 * (base + chunk.maxStack));
+                        }
+                        if (high < base + chunk.maxStack) high = base + chunk.maxStack;
+                    }
+                    case OpCode.TAIL_CALL -> {
+                        var count = readShort(code, ip);
+                        ip += 2;
+                        if (!(stack[sp - count - 1] instanceof Closure callee)) {
+                            throw error(chunk, ip, CAN_ONLY_CALL_FUNCTIONS);
+                        }
+                        var function = callee.function;
+                        if (function.arity != count) {
+                            throw error(chunk, ip, arityMismatch(function.arity, count));
+                        }
+
+                        // Callee and arguments replace current function, keeping its frame.
+                        closeUpvalues(stack, base);
+                        System.arraycopy(stack, sp - count - 1, stack, base, count + 1);
+                        sp = base + count + 1;
+
+                        closure = callee;
+                        chunk = function.chunk;
+                        code = chunk.code;
+                        constants = chunk.constants;
+                        ip = 0;
+                        if (stack.length < base + chunk.maxStack) {
+                            stack = this.stack = Arrays.copyOf(stack, 2 * (base + chunk.maxStack));
+                        }
+                        if (high < base + chunk.maxStack) high = base + chunk.maxStack;
+                    }
+                    case OpCode.RETURN -> {
+                        if (0 == frameCount) return 0 == sp ? null : stack[sp - 1];
+
+                        // Return value replaces callee, discarding arguments and locals.
+                        closeUpvalues(stack, base);
+                        stack[base] = stack[sp - 1];
+                        sp = base + 1;
+                        var frame = frames[--frameCount];
+                        closure = frame.closure;
+                        frame.closure = null;
+                        chunk = frame.chunk;
+                        code = chunk.code;
+                        constants = chunk.constants;
+                        ip = frame.ip;
+                        base = frame.base;
+                    }
+
+                    default -> throw new IllegalStateException("Unknown instruction.");
+                }
+            }
+        } finally {
+            output.flush();
+            closeUpvalues(this.stack, 0);
+            Arrays.fill(this.stack, 0, high, null);
+            while (0 < frameCount) frames[--frameCount].closure = null;
+        }
+    }
+
+    /**
+     * Finds open upvalue capturing variable in stack slot, opening one if none does.
+     *
+     * @param slot Operand stack slot of variable.
+     * @return {@link Upvalue} capturing variable.
+     */
+    private Upvalue captureUpvalue(int slot) {
+        Upvalue previous = null;
+        var upvalue = openUpvalues;
+        while (null != upvalue && slot < upvalue.slot) {
+            previous = upvalue;
+            upvalue = upvalue.next;
+        }
+        if (null != upvalue && slot == upvalue.slot) return upvalue;
+
+        var created = new Upvalue(slot, upvalue);
+        if (null == previous) {
+            openUpvalues = created;
+        } else {
+            previous.next = created;
+        }
+        return created;
+    }
+
+    /**
+     * Closes open upvalues capturing variables in stack slots from given slot upwards, moving
+     * variables' values into them.
+     *
+     * @param stack Operand stack.
+     * @param from Lowest stack slot to close.
+     */
+    private void closeUpvalues(Object[] stack, int from) {
+        while (null != openUpvalues && from <= openUpvalues.slot) {
+            var upvalue = openUpvalues;
+            upvalue.value = stack[upvalue.slot];
+            upvalue.slot = -1;
+            openUpvalues = upvalue.next;
+            upvalue.next = null;
+        }
+    }
+
+    /**
+     * Gets frame at call depth, allocating it on first call to reach depth.
+     *
+     * @param index Call depth.
+     * @return {@link Frame} at depth.
+     */
+    private Frame frame(int index) {
+        if (frames.length == index) {
+            frames = Arrays.copyOf(frames, Math.min(frameBudget, Math.max(8, 2 * index)));
+        }
+        var frame = frames[index];
+        if (null == frame) frames[index] = frame = new Frame();
+        return frame;
+    }
+
+    /**
+     * Reads 16-bit instruction operand.
+     *
+     * @param code Bytecode.
+     * @param offset Offset of operand.
+     * @return Operand value.
+     */
+    private static int readShort(byte[] code, int offset) {
+        return (code[offset] & 0xFF) << 8 | code[offset + 1] & 0xFF;
+    }
+
+    /**
+     * Performs string comparison, once number comparison has been ruled out.
+     *
+     * @param chunk Executing {@link Chunk}.
+     * @param ip Instruction pointer following comparison instruction.
+     * @param left Left operand.
+     * @param right Right operand.
+     * @return Negative, zero, or positive as left is less than, equal to, or greater than right.
+     * @throws RuntimeError Invalid operand types used.
+     */
+    private static int compareStrings(Chunk chunk, int ip, Object left, Object right) {
+        if (left instanceof CharSequence l && right instanceof CharSequence r) {
+            return l == r ? 0 : l.toString().compareTo(r.toString());
+        }
+        throw error(chunk, ip, OPERANDS_MUST_BE_TWO_NUMBERS_OR_STRINGS);
+    }
+
+    /**
+     * Creates {@link RuntimeError} for undefined variable.
+     *
+     * @param chunk Executing {@link Chunk}.
+     * @param ip Instruction pointer within failing instruction.
+     * @param name Variable name.
+     * @return {@link RuntimeError}.
+     */
+    private static RuntimeError undefined(Chunk chunk, int ip, Object name) {
+        return error(chunk, ip, "Undefined variable '" + name + "'.");
+    }
+
+    /**
+     * Creates {@link RuntimeError} for uninitialised variable.
+     *
+     * @param chunk Executing {@link Chunk}.
+     * @param ip Instruction pointer within failing instruction.
+     * @param name Variable name.
+     * @return {@link RuntimeError}.
+     */
+    private static RuntimeError uninitialized(Chunk chunk, int ip, Object name) {
+        return error(chunk, ip, "Uninitialized variable '" + name + "'.");
+    }
+
+    /**
+     * Creates {@link RuntimeError} attributed to line of failing instruction.
+     *
+     * @param chunk Executing {@link Chunk}.
+     * @param ip Instruction pointer within failing instruction.
+     * @param message Description of error.
+     * @return {@link RuntimeError}.
+     */
+    private static RuntimeError error(Chunk chunk, int ip, String message) {
+        return new RuntimeError(chunk.lines[ip - 1], message);
+    }
+}
@@ -9,6 +9,7 @@
 import com.github.ianflett.jlox.AstPrinter.Directory;
 import com.github.ianflett.jlox.AstPrinter.Lisp;
 import com.github.ianflett.jlox.AstPrinter.ReversePolishNotation;
+import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -61,6 +62,56 @@ protected void assert_visitGroupingExpr_producesExpectedOutput(String expected)
     private static final Expr.Grouping assert_visitGroupingExpr_producesExpectedOutput_expression =
             (Expr.Grouping) e(1);
 
+    /** Asserts {@link AstPrinter#visitLogicalExpr(Expr.Logical)} produces expected output. */
+    void assert_visitLogicalExpr_producesExpectedOutput(String expected) {
+        assertThat(
+                GetPrinter()
+                        .visitLogicalExpr(
+                                assert_visitLogicalExpr_producesExpectedOutput_expression),
+                is(equalTo(expected)));
+    }
+
+    /** {@code true and false} */
+    private static final Expr.Logical assert_visitLogicalExpr_producesExpectedOutput_expression =
+            (Expr.Logical) e(true, t("and"), false);
+
+    /**
+     * Asserts {@link AstPrinter#visitConcatenationExpr(Expr.Concatenation)} produces expected
+     * output.
+     */
+    void assert_visitConcatenationExpr_producesExpectedOutput(String expected) {
+        assertThat(
+                GetPrinter()
+                        .visitConcatenationExpr(
+                                assert_visitConcatenationExpr_producesExpectedOutput_expression),
+                is(equalTo(expected)));
+    }
+
+    /** {@code "a" + 1 + "b"} */
+    private static final Expr.Concatenation
+            assert_visitConcatenationExpr_producesExpectedOutput_expression =
+                    new Expr.Concatenation(
+                            List.of(
+                                    new Expr.Literal("a"),
+                                    new Expr.Literal(1L),
+                                    new Expr.Literal("b")),
+                            List.of(t("+"), t("+")));
+
+    /** Asserts {@link AstPrinter#visitCallExpr(Expr.Call)} produces expected output. */
+    void assert_visitCallExpr_producesExpectedOutput(String expected) {
+        assertThat(
+                GetPrinter().visitCallExpr(assert_visitCallExpr_producesExpectedOutput_expression),
+                is(equalTo(expected)));
+    }
+
+    /** {@code f(1, 2)} */
+    private static final Expr.Call assert_visitCallExpr_producesExpectedOutput_expression =
+            new Expr.Call(
+                    e(t("f")),
+                    t(")"),
+                    List.of(new Expr.Literal(1d), new Expr.Literal(2d)),
+                    false);
+
     /** Asserts {@link AstPrinter#visitUnaryExpr(Expr.Unary)} produces expected output. */
     void assert_visitUnaryExpr_producesExpectedOutput(String expected) {
         assertThat(
@@ -122,6 +173,26 @@ protected void visitGroupingExpr_producesExpectedOutput() {
             assert_visitGroupingExpr_producesExpectedOutput("(group 1.0)");
         }
 
+        /** Tests {@link Lisp#visitLogicalExpr(Expr.Logical)} produces expected output. */
+        @Test
+        void visitLogicalExpr_producesExpectedOutput() {
+            assert_visitLogicalExpr_producesExpectedOutput("(and true false)");
+        }
+
+        /**
+         * Tests {@link Lisp#visitConcatenationExpr(Expr.Concatenation)} produces expected output.
+         */
+        @Test
+        void visitConcatenationExpr_producesExpectedOutput() {
+            assert_visitConcatenationExpr_producesExpectedOutput("(+ a 1.0 b)");
+        }
+
+        /** Tests {@link Lisp#visitCallExpr(Expr.Call)} produces expected output. */
+        @Test
+        void visitCallExpr_producesExpectedOutput() {
+            assert_visitCallExpr_producesExpectedOutput("(call f 1.0 2.0)");
+        }
+
         /** Tests {@link AstPrinter#visitLiteralExpr(Expr.Literal)} produces expected output. */
         @ParameterizedTest
         @MethodSource
@@ -202,6 +273,33 @@ protected void visitGroupingExpr_producesExpectedOutput() {
             assert_visitGroupingExpr_producesExpectedOutput("1.0");
         }
 
+        /**
+         * Tests {@link ReversePolishNotation#visitLogicalExpr(Expr.Logical)} produces expected
+         * output.
+         */
+        @Test
+        void visitLogicalExpr_producesExpectedOutput() {
+            assert_visitLogicalExpr_producesExpectedOutput("true false and");
+        }
+
+        /**
+         * Tests {@link ReversePolishNotation#visitConcatenationExpr(Expr.Concatenation)} produces
+         * expected output.
+         */
+        @Test
+        void visitConcatenationExpr_producesExpectedOutput() {
+            assert_visitConcatenationExpr_producesExpectedOutput("a 1.0 b +");
+        }
+
+        /**
+         * Tests {@link ReversePolishNotation#visitCallExpr(Expr.Call)} produces expected
+         * output.
+         */
+        @Test
+        void visitCallExpr_producesExpectedOutput() {
+            assert_visitCallExpr_producesExpectedOutput("f 1.0 2.0 call");
+        }
+
         /** Tests {@link AstPrinter#visitLiteralExpr(Expr.Literal)} produces expected output. */
         @ParameterizedTest
         @MethodSource
@@ -282,6 +380,30 @@ protected void visitGroupingExpr_producesExpectedOutput() {
             assert_visitGroupingExpr_producesExpectedOutput(String.format("()%n└ 1.0%n"));
         }
 
+        /** Tests {@link Directory#visitLogicalExpr(Expr.Logical)} produces expected output. */
+        @Test
+        void visitLogicalExpr_producesExpectedOutput() {
+            assert_visitLogicalExpr_producesExpectedOutput(
+                    String.format("and%n├ true%n└ false%n"));
+        }
+
+        /**
+         * Tests {@link Directory#visitConcatenationExpr(Expr.Concatenation)} produces expected
+         * output.
+         */
+        @Test
+        void visitConcatenationExpr_producesExpectedOutput() {
+            assert_visitConcatenationExpr_producesExpectedOutput(
+                    String.format("+%n├ a%n├ 1.0%n└ b%n"));
+        }
+
+        /** Tests {@link Directory#visitCallExpr(Expr.Call)} produces expected output. */
+        @Test
+        void visitCallExpr_producesExpectedOutput() {
+            assert_visitCallExpr_producesExpectedOutput(
+                    String.format("call%n├ f%n├ 1.0%n└ 2.0%n"));
+        }
+
         /** Tests {@link AstPrinter#visitLiteralExpr(Expr.Literal)} produces expected output. */
         @ParameterizedTest
         @MethodSource
@@ -0,0 +1,94 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests every {@link Backend} against {@link Interpreter}. */
+class BackendTest {
+
+    /** Runs statements of {@link ParallelInterpreter} given pool, on daemon threads. */
+    private static final ExecutorService EXECUTOR =
+            Executors.newFixedThreadPool(
+                    4,
+                    runnable -> {
+                        var thread = new Thread(runnable);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    /**
+     * Tests {@link Backend#interpret(List)} produces same output and errors as {@link
+     * Interpreter#interpret(List)}, both as parsed and once reads are proven initialised.
+     *
+     * @param name Name of {@link Backend}.
+     * @param backend Creates {@link Backend} to test.
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void interpret_matchesInterpreter_givenProgram(
+            String name, Supplier<Backend> backend, String source) throws Exception {
+        var statements = parse(source);
+        assertThat(run(backend, statements), is(equalTo(run(Interpreter::new, statements))));
+
+        var proven = DefiniteAssignment.prove(statements, true);
+        assertThat(run(backend, proven), is(equalTo(run(Interpreter::new, proven))));
+    }
+
+    /**
+     * Data source for {@link #interpret_matchesInterpreter_givenProgram(String, Supplier, String)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> interpret_matchesInterpreter_givenProgram() {
+        return backends()
+                .flatMap(
+                        backend ->
+                                programs()
+                                        .map(
+                                                source ->
+                                                        Arguments.of(
+                                                                backend.get()[0],
+                                                                backend.get()[1],
+                                                                source)));
+    }
+
+    /**
+     * Names and creates each {@link Backend} compared against {@link Interpreter}.
+     *
+     * @return Name and {@link Supplier} of each {@link Backend}.
+     */
+    private static Stream<Arguments> backends() {
+        return Stream.of(
+                Arguments.of("vm", (Supplier<Backend>) VirtualMachine::new),
+                Arguments.of("flat", (Supplier<Backend>) FlatInterpreter::new),
+                Arguments.of(
+                        "jit",
+                        (Supplier<Backend>)
+                                () -> {
+                                    var interpreter = new Interpreter();
+                                    interpreter.enableJit(1);
+                                    return interpreter;
+                                }),
+                Arguments.of("parallel", (Supplier<Backend>) ParallelInterpreter::new),
+                Arguments.of(
+                        "parallel pool",
+                        (Supplier<Backend>)
+                                () ->
+                                        new ParallelInterpreter(
+                                                OutputSink.standardOutput(), EXECUTOR)));
+    }
+}
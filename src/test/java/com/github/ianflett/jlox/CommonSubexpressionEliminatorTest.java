@@ -0,0 +1,208 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link CommonSubexpressionEliminator} class. */
+class CommonSubexpressionEliminatorTest {
+
+    /**
+     * Tests {@link CommonSubexpressionEliminator#eliminate(List, boolean)} rewrites program as
+     * expected.
+     *
+     * @param source Lox program.
+     * @param expected Description of rewritten program, once constants are folded.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void eliminate_returnsRewrittenProgram(String source, String expected) {
+        var rewritten =
+                CommonSubexpressionEliminator.eliminate(ConstantFolder.fold(parse(source)), false);
+        assertThat(describe(rewritten), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #eliminate_returnsRewrittenProgram(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> eliminate_returnsRewrittenProgram() {
+        return Stream.of(
+                Arguments.of(
+                        "print (a + b) * (a + b);", "{ var $0; print (* (= $0 (+ a b)) $0); }"),
+                Arguments.of(
+                        "{ print a * b; print a * b + 1; }",
+                        "{ var $0; print (= $0 (* a b)); print (+ $0 1.0); }"),
+                Arguments.of("print a * b; print a * b;", "print (* a b); print (* a b);"),
+                Arguments.of(
+                        "{ print -a + 1; print (-a + 1) * -a; }",
+                        "{ var $0; var $1; print (= $0 (+ (= $1 (- a)) 1.0)); print (* $0 $1); }"),
+                Arguments.of(
+                        "print a + b; a = 1; print a + b;",
+                        "print (+ a b); (= a 1.0); print (+ a b);"),
+                Arguments.of(
+                        "print c or a + b; print a + b;", "print (or c (+ a b)); print (+ a b);"),
+                Arguments.of(
+                        "print c ? a + b : 1; print a + b;",
+                        "print (?: c (+ a b) 1.0); print (+ a b);"),
+                Arguments.of(
+                        "{ print a + b; print c and a + b; }",
+                        "{ var $0; print (= $0 (+ a b)); print (and c $0); }"),
+                Arguments.of("{ print a + b; } print a + b;", "{ print (+ a b); } print (+ a b);"),
+                Arguments.of(
+                        "var a = 1; { var a = 2; print a + b; print a + b; } print a + b;",
+                        "var a = 1.0; { var a = 2.0; var $0; print (= $0 (+ a b));"
+                                + " print $0; } print (+ a b);"),
+                Arguments.of(
+                        "{ print a + b; { print a + b; } }",
+                        "{ var $0; print (= $0 (+ a b)); { print $0; } }"),
+                Arguments.of("print (a = 1) + (a = 1);", "print (+ (= a 1.0) (= a 1.0));"),
+                Arguments.of(
+                        "{ var x = a / b; var y = a / b; }",
+                        "{ var $0; var x = (= $0 (/ a b)); var y = $0; }"),
+                Arguments.of(
+                        "var x = (a / b) * (a / b);", "var x = (* (/ a b) (/ a b));"),
+                Arguments.of(
+                        "fun f() { a = 1; } { print a + b; f(); print a + b; }",
+                        "fun f; { print (+ a b); (call f); print (+ a b); }"),
+                Arguments.of(
+                        "fun f() { c = 1; } { print a + b; f(); print a + b; }",
+                        "fun f; { var $0; print (= $0 (+ a b)); (call f); print $0; }"),
+                Arguments.of(
+                        "{ print f() + 1; print f() + 1; }",
+                        "{ print (+ (call f) 1.0); print (+ (call f) 1.0); }"));
+    }
+
+    /**
+     * Tests {@link CommonSubexpressionEliminator#eliminate(List, boolean)} does not reuse
+     * temporaries declared by earlier elimination.
+     */
+    @Test
+    void eliminate_declaresNewTemporaries_givenEliminatedProgram() {
+        var statements =
+                new ArrayList<>(
+                        CommonSubexpressionEliminator.eliminate(parse("print -a * -a;"), false));
+        statements.addAll(parse("print -b * -b;"));
+
+        assertThat(
+                describe(CommonSubexpressionEliminator.eliminate(statements, false)),
+                is(
+                        equalTo(
+                                "{ var $0; print (* (= $0 (- a)) $0); }"
+                                        + " { var $1; print (* (= $1 (- b)) $1); }")));
+    }
+
+    /**
+     * Tests temporaries of top-level statements are not left in global scope once program runs,
+     * as when entered in REPL.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void eliminate_leavesNoGlobalTemporaries_givenTopLevelRepeats() throws Exception {
+        var interpreter = new Interpreter();
+        var statements =
+                CommonSubexpressionEliminator.eliminate(
+                        parse("var a = 1; print (a + 1) * (a + 1); a = -a * -a;"), true);
+        var output = tapSystemOutNormalized(() -> interpreter.interpret(statements));
+
+        assertThat(output, is(equalTo("4\n")));
+        var temporary = new Token(TokenType.IDENTIFIER, "$0", null, 1);
+        assertThrows(RuntimeError.class, () -> interpreter.globals().get(temporary));
+    }
+
+    /**
+     * Tests {@link CommonSubexpressionEliminator#eliminate(List, boolean)} does not reuse reads
+     * across call, which may run function declared by earlier line assigning any global.
+     */
+    @Test
+    void eliminate_keepsReadsAfterCall_givenExternalGlobals() {
+        var statements = parse("{ print a + b; f(); print a + b; }");
+        assertThat(
+                CommonSubexpressionEliminator.eliminate(statements, true),
+                is(sameInstance(statements)));
+    }
+
+    /**
+     * Tests {@link CommonSubexpressionEliminator#eliminate(List, boolean)} returns same list if
+     * unique.
+     */
+    @Test
+    void eliminate_returnsSameStatements_givenNoRepeats() {
+        var statements = parse("print a + b; a = 1; print a + b; print b + a;");
+        assertThat(
+                CommonSubexpressionEliminator.eliminate(statements, false),
+                is(sameInstance(statements)));
+    }
+
+    /**
+     * Tests rewritten program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void eliminate_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var rewritten =
+                TypeInference.infer(
+                        ConcatenationFlattener.flatten(
+                                CommonSubexpressionEliminator.eliminate(parse(source), false)),
+                        false);
+
+        assertThat(run(Interpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, rewritten), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        rewritten),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #eliminate_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> eliminate_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 3; var b = 4; print (a + b) * (a + b); print a * b - a * b;",
+                "var a = 3; var b = 4; print a + b; a = 1; print a + b;",
+                "var a = 1; var b = 2; print (a = a + b) + (a + b); print a + b;",
+                "var a = 1; var b = 2; { var a = 5; print a - b; print a - b; } print a - b;",
+                "var s = \"s\"; print s + 1 + s; print s + 1 + s + 2;",
+                "var a = 1; var c = false; print c and -a; print -a;",
+                "var a = 1; var c = nil; print c ? -a : a; print -a - -a;",
+                "var a = \"s\"; print 1;\nprint -a;\nprint -a;",
+                "var a = 1; var b = 0; print a / b; print a / b;",
+                "var a = 1; var b = 0; { print a / b; print a / b; }",
+                "var a = 2; var x = a * a; var y = a * a + x; print y;",
+                "var a = 2; { var x = a * a; var y = a * a + x; print y; } print a * a;",
+                "var a = 1; var i = 0; while (i < 3) { print a + i; a = a + i; i = i + 1; }",
+                "var a = 1; var c = 0; print a + 1; if (c) a = 2; else print a + 1; print a + 1;",
+                "var a = 1; fun f() { a = a + 1; } { print a * 2; f(); print a * 2; }",
+                "var a = 1; { print a + 1; fun g() { return a + 1; } print g(); print a + 1; }",
+                "var i = 0; var n = 0; fun bump() { n = n + 1; }"
+                        + " while (i < 3) { print n * 2; bump(); print n * 2; i = i + 1; }");
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link ConcatenationFlattener} class. */
+class ConcatenationFlattenerTest {
+
+    /** Tests {@link ConcatenationFlattener#flatten(Expr)} flattens chain of {@code +}. */
+    @Test
+    void flatten_returnsConcatenation_givenChain() {
+        var a = e(t("a"));
+        var b = e(t("b"));
+        var c = e(t("c"));
+        var d = e(t("d"));
+        var plus = t("+");
+
+        var flattened = ConcatenationFlattener.flatten(e(e(e(a, plus, b), plus, c), plus, d));
+
+        assertThat(flattened, is(instanceOf(Expr.Concatenation.class)));
+        var concatenation = (Expr.Concatenation) flattened;
+        assertThat(concatenation.operands, contains(a, b, c, d));
+        assertThat(concatenation.operators, contains(plus, plus, plus));
+    }
+
+    /** Tests {@link ConcatenationFlattener#flatten(Expr)} leaves two-operand {@code +} alone. */
+    @Test
+    void flatten_returnsSameExpression_givenSingleAddition() {
+        var expr = e(1, t("+"), 2);
+        assertThat(ConcatenationFlattener.flatten(expr), is(sameInstance(expr)));
+    }
+
+    /**
+     * Tests {@link ConcatenationFlattener#flatten(Expr)} does not flatten across other operators
+     * or parentheses.
+     */
+    @Test
+    void flatten_stopsChain_givenOtherOperatorOrGrouping() {
+        var expr = e(e(e(1, t("-"), 2), t("+"), e(e(3, t("+"), 4))), t("+"), 5);
+
+        var flattened = (Expr.Concatenation) ConcatenationFlattener.flatten(expr);
+
+        assertThat(flattened.operands.size(), is(equalTo(3)));
+        assertThat(flattened.operands.getFirst(), is(instanceOf(Expr.Binary.class)));
+        assertThat(flattened.operands.get(1), is(instanceOf(Expr.Grouping.class)));
+    }
+
+    /** Tests {@link Interpreter} evaluates chain too long for recursive evaluation. */
+    @Test
+    void flatten_allowsEvaluation_givenVeryLongChain() {
+        Expr expr = new Expr.Literal("a");
+        for (var i = 0; i < 100_000; ++i) {
+            expr = new Expr.Binary(expr, t("+"), new Expr.Literal(1L));
+        }
+
+        var value = new Interpreter().evaluate(ConcatenationFlattener.flatten(expr));
+
+        assertThat(value, is(equalTo("a" + "1.0".repeat(100_000))));
+    }
+
+    /**
+     * Tests flattened program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void flatten_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var flattened = ConcatenationFlattener.flatten(parse(source));
+
+        assertThat(run(Interpreter::new, flattened), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, flattened), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, flattened), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        flattened),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #flatten_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> flatten_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "print 1 + 2 + \"x\" + 3 + nil + true + 4.5;",
+                "print \"a\" + \"b\" + \"c\"; print 1 + 2 + 3 + 4;",
+                "var a = 1; print (a = 2) + a + (a = 3) + a + \"!\";",
+                "{ var s = \"p\"; print s + (1 + 2 + 3) + 1 + 2; }",
+                "print 1 + 2 +\ntrue + \"never\";",
+                "print \"a\" + 1 + -nil + undefined;");
+    }
+}
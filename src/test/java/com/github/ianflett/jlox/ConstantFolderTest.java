@@ -0,0 +1,140 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link ConstantFolder} class. */
+class ConstantFolderTest {
+
+    /**
+     * Tests {@link ConstantFolder#fold(Expr)} rewrites expression as expected.
+     *
+     * @param source Lox expression.
+     * @param expected Lisp notation of folded expression.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void fold_returnsSimplifiedExpression(String source, String expected) {
+        var folded = ConstantFolder.fold(parseExpression(source));
+        assertThat(new AstPrinter.Lisp().print(folded), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #fold_returnsSimplifiedExpression(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> fold_returnsSimplifiedExpression() {
+        return Stream.of(
+                Arguments.of("(60 * 60 * 24)", "86400.0"),
+                Arguments.of("\"prefix\" + \"suffix\"", "prefixsuffix"),
+                Arguments.of("!true", "false"),
+                Arguments.of("-(1 - 3) / 4", "0.5"),
+                Arguments.of("1 < 2 ? a : b", "a"),
+                Arguments.of("nil ? a : b", "b"),
+                Arguments.of("c ? 1 + 1 : 2 * 2", "(?: c 2.0 4.0)"),
+                Arguments.of("false or a", "a"),
+                Arguments.of("\"x\" or a", "x"),
+                Arguments.of("nil and a", "nil"),
+                Arguments.of("-a * 1", "(- a)"),
+                Arguments.of("1 * (a - b)", "(- a b)"),
+                Arguments.of("a * 1", "(* a 1.0)"),
+                Arguments.of("-a - 0 + 1", "(+ (- a) 1.0)"),
+                Arguments.of("(a + \"\") + \"\"", "(+ a )"),
+                Arguments.of("a + \"b\" + \"c\" + \"d\"", "(+ a bcd)"),
+                Arguments.of("!!(a < b)", "(< a b)"),
+                Arguments.of("!!a", "(! (! a))"),
+                Arguments.of("1 / 0", "(/ 1.0 0.0)"),
+                Arguments.of("-\"s\"", "(- s)"));
+    }
+
+    /** Tests {@link ConstantFolder#fold(Expr)} returns same expression if nothing folds. */
+    @Test
+    void fold_returnsSameExpression_givenNothingToFold() {
+        var expr = parseExpression("a + b * -c");
+        assertThat(ConstantFolder.fold(expr), is(sameInstance(expr)));
+    }
+
+    /** Tests {@link ConstantFolder#fold(Expr)} folds chain too long for recursive folding. */
+    @Test
+    void fold_returnsLiteral_givenVeryLongChain() {
+        Expr expr = new Expr.Literal(0L);
+        for (var i = 0; i < 100_000; ++i) {
+            expr = new Expr.Binary(expr, t("+"), new Expr.Literal(1L));
+        }
+
+        var folded = ConstantFolder.fold(expr);
+
+        assertThat(folded, is(instanceOf(Expr.Literal.class)));
+        assertThat(((Expr.Literal) folded).value, is(equalTo(100_000L)));
+    }
+
+    /**
+     * Tests folded program produces same output and errors on every {@link Backend} as original
+     * program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void fold_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var folded = ConcatenationFlattener.flatten(ConstantFolder.fold(parse(source)));
+
+        assertThat(run(Interpreter::new, folded), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, folded), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, folded), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        folded),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #fold_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> fold_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "print 60 * 60 * 24; print \"pre\" + \"fix\" + 1; print !true; print -(2 / 4);",
+                "print \"before\";\nprint 1 +\n2 / 0;\nprint \"after\";",
+                "print true ? \"yes\" : 1 / 0; print false ? 1 / 0 : \"no\";",
+                "print true or 1 / 0; print nil and -\"s\"; print false or \"r\";",
+                "var a = 2.5; print -a * 1; print -a - 0 + 1; print a / 1;",
+                "var s = \"s\"; print s + \"\" + \"a\" + \"b\"; print (s + 1) + \"c\" + \"d\";",
+                "var n = -0.0; print -n - 0; print n * 1; print 0.1 + 0.2;",
+                "var b = 1; print !!(b < 2); print !!b; print !!!b;",
+                "print 1 - \"x\";",
+                "print -nil;",
+                "var a = 1; print (a = 2) * 1 + a;",
+                "if (1 < 2) print \"then\"; else print 1 / 0; if (nil) print 1; print 2;",
+                "var a = 1; while (false) a = 2; while (a < 3) a = a + 1 * 1; print a;");
+    }
+
+    /**
+     * Parses Lox expression.
+     *
+     * @param source Lox expression.
+     * @return {@link Expr}ession.
+     */
+    private static Expr parseExpression(String source) {
+        return new Parser(new Scanner(source).scanTokens()).getExpression();
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link ConstantPropagator} class. */
+class ConstantPropagatorTest {
+
+    /**
+     * Tests {@link ConstantPropagator#propagate(List, boolean)} rewrites program as expected.
+     *
+     * @param source Lox program.
+     * @param expected Description of rewritten program.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void propagate_returnsRewrittenProgram(String source, String expected) {
+        var rewritten = ConstantPropagator.propagate(ConstantFolder.fold(parse(source)), false);
+        assertThat(describe(rewritten), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #propagate_returnsRewrittenProgram(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> propagate_returnsRewrittenProgram() {
+        return Stream.of(
+                Arguments.of(
+                        "var a = 2; var b = a * 3; print a + b;",
+                        "var a = 2.0; var b = 6.0; print 8.0;"),
+                Arguments.of("var s = \"x\"; print s + s;", "var s = x; print xx;"),
+                Arguments.of("var c = nil; print c ? 1 : 2;", "var c = nil; print 2.0;"),
+                Arguments.of("print a; var a = 1; print a;", "print a; var a = 1.0; print 1.0;"),
+                Arguments.of("var a = 1; a = 2; print a;", "var a = 1.0; (= a 2.0); print a;"),
+                Arguments.of(
+                        "var a = 1; { a = 2; } print a;", "var a = 1.0; { (= a 2.0); } print a;"),
+                Arguments.of(
+                        "var a = 1; var a = 2; print a;", "var a = 1.0; var a = 2.0; print a;"),
+                Arguments.of("var a; print a;", "var a; print a;"),
+                Arguments.of("var a = b; print a;", "var a = b; print a;"),
+                Arguments.of(
+                        "var a = 1; { print a; var a = a + 1; print a; } print a;",
+                        "var a = 1.0; { print 1.0; var a = 2.0; print a; } print 1.0;"),
+                Arguments.of(
+                        "var a = 1; fun f() { print a; } print a; f();",
+                        "var a = 1.0; fun f; print 1.0; (call f);"),
+                Arguments.of(
+                        "var a = 1; fun f() { a = 2; } f(); print a;",
+                        "var a = 1.0; fun f; (call f); print a;"),
+                Arguments.of(
+                        "var a = 1; { fun a() {} print a; } print a;",
+                        "var a = 1.0; { fun a; print a; } print 1.0;"),
+                Arguments.of("var f = 1; fun f() {} print f;", "var f = 1.0; fun f; print f;"));
+    }
+
+    /**
+     * Tests {@link ConstantPropagator#propagate(List, boolean)} returns same list if no constants.
+     */
+    @Test
+    void propagate_returnsSameStatements_givenNoConstants() {
+        var statements = parse("var a = 1; a = a + 1; print a; var b = a; print b;");
+        assertThat(ConstantPropagator.propagate(statements, false), is(sameInstance(statements)));
+    }
+
+    /**
+     * Tests {@link ConstantPropagator#propagate(List, boolean)} allows later line to reassign
+     * global whose reads were replaced within earlier line, as when REPL propagates each line
+     * separately.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void propagate_preservesBehaviour_givenLinesPropagatedSeparately() throws Exception {
+        var interpreter = new Interpreter();
+        var output =
+                tapSystemOutNormalized(
+                        () -> {
+                            for (var line : List.of("var a = 1; print a;", "a = a + 1; print a;")) {
+                                var statements = ConstantFolder.fold(parse(line));
+                                statements = ConstantPropagator.propagate(statements, true);
+                                statements = DeadCodeEliminator.eliminate(statements, true);
+                                interpreter.interpret(statements);
+                            }
+                        });
+
+        assertThat(output, is(equalTo("1\n2\n")));
+    }
+
+    /**
+     * Tests {@link ConstantPropagator#propagate(List, boolean)} keeps reads of globals following
+     * call, which may run function declared by earlier line assigning any global.
+     */
+    @Test
+    void propagate_keepsReadsAfterCall_givenExternalGlobals() {
+        var statements = parse("var c = 1; print c; set(); print c;");
+
+        assertThat(
+                describe(ConstantPropagator.propagate(statements, true)),
+                is(equalTo("var c = 1.0; print c; (call set); print c;")));
+        assertThat(
+                describe(ConstantPropagator.propagate(statements, false)),
+                is(equalTo("var c = 1.0; print 1.0; (call set); print 1.0;")));
+    }
+
+    /**
+     * Tests rewritten program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void propagate_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var rewritten =
+                ConcatenationFlattener.flatten(
+                        ConstantPropagator.propagate(ConstantFolder.fold(parse(source)), false));
+
+        assertThat(run(Interpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, rewritten), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        rewritten),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #propagate_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> propagate_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 2; var b = a * 3; print a + b; print \"b\" + b;",
+                "print 1;\nprint a;\nvar a = 1;",
+                "var a = 1; { var a = 2; print a; } print a;",
+                "var a = 1; { print a; var a = a + 1; print a; } print a;",
+                "var a = 1; { a = 2; } print a;",
+                "var a = 0; print 1 / a;",
+                "var a = \"s\"; print -a;",
+                "var c = false; var d = c or \"d\"; print d;",
+                "fun f() { print a; } var a = 1; f(); print a;",
+                "var a = 1; fun f() { a = a + 1; } f(); print a;",
+                "var a = 1; { fun a() {} print a; } print a;");
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link DeadCodeEliminator} class. */
+class DeadCodeEliminatorTest {
+
+    /**
+     * Tests {@link DeadCodeEliminator#eliminate(List, boolean)} rewrites program as expected.
+     *
+     * @param source Lox program.
+     * @param expected Description of rewritten program, once constants are folded.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void eliminate_returnsRewrittenProgram(String source, String expected) {
+        var rewritten = DeadCodeEliminator.eliminate(ConstantFolder.fold(parse(source)), false);
+        assertThat(describe(rewritten), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #eliminate_returnsRewrittenProgram(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> eliminate_returnsRewrittenProgram() {
+        return Stream.of(
+                Arguments.of("var a = 1; var b = 2; print a;", "var a = 1.0; print a;"),
+                Arguments.of("var a = 1; a = 2; print a;", "var a; (= a 2.0); print a;"),
+                Arguments.of("var a = 1; a = a + 1; a = 3;", "var a = 1.0; (+ a 1.0);"),
+                Arguments.of("var a = 1; a = 2; a = 3;", ""),
+                Arguments.of("var a = 0; print (a = 1, 2, a);", "print nil;"),
+                Arguments.of("var a = 0; print (a = 1, 2, a) == nil;", "print (== nil nil);"),
+                Arguments.of("var a = 0; a = 1, b, 2;", "b;"),
+                Arguments.of("var a = -x; a = 1;", "(- x);"),
+                Arguments.of("var a; a;", "var a; a;"),
+                Arguments.of("b; b = 1;", "b; (= b 1.0);"),
+                Arguments.of("{ var x = 1; x = 2; { print 3; } }", "{ { print 3.0; } }"),
+                Arguments.of(
+                        "{ var x = 1; { var x = 2; print x; } }",
+                        "{ { var x = 2.0; print x; } }"),
+                Arguments.of(
+                        "var a = 1; c or (a = 2); print a;",
+                        "var a = 1.0; (or c (= a 2.0)); print a;"),
+                Arguments.of("var a = 1; c ? (a = 2) : 3; a = 4;", "c;"),
+                Arguments.of(
+                        "var a = 1; c ? (a = 2) : d; print a;",
+                        "var a = 1.0; (?: c (= a 2.0) d); print a;"),
+                Arguments.of(
+                        "var s = \"s\"; s + \"t\"; s + 1; s == 1;", "var s = s; (+ s 1.0);"),
+                Arguments.of(
+                        "var a = 0; var b = 0; while (a < 2) { b = a; a = a + 1; }",
+                        "var a = 0.0; while (< a 2.0) { (= a (+ a 1.0)); }"),
+                Arguments.of(
+                        "var a = 1; while (c) { print a; a = 2; }",
+                        "var a = 1.0; while c { print a; (= a 2.0); }"),
+                Arguments.of(
+                        "var a = 1; if (c) a = 2; else { a = 3; } print a;",
+                        "var a; if c (= a 2.0); else { (= a 3.0); } print a;"),
+                Arguments.of(
+                        "var a = 1; if (c) a = 2; print a;",
+                        "var a = 1.0; if c (= a 2.0); print a;"),
+                Arguments.of("var a = 1; if (c) a = 2; else a = 3;", "c;"),
+                Arguments.of(
+                        "var a = 1; fun f() { print a; } a = 2; f();",
+                        "var a = 1.0; fun f; (= a 2.0); (call f);"),
+                Arguments.of(
+                        "var b = 1; b = 2; fun f() {} f(); print b;",
+                        "var b; (= b 2.0); fun f; (call f); print b;"),
+                Arguments.of("var a = 1; fun a() {} print a;", "fun a; print a;"),
+                Arguments.of("var x = 1; f(x + 1, x);", "var x = 1.0; (call f (+ x 1.0) x);"));
+    }
+
+    /** Tests {@link DeadCodeEliminator#eliminate(List, boolean)} keeps globals if retained. */
+    @Test
+    void eliminate_keepsGlobalStores_givenRetainedGlobals() {
+        var statements = parse("var a = 1; a = 2; { var b = 3; b = 4; }");
+
+        var rewritten = DeadCodeEliminator.eliminate(statements, true);
+
+        assertThat(describe(rewritten), is(equalTo("var a = 1.0; (= a 2.0);")));
+    }
+
+    /** Tests {@link DeadCodeEliminator#eliminate(List, boolean)} returns same list if all live. */
+    @Test
+    void eliminate_returnsSameStatements_givenNothingDead() {
+        var statements = parse("var a = 1; print a; a = a + 1; print a;");
+        assertThat(DeadCodeEliminator.eliminate(statements, false), is(sameInstance(statements)));
+    }
+
+    /** Tests {@link DeadCodeEliminator#eliminate(List, boolean)} handles very long chain. */
+    @Test
+    void eliminate_returnsRewrittenProgram_givenVeryLongChain() {
+        Expr expr = new Expr.Variable(t("a"));
+        for (var i = 0; i < 100_000; ++i) {
+            expr = new Expr.Binary(expr, t(","), new Expr.Variable(t("a")));
+        }
+        var statements =
+                List.<Stmt>of(
+                        new Stmt.Var(t("a"), new Expr.Literal(1L)),
+                        new Stmt.Expression(new Expr.Binary(expr, t(","), e(t("b")))));
+
+        var rewritten = DeadCodeEliminator.eliminate(statements, false);
+
+        assertThat(describe(rewritten), is(equalTo("b;")));
+    }
+
+    /**
+     * Tests rewritten program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void eliminate_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var rewritten =
+                ConcatenationFlattener.flatten(DeadCodeEliminator.eliminate(parse(source), false));
+
+        assertThat(run(Interpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, rewritten), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        rewritten),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #eliminate_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> eliminate_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 1; a = 2; print a; a = 3;",
+                "var a = 0; print (a = 1, 2, a); print a;",
+                "var a; a = 1; print a; var b; b;",
+                "var a = 1; print a;\nundefined;",
+                "var a = 1; print a;\nundefined = 2;",
+                "var a = 1; a = 2;\n{ var a = 3; a = 4; print a; }\nprint a;",
+                "{ var a = 1; { a = 2; var a = 3; } print a; }",
+                "var a = 1; var c = false; c or (a = 2); print a; c and (a = 3); print a;",
+                "var a = 1; var c = nil; print c ? (a = 2) : (a = 3); print a;",
+                "var a = \"s\"; a + \"t\"; a - 1;",
+                "var a = 1; var a = 2; print a;",
+                "var a = a;",
+                "var a = 0; var i = 0; while (i < 3) { print a; a = i; i = i + 1; }",
+                "var a = 0; var b = 5; while (a < 2) { b = a; a = a + 1; } b = 1;",
+                "var a = 1; var c = nil; if (c) a = 2; else print a; print a;",
+                "var a = 1; fun f() { print a; } a = 2; f(); a = 3;",
+                "var g = 0; fun bump() { g = g + 1; } bump(); bump(); print g;",
+                "{ var a = 1; fun get() { return a; } a = 2; print get(); }",
+                "var a = 1; fun a() {} print a;");
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link DefiniteAssignment} class. */
+class DefiniteAssignmentTest {
+
+    /** Prints expressions in Lisp notation, suffixing checked reads by {@code ?}. */
+    private static final AstPrinter CHECKED_READS =
+            new AstPrinter.Lisp() {
+                @Override
+                public String visitVariableExpr(Expr.Variable expr) {
+                    return expr.name.lexeme() + "?";
+                }
+            };
+
+    /**
+     * Tests {@link DefiniteAssignment#prove(List, boolean)} replaces only reads of definitely
+     * initialised variables.
+     *
+     * @param source Lox program.
+     * @param expected Description of rewritten program, once constants are folded, with checked
+     *     reads suffixed by {@code ?}.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void prove_replacesInitializedReads(String source, String expected) {
+        var rewritten = DefiniteAssignment.prove(ConstantFolder.fold(parse(source)), true);
+        assertThat(describe(rewritten, CHECKED_READS), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #prove_replacesInitializedReads(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> prove_replacesInitializedReads() {
+        return Stream.of(
+                Arguments.of("var a = 1; print a;", "var a = 1.0; print a;"),
+                Arguments.of(
+                        "var a; print a; a = 1; print a;", "var a; print a?; (= a 1.0); print a;"),
+                Arguments.of("var a; print (a = 1) + a;", "var a; print (+ (= a 1.0) a);"),
+                Arguments.of(
+                        "var a; c or (a = 1); print a;", "var a; (or c? (= a 1.0)); print a?;"),
+                Arguments.of(
+                        "var a; c ? (a = 1) : (a = 2); print a;",
+                        "var a; (?: c? (= a 1.0) (= a 2.0)); print a;"),
+                Arguments.of(
+                        "var a; c ? (a = 1) : 2; print a;",
+                        "var a; (?: c? (= a 1.0) 2.0); print a?;"),
+                Arguments.of(
+                        "var a = 1; { var a; print a; } print a;",
+                        "var a = 1.0; { var a; print a?; } print a;"),
+                Arguments.of(
+                        "var a; { var b = 2; a = b; } print a;",
+                        "var a; { var b = 2.0; (= a b); } print a;"),
+                Arguments.of("var a = 1; var a; print a;", "var a = 1.0; var a; print a?;"),
+                Arguments.of("print a; var b = a; print b;", "print a?; var b = a?; print b;"),
+                Arguments.of(
+                        "fun f() { print a; } print f; var a; f(); print a;",
+                        "fun f; print f; var a; (call f); print a?;"));
+    }
+
+    /**
+     * Tests {@link DefiniteAssignment#prove(List, boolean)} reports reads of undefined variables
+     * unless globals may be defined by earlier programs.
+     *
+     * @param source Lox program.
+     * @param expected Error reported.
+     * @throws Exception Reading from standard error threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void prove_reportsError_givenUndefinedRead(String source, String expected) throws Exception {
+        var error = tapSystemErrNormalized(() -> DefiniteAssignment.prove(parse(source), false));
+        var external = tapSystemErrNormalized(() -> DefiniteAssignment.prove(parse(source), true));
+
+        assertThat(error, is(equalTo(expected)));
+        assertThat(external, is(equalTo("")));
+    }
+
+    /**
+     * Data source for {@link #prove_reportsError_givenUndefinedRead(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> prove_reportsError_givenUndefinedRead() {
+        return Stream.of(
+                Arguments.of("var a = 1; print a;", ""),
+                Arguments.of(
+                        "print 1;\nprint a;", "[line 2] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of(
+                        "print a; var a = 1;", "[line 1] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of(
+                        "{ var a = 1; } print a;",
+                        "[line 1] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of("var a = a;", "[line 1] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of(
+                        "var c = false; while (c) { var b = 1; } print b;",
+                        "[line 1] Error at 'b': Undefined variable 'b'.\n"),
+                Arguments.of(
+                        "var c = false; while (a or c) print b;",
+                        "[line 1] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of("var c = false; if (c) print a; else print b;", ""),
+                Arguments.of("var c = false; while (c) print a;", ""),
+                Arguments.of("var c = false; print c and a; print c ? a : 1;", ""),
+                Arguments.of(
+                        "fun f() {}\nprint 1;\nprint a;",
+                        "[line 3] Error at 'a': Undefined variable 'a'.\n"),
+                Arguments.of("fun f() { print a; } var a = 1; f();", ""));
+    }
+
+    /**
+     * Tests rewritten program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void prove_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var rewritten = DefiniteAssignment.prove(TypeInference.infer(parse(source), false), false);
+
+        assertThat(run(Interpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, rewritten), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, rewritten), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        rewritten),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #prove_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> prove_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 1; var b = a + 1; print a * b;",
+                "var a = nil; print a; a = \"s\"; print a;",
+                "var a; a = 2; print a;",
+                "var a; print 1;\nprint a;",
+                "var c = false; var a; c or (a = 1); print a;",
+                "var c = true; var a; c ? (a = 1) : (a = 2); print a;",
+                "var a = 1; { var b = 2; { var a = 3; print a + b; } print a + b; } print a;",
+                "{ var a; a = 1; print a; var b; print b; }",
+                "var a = 1; var a; print a;",
+                "var a; var i = 0; while (i < 2) { a = i; i = i + 1; } print a;",
+                "var a; var c = 1; if (c) a = 1; else a = 2; print a;",
+                "var c = false; print 1; if (c) print a; print c and b;\nwhile (c) print d;",
+                "fun f() { print a; } var a = 1; f();",
+                "var a; fun set() { a = 1; } set(); print a;",
+                "fun f(n) { return n * 2; } var a = f(1); print a + f(a);");
+    }
+}
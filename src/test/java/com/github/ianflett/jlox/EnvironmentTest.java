@@ -46,6 +46,24 @@ void get_throwsRuntimeError_whenVariableUndefined() {
         assert_throwsRuntimeError((environment, name) -> environment.get(t(name)));
     }
 
+    /**
+     * Tests {@link Environment#getDefined(String)} returns value when variable is defined outside
+     * scope, including {@code nil} shadowing outer value.
+     */
+    @Test
+    void getDefined_returnsValue_whenVariableDefinedOutsideScope() {
+        var store = new HashMap<String, Object>();
+        store.put(STORED_NAME, OLD_VALUE);
+        var shadow = new HashMap<String, Object>();
+        shadow.put(STORED_NAME, null);
+
+        var environment = new Environment(new Environment(store));
+        var shadowed = new Environment(new Environment(new Environment(store), shadow));
+
+        assertThat(environment.getDefined(STORED_NAME), is(equalTo(OLD_VALUE)));
+        assertThat(shadowed.getDefined(STORED_NAME), is(nullValue()));
+    }
+
     /**
      * Tests {@link Environment#assign(Token, Object)} rebinds variable when defined inside scope.
      */
@@ -127,6 +145,75 @@ void define_bindsValue_whenVariableUndefined() {
         assertThat(store.get(STORED_NAME), is(equalTo(NEW_VALUE)));
     }
 
+    /** Tests {@link Environment#clear()} unbinds names inside scope only. */
+    @Test
+    void clear_unbindsValues_whenVariableDefinedInsideScope() {
+        var innerStore = new HashMap<String, Object>();
+        innerStore.put(STORED_NAME, NEW_VALUE);
+        var outerStore = new HashMap<String, Object>();
+        outerStore.put(STORED_NAME, OLD_VALUE);
+
+        var environment = new Environment(new Environment(outerStore), innerStore);
+        environment.clear();
+
+        assertThat(innerStore.isEmpty(), is(true));
+        assertThat(environment.get(t(STORED_NAME)), is(equalTo(OLD_VALUE)));
+    }
+
+    /**
+     * Tests {@link Environment#capture(String, Environment)} binds variable to {@link
+     * Environment.Cell} shared by later captures, reads and assignments.
+     */
+    @Test
+    void capture_sharesCell_whenVariableDefinedOutsideScope() {
+        var store = new HashMap<String, Object>();
+        store.put(STORED_NAME, OLD_VALUE);
+        var globals = new Environment();
+
+        var environment = new Environment(new Environment(globals, store));
+        var cell = environment.capture(STORED_NAME, globals);
+        environment.assign(t(STORED_NAME), NEW_VALUE);
+
+        assertThat(environment.capture(STORED_NAME, globals), is(sameInstance(cell)));
+        assertThat(cell.value, is(equalTo(NEW_VALUE)));
+        assertThat(environment.get(t(STORED_NAME)), is(equalTo(NEW_VALUE)));
+        assertThat(environment.getDefined(STORED_NAME), is(equalTo(NEW_VALUE)));
+    }
+
+    /**
+     * Tests {@link Environment#capture(String, Environment)} does not capture variable from
+     * outermost scope or undefined variable.
+     */
+    @Test
+    void capture_returnsNull_whenVariableDefinedInOutermostScopeOrUndefined() {
+        var store = new HashMap<String, Object>();
+        store.put(STORED_NAME, OLD_VALUE);
+        var globals = new Environment(store);
+
+        var environment = new Environment(globals);
+
+        assertThat(environment.capture(STORED_NAME, globals), is(nullValue()));
+        assertThat(environment.capture("noVariable", globals), is(nullValue()));
+        assertThat(store.get(STORED_NAME), is(equalTo(OLD_VALUE)));
+    }
+
+    /**
+     * Tests {@link Environment#define(String, Object)} binds new variable, leaving captured {@link
+     * Environment.Cell} unchanged.
+     */
+    @Test
+    void define_leavesCellUnchanged_whenVariableCaptured() {
+        var globals = new Environment();
+        var environment = new Environment(globals);
+        environment.define(STORED_NAME, OLD_VALUE);
+
+        var cell = environment.capture(STORED_NAME, globals);
+        environment.define(STORED_NAME, NEW_VALUE);
+
+        assertThat(cell.value, is(equalTo(OLD_VALUE)));
+        assertThat(environment.get(t(STORED_NAME)), is(equalTo(NEW_VALUE)));
+    }
+
     /**
      * Asserts {@link RuntimeError} thrown when {@code action} runs.
      *
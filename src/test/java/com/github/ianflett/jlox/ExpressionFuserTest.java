@@ -0,0 +1,115 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link ExpressionFuser} class. */
+class ExpressionFuserTest {
+
+    /**
+     * Tests {@link ExpressionFuser#fuse(List)} fuses expression of last statement as expected.
+     *
+     * @param source Lox program ending in expression or {@code print} statement.
+     * @param expected Expected type of last statement's expression.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void fuse_returnsFusedExpression(String source, Class<? extends Expr> expected) {
+        var fused = ExpressionFuser.fuse(DefiniteAssignment.prove(parse(source), false));
+
+        var expression =
+                switch (fused.getLast()) {
+                    case Stmt.Expression statement -> statement.expression;
+                    case Stmt.Print statement -> statement.expression;
+                    default -> throw new IllegalArgumentException();
+                };
+        assertThat(expression, is(instanceOf(expected)));
+    }
+
+    /**
+     * Data source for {@link #fuse_returnsFusedExpression(String, Class)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> fuse_returnsFusedExpression() {
+        return Stream.of(
+                Arguments.of("var x = 1; print x + 1;", Expr.BinaryVarConst.class),
+                Arguments.of("var x = 1; var y = 2; print x < y;", Expr.BinaryVarVar.class),
+                Arguments.of("var x = 1; x = x + 1;", Expr.CompoundAssign.class),
+                Arguments.of("var x = 1; var y = 2; x = x - y;", Expr.CompoundAssign.class),
+                Arguments.of("var x = 1; x = x * (x - 1);", Expr.CompoundAssign.class),
+                Arguments.of("var x = 1; { x = x / 2; } x = x - x;", Expr.CompoundAssign.class),
+                Arguments.of("var x = 1; var y = 2; y = x + 1;", Expr.Assign.class),
+                Arguments.of("var x = 1; x = 1 + x;", Expr.Assign.class),
+                Arguments.of("var x = 1; print 1 + x;", Expr.Binary.class),
+                Arguments.of("var x; print x + 1;", Expr.Binary.class));
+    }
+
+    /** Tests {@link ExpressionFuser#fuse(List)} reduces number of nodes dispatched. */
+    @Test
+    void fuse_reducesNodes_givenCommonShapes() {
+        var proven =
+                DefiniteAssignment.prove(
+                        parse("var x = 0; var y = 9; x = x + 1; x = x + y; print x < y;"), false);
+
+        var fused = ExpressionFuser.fuse(proven);
+
+        assertThat(PassManager.Counter.count(proven), is(equalTo(18)));
+        assertThat(PassManager.Counter.count(fused), is(equalTo(12)));
+    }
+
+    /**
+     * Tests fused program produces same output and errors on every {@link Backend} as original
+     * program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void fuse_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var fused = ExpressionFuser.fuse(DefiniteAssignment.prove(parse(source), false));
+
+        assertThat(run(Interpreter::new, fused), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, fused), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, fused), is(equalTo(expected)));
+        assertThat(run(ParallelInterpreter::new, fused), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        fused),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #fuse_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> fuse_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var x = 0; x = x + 1; x = x + 1; print x; print x < 3; print x == 2;",
+                "var x = 2; var y = 3; x = x * y; print x; print x - y; print y >= x;",
+                "var s = \"a\"; s = s + \"b\"; s = s + 1; print s; print s + s;",
+                "var x = 1; { var y = 2; x = x + y; { y = y * x; print y; } } print x;",
+                "var x = 1; x = x + (x = 5); print x;",
+                "var x = \"s\";\nx = x - 1;\nprint x;",
+                "var x = 1; var y = 0;\nprint x / y;",
+                "var x = 1; var y = nil;\nprint x < y;");
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link FlatInterpreter} class. */
+class FlatInterpreterTest {
+
+    /** Nesting depth well beyond that supported by recursive evaluation. */
+    private static final int DEPTH = 100_000;
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} restores global scope after {@link
+     * RuntimeError} within block.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_restoresGlobalScope_givenRuntimeErrorInBlock() throws Exception {
+        var flatInterpreter = new FlatInterpreter();
+        var output =
+                tapSystemOutNormalized(
+                        () ->
+                                tapSystemErrNormalized(
+                                        () -> {
+                                            flatInterpreter.interpret(parse("var a = \"outer\";"));
+                                            flatInterpreter.interpret(
+                                                    parse("{ var a = 1; { print -nil; } }"));
+                                            flatInterpreter.interpret(parse("print a;"));
+                                        }));
+        assertThat(output, is(equalTo("outer\n")));
+    }
+
+    /** Tests {@link FlatInterpreter#evaluate(Expr)} evaluates deeply nested expression. */
+    @Test
+    void evaluate_returnsValue_givenDeeplyNestedExpression() {
+        Expr expr = new Expr.Literal(1d);
+        for (var i = 0; i < DEPTH; ++i) {
+            expr = new Expr.Binary(new Expr.Literal(1d), t("+"), new Expr.Grouping(expr));
+        }
+        assertThat(new FlatInterpreter().evaluate(expr), is(equalTo(DEPTH + 1d)));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} executes very long chain of binary operations
+     * proven to be on numbers, once optimised and verified.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_printsValue_givenVeryLongNumericChain() throws Exception {
+        var source = "{ var a = 1; print a" + " - a".repeat(DEPTH) + "; }";
+        var statements = PassManager.standard(false).enableVerification().run(parse(source));
+
+        var output = tapSystemOutNormalized(() -> new FlatInterpreter().interpret(statements));
+
+        assertThat(output, is(equalTo(1 - DEPTH + "\n")));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} executes very long chains of logical
+     * operations, whether their values are used or discarded, once optimised and verified.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_printsValue_givenVeryLongLogicalChain() throws Exception {
+        var chain = " and a".repeat(DEPTH);
+        var source = "{ var a = true; a" + chain + "; print a" + chain + "; }";
+        var statements = PassManager.standard(false).enableVerification().run(parse(source));
+
+        var output = tapSystemOutNormalized(() -> new FlatInterpreter().interpret(statements));
+
+        assertThat(output, is(equalTo("true\n")));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} executes deeply nested blocks.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_executesStatement_givenDeeplyNestedBlocks() throws Exception {
+        Stmt stmt = new Stmt.Print(new Expr.Literal("deep"));
+        for (var i = 0; i < DEPTH; ++i) {
+            stmt = new Stmt.Block(List.of(stmt));
+        }
+        var statements = List.of(stmt);
+        var output = tapSystemOutNormalized(() -> new FlatInterpreter().interpret(statements));
+        assertThat(output, is(equalTo("deep\n")));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} runs recursion nested well beyond depth
+     * supported by thread stack.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_returnsValue_givenDeepRecursion() throws Exception {
+        var statements =
+                parse(
+                        "fun count(n) { if (n == 0) return 0; return 1 + count(n - 1); }"
+                                + " print count(50000);");
+        var output = tapSystemOutNormalized(() -> new FlatInterpreter().interpret(statements));
+        assertThat(output, is(equalTo("50000\n")));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} reports stack overflow once calls nest beyond
+     * frame budget.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_reportsStackOverflow_givenRecursionBeyondFrameBudget() throws Exception {
+        var backend = new FlatInterpreter();
+        backend.limitFrames(10);
+        var output = run(backend, "fun f(n) { return 1 + f(n + 1); }\nprint 1;\nf(0);");
+        assertThat(output, is(equalTo("1\nStack overflow.\n[line 1]\n")));
+    }
+
+    /**
+     * Tests {@link FlatInterpreter#interpret(List)} runs tail calls in constant frames, including
+     * mutually recursive calls, calls from within blocks of closures, and calls in branches of
+     * returned conditional and logical expressions.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_runsInConstantFrames_givenTailCalls() throws Exception {
+        var backend = new FlatInterpreter();
+        backend.limitFrames(10);
+        var output =
+                run(
+                        backend,
+                        """
+                        fun count(n, acc) { if (n == 0) return acc; return count(n - 1, acc + 1); }
+                        fun even(n) { if (n == 0) return true; return odd(n - 1); }
+                        fun odd(n) { if (n == 0) return false; return even(n - 1); }
+                        fun outer(n) {
+                          fun inner(m) { if (m == 0) return n; return inner(m - 1); }
+                          { var x = 1; return inner(n); }
+                        }
+                        fun down(n) { return n == 0 ? "done" : down(n - 1); }
+                        fun any(n) { return n == 0 or (any(n - 1)); }
+                        print count(100000, 0);
+                        print even(100001);
+                        print outer(1000);
+                        print down(100000);
+                        print any(100000);
+                        """);
+        assertThat(output, is(equalTo("100000\nfalse\n1000\ndone\ntrue\n")));
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.ianflett.jlox;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link Interner} class. */
+class InternerTest {
+
+    /** Tests {@link Interner#intern(String)} returns first instance given equal strings. */
+    @Test
+    void intern_returnsCanonicalInstance_givenEqualStrings() {
+        var interner = new Interner();
+        var first = new String("abc");
+        var second = new String("abc");
+
+        assertThat(interner.intern(first), is(sameInstance(first)));
+        assertThat(interner.intern(second), is(sameInstance(first)));
+    }
+
+    /** Tests {@link Scanner} shares instances of repeated identifiers and string literals. */
+    @Test
+    void scanTokens_sharesInstances_givenRepeatedLexemes() {
+        var interner = new Interner();
+        var tokens = new Scanner("a \"s\" a \"s\"", interner).scanTokens();
+        var later = new Scanner("a", interner).scanTokens();
+
+        assertThat(tokens.get(2).lexeme(), is(sameInstance(tokens.get(0).lexeme())));
+        assertThat(tokens.get(3).literal(), is(sameInstance(tokens.get(1).literal())));
+        assertThat(later.getFirst().lexeme(), is(sameInstance(tokens.get(0).lexeme())));
+        assertThat(tokens.get(1).literal(), is(equalTo("s")));
+    }
+}
@@ -5,11 +5,13 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 import java.util.stream.Stream.Builder;
@@ -760,6 +762,95 @@ private static void assert_visitBinaryExpr_producesExpectedResult(
 
     // endregion
 
+    // region Expr.Call
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} returns value of recursive function.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void visitCallExpr_returnsValue_givenRecursiveFunction() throws Exception {
+        var statements =
+                parse(
+                        "fun fib(n) { if (n < 2) return n; return fib(n - 1) + fib(n - 2); }"
+                                + " print fib(15);");
+        var output = tapSystemOutNormalized(() -> new Interpreter().interpret(statements));
+        assertThat(output, is(equalTo("610\n")));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} runs recursion nested well beyond depth
+     * supported by thread stack.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void visitCallExpr_returnsValue_givenDeepRecursion() throws Exception {
+        var statements =
+                parse(
+                        "fun count(n) { if (n == 0) return 0; return 1 + count(n - 1); }"
+                                + " print count(50000);");
+        var output = tapSystemOutNormalized(() -> new Interpreter().interpret(statements));
+        assertThat(output, is(equalTo("50000\n")));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} throws {@link RuntimeError} once calls
+     * nest beyond frame budget.
+     */
+    @Test
+    void visitCallExpr_throwsRuntimeError_givenRecursionBeyondFrameBudget() {
+        var interpreter = new Interpreter();
+        interpreter.limitFrames(10);
+        interpreter.execute(parse("fun f(n) { return 1 + f(n + 1); }").getFirst());
+        var call = new Expr.Call(e(t("f")), t(")"), List.of(e(0)), false);
+        var exception = assertThrows(RuntimeError.class, () -> interpreter.visitCallExpr(call));
+        assertThat(exception.getMessage(), is(equalTo("Stack overflow.")));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} returns value of tail recursion nesting
+     * beyond frame budget, as tail calls reuse caller's frame.
+     */
+    @Test
+    void visitCallExpr_returnsValue_givenTailRecursionBeyondFrameBudget() {
+        var interpreter = new Interpreter();
+        interpreter.limitFrames(10);
+        interpreter.execute(
+                parse("fun f(n) { if (n == 0) return \"done\"; return f(n - 1); }").getFirst());
+        var call = new Expr.Call(e(t("f")), t(")"), List.of(e(100_000)), false);
+        assertThat(interpreter.visitCallExpr(call), is(equalTo("done")));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} throws {@link RuntimeError} when callee
+     * is not function.
+     */
+    @Test
+    void visitCallExpr_throwsRuntimeError_givenNonFunction() {
+        var call = new Expr.Call(e(1), t(2, ")"), List.of(), false);
+        var exception =
+                assertThrows(RuntimeError.class, () -> new Interpreter().visitCallExpr(call));
+        assertThat(exception.getMessage(), is(equalTo("Can only call functions and classes.")));
+        assertThat(exception.line, is(equalTo(2)));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitCallExpr(Expr.Call)} throws {@link RuntimeError} when number
+     * of arguments differs from number of parameters.
+     */
+    @Test
+    void visitCallExpr_throwsRuntimeError_givenArityMismatch() {
+        var interpreter = new Interpreter();
+        interpreter.execute(parse("fun f(a, b) { return a; }").getFirst());
+        var call = new Expr.Call(e(t("f")), t(")"), List.of(e(1)), false);
+        var exception = assertThrows(RuntimeError.class, () -> interpreter.visitCallExpr(call));
+        assertThat(exception.getMessage(), is(equalTo("Expected 2 arguments but got 1.")));
+    }
+
+    // endregion
+
     // region Expr.Conditional
 
     /**
@@ -768,7 +859,7 @@ private static void assert_visitBinaryExpr_producesExpectedResult(
      */
     @Test
     void visitConditionalExpr_returnsThenBranch_whenConditionalTrue() {
-        assert_visitConditionalExpr(true, 2d);
+        assert_visitConditionalExpr(true, 2L);
     }
 
     /**
@@ -777,7 +868,7 @@ void visitConditionalExpr_returnsThenBranch_whenConditionalTrue() {
      */
     @Test
     void visitConditionalExpr_returnsElseBranch_whenConditionalFalse() {
-        assert_visitConditionalExpr(false, 3d);
+        assert_visitConditionalExpr(false, 3L);
     }
 
     /**
@@ -787,11 +878,123 @@ void visitConditionalExpr_returnsElseBranch_whenConditionalFalse() {
      * @param condition Result of condition.
      * @param expected Expected value.
      */
-    private static void assert_visitConditionalExpr(boolean condition, double expected) {
+    private static void assert_visitConditionalExpr(boolean condition, long expected) {
         var expression = (Expr.Conditional) e(condition, 2, 3);
         assertThat(new Interpreter().visitConditionalExpr(expression), is(equalTo(expected)));
     }
 
+    /**
+     * Tests {@link Interpreter#visitConditionalExpr(Expr.Conditional)} selects branch by
+     * truthiness of condition.
+     *
+     * @param condition Value of condition.
+     * @param expected Expected value.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void visitConditionalExpr_selectsBranchByTruthiness_givenNonBooleanCondition(
+            Object condition, long expected) {
+        assertThat(
+                new Interpreter().visitConditionalExpr((Expr.Conditional) e(condition, 2, 3)),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link
+     * #visitConditionalExpr_selectsBranchByTruthiness_givenNonBooleanCondition(Object, long)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments>
+            visitConditionalExpr_selectsBranchByTruthiness_givenNonBooleanCondition() {
+        return Stream.of(arguments(null, 3L), arguments(0d, 2L), arguments("", 2L));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitConditionalExpr(Expr.Conditional)} does not evaluate branch
+     * not selected.
+     */
+    @Test
+    void visitConditionalExpr_doesNotEvaluateUnselectedBranch_givenFailingBranch() {
+        var failing = e(t("-"), "a");
+        var interpreter = new Interpreter();
+
+        assertThat(
+                interpreter.visitConditionalExpr((Expr.Conditional) e(true, 2, failing)),
+                is(equalTo(2L)));
+        assertThat(
+                interpreter.visitConditionalExpr((Expr.Conditional) e(false, failing, 3)),
+                is(equalTo(3L)));
+    }
+
+    // endregion
+
+    // region Expr.Logical
+
+    /**
+     * Tests {@link Interpreter#visitLogicalExpr(Expr.Logical)} returns deciding operand.
+     *
+     * @param left Left operand.
+     * @param operator Operator literal.
+     * @param right Right operand.
+     * @param expected Expected result.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void visitLogicalExpr_returnsDecidingOperand_givenOperands(
+            Object left, String operator, Object right, Object expected) {
+        var expression = (Expr.Logical) e(left, t(operator), right);
+
+        assertThat(new Interpreter().visitLogicalExpr(expression), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #visitLogicalExpr_returnsDecidingOperand_givenOperands(Object,
+     * String, Object, Object)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> visitLogicalExpr_returnsDecidingOperand_givenOperands() {
+        return Stream.of(
+                arguments(true, "and", 1d, 1d),
+                arguments(null, "and", 1d, null),
+                arguments(false, "and", 1d, false),
+                arguments("a", "and", "b", "b"),
+                arguments(true, "or", 1d, true),
+                arguments(null, "or", 1d, 1d),
+                arguments(false, "or", null, null),
+                arguments(0d, "or", "b", 0d));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitLogicalExpr(Expr.Logical)} does not evaluate right operand
+     * when left operand decides result.
+     *
+     * @param left Left operand.
+     * @param operator Operator literal.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void visitLogicalExpr_doesNotEvaluateRightOperand_givenDecidingLeftOperand(
+            boolean left, String operator) {
+        var expression = (Expr.Logical) e(left, t(operator), e(t("-"), "a"));
+
+        assertThat(new Interpreter().visitLogicalExpr(expression), is(equalTo(left)));
+    }
+
+    /**
+     * Data source for {@link
+     * #visitLogicalExpr_doesNotEvaluateRightOperand_givenDecidingLeftOperand(boolean, String)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments>
+            visitLogicalExpr_doesNotEvaluateRightOperand_givenDecidingLeftOperand() {
+        return Stream.of(arguments(false, "and"), arguments(true, "or"));
+    }
+
     // endregion
 
     // region Expr.Grouping
@@ -1007,7 +1210,7 @@ void visitVariableExpr_returnsValue_givenValueBoundToName(String name, Object va
      *   <li>{@code c} as {@code 3.0}
      * </ul>
      *
-     * <p>New {@link Stmt.Block} assigns {@code 4.0} to {@code b}, redefines {@code c}, then defines
+     * <p>New {@link Stmt.Block} assigns {@code 4} to {@code b}, redefines {@code c}, then defines
      * {@code d} before reassigning it. Once processed, only alteration to {@code b} remains.
      */
     @Test
@@ -1029,7 +1232,7 @@ void visitBlockStmt_honorsScope_afterProcessingBlock() {
         interpreter.visitBlockStmt(block);
 
         assertThat(environment.get(t("a")), is(equalTo(1d)));
-        assertThat(environment.get(t("b")), is(equalTo(4d)));
+        assertThat(environment.get(t("b")), is(equalTo(4L)));
         assertThat(environment.get(t("c")), is(equalTo(3d)));
 
         var error = assertThrows(RuntimeError.class, () -> environment.get(t("d")));
@@ -1038,6 +1241,90 @@ void visitBlockStmt_honorsScope_afterProcessingBlock() {
 
     // endregion
 
+    // region Stmt.Function
+
+    /** Tests {@link Interpreter#visitFunctionStmt(Stmt.Function)} binds function to its name. */
+    @Test
+    void visitFunctionStmt_bindsFunction_givenDeclaration() {
+        var environment = new Environment();
+        new Interpreter(environment).execute(parse("fun f(a) {}").getFirst());
+        assertThat(environment.get(t("f")).toString(), is(equalTo("<fn f>")));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitFunctionStmt(Stmt.Function)} captures only variables function
+     * references from enclosing scopes, excluding globals.
+     */
+    @Test
+    void visitFunctionStmt_capturesReferencedVariables_givenEnclosingScopes() {
+        var environment = new Environment();
+        var interpreter = new Interpreter(environment);
+        interpreter.interpret(
+                parse(
+                        "var g = 0; var f; { var a = 1; var b = 2;"
+                                + " { var unused = 3; fun h(p) { return a + p + g; } f = h; } }"));
+
+        var function = (LoxFunction) environment.get(t("f"));
+        assertThat(function.names, is(equalTo(new String[] {"a"})));
+        assertThat(function.cells[0].value, is(equalTo(1L)));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitFunctionStmt(Stmt.Function)} creates closures whose captured
+     * variables outlive call declaring them, distinct between calls.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void visitFunctionStmt_retainsCapturedVariables_afterDeclaringCallReturns() throws Exception {
+        var statements =
+                parse(
+                        "fun counter() { var i = 0; fun next() { i = i + 1; return i; }"
+                                + " return next; }"
+                                + " var a = counter(); var b = counter();"
+                                + " print a(); print a(); print b();");
+        var output = tapSystemOutNormalized(() -> new Interpreter().interpret(statements));
+        assertThat(output, is(equalTo("1\n2\n1\n")));
+    }
+
+    // endregion
+
+    // region Stmt.If
+
+    /**
+     * Tests {@link Interpreter#visitIfStmt(Stmt.If)} executes only branch selected by truthiness
+     * of condition.
+     *
+     * @param condition Condition value.
+     * @param expected Expected output.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void visitIfStmt_executesSelectedBranch_givenCondition(Object condition, String expected)
+            throws Exception {
+        var stmt =
+                new Stmt.If(
+                        e(condition), new Stmt.Print(e("then")), new Stmt.Print(e("else")));
+        var output = tapSystemOutNormalized(() -> new Interpreter().visitIfStmt(stmt));
+        assertThat(output, is(equalTo(expected + "\n")));
+    }
+
+    /**
+     * Data source for {@link #visitIfStmt_executesSelectedBranch_givenCondition(Object, String)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> visitIfStmt_executesSelectedBranch_givenCondition() {
+        return Stream.of(
+                arguments(true, "then"),
+                arguments(0d, "then"),
+                arguments(false, "else"),
+                arguments(null, "else"));
+    }
+
+    // endregion
+
     // region Stmt.Print
 
     /**
@@ -1131,6 +1418,56 @@ void visitVarStmt_rebindsVariable_givenNameAndValue(String name, Object value) {
 
     // endregion
 
+    // region Stmt.While
+
+    /**
+     * Tests {@link Interpreter#visitWhileStmt(Stmt.While)} notifies back-edge listener once per
+     * iteration, redeclaring body variables in reused scope.
+     */
+    @Test
+    void visitWhileStmt_notifiesBackEdgeListener_givenIterations() throws Exception {
+        var statements =
+                new Parser(
+                                new Scanner("var i = 0; while (i < 3) { var j = i + 1; i = j; }")
+                                        .scanTokens())
+                        .parse();
+        var loops = new ArrayList<Stmt.While>();
+        var interpreter = new Interpreter();
+        interpreter.onBackEdge(loops::add);
+
+        interpreter.interpret(statements);
+
+        assertThat(loops.size(), is(equalTo(3)));
+        assertThat(loops.getFirst(), is(sameInstance(statements.get(1))));
+    }
+
+    /**
+     * Tests {@link Interpreter#visitWhileStmt(Stmt.While)} restores enclosing scope when loop body
+     * throws {@link RuntimeError}.
+     */
+    @Test
+    void visitWhileStmt_restoresScope_givenRuntimeError() {
+        var environment = new Environment();
+        var interpreter = new Interpreter(environment);
+        var body =
+                new Stmt.Block(
+                        List.of(
+                                new Stmt.Var(t("inner"), e(1)),
+                                new Stmt.Print(e(t("-"), "a"))));
+
+        var loop = new Stmt.While(e(true), body);
+
+        assertThrows(RuntimeError.class, () -> interpreter.visitWhileStmt(loop));
+
+        var error =
+                assertThrows(
+                        RuntimeError.class,
+                        () -> interpreter.visitVariableExpr((Expr.Variable) e(t("inner"))));
+        assertThat(error.getMessage(), is(equalTo("Undefined variable 'inner'.")));
+    }
+
+    // endregion
+
     /**
      * Data source for {@link #visitVariableExpr_returnsValue_givenValueBoundToName(String, Object)}
      * and {@link #visitVarStmt_bindsVariable_givenNameAndValue(String, Object)} tests.
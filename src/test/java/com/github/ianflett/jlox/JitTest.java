@@ -0,0 +1,64 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link Jit} and {@link JvmCompiler} classes. */
+class JitTest {
+
+    /**
+     * Tests compiled block restores enclosing scope when it throws {@link RuntimeError}.
+     *
+     * @throws Exception Compilation threw exception.
+     */
+    @Test
+    void compile_restoresScope_givenRuntimeError() throws Exception {
+        var interpreter = new Interpreter();
+        interpreter.interpret(parse("var a = \"outer\";"));
+        var region = JvmCompiler.compile(parse("{ var a = \"inner\"; print -a; }").getFirst());
+
+        var exception = assertThrows(RuntimeError.class, () -> region.execute(interpreter));
+        assertThat(exception.getMessage(), is(equalTo("Operand must be a number.")));
+        var name = new Token(TokenType.IDENTIFIER, "a", null, 1);
+        assertThat(interpreter.evaluate(new Expr.Variable(name)), is(equalTo("outer")));
+    }
+
+    /**
+     * Tests {@link Jit#execute(Stmt, Interpreter)} defers to interpreter until threshold reached.
+     */
+    @Test
+    void execute_compilesStatement_onceThresholdReached() {
+        var jit = new Jit(2);
+        var interpreter = new Interpreter();
+        var statement = parse("var a = 1;").getFirst();
+
+        assertThat(jit.execute(statement, interpreter), is(false));
+        assertThat(jit.execute(statement, interpreter), is(true));
+        assertThat(jit.execute(statement, interpreter), is(true));
+    }
+
+    /**
+     * Tests {@link Jit#execute(Stmt, Interpreter)} leaves statement to interpreter when it is
+     * nested too deeply to compile.
+     */
+    @Test
+    void execute_defersToInterpreter_givenStatementTooDeepToCompile() {
+        var jit = new Jit(1);
+        var interpreter = new Interpreter();
+        var statement = parse("print 1" + " + 1".repeat(100_000) + ";").getFirst();
+
+        assertThat(jit.execute(statement, interpreter), is(false));
+        assertThat(jit.execute(statement, interpreter), is(false));
+    }
+
+    /** Tests {@link Jit#Jit(int)} rejects non-positive threshold. */
+    @Test
+    void constructor_throwsIllegalArgumentException_givenNonPositiveThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new Jit(0));
+    }
+}
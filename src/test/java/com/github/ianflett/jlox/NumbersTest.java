@@ -0,0 +1,129 @@
+package com.github.ianflett.jlox;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Unit tests {@link Numbers} class. */
+class NumbersTest {
+
+    /** Largest integer exactly representable as {@code double}. */
+    private static final long MAX_EXACT = 1L << 53;
+
+    /**
+     * Tests {@link Numbers#parse(String)} produces {@link Long} given integral literal.
+     *
+     * @param lexeme Literal text.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1234", "1234.0", "9007199254740992"})
+    void parse_returnsLong_givenIntegralLiteral(String lexeme) {
+        assertThat(Numbers.parse(lexeme), is(equalTo((long) Double.parseDouble(lexeme))));
+    }
+
+    /**
+     * Tests {@link Numbers#parse(String)} produces {@link Double} given literal that is fractional
+     * or too large to be exact.
+     *
+     * @param lexeme Literal text.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"0.5", "12.34", "9007199254740994"})
+    void parse_returnsDouble_givenInexactLiteral(String lexeme) {
+        assertThat(Numbers.parse(lexeme), is(equalTo(Double.parseDouble(lexeme))));
+    }
+
+    /** Tests {@link Numbers#valueOf(long)} reuses cached instances of small values. */
+    @Test
+    void valueOf_returnsCachedInstance_givenSmallValue() {
+        assertThat(Numbers.valueOf(1000L), is(sameInstance(Numbers.valueOf(1000L))));
+    }
+
+    /**
+     * Tests arithmetic produces same value as {@code double} arithmetic, as {@link Long} only when
+     * integral and exact.
+     *
+     * @param actual Result of arithmetic.
+     * @param expected Expected result.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void arithmetic_matchesDoubleArithmetic(Number actual, Number expected) {
+        assertThat(actual, is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #arithmetic_matchesDoubleArithmetic(Number, Number)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> arithmetic_matchesDoubleArithmetic() {
+        return Stream.of(
+                arguments(Numbers.add(2L, 3L), 5L),
+                arguments(Numbers.add(2L, 0.5), 2.5),
+                arguments(Numbers.add(MAX_EXACT, 1L), (double) MAX_EXACT),
+                arguments(Numbers.subtract(2L, 3L), -1L),
+                arguments(Numbers.subtract(-MAX_EXACT, 2L), -MAX_EXACT - 2d),
+                arguments(Numbers.multiply(6L, 7L), 42L),
+                arguments(Numbers.multiply(0L, -1L), -0d),
+                arguments(Numbers.multiply(3037000500L, 3037000500L), 3037000500d * 3037000500d),
+                arguments(Numbers.divide(6L, 3L), 2L),
+                arguments(Numbers.divide(7L, 2L), 3.5),
+                arguments(Numbers.divide(0L, -5L), -0d),
+                arguments(Numbers.negate(2L), -2L),
+                arguments(Numbers.negate(0L), -0d));
+    }
+
+    /**
+     * Tests {@link Numbers#equal(Number, Number)} compares values regardless of representation.
+     *
+     * @param left Left operand.
+     * @param right Right operand.
+     * @param expected Expected result.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void equal_comparesValues_givenNumbers(Number left, Number right, boolean expected) {
+        assertThat(Numbers.equal(left, right), is(expected));
+    }
+
+    /**
+     * Data source for {@link #equal_comparesValues_givenNumbers(Number, Number, boolean)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> equal_comparesValues_givenNumbers() {
+        return Stream.of(
+                arguments(1L, 1L, true),
+                arguments(1L, 1d, true),
+                arguments(1d, 2L, false),
+                arguments(0L, -0d, false),
+                arguments(Double.NaN, Double.NaN, true));
+    }
+
+    /**
+     * Tests {@link Numbers#stringify(Number)} formats {@link Long} as equal {@link Double}.
+     *
+     * @param value Integral value.
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {0, -1, 9_999_999, 10_000_000, -10_000_000, 1L << 53})
+    void stringify_matchesDouble_givenLong(long value) {
+        assertThat(Numbers.stringify(value), is(equalTo(Numbers.stringify((double) value))));
+    }
+
+    /** Tests {@link Numbers#toString(Number)} formats {@link Long} as {@link Double}. */
+    @Test
+    void toString_formatsAsDouble_givenLong() {
+        assertThat(Numbers.toString(3L), is(equalTo("3.0")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.ianflett.jlox;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link OutputWriter} class. */
+class OutputWriterTest {
+
+    /**
+     * Tests {@link OutputWriter#print(Object)} writes same bytes as printing {@link
+     * Interpreter#stringify(Object)}.
+     *
+     * @param value Value to print.
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void print_matchesPrintln_givenValue(Object value) throws Exception {
+        var expected =
+                tapSystemOutNormalized(() -> System.out.println(Interpreter.stringify(value)));
+
+        var actual =
+                tapSystemOutNormalized(
+                        () -> {
+                            var writer = new OutputWriter(OutputSink.standardOutput());
+                            writer.print(value);
+                            writer.flush();
+                        });
+
+        assertThat(actual, is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #print_matchesPrintln_givenValue(Object)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Object> print_matchesPrintln_givenValue() {
+        return Stream.of(
+                null,
+                true,
+                false,
+                0L,
+                -5L,
+                9_999_999L,
+                -10_000_000L,
+                1L << 53,
+                1.5,
+                -0d,
+                1e300,
+                "",
+                "héllo ✓ 😀",
+                "\uD800 unpaired",
+                Rope.concat("a".repeat(100), "b"));
+    }
+
+    /**
+     * Tests {@link OutputWriter#print(Object)} buffers output until flushed.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void print_buffersOutput_untilFlushed() throws Exception {
+        var writer = new OutputWriter(OutputSink.standardOutput());
+
+        assertThat(tapSystemOutNormalized(() -> writer.print("a")), is(equalTo("")));
+        assertThat(tapSystemOutNormalized(writer::flush), is(equalTo("a\n")));
+    }
+
+    /**
+     * Tests {@link OutputWriter#print(Object)} flushes as buffer fills, preserving all output.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void print_preservesOutput_givenMoreThanBuffer() throws Exception {
+        var lines = new String[100_000];
+        Arrays.setAll(lines, i -> "line " + i);
+
+        var output =
+                tapSystemOutNormalized(
+                        () -> {
+                            var writer = new OutputWriter(OutputSink.standardOutput());
+                            for (var line : lines) writer.print(line);
+                            writer.print("x".repeat(200_000));
+                            writer.flush();
+                        });
+
+        var expected = String.join("\n", List.of(lines)) + "\n" + "x".repeat(200_000) + "\n";
+        assertThat(output, is(equalTo(expected)));
+    }
+}
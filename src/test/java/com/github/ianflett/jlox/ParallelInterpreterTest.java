@@ -0,0 +1,121 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link ParallelInterpreter} class. */
+class ParallelInterpreterTest {
+
+    /**
+     * Tests {@link ParallelInterpreter#dependencies(List)} orders only statements accessing common
+     * globals.
+     *
+     * @param source Lox program.
+     * @param expected Indices of statements each statement depends on.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void dependencies_returnsConflictingStatements(String source, List<Set<Integer>> expected) {
+        var accesses = parse(source).stream().map(ParallelInterpreter.Accesses::of).toList();
+        assertThat(ParallelInterpreter.dependencies(accesses), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #dependencies_returnsConflictingStatements(String, List)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> dependencies_returnsConflictingStatements() {
+        return Stream.of(
+                Arguments.of(
+                        "var a = 1; var b = 2; print 3;", List.of(Set.of(), Set.of(), Set.of())),
+                Arguments.of(
+                        "var a = 1; print a; print a;", List.of(Set.of(), Set.of(0), Set.of(0))),
+                Arguments.of(
+                        "var a = 1; print a; print a; a = 2;",
+                        List.of(Set.of(), Set.of(0), Set.of(0), Set.of(0, 1, 2))),
+                Arguments.of(
+                        "var a = 1; var b = a; var c = b; print a;",
+                        List.of(Set.of(), Set.of(0), Set.of(1), Set.of(0))),
+                Arguments.of(
+                        "var a = 1; { var a = 2; print a; } { print a; }",
+                        List.of(Set.of(), Set.of(), Set.of(0))),
+                Arguments.of(
+                        "print a; var a = 1; print c or (a = 2);",
+                        List.of(Set.of(), Set.of(0), Set.of(1))),
+                Arguments.of(
+                        "print 1 / 0; print 2; var b = 5; print 3 == 3; var c = 6;",
+                        List.of(Set.of(), Set.of(), Set.of(0), Set.of(), Set.of(2))),
+                Arguments.of(
+                        "var a = 1; fun f() { print a; } print 2; f(); f(); print 3;",
+                        List.of(Set.of(), Set.of(), Set.of(), Set.of(0, 1, 2), Set.of(3),
+                                Set.of(4))));
+    }
+
+    /**
+     * Tests {@link ParallelInterpreter#interpret(List)} defines no global once earlier statement
+     * has failed, as later input would otherwise see it.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_writesNoGlobals_givenEarlierStatementFails() throws Exception {
+        var first = parse("var z = 0; var a = z / z; var b = 5;");
+        var second = parse("print b;");
+        var expected = runInputs(new Interpreter(), first, second);
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            for (var i = 0; i < 20; ++i) {
+                assertThat(
+                        runInputs(new ParallelInterpreter(), first, second),
+                        is(equalTo(expected)));
+                assertThat(
+                        runInputs(
+                                new ParallelInterpreter(OutputSink.standardOutput(), executor),
+                                first,
+                                second),
+                        is(equalTo(expected)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs successive inputs on same backend, as REPL does, capturing output.
+     *
+     * @param backend {@link Backend} to run inputs on.
+     * @param inputs {@link Stmt}s of each input.
+     * @return Standard output followed by standard error.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @SafeVarargs
+    private static String runInputs(Backend backend, List<Stmt>... inputs) throws Exception {
+        var error = new String[1];
+        var output =
+                tapSystemOutNormalized(
+                        () ->
+                                error[0] =
+                                        tapSystemErrNormalized(
+                                                () -> {
+                                                    for (var input : inputs) {
+                                                        backend.interpret(input);
+                                                    }
+                                                }));
+        return output + error[0];
+    }
+}
@@ -57,6 +57,239 @@ void parse_throwsRuntimeErrorAndReturnsNull_givenNoRightCurlyBrace() throws Exce
                 tz("{"), NULL_STMT_LIST, "[line 1] Error at end: Expect '}' after block.");
     }
 
+    /**
+     * Tests {@link Parser#parse()} desugars {@code for} statement into block declaring initialiser
+     * and {@link Stmt.While} whose body runs increment.
+     */
+    @Test
+    void parse_returnsDesugaredWhileStatement_givenForStatement() {
+        var actual =
+                new Parser(new Scanner("for (var i = 0; i < 2; i = i + 1) print i;").scanTokens());
+        var expected =
+                new Parser(
+                        new Scanner("{ var i = 0; while (i < 2) { print i; i = i + 1; } }")
+                                .scanTokens());
+
+        assertThat(actual.parse(), is(equalTo(expected.parse())));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} generates {@link Stmt.While} with {@code true} condition given
+     * {@code for} statement without clauses.
+     */
+    @Test
+    void parse_returnsInfiniteLoop_givenForStatementWithoutClauses() {
+        var tokens = tz("for", "(", ";", ";", ")", "{", "}");
+
+        var expected =
+                new Stmt[] {new Stmt.While(new Expr.Literal(true), new Stmt.Block(List.of()))};
+
+        assert_parse(tokens, contains(expected));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} produces error given loop or branch statement missing
+     * parentheses or given declaration as its body.
+     *
+     * @param tokens {@link Token}s.
+     * @param expected Expected error message.
+     * @throws Exception Unable to read from standard error.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void parse_producesError_givenMalformedControlFlow(List<Token> tokens, String expected)
+            throws Exception {
+        assert_parseError(tokens, NULL_STMT_LIST, expected);
+    }
+
+    /**
+     * Data source for {@link #parse_producesError_givenMalformedControlFlow(List, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> parse_producesError_givenMalformedControlFlow() {
+        return Stream.of(
+                arguments(
+                        tz("while", "true", ")", ";"),
+                        "[line 1] Error at 'true': Expect '(' after 'while'."),
+                arguments(
+                        tz("while", "(", "true", ";"),
+                        "[line 1] Error at ';': Expect ')' after condition."),
+                arguments(
+                        tz("if", "(", "true", ")", "var", "a", ";"),
+                        "[line 1] Error at 'var': Expect expression."),
+                arguments(
+                        tz("for", "(", ";", "true", ")", ";"),
+                        "[line 1] Error at ')': Expect ';' after loop condition."));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} generates {@link Stmt.Function} and chained {@link Expr.Call}s
+     * given function declaration and calls.
+     */
+    @Test
+    void parse_returnsFunctionAndCalls_givenDeclarationAndCalls() {
+        var tokens =
+                tz(
+                        "fun", "f", "(", "a", ",", "b", ")", "{", "return", "a", ";", "}", "f",
+                        "(", "1", ",", "2", ")", "(", ")", ";");
+
+        var function =
+                new Stmt.Function(
+                        t("f"),
+                        List.of(t("a"), t("b")),
+                        List.of(new Stmt.Return(t("return"), e(t("a")))));
+        var arguments = List.<Expr>of(new Expr.Literal(1L), new Expr.Literal(2L));
+        var call =
+                new Expr.Call(
+                        new Expr.Call(e(t("f")), t(")"), arguments, false),
+                        t(")"),
+                        List.of(),
+                        false);
+        var expected = new Stmt[] {function, new Stmt.Expression(call)};
+
+        assert_parse(tokens, contains(expected));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} marks {@link Expr.Call} as tail call only when its value is
+     * returned directly.
+     */
+    @Test
+    void parse_marksTailCall_givenReturnOfCall() {
+        var tokens =
+                tz(
+                        "fun", "f", "(", ")", "{", "return", "f", "(", ")", ";", "return", "-",
+                        "f", "(", ")", ";", "}");
+
+        var call = new Expr.Call(e(t("f")), t(")"), List.of(), false);
+        var function =
+                new Stmt.Function(
+                        t("f"),
+                        List.of(),
+                        List.of(
+                                new Stmt.Return(
+                                        t("return"),
+                                        new Expr.Call(e(t("f")), t(")"), List.of(), true)),
+                                new Stmt.Return(t("return"), new Expr.Unary(t("-"), call))));
+
+        assert_parse(tokens, contains(function));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} marks {@link Expr.Call}s as tail calls within branches of
+     * returned conditional and right operand of returned logical expression, but not within
+     * condition.
+     */
+    @Test
+    void parse_marksTailCalls_givenReturnOfConditional() {
+        var tokens =
+                tz(
+                        "fun", "f", "(", ")", "{", "return", "f", "(", ")", "?", "f", "(", ")",
+                        ":", "(", "nil", "or", "f", "(", ")", ")", ";", "}");
+
+        var call = new Expr.Call(e(t("f")), t(")"), List.of(), false);
+        var tailCall = new Expr.Call(e(t("f")), t(")"), List.of(), true);
+        var function =
+                new Stmt.Function(
+                        t("f"),
+                        List.of(),
+                        List.of(
+                                new Stmt.Return(
+                                        t("return"),
+                                        e(call, tailCall, e(e(null, t("or"), tailCall))))));
+
+        assert_parse(tokens, contains(function));
+    }
+
+    /**
+     * Tests {@link Parser#isExpression()} distinguishes expression from statements, including
+     * those ending in closing brace.
+     *
+     * @param source Lox input.
+     * @param expected Whether input is expected to be expression.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void isExpression_distinguishesExpression_givenInput(String source, boolean expected) {
+        var parser = new Parser(new Scanner(source).scanTokens());
+        assertThat(parser.isExpression(), is(expected));
+    }
+
+    /**
+     * Data source for {@link #isExpression_distinguishesExpression_givenInput(String, boolean)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> isExpression_distinguishesExpression_givenInput() {
+        return Stream.of(
+                arguments("1 + 2", true),
+                arguments("a = f(1)", true),
+                arguments("a ? b : c", true),
+                arguments("print 1;", false),
+                arguments("a = 1;", false),
+                arguments("{ var a = 1; print a; }", false),
+                arguments("fun f() { return 1; }", false),
+                arguments("if (a) { print a; }", false),
+                arguments("while (a) { a = a - 1; }", false),
+                arguments("for (var i = 0; i < 2; i = i + 1) { print i; }", false),
+                arguments("var a = 1", false),
+                arguments("", false));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} produces error given malformed function declaration or call.
+     *
+     * @param tokens {@link Token}s.
+     * @param expected Expected error message.
+     * @throws Exception Unable to read from standard error.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void parse_producesError_givenMalformedFunction(List<Token> tokens, String expected)
+            throws Exception {
+        assert_parseError(tokens, NULL_STMT_LIST, expected);
+    }
+
+    /**
+     * Data source for {@link #parse_producesError_givenMalformedFunction(List, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> parse_producesError_givenMalformedFunction() {
+        return Stream.of(
+                arguments(
+                        tz("fun", "(", ")", "{", "}"),
+                        "[line 1] Error at '(': Expect function name."),
+                arguments(
+                        tz("fun", "f", "{", "}"),
+                        "[line 1] Error at '{': Expect '(' after function name."),
+                arguments(
+                        tz("fun", "f", "(", "a", "b", ")", "{", "}"),
+                        "[line 1] Error at 'b': Expect ')' after parameters."),
+                arguments(
+                        tz("fun", "f", "(", ")", ";"),
+                        "[line 1] Error at ';': Expect '{' before function body."),
+                arguments(
+                        tz("f", "(", "1", ";"),
+                        "[line 1] Error at ';': Expect ')' after arguments."));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} reports error given {@code return} outside function, without
+     * discarding statement.
+     *
+     * @throws Exception Unable to read from standard error.
+     */
+    @Test
+    void parse_producesError_givenTopLevelReturn() throws Exception {
+        assert_parseError(
+                tz("return", ";"),
+                List.of(new Stmt.Return(t("return"), null)),
+                "[line 1] Error at 'return': Can't return from top-level code.");
+    }
+
     /**
      * Tests {@link Parser#parse()} produces {@link RuntimeError} and returns {@code null} when
      * {@link Token} unrecognised.
@@ -150,6 +383,48 @@ void parse_equalityHasHigherPrecedenceThanConditional_givenConditionalAndEqualit
         assert_parse(tokens, contains(expected));
     }
 
+    /**
+     * Tests {@link Parser#parse()} generates {@link Expr}ession where logical or has higher
+     * precedence than conditional.
+     */
+    @Test
+    void parse_orHasHigherPrecedenceThanConditional_givenConditionalAndOr() {
+        var tokens = tz("a", "or", "b", "?", "1", ":", "2", ";");
+
+        var expected = new Stmt[] {new Stmt.Expression(e(e(e(t("a")), t("or"), e(t("b"))), 1, 2))};
+
+        assert_parse(tokens, contains(expected));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} generates {@link Expr}ession where logical and has higher
+     * precedence than logical or.
+     */
+    @Test
+    void parse_andHasHigherPrecedenceThanOr_givenOrAndAnd() {
+        var tokens = tz("true", "or", "false", "and", "nil", ";");
+
+        var expected = new Stmt[] {new Stmt.Expression(e(true, t("or"), e(false, t("and"), null)))};
+
+        assert_parse(tokens, contains(expected));
+    }
+
+    /**
+     * Tests {@link Parser#parse()} generates {@link Expr}ession where equality has higher
+     * precedence than logical and.
+     */
+    @Test
+    void parse_equalityHasHigherPrecedenceThanAnd_givenAndAndEquality() {
+        var tokens = tz("1", "==", "2", "and", "3", "!=", "4", ";");
+
+        var expected =
+                new Stmt[] {
+                    new Stmt.Expression(e(e(1, t("=="), 2), t("and"), e(3, t("!="), 4)))
+                };
+
+        assert_parse(tokens, contains(expected));
+    }
+
     /**
      * Tests {@link Parser#parse()} generates {@link Expr}ession where {@code higher} operator has
      * precedence over {@code lower} operator.
@@ -276,8 +551,8 @@ private static Stream<Arguments> parse_returnsPrimary_givenPrimary() {
                 arguments("nil", null),
                 arguments("false", false),
                 arguments("true", true),
-                arguments("0", 0d),
-                arguments("1", 1d),
+                arguments("0", 0L),
+                arguments("1", 1L),
                 arguments("\"\"", ""),
                 arguments("\"a\"", "a"),
                 arguments("a", t("a")));
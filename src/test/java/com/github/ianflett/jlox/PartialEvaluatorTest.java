@@ -0,0 +1,107 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link PartialEvaluator} class. */
+class PartialEvaluatorTest {
+
+    /** Fixed globals used by tests. */
+    private static final Map<String, Object> FIXED =
+            Map.of("debug", false, "scale", 3, "unit", "cm");
+
+    /**
+     * Tests {@link PartialEvaluator#specialise(List, Map)} returns expected residual program.
+     *
+     * @param source Lox program.
+     * @param expected Description of residual program.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void specialise_returnsResidualProgram(String source, String expected) {
+        var residual = PartialEvaluator.specialise(parse(source), FIXED);
+        assertThat(describe(residual), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #specialise_returnsResidualProgram(String, String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> specialise_returnsResidualProgram() {
+        return Stream.of(
+                Arguments.of("print debug ? \"on\" : \"off\";", "print off;"),
+                Arguments.of("var w = 2 * scale; print w + unit;", "print 6.0cm;"),
+                Arguments.of("print scale * x;", "print (* 3.0 x);"),
+                Arguments.of("print debug or x;", "print x;"),
+                Arguments.of(
+                        "print scale; scale = scale + 1; print scale;",
+                        "var scale = 3.0; print scale; (= scale (+ scale 1.0)); print scale;"),
+                Arguments.of("var unit = \"m\"; print unit;", "print m;"));
+    }
+
+    /** Tests {@link PartialEvaluator#specialise(List, Map)} rejects values Lox cannot represent. */
+    @Test
+    void specialise_throwsIllegalArgumentException_givenUnsupportedValue() {
+        var statements = parse("print a;");
+        var fixed = Map.<String, Object>of("a", new Object());
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> PartialEvaluator.specialise(statements, fixed));
+    }
+
+    /**
+     * Tests residual program produces same output and errors on every {@link Backend} as original
+     * program on {@link Interpreter}, with fixed globals defined.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void specialise_preservesBehaviour_givenProgram(String source) throws Exception {
+        var defined = "var debug = false; var scale = 3; var unit = \"cm\"; ";
+        var expected = run(Interpreter::new, parse(defined + source));
+        var residual = PartialEvaluator.specialise(parse(source), FIXED);
+
+        assertThat(run(Interpreter::new, residual), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, residual), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, residual), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        residual),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #specialise_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> specialise_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "print debug ? \"on\" : \"off\"; print scale * scale + unit;",
+                "var w = 2 * scale; { var scale = 10; print w * scale; } print w * scale;",
+                "print scale; scale = scale + 1; print scale;",
+                "var unit = \"m\"; print unit;",
+                "print unit - scale;",
+                "print scale / (scale - 3);");
+    }
+}
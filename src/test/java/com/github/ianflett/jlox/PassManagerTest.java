@@ -0,0 +1,245 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link PassManager} class. */
+class PassManagerTest {
+
+    /** Tests {@link PassManager#run(List)} runs passes in order they were added. */
+    @Test
+    void run_runsPassesInOrder() {
+        var order = new ArrayList<String>();
+        var manager = new PassManager();
+        manager.add("a", s -> record(order, "a", s));
+        manager.group("g", 1).add("b", s -> record(order, "b", s));
+        manager.add("c", s -> record(order, "c", s));
+
+        var statements = parse("print 1;");
+
+        assertThat(manager.run(statements), is(sameInstance(statements)));
+        assertThat(order, is(equalTo(List.of("a", "b", "c"))));
+    }
+
+    /**
+     * Tests {@link PassManager#group(String, int)} repeats passes until iteration changes nothing.
+     *
+     * @param changes Iterations in which pass changes program.
+     * @param iterations Maximum iterations of group.
+     * @param expected Expected iterations run.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void group_repeatsUntilFixedPoint(int changes, int iterations, int expected) {
+        var runs = new int[1];
+        var manager = new PassManager();
+        manager.group("g", iterations)
+                .add("a", s -> runs[0]++ < changes ? new ArrayList<>(s) : s);
+
+        manager.run(parse("print 1;"));
+
+        assertThat(runs[0], is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #group_repeatsUntilFixedPoint(int, int, int)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> group_repeatsUntilFixedPoint() {
+        return Stream.of(
+                Arguments.of(0, 8, 1),
+                Arguments.of(1, 8, 2),
+                Arguments.of(3, 8, 4),
+                Arguments.of(8, 8, 8),
+                Arguments.of(20, 8, 8));
+    }
+
+    /**
+     * Tests {@link PassManager#enableVerification()} rejects malformed program, naming pass which
+     * produced it.
+     *
+     * @param malformed Malformed statement.
+     * @param fault Description of fault.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void run_throwsIllegalStateException_givenMalformedProgram(Stmt malformed, String fault) {
+        var manager = new PassManager().enableVerification();
+        manager.group("g", 2).add("break", s -> List.of(malformed));
+
+        var exception =
+                assertThrows(IllegalStateException.class, () -> manager.run(parse("print 1;")));
+
+        assertThat(exception.getMessage(), containsString("'g/break#1'"));
+        assertThat(exception.getMessage(), containsString(fault));
+    }
+
+    /**
+     * Data source for {@link #run_throwsIllegalStateException_givenMalformedProgram(Stmt,
+     * String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> run_throwsIllegalStateException_givenMalformedProgram() {
+        var one = new Expr.Literal(1L);
+        var plus = new Token(TokenType.PLUS, "+", null, 1);
+        var equal = new Token(TokenType.EQUAL_EQUAL, "==", null, 1);
+        var name = new Token(TokenType.IDENTIFIER, "a", null, 1);
+        return Stream.of(
+                Arguments.of(new Stmt.Print(null), "missing printed expression"),
+                Arguments.of(
+                        new Stmt.Print(new Expr.Binary(one, plus, null)), "missing right operand"),
+                Arguments.of(
+                        new Stmt.Print(new Expr.Binary(one, plus, new Expr.Binary(one, plus, one))),
+                        "shared Literal"),
+                Arguments.of(
+                        new Stmt.Print(new Expr.Numeric(one, equal, new Expr.Literal(2L), false)),
+                        "invalid operator =="),
+                Arguments.of(
+                        new Stmt.Print(new Expr.Unary(plus, new Expr.Literal(2L))),
+                        "invalid operator +"),
+                Arguments.of(
+                        new Stmt.Print(new Expr.Concatenation(List.of(one), List.of())),
+                        "fewer than two operands"),
+                Arguments.of(
+                        new Stmt.Var(new Token(TokenType.STRING, "a", "a", 1), null),
+                        "invalid name"),
+                Arguments.of(
+                        new Stmt.Block(
+                                List.of(new Stmt.Var(name, one), new Stmt.Expression(one))),
+                        "shared Literal"),
+                Arguments.of(new Stmt.While(null, new Stmt.Block(List.of())), "missing condition"),
+                Arguments.of(
+                        new Stmt.If(one, new Stmt.Block(List.of()), new Stmt.Var(name, null)),
+                        "declaration as else branch"),
+                Arguments.of(
+                        new Stmt.Expression(new Expr.Call(null, name, List.of(), false)),
+                        "missing callee"),
+                Arguments.of(new Stmt.Function(name, List.of(), null), "missing function body"));
+    }
+
+    /** Tests {@link PassManager#enableStatistics(PrintStream)} reports each pass. */
+    @Test
+    void run_reportsStatistics_givenStatisticsEnabled() {
+        var output = new ByteArrayOutputStream();
+        var manager =
+                PassManager.standard(false)
+                        .enableStatistics(new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        manager.run(parse("var a = 1 + 2; print a + 2;"));
+
+        var lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines.getFirst(), containsString("simplify/fold#1"));
+        assertThat(lines.getFirst(), containsString("8 ->        6 nodes (changed)"));
+        assertThat(lines.get(4), containsString("simplify/fold#2"));
+        assertThat(lines.get(8).startsWith("simplify "), is(true));
+        assertThat(lines.getLast(), containsString("fuse"));
+    }
+
+    /**
+     * Tests {@link PassManager#standard(boolean)} produces well-formed program which behaves as
+     * original on every {@link Backend}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void standard_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var optimised = PassManager.standard(false).enableVerification().run(parse(source));
+
+        assertThat(run(Interpreter::new, optimised), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, optimised), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, optimised), is(equalTo(expected)));
+        assertThat(run(ParallelInterpreter::new, optimised), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #standard_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> standard_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 2; var b = a * 3; print b + a * 3; print (a * 3) + (a * 3);",
+                "var a = 1; var b; b = 2; print a + b; print -b * -b;",
+                "var s = \"s\"; var t; t = s + 1; print t + 2 + t + 3;",
+                "var a = 1; { var a = 2; print a + 1; } print a + 1; print a + 1;",
+                "var c = true; var a; c ? (a = 1) : (a = 2); print a * a + a * a;",
+                "var a; a = 1; var b = 0; print a / b; print a;",
+                "var a = 1; var i = 0; while (i < 3) { print a + 1; a = a + i; i = i + 1; }",
+                "var a = 0; while (a < 4) { var b = a * 2; if (b > 2) print b; else { print -b; }"
+                        + " a = a + 1; }",
+                "var t = 0; for (var i = 0; i < 4; i = i + 1) t = t + i; print t;",
+                "if (1 < 2) print \"y\"; else print \"n\"; while (false) print 1; print 2;",
+                "var a = 1; fun f() { a = a + 1; } var b = a * 2; f(); print a * 2; print b;",
+                "var a = 2; fun f(n) { return n * a; } var b = a * 3; print f(b) + a * 3;",
+                "{ var c = 1; fun get() { return c; } var d = c + 1; c = d * 2; print get() + d; }",
+                "var n = 0; fun bump() { n = n + 1; return n; } var i = 0;"
+                        + " while (i < 3) { print n * 2; print bump() * 2; i = i + 1; } print n;",
+                "fun fib(n) { if (n < 2) return n; return fib(n - 1) + fib(n - 2); }"
+                        + " var k = 10; print fib(k); print k * k;",
+                "var u; fun init() { u = \"s\"; } var v = 1; init(); print u + v; print v - 1;");
+    }
+
+    /**
+     * Tests {@link PassManager#standard(boolean)} still optimises program declaring functions.
+     */
+    @Test
+    void standard_optimisesProgram_givenFunctions() {
+        var optimised =
+                PassManager.standard(false).run(parse("fun f() {} var a = 2; print a * 3; f();"));
+
+        var printed = optimised.stream().filter(Stmt.Print.class::isInstance).findFirst();
+        var expression = ((Stmt.Print) printed.orElseThrow()).expression;
+        assertThat(expression, is(instanceOf(Expr.Literal.class)));
+        assertThat(((Expr.Literal) expression).value, is(equalTo(6L)));
+    }
+
+    /**
+     * Tests {@link PassManager#standard(boolean)} reports read of undefined variable before
+     * program runs, even if program declares function.
+     *
+     * @throws Exception Reading from standard error threw exception.
+     */
+    @Test
+    void standard_reportsUndefinedVariable_givenFunctions() throws Exception {
+        var statements = parse("fun f() {}\nprint 1;\nprint a;");
+        var error = tapSystemErrNormalized(() -> PassManager.standard(false).run(statements));
+
+        assertThat(error, is(equalTo("[line 3] Error at 'a': Undefined variable 'a'.\n")));
+    }
+
+    /**
+     * Records pass ran.
+     *
+     * @param order Names of passes which ran.
+     * @param name Name of pass.
+     * @param statements {@link Stmt}s passed.
+     * @return Same {@link Stmt}s.
+     */
+    private static List<Stmt> record(List<String> order, String name, List<Stmt> statements) {
+        order.add(name);
+        return statements;
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link Profile} class. */
+class ProfileTest {
+
+    /** Lox program printing results of binary and conditional expressions. */
+    private static final String SOURCE = "var a = 1; var b = 2; print a + b; print a < b ? a : b;";
+
+    /** Hash of {@link #SOURCE}. */
+    private static final byte[] HASH = Profile.hash(SOURCE.getBytes(StandardCharsets.UTF_8));
+
+    /** Directory profiles are saved to. */
+    @TempDir Path directory;
+
+    /**
+     * Tests {@link Profile#load(Path, byte[])} restores executions recorded by earlier run.
+     *
+     * @throws Exception Reading or writing profile threw exception.
+     */
+    @Test
+    void load_restoresExecutions_givenSavedProfile() throws Exception {
+        var path = directory.resolve("a.profile");
+        record(SOURCE, path);
+
+        var statements = parse(SOURCE);
+        var profile = Profile.of(statements);
+
+        assertThat(profile.load(path, HASH), is(true));
+        var sum = ((Stmt.Print) statements.get(2)).expression;
+        var conditional = ((Stmt.Print) statements.get(3)).expression;
+        assertThat(profile.count(sum), is(equalTo(1L)));
+        assertThat(profile.count(conditional), is(equalTo(1L)));
+        assertThat(profile.taken(conditional), is(equalTo(1L)));
+    }
+
+    /**
+     * Tests {@link Profile#load(Path, byte[])} accumulates executions across runs.
+     *
+     * @throws Exception Reading or writing profile threw exception.
+     */
+    @Test
+    void load_accumulatesExecutions_givenRepeatedRuns() throws Exception {
+        var path = directory.resolve("a.profile");
+        record(SOURCE, path);
+        record(SOURCE, path);
+
+        var statements = parse(SOURCE);
+        var profile = Profile.of(statements);
+        profile.load(path, HASH);
+
+        assertThat(profile.count(((Stmt.Print) statements.get(2)).expression), is(equalTo(2L)));
+    }
+
+    /**
+     * Tests {@link Profile#load(Path, byte[])} ignores profile not recorded from program.
+     *
+     * @throws Exception Reading or writing profile threw exception.
+     */
+    @Test
+    void load_ignoresProfile_givenDifferentProgram() throws Exception {
+        var path = directory.resolve("a.profile");
+        record(SOURCE, path);
+
+        var other = "print 1;";
+        var hash = Profile.hash(other.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(Profile.of(parse(SOURCE)).load(path, hash), is(false));
+        assertThat(Profile.of(parse(other)).load(path, HASH), is(false));
+        assertThat(Profile.of(parse(SOURCE)).load(directory.resolve("b.profile"), HASH), is(false));
+    }
+
+    /**
+     * Tests {@link Profile#specialise(List)} specialises operation only if it executed with number
+     * operands, marking it speculative.
+     *
+     * @param source Lox program ending in {@code print} statement.
+     * @param isSpecialised Whether printed operation is expected to be specialised.
+     * @throws Exception Reading or writing profile threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void specialise_specialisesOperation_givenNumberOperands(String source, boolean isSpecialised)
+            throws Exception {
+        var path = directory.resolve("a.profile");
+        var hash = record(source, path);
+
+        var statements = parse(source);
+        var profile = Profile.of(statements);
+        profile.load(path, hash);
+        statements = profile.specialise(statements);
+
+        var printed = ((Stmt.Print) statements.getLast()).expression;
+        var matcher = instanceOf(Expr.Numeric.class);
+        assertThat(printed, isSpecialised ? matcher : not(matcher));
+        if (isSpecialised) assertThat(((Expr.Numeric) printed).speculative, is(true));
+    }
+
+    /**
+     * Data source for {@link #specialise_specialisesOperation_givenNumberOperands(String,
+     * boolean)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> specialise_specialisesOperation_givenNumberOperands() {
+        return Stream.of(
+                Arguments.of("var a = 1; var b = 2; print a + b;", true),
+                Arguments.of("var a = 1; var b = 2; print a < b;", true),
+                Arguments.of("var a = 1; var b = 2; print a == b;", false),
+                Arguments.of("var a = \"s\"; var b = 2; print a + b;", false),
+                Arguments.of("var a = 1; var b = 2; false and (a + b); print a + b;", true));
+    }
+
+    /**
+     * Tests program specialised by profile of differently typed run produces same output and
+     * errors on every {@link Backend} as unspecialised program on {@link Interpreter}.
+     *
+     * @param recorded Lox program profile is recorded from.
+     * @param source Lox program of same shape to specialise.
+     * @throws Exception Reading or writing profile or standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void specialise_preservesBehaviour_givenMisprediction(String recorded, String source)
+            throws Exception {
+        var path = directory.resolve("a.profile");
+        var hash = record(recorded, path);
+
+        var expected = run(Interpreter::new, parse(source));
+        var statements = parse(source);
+        var profile = Profile.of(statements);
+        assertThat(profile.load(path, hash), is(true));
+        var specialised = profile.specialise(statements);
+        var printed = ((Stmt.Print) specialised.getLast()).expression;
+        assertThat(printed, is(instanceOf(Expr.Numeric.class)));
+
+        assertThat(run(Interpreter::new, specialised), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, specialised), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, specialised), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        specialised),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #specialise_preservesBehaviour_givenMisprediction(String, String)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> specialise_preservesBehaviour_givenMisprediction() {
+        return Stream.of(
+                Arguments.of(
+                        "var a = 1; var b = 2; print a + b;",
+                        "var a = \"s\"; var b = \"t\"; print a + b;"),
+                Arguments.of(
+                        "var a = 1; var b = 2; print a < b;",
+                        "var a = 1; var b = \"t\"; print a < b;"),
+                Arguments.of(
+                        "var a = 1; var b = 2; print a - b * a;",
+                        "var a = 1; var b = nil; print a - b * a;"),
+                Arguments.of(
+                        "var a = 1; var b = 2; print a / b;",
+                        "var a = 1; var b = 0; print a / b;"));
+    }
+
+    /**
+     * Runs program on profiling {@link Interpreter}, saving profile.
+     *
+     * @param source Lox program.
+     * @param path Profile file.
+     * @return Hash of program source.
+     * @throws Exception Reading or writing profile or standard streams threw exception.
+     */
+    private static byte[] record(String source, Path path) throws Exception {
+        var hash = Profile.hash(source.getBytes(StandardCharsets.UTF_8));
+        var statements = parse(source);
+        var profile = Profile.of(statements);
+        profile.load(path, hash);
+
+        var interpreter = new Interpreter();
+        interpreter.enableProfiling(profile);
+        run(() -> interpreter, statements);
+        profile.save(path, hash);
+        return hash;
+    }
+}
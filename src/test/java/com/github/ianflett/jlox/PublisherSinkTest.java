@@ -0,0 +1,147 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link PublisherSink} class. */
+class PublisherSinkTest {
+
+    /** Maximum time to wait for asynchronous delivery. */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Tests {@link PublisherSink} delivers output of each {@link Backend} to its subscriber rather
+     * than standard output.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void subscribe_receivesOutput_insteadOfStandardOutput() throws Exception {
+        var statements = parse("print 1; print \"a\" + 2; print nil;");
+        var sinks = List.of(new PublisherSink(4), new PublisherSink(4), new PublisherSink(4));
+        var subscribers = sinks.stream().map(sink -> subscribe(sink, Long.MAX_VALUE)).toList();
+
+        var standardOutput =
+                tapSystemOutNormalized(
+                        () -> {
+                            new Interpreter(sinks.get(0)).interpret(statements);
+                            new VirtualMachine(sinks.get(1)).interpret(statements);
+                            new FlatInterpreter(sinks.get(2)).interpret(statements);
+                        });
+        sinks.forEach(PublisherSink::close);
+
+        assertThat(standardOutput, is(equalTo("")));
+        var expected = String.format("1%na2.0%nnil%n");
+        for (var subscriber : subscribers) {
+            assertThat(
+                    subscriber.completion.get(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    is(equalTo(expected)));
+        }
+    }
+
+    /**
+     * Tests {@link PublisherSink#write(byte[], int, int)} blocks script while subscriber is not
+     * keeping up, and resumes once it requests more.
+     *
+     * @throws Exception Waiting for script threw exception.
+     */
+    @Test
+    void write_blocksScript_whileSubscriberBufferFull() throws Exception {
+        var line = "x".repeat(1 << 16);
+        var statements = parse(("print \"" + line + "\";").repeat(8));
+        var sink = new PublisherSink(1);
+        var subscriber = subscribe(sink, 0);
+
+        var script = new Thread(() -> new Interpreter(sink).interpret(statements));
+        script.start();
+        script.join(TimeUnit.MILLISECONDS.toMillis(500));
+        assertThat(script.isAlive(), is(true));
+
+        subscriber.subscription.join().request(Long.MAX_VALUE);
+        script.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertThat(script.isAlive(), is(false));
+
+        sink.close();
+        var expected = (line + System.lineSeparator()).repeat(8);
+        assertThat(
+                subscriber.completion.get(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(equalTo(expected)));
+    }
+
+    /** Collects published output. */
+    private static final class Collector implements Flow.Subscriber<ByteBuffer> {
+
+        /** Stores initial demand. */
+        private final long initialRequest;
+
+        /** Stores received bytes. */
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        /** Completes with subscription once subscribed. */
+        final CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+
+        /** Completes with received output once publisher completes. */
+        final CompletableFuture<String> completion = new CompletableFuture<>();
+
+        /**
+         * Constructs {@link Collector}.
+         *
+         * @param initialRequest Number of blocks to request on subscription.
+         */
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (0 < initialRequest) subscription.request(initialRequest);
+            this.subscription.complete(subscription);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onNext(ByteBuffer item) {
+            var bytes = new byte[item.remaining()];
+            item.get(bytes);
+            received.writeBytes(bytes);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onComplete() {
+            completion.complete(received.toString(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Subscribes {@link Collector} to sink.
+     *
+     * @param sink {@link PublisherSink} to subscribe to.
+     * @param initialRequest Number of blocks to request on subscription.
+     * @return Subscribed {@link Collector}.
+     */
+    private static Collector subscribe(PublisherSink sink, long initialRequest) {
+        var collector = new Collector(initialRequest);
+        sink.subscribe(collector);
+        return collector;
+    }
+}
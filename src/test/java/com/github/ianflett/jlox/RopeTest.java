@@ -0,0 +1,65 @@
+package com.github.ianflett.jlox;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link Rope} class. */
+class RopeTest {
+
+    /** Operand long enough that concatenation links rather than copies. */
+    private static final String LONG = "a".repeat(100);
+
+    /** Tests {@link Rope#concat(CharSequence, CharSequence)} copies short result. */
+    @Test
+    void concat_returnsString_givenShortResult() {
+        assertThat(Rope.concat("ab", "cd"), is(equalTo("abcd")));
+    }
+
+    /** Tests {@link Rope#concat(CharSequence, CharSequence)} returns other operand given empty. */
+    @Test
+    void concat_returnsOperand_givenEmptyOperand() {
+        assertThat(Rope.concat("", LONG), is(sameInstance(LONG)));
+        assertThat(Rope.concat(LONG, ""), is(sameInstance(LONG)));
+    }
+
+    /** Tests {@link Rope#concat(CharSequence, CharSequence)} links long result. */
+    @Test
+    void concat_returnsRope_givenLongResult() {
+        var rope = Rope.concat(LONG, "b");
+
+        assertThat(rope, is(instanceOf(Rope.class)));
+        assertThat(rope.length(), is(equalTo(101)));
+        assertThat(rope.charAt(100), is(equalTo('b')));
+        assertThat(rope.toString(), is(equalTo(LONG + "b")));
+    }
+
+    /** Tests {@link Rope#toString()} flattens deep rope without exhausting stack. */
+    @Test
+    void toString_flattensDeepRope() {
+        CharSequence left = LONG;
+        CharSequence right = LONG;
+        for (var i = 0; i < 100_000; ++i) {
+            left = Rope.concat(left, "b");
+            right = Rope.concat("b", right);
+        }
+
+        assertThat(left.toString(), is(equalTo(LONG + "b".repeat(100_000))));
+        assertThat(right.toString(), is(equalTo("b".repeat(100_000) + LONG)));
+    }
+
+    /** Tests {@link Interpreter} compares rope by its characters. */
+    @Test
+    void interpreter_comparesCharacters_givenRope() {
+        var rope = Rope.concat(LONG, "b");
+
+        assertThat(Interpreter.isEqual(rope, LONG + "b"), is(true));
+        assertThat(Interpreter.isEqual(LONG + "c", rope), is(false));
+        assertThat(Interpreter.binary(rope, TestHelper.t("<"), LONG + "c"), is(true));
+        assertThat(Interpreter.stringify(rope), is(equalTo(LONG + "b")));
+    }
+}
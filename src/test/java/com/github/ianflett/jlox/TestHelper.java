@@ -1,9 +1,14 @@
 package com.github.ianflett.jlox;
 
 import static com.github.ianflett.jlox.TokenType.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
 import static java.util.Map.entry;
 
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /** Helper for unit testing. */
 public class TestHelper {
@@ -112,7 +117,7 @@ private static Token createToken(String lexeme) {
         if (null != type) return new Token(type, lexeme, null, DEFAULT_LINE);
 
         try {
-            return new Token(NUMBER, lexeme, Double.parseDouble(lexeme), DEFAULT_LINE);
+            return new Token(NUMBER, lexeme, Numbers.parse(lexeme), DEFAULT_LINE);
         } catch (NumberFormatException ignored) {
         }
 
@@ -135,17 +140,20 @@ private static Token createToken(String lexeme) {
     private static final Map<Object, Expr.Literal> literalCache = new HashMap<>();
 
     /**
-     * {@link Expr.Binary} or {@link Expr.Conditional} construction.
+     * {@link Expr.Binary}, {@link Expr.Logical}, or {@link Expr.Conditional} construction.
      *
      * @param first Left operand or conditional.
      * @param second Operator or then branch.
      * @param third Right operand or else branch.
-     * @return {@link Expr.Binary} or {@link Expr.Conditional}.
+     * @return {@link Expr.Binary}, {@link Expr.Logical}, or {@link Expr.Conditional}.
      */
     static Expr e(Object first, Object second, Object third) {
-        return second instanceof Token
-                ? new Expr.Binary(eValue(first), (Token) second, eValue(third))
-                : new Expr.Conditional(eValue(first), eValue(second), eValue(third));
+        if (!(second instanceof Token operator)) {
+            return new Expr.Conditional(eValue(first), eValue(second), eValue(third));
+        }
+        return AND == operator.type() || OR == operator.type()
+                ? new Expr.Logical(eValue(first), operator, eValue(third))
+                : new Expr.Binary(eValue(first), operator, eValue(third));
     }
 
     /**
@@ -185,12 +193,212 @@ private static Expr eValue(Object value) {
         var literal = literalCache.get(value);
         if (null == literal) {
             literal =
-                    new Expr.Literal(
-                            value instanceof Integer ? Double.valueOf((int) value) : value);
+                    new Expr.Literal(value instanceof Integer ? Numbers.valueOf((int) value) : value);
             literalCache.put(value, literal);
         }
         return literal;
     }
 
     // endregion
+
+    // region Program execution
+
+    /**
+     * Parses Lox program.
+     *
+     * @param source Lox program.
+     * @return {@link Stmt}s.
+     */
+    static List<Stmt> parse(String source) {
+        return new Parser(new Scanner(source).scanTokens()).parse();
+    }
+
+    /**
+     * Runs Lox program, capturing output.
+     *
+     * @param backend {@link Backend} to run program on.
+     * @param source Lox program.
+     * @return Standard output followed by standard error.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    static String run(Backend backend, String source) throws Exception {
+        return run(() -> backend, parse(source));
+    }
+
+    /**
+     * Runs program on new {@link Backend}, capturing output.
+     *
+     * @param backend Creates {@link Backend} to run program on.
+     * @param statements {@link Stmt}s to run.
+     * @return Standard output followed by standard error.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    static String run(Supplier<Backend> backend, List<Stmt> statements) throws Exception {
+        var error = new String[1];
+        var output =
+                tapSystemOutNormalized(
+                        () ->
+                                error[0] =
+                                        tapSystemErrNormalized(
+                                                () -> backend.get().interpret(statements)));
+        return output + error[0];
+    }
+
+    /**
+     * Describes program, printing expressions in Lisp notation.
+     *
+     * @param statements {@link Stmt}s to describe.
+     * @return Description of program.
+     */
+    static String describe(List<Stmt> statements) {
+        return describe(statements, new AstPrinter.Lisp());
+    }
+
+    /**
+     * Describes program, printing expressions with given printer.
+     *
+     * @param statements {@link Stmt}s to describe.
+     * @param printer Prints expressions.
+     * @return Description of program.
+     */
+    static String describe(List<Stmt> statements, AstPrinter printer) {
+        var descriptions = new ArrayList<String>();
+        for (var statement : statements) {
+            descriptions.add(
+                    switch (statement) {
+                        case Stmt.Block block -> "{ " + describe(block.statements, printer) + " }";
+                        case Stmt.Expression expression ->
+                                printer.print(expression.expression) + ";";
+                        case Stmt.Function function -> "fun " + function.name.lexeme() + ";";
+                        case Stmt.If branch ->
+                                "if "
+                                        + printer.print(branch.condition)
+                                        + " "
+                                        + describe(List.of(branch.thenBranch), printer)
+                                        + (null == branch.elseBranch
+                                                ? ""
+                                                : " else "
+                                                        + describe(
+                                                                List.of(branch.elseBranch),
+                                                                printer));
+                        case Stmt.Print print -> "print " + printer.print(print.expression) + ";";
+                        case Stmt.Var var ->
+                                null == var.initializer
+                                        ? "var " + var.name.lexeme() + ";"
+                                        : "var "
+                                                + var.name.lexeme()
+                                                + " = "
+                                                + printer.print(var.initializer)
+                                                + ";";
+                        case Stmt.While loop ->
+                                "while "
+                                        + printer.print(loop.condition)
+                                        + " "
+                                        + describe(List.of(loop.body), printer);
+                        default -> throw new IllegalArgumentException();
+                    });
+        }
+        return descriptions.stream().collect(Collectors.joining(" "));
+    }
+
+    // endregion
+
+    // region Program corpus
+
+    /**
+     * Lox programs every {@link Backend} must run with same output and errors as {@link
+     * Interpreter}.
+     *
+     * @return Lox programs.
+     */
+    static Stream<String> programs() {
+        return Stream.of(
+                // Expressions.
+                "print 1 + 2 * 3 - 4 / 8;",
+                "print 9007199254740992 + 1; print 10000000; print -0; print 0 * -1; print 7 / 2;",
+                "print 1 == 1.0; print 0.5 + 0.5; print 3 > 2.5; print \"a\" + 1;",
+                "print \"a\" + 1; print nil + \"b\"; print true + \"c\";",
+                "print 1 < 2; print \"b\" <= \"a\"; print 1 == 1; print nil != false;",
+                "print !nil; print -3; print (1, 2); print true ? 1 : 2;",
+                "var a = 0; print nil ? a = 1 : a; print 0 ? a : (a = 2); print a;",
+                "print nil or \"x\"; print 1 and 2; print false and -nil; print 1 or -nil;",
+                "var s = \"s\"; s = s + s + s + s + s + s + s + s + s + s + s + s + s + s + s;\n"
+                        + "s = s + s; print s; print s + 1;",
+
+                // Scopes.
+                "{}",
+                "{ var b = 1; print b > 0 and b < 2 ? \"in\" : \"out\"; }",
+                "var a = 1; { var a = a + 1; print a; a = 3; print a; } print a;",
+                "var a; { var b = 1; var b; print b; }",
+                "{ var a = 1; { var b = a; a = b + 1; } print a; }",
+                "var a = 1; { var a = 2; print a; } { print a; a = 3; } print a;",
+
+                // Runtime errors.
+                "print 1;\nprint 1 / 0;",
+                "print 1;\nprint -\"a\";",
+                "print 1;\nprint 1 < \"a\";",
+                "print 1;\nprint true + nil;",
+                "print 1;\nprint undefined;",
+                "print 1;\nundefined = 1;",
+                "var a;\nprint a;",
+                "{ var a;\nprint a; }",
+                "var a = 1;\n{ var a = 2;\n{ print -\"a\"; } }",
+
+                // Control flow.
+                "var i = 0; while (i < 3) { var j = i * 2; print j; i = i + 1; } print i;",
+                "for (var i = 0; i < 3; i = i + 1) { var i = i + 10; print i; }",
+                "var a = 1; if (a > 0) print \"+\"; else print \"-\"; if (nil) print 1; print a;",
+                "var s = \"\"; var n = 0;\n"
+                        + "while (n < 4) { if (n == 2) { s = s + \"!\"; } else s = s + n;"
+                        + " n = n + 1; }\nprint s;",
+                "var i = 0;\nwhile (i < 5) {\nprint i;\nif (i == 2) print -\"a\";\n"
+                        + "i = i + 1; }",
+                "var a = 0; var b = 0; while (a < 3) a = a + 1; for (; b < 2; b = b + 1) print b;"
+                        + " print a;",
+
+                // Functions.
+                "fun fib(n) { if (n < 2) return n; return fib(n - 1) + fib(n - 2); }\n"
+                        + "print fib(15); print fib;",
+                "var g = 1; fun bump(x) { g = g + x; return g; } print bump(2); print g;",
+                "fun f(a, b) { var t = a + b; { var u = t * 2; return u; } } print f(1, 2);",
+                "fun f() {} print f(); fun g(a) { if (a) return; print \"no\"; } print g(nil);",
+                "fun sq(n) { return n * n; } var i = 0; while (i < 3) { print sq(i); i = i + 1; }",
+                "fun f(a) { return a; }\nprint f(1, 2);",
+                "fun f(a) { return a; }\n{ var g = f;\nprint g(1, 2); }",
+                "var a = 1;\nprint a(1);",
+                "fun f(a) {\nreturn -a; }\nprint f(1);\nprint f(\"a\");",
+                "{ fun fact(n) { if (n < 2) return 1; return n * fact(n - 1); } print fact(10); }",
+
+                // Closures.
+                "fun counter() { var i = 0; fun next() { i = i + 1; return i; } return next; }"
+                        + " var a = counter(); var b = counter(); print a(); print a(); print b();",
+                "var fs = nil; { var s = \"x\"; fun show() { print s; }"
+                        + " show(); s = \"y\"; fs = show; } fs();",
+                "var a; var b; var i = 0;\n"
+                        + "while (i < 2) { var j = i * 10; fun get() { return j; }"
+                        + " if (i == 0) a = get; else b = get; i = i + 1; }\nprint a(); print b();",
+                "fun outer(x) { fun middle() { fun inner() { x = x + 1; return x; } return inner; }"
+                        + " return middle(); } var f = outer(1); print f(); print f();",
+                "{ var a = 1; fun get() { return a; } var a = 2; print get(); print a; }",
+                "{ var u;\nfun read() { return u; }\nprint read(); }",
+                "var t = 0; var i = 0;"
+                        + " while (i < 3) { var j = i; fun add() { t = t + j; } add(); i = i + 1; }"
+                        + " print t;",
+
+                // Independent top-level statements.
+                "var a = 1; var b = 2; print a; print b; a = a + b; print a; print b;",
+                "print 1; print 2; print 3; print 4; print 5; print 6; print 7; print 8;",
+                "print 1;\nprint 2 / 0;\nprint 3;\nvar b = 4;\nprint b;",
+                "print a;\nvar a = 1;\nprint a;",
+                "var a; print 1;\nprint a;",
+                "var a = 1; var b = 2; print a - \"x\"; print b - \"y\";",
+                "var g = 0; fun bump(x) { g = g + x; return g; } print 1; print bump(2);"
+                        + " print bump(3); print g;"
+                        + " for (var i = 0; i < 3; i = i + 1) print bump(i);",
+                "fun f(n) { return -n; } print 1;\nprint f(2);\nprint f(\"a\");\nprint 4;",
+                "var c; { var n = 0; fun next() { n = n + 1; return n; } c = next; } print 1;"
+                        + " print c(); print c(); var d = 2; print d;");
+    }
+
+    // endregion
 }
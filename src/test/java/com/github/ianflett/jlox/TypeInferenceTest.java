@@ -0,0 +1,197 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Unit tests {@link TypeInference} class. */
+class TypeInferenceTest {
+
+    /**
+     * Tests {@link TypeInference#typeOf(Expr)} proves type of expression printed last.
+     *
+     * @param source Lox program ending in {@code print} statement.
+     * @param expected Type of printed expression.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void typeOf_returnsProvenType(String source, StaticType expected) {
+        var inference = new TypeInference();
+        var statements = inference.transform(parse(source));
+
+        var printed = ((Stmt.Print) statements.getLast()).expression;
+
+        assertThat(inference.typeOf(printed), is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #typeOf_returnsProvenType(String, StaticType)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> typeOf_returnsProvenType() {
+        return Stream.of(
+                Arguments.of("print 1;", StaticType.NUMBER),
+                Arguments.of("print \"s\";", StaticType.STRING),
+                Arguments.of("print true;", StaticType.BOOLEAN),
+                Arguments.of("print nil;", StaticType.NIL),
+                Arguments.of("print (1, 2);", StaticType.NIL),
+                Arguments.of("print a;", StaticType.UNKNOWN),
+                Arguments.of("print -a;", StaticType.NUMBER),
+                Arguments.of("print !a;", StaticType.BOOLEAN),
+                Arguments.of("print a < b;", StaticType.BOOLEAN),
+                Arguments.of("print a + b;", StaticType.UNKNOWN),
+                Arguments.of("print a + \"s\";", StaticType.STRING),
+                Arguments.of("var a = 1; print a + 2 * a;", StaticType.NUMBER),
+                Arguments.of("var a = 1; a = \"s\"; print a;", StaticType.STRING),
+                Arguments.of("var a; print a;", StaticType.UNKNOWN),
+                Arguments.of("var a; a = 1; print a;", StaticType.NUMBER),
+                Arguments.of("var a = 1; c or (a = \"s\"); print a;", StaticType.UNKNOWN),
+                Arguments.of("var a = 1; while (c) a = a + 1; print a;", StaticType.NUMBER),
+                Arguments.of("var a = 1; while (c) a = \"s\"; print a;", StaticType.UNKNOWN),
+                Arguments.of("var a; if (c) a = 1; else a = 2; print a;", StaticType.NUMBER),
+                Arguments.of("var a = 1; c or (a = 2); print a;", StaticType.NUMBER),
+                Arguments.of(
+                        "var a = 1; c ? (a = \"s\") : (a = \"t\"); print a;", StaticType.STRING),
+                Arguments.of("var a = 1; c ? (a = \"s\") : nil; print a;", StaticType.UNKNOWN),
+                Arguments.of("print c ? 1 : 2;", StaticType.NUMBER),
+                Arguments.of("print c ? 1 : nil;", StaticType.UNKNOWN),
+                Arguments.of("var a = 1; { var a = \"s\"; } print a;", StaticType.NUMBER),
+                Arguments.of("var a = 1; { a = \"s\"; } print a;", StaticType.STRING),
+                Arguments.of("var a = 1; { a = a * 2; } print a;", StaticType.NUMBER));
+    }
+
+    /**
+     * Tests {@link TypeInference#infer(Expr)} specialises operation only if operands are proven
+     * numbers, without marking it speculative.
+     *
+     * @param source Lox expression.
+     * @param isSpecialised Whether operation is expected to be specialised.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void infer_specialisesOperation_givenNumberOperands(String source, boolean isSpecialised) {
+        var expr = new Parser(new Scanner(source).scanTokens()).getExpression();
+
+        var inferred = TypeInference.infer(expr);
+
+        var matcher = instanceOf(Expr.Numeric.class);
+        assertThat(inferred, isSpecialised ? matcher : not(matcher));
+        if (isSpecialised) assertThat(((Expr.Numeric) inferred).speculative, is(false));
+    }
+
+    /**
+     * Data source for {@link #infer_specialisesOperation_givenNumberOperands(String, boolean)}
+     * tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> infer_specialisesOperation_givenNumberOperands() {
+        return Stream.of(
+                Arguments.of("1 + 2", true),
+                Arguments.of("-a * 2", true),
+                Arguments.of("(1 + a) / 2", false),
+                Arguments.of("(1 - -a) / 2", true),
+                Arguments.of("1 < -a", true),
+                Arguments.of("1 == 1", false),
+                Arguments.of("1 + \"s\"", false),
+                Arguments.of("a - 1", false));
+    }
+
+    /**
+     * Tests {@link TypeInference#infer(List, boolean)} specialises operation only until call which
+     * may assign its operands.
+     *
+     * @param source Lox program ending in two {@code print} statements.
+     * @param externalGlobals Whether globals may be defined by earlier programs.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void infer_forgetsTypes_givenCall(String source, boolean externalGlobals) {
+        var statements = TypeInference.infer(parse(source), externalGlobals);
+
+        var printed = statements.stream().filter(Stmt.Print.class::isInstance).toList();
+        var first = ((Stmt.Print) printed.getFirst()).expression;
+        var last = ((Stmt.Print) printed.getLast()).expression;
+
+        assertThat(first, is(instanceOf(Expr.Numeric.class)));
+        assertThat(last, is(not(instanceOf(Expr.Numeric.class))));
+    }
+
+    /**
+     * Data source for {@link #infer_forgetsTypes_givenCall(String, boolean)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<Arguments> infer_forgetsTypes_givenCall() {
+        return Stream.of(
+                Arguments.of(
+                        "var a = 1; fun f() { a = nil; } print a - 1; f(); print a - 1;", false),
+                Arguments.of(
+                        "var a = 1; fun f() { a = nil; } print a - 1; if (a) f(); print a - 1;",
+                        false),
+                Arguments.of("var a = 1; print a - 1; f(); print a - 1;", true));
+    }
+
+    /**
+     * Tests specialised program produces same output and errors on every {@link Backend} as
+     * original program on {@link Interpreter}.
+     *
+     * @param source Lox program.
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @ParameterizedTest
+    @MethodSource
+    void infer_preservesBehaviour_givenProgram(String source) throws Exception {
+        var expected = run(Interpreter::new, parse(source));
+        var inferred = TypeInference.infer(ConcatenationFlattener.flatten(parse(source)), false);
+
+        assertThat(run(Interpreter::new, inferred), is(equalTo(expected)));
+        assertThat(run(VirtualMachine::new, inferred), is(equalTo(expected)));
+        assertThat(run(FlatInterpreter::new, inferred), is(equalTo(expected)));
+        assertThat(
+                run(
+                        () -> {
+                            var interpreter = new Interpreter();
+                            interpreter.enableJit(1);
+                            return interpreter;
+                        },
+                        inferred),
+                is(equalTo(expected)));
+    }
+
+    /**
+     * Data source for {@link #infer_preservesBehaviour_givenProgram(String)} tests.
+     *
+     * @return Test argument data.
+     */
+    private static Stream<String> infer_preservesBehaviour_givenProgram() {
+        return Stream.of(
+                "var a = 6; var b = 4; print a + b; print a - b; print a * b; print a / b;",
+                "var a = 6; var b = 4; print a < b; print a <= b; print a > b; print a >= b;",
+                "var a = 0.5; var b = 123456789012345678.5; print a + b * b; print -a * a;",
+                "var a = 1; var b = 0; print a / b;",
+                "var a = 1; var b = true; print a < b;",
+                "var a = 1; var c = false; c or (a = \"s\"); print a + 1;",
+                "var a = 1; var c = true; c and (a = \"s\"); print a + 1;",
+                "var a = 1; var c = nil; c ? (a = \"s\") : (a = 2); print a - 1;",
+                "var a = 1; { var a = \"s\"; print a + 1; } print a + 1;",
+                "var a; a = 2; print a * 3; var b; print b * 3;",
+                "var s = \"a\"; print s + 1 + 2 + s + 3 < \"b\";",
+                "var a = 1; var i = 0; while (i < 3) { print a - 1; a = \"s\"; i = i + 1; }",
+                "var a = 1; var c = false; if (c) a = \"s\"; else a = 2; print a * 2;",
+                "var a = 1; fun f() { a = \"s\"; } print a + 1; f(); print a + 1;",
+                "var a = 1; var i = 0; fun f() { a = \"s\"; }"
+                        + " while (i < 2) { print a + 1; f(); i = i + 1; }",
+                "{ var a = 1; fun f() { a = nil; } f(); print a == nil; print a; }");
+    }
+}
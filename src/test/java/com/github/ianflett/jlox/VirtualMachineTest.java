@@ -0,0 +1,140 @@
+package com.github.ianflett.jlox;
+
+import static com.github.ianflett.jlox.TestHelper.*;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemErrNormalized;
+import static com.github.stefanbirkner.systemlambda.SystemLambda.tapSystemOutNormalized;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests {@link VirtualMachine} class. */
+class VirtualMachineTest {
+
+    /**
+     * Tests {@link VirtualMachine#interpret(List)} retains global variables between executions.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_retainsGlobals_betweenExecutions() throws Exception {
+        var virtualMachine = new VirtualMachine();
+        var output =
+                tapSystemOutNormalized(
+                        () -> {
+                            virtualMachine.interpret(parse("var a = \"kept\";"));
+                            virtualMachine.interpret(parse("print a;"));
+                        });
+        assertThat(output, is(equalTo("kept\n")));
+    }
+
+    /**
+     * Tests {@link VirtualMachine#interpret(List)} closes upvalues of closure stored in global
+     * when execution ends with {@link RuntimeError}, so they outlive operand stack.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_closesUpvalues_givenRuntimeError() throws Exception {
+        var virtualMachine = new VirtualMachine();
+        var output =
+                tapSystemOutNormalized(
+                        () ->
+                                tapSystemErrNormalized(
+                                        () -> {
+                                            virtualMachine.interpret(
+                                                    parse(
+                                                            "var f; { var a = \"kept\";"
+                                                                    + " fun g() { return a; }"
+                                                                    + " f = g; print -a; }"));
+                                            virtualMachine.interpret(parse("print f();"));
+                                        }));
+        assertThat(output, is(equalTo("kept\n")));
+    }
+
+    /** Tests {@link VirtualMachine#evaluate(Expr)} returns value of expression. */
+    @Test
+    void evaluate_returnsValue_givenExpression() {
+        assertThat(new VirtualMachine().evaluate(e(e(3, t("*"), 2), t("-"), 1)), is(equalTo(5L)));
+    }
+
+    /**
+     * Tests {@link VirtualMachine#evaluate(Expr)} throws {@link RuntimeError} on line of failing
+     * operator.
+     */
+    @Test
+    void evaluate_throwsRuntimeError_givenInvalidOperands() {
+        var exception =
+                assertThrows(
+                        RuntimeError.class,
+                        () -> new VirtualMachine().evaluate(e(1, t(3, "/"), 0)));
+        assertThat(exception.getMessage(), is(equalTo("Division by zero.")));
+        assertThat(exception.line, is(equalTo(3)));
+    }
+
+    /**
+     * Tests {@link VirtualMachine#interpret(List)} runs recursion nested well beyond depth
+     * supported by thread stack.
+     *
+     * @throws Exception Reading from standard output threw exception.
+     */
+    @Test
+    void interpret_returnsValue_givenDeepRecursion() throws Exception {
+        var statements =
+                parse(
+                        "fun count(n) { if (n == 0) return 0; return 1 + count(n - 1); }"
+                                + " print count(50000);");
+        var output = tapSystemOutNormalized(() -> new VirtualMachine().interpret(statements));
+        assertThat(output, is(equalTo("50000\n")));
+    }
+
+    /**
+     * Tests {@link VirtualMachine#interpret(List)} reports stack overflow once calls nest beyond
+     * frame budget.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_reportsStackOverflow_givenRecursionBeyondFrameBudget() throws Exception {
+        var backend = new VirtualMachine();
+        backend.limitFrames(10);
+        var output = run(backend, "fun f(n) { return 1 + f(n + 1); }\nprint 1;\nf(0);");
+        assertThat(output, is(equalTo("1\nStack overflow.\n[line 1]\n")));
+    }
+
+    /**
+     * Tests {@link VirtualMachine#interpret(List)} runs tail calls in constant frames, including
+     * mutually recursive calls, calls from within blocks of closures, and calls in branches of
+     * returned conditional and logical expressions.
+     *
+     * @throws Exception Reading from standard streams threw exception.
+     */
+    @Test
+    void interpret_runsInConstantFrames_givenTailCalls() throws Exception {
+        var backend = new VirtualMachine();
+        backend.limitFrames(10);
+        var output =
+                run(
+                        backend,
+                        """
+                        fun count(n, acc) { if (n == 0) return acc; return count(n - 1, acc + 1); }
+                        fun even(n) { if (n == 0) return true; return odd(n - 1); }
+                        fun odd(n) { if (n == 0) return false; return even(n - 1); }
+                        fun outer(n) {
+                          fun inner(m) { if (m == 0) return n; return inner(m - 1); }
+                          { var x = 1; return inner(n); }
+                        }
+                        fun down(n) { return n == 0 ? "done" : down(n - 1); }
+                        fun any(n) { return n == 0 or (any(n - 1)); }
+                        print count(100000, 0);
+                        print even(100001);
+                        print outer(1000);
+                        print down(100000);
+                        print any(100000);
+                        """);
+        assertThat(output, is(equalTo("100000\nfalse\n1000\ndone\ntrue\n")));
+    }
+}